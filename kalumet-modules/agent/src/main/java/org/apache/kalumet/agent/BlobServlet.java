@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent;
+
+import org.apache.axis.encoding.Base64;
+import org.apache.kalumet.DigestCache;
+import org.apache.kalumet.FileManipulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Share the agent blob store with the peer agents.
+ * <p/>
+ * A blob is requested by digest (<code>/blobs/&lt;md5&gt;</code>) or by
+ * source (<code>/blobs/source?uri=&lt;uri&gt;&amp;validator=&lt;validator&gt;</code>),
+ * and is sent with its <code>Content-MD5</code>, so the peer checks the file
+ * it receives. A HEAD request checks if the blob is available.
+ * <p/>
+ * A blob is a strong entity, its <code>ETag</code> is its digest: a single
+ * byte range (<code>Range</code> header, honoured if the <code>If-Range</code>
+ * validator matches) is sent as a <code>206</code> partial content, so the
+ * peers download the large blobs by parallel chunks and resume them.
+ * <p/>
+ * The peer agents are trusted: a blob requested by digest is checked by the
+ * peer against the digest it expects, but a blob requested by source is
+ * only checked against the <code>Content-MD5</code> sent here, and the peer
+ * records this digest as the source digest. The peers requesting by source
+ * are the agents of the same Kalumet configuration (the peers are requested
+ * by digest whenever the digest is known).
+ * <p/>
+ * The blobs are sent by the WS server threads: the number of concurrent
+ * sends is bounded, so the peers fetching blobs don't starve the WS
+ * requests. When all the sends are in use, a <code>503</code> error is
+ * returned and the peer fetches the file elsewhere.
+ */
+public class BlobServlet
+    extends HttpServlet
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( BlobServlet.class );
+
+    private final static String SOURCE = "/source";
+
+    private final static String RETRY_AFTER = "10";
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    // the concurrent blob sends
+    final Semaphore sends;
+
+    /**
+     * Default constructor.
+     *
+     * @param maxSends the max number of concurrent blob sends.
+     */
+    public BlobServlet( int maxSends )
+    {
+        this.sends = new Semaphore( Math.max( maxSends, 1 ) );
+    }
+
+    protected void doHead( HttpServletRequest request, HttpServletResponse response )
+        throws ServletException, IOException
+    {
+        // a busy agent is not proposed to the peers
+        if ( this.sends.availablePermits() == 0 )
+        {
+            BlobServlet.busy( response );
+            return;
+        }
+        File blob = this.getBlob( request, response );
+        if ( blob != null )
+        {
+            BlobServlet.setEntityHeaders( blob, response );
+        }
+    }
+
+    protected void doGet( HttpServletRequest request, HttpServletResponse response )
+        throws ServletException, IOException
+    {
+        if ( !this.sends.tryAcquire() )
+        {
+            LOGGER.debug( "Too many blob sends, {} request rejected", request.getRemoteAddr() );
+            BlobServlet.busy( response );
+            return;
+        }
+        try
+        {
+            File blob = this.getBlob( request, response );
+            if ( blob == null )
+            {
+                return;
+            }
+            long length = blob.length();
+            long[] range = BlobServlet.getRange( request.getHeader( "Range" ), request.getHeader( "If-Range" ),
+                                                 BlobServlet.getETag( blob ), length );
+            if ( range != null && range.length == 0 )
+            {
+                response.setHeader( "Content-Range", "bytes */" + length );
+                response.sendError( HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE );
+                return;
+            }
+            long start = 0;
+            long count = length;
+            if ( range != null )
+            {
+                start = range[0];
+                count = range[1] - range[0] + 1;
+                response.setStatus( HttpServletResponse.SC_PARTIAL_CONTENT );
+                response.setHeader( "Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length );
+                response.setHeader( "Content-Length", Long.toString( count ) );
+            }
+            else
+            {
+                BlobServlet.setEntityHeaders( blob, response );
+            }
+            LOGGER.debug( "Send blob {} ({} bytes from {}) to {}", new Object[]{ blob.getName(), new Long( count ),
+                new Long( start ), request.getRemoteAddr() } );
+            RandomAccessFile file = new RandomAccessFile( blob, "r" );
+            try
+            {
+                file.seek( start );
+                OutputStream outputStream = response.getOutputStream();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while ( count > 0 )
+                {
+                    int read = file.read( buffer, 0, (int) Math.min( buffer.length, count ) );
+                    if ( read == -1 )
+                    {
+                        throw new IOException( "Premature end of blob " + blob.getName() );
+                    }
+                    outputStream.write( buffer, 0, read );
+                    count = count - read;
+                }
+            }
+            finally
+            {
+                file.close();
+            }
+        }
+        finally
+        {
+            this.sends.release();
+        }
+    }
+
+    private static void busy( HttpServletResponse response )
+        throws IOException
+    {
+        response.setHeader( "Retry-After", RETRY_AFTER );
+        response.sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+    }
+
+    /**
+     * Look for the requested blob and send the headers common to the whole
+     * blob and to its ranges.
+     *
+     * @param request  the HTTP request.
+     * @param response the HTTP response.
+     * @return the blob file, null if the blob is not found (a 404 error is sent).
+     * @throws IOException in case of response failure.
+     */
+    private File getBlob( HttpServletRequest request, HttpServletResponse response )
+        throws IOException
+    {
+        String path = request.getPathInfo();
+        File blob = null;
+        if ( SOURCE.equals( path ) )
+        {
+            blob = FileManipulator.getBlob( null, request.getParameter( "uri" ), request.getParameter( "validator" ) );
+        }
+        else if ( path != null && path.length() > 1 )
+        {
+            blob = FileManipulator.getBlob( path.substring( 1 ), null, null );
+        }
+        if ( blob == null )
+        {
+            response.sendError( HttpServletResponse.SC_NOT_FOUND );
+            return null;
+        }
+        response.setContentType( "application/octet-stream" );
+        response.setHeader( "Accept-Ranges", "bytes" );
+        response.setHeader( "ETag", BlobServlet.getETag( blob ) );
+        return blob;
+    }
+
+    /**
+     * Send the headers of the whole blob: its length and its digest.
+     *
+     * @param blob     the blob file.
+     * @param response the HTTP response.
+     */
+    private static void setEntityHeaders( File blob, HttpServletResponse response )
+    {
+        response.setHeader( "Content-Length", Long.toString( blob.length() ) );
+        // the blob is named by its digest
+        response.setHeader( "Content-MD5", Base64.encode( DigestCache.fromHex( blob.getName() ) ) );
+    }
+
+    private static String getETag( File blob )
+    {
+        return "\"" + blob.getName() + "\"";
+    }
+
+    /**
+     * Get the byte range requested on a blob. Only a single range is
+     * honoured, the whole blob is sent for multiple ranges.
+     *
+     * @param range   the <code>Range</code> header, null if not defined.
+     * @param ifRange the <code>If-Range</code> header, null if not defined.
+     * @param eTag    the blob ETag.
+     * @param length  the blob length.
+     * @return the range first and last positions, an empty array if the range is not satisfiable, null to send
+     *         the whole blob.
+     */
+    static long[] getRange( String range, String ifRange, String eTag, long length )
+    {
+        if ( range == null || !range.startsWith( "bytes=" ) || range.indexOf( ',' ) != -1 )
+        {
+            return null;
+        }
+        if ( ifRange != null && !ifRange.equals( eTag ) )
+        {
+            // the peer has another version, the whole blob is sent
+            return null;
+        }
+        String spec = range.substring( "bytes=".length() ).trim();
+        int separator = spec.indexOf( '-' );
+        if ( separator < 0 )
+        {
+            return null;
+        }
+        long first;
+        long last;
+        try
+        {
+            if ( separator == 0 )
+            {
+                // the suffix of the blob
+                long suffix = Long.parseLong( spec.substring( 1 ) );
+                if ( suffix <= 0 )
+                {
+                    return new long[0];
+                }
+                first = Math.max( length - suffix, 0 );
+                last = length - 1;
+            }
+            else if ( separator == spec.length() - 1 )
+            {
+                // from a position to the end of the blob
+                first = Long.parseLong( spec.substring( 0, separator ) );
+                last = length - 1;
+            }
+            else
+            {
+                first = Long.parseLong( spec.substring( 0, separator ) );
+                last = Long.parseLong( spec.substring( separator + 1 ) );
+            }
+        }
+        catch ( NumberFormatException numberFormatException )
+        {
+            // an invalid range is ignored
+            return null;
+        }
+        if ( last < first )
+        {
+            return null;
+        }
+        if ( first >= length )
+        {
+            return new long[0];
+        }
+        return new long[]{ first, Math.min( last, length - 1 ) };
+    }
+
+}
@@ -18,18 +18,462 @@
  */
 package org.apache.kalumet.agent;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.kalumet.KalumetException;
+import org.apache.kalumet.model.Agent;
+import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.Kalumet;
+import org.apache.kalumet.model.Property;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Static class to store Kalumet agent configuration.
+ * <p/>
+ * It also acts as the configuration provider of the agent: the parsed
+ * <code>Kalumet</code> is kept in memory and only re-parsed when the store
+ * really changed (mtime and size for <code>file:</code> locations, ETag,
+ * Last-Modified or content digest for <code>http:</code> locations).
+ * <p/>
+ * Calls dealing with a single environment can load only this environment
+ * (see <code>getEnvironmentKalumet()</code>). These partial configurations
+ * (properties, agents and the environment) are cached per environment, apart
+ * from the complete configuration cache.
  */
 public class Configuration
 {
 
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( Configuration.class );
+
     public static String CONFIG_LOCATION;
 
     public static String AGENT_ID;
 
     public static Kalumet CONFIG_CACHE = null;
 
+    private static String cacheLocation = null;
+
+    private static long cacheLastModified = -1;
+
+    private static long cacheLength = -1;
+
+    private static String cacheETag = null;
+
+    private static byte[] cacheDigest = null;
+
+    private static String cacheRevision = null;
+
+    // environment name -> EnvironmentCache
+    private final static Map ENVIRONMENT_CACHES = new HashMap();
+
+    private final static AtomicLong CACHE_HITS = new AtomicLong();
+
+    private final static AtomicLong CACHE_MISSES = new AtomicLong();
+
+    private final static AtomicLong PARSE_TIME = new AtomicLong();
+
+    /**
+     * Get the Kalumet configuration, re-parsing the store only if it changed
+     * since the last load.
+     *
+     * @return the Kalumet configuration.
+     * @throws KalumetException in case of configuration loading failure.
+     */
+    public static Kalumet getKalumet()
+        throws KalumetException
+    {
+        return Configuration.getKalumet( CONFIG_LOCATION );
+    }
+
+    /**
+     * Get the Kalumet configuration located at the given path, re-parsing
+     * the store only if it changed since the last load.
+     *
+     * @param path the Kalumet configuration location.
+     * @return the Kalumet configuration.
+     * @throws KalumetException in case of configuration loading failure.
+     */
+    public static synchronized Kalumet getKalumet( String path )
+        throws KalumetException
+    {
+        if ( CONFIG_CACHE == null || !path.equals( cacheLocation ) )
+        {
+            Configuration.invalidate();
+        }
+        Kalumet kalumet;
+        if ( path.startsWith( "http:" ) || path.startsWith( "HTTP:" ) )
+        {
+            kalumet = Configuration.loadFromHttp( path );
+        }
+        else
+        {
+            kalumet = Configuration.loadFromFile( path );
+        }
+        cacheLocation = path;
+        CONFIG_CACHE = kalumet;
+        return kalumet;
+    }
+
+    /**
+     * Get a Kalumet configuration containing at least the given environment,
+     * the properties and the agents.
+     * <p/>
+     * If the complete configuration is cached and still up to date, it's
+     * directly returned. Else, only the given environment is loaded from a
+     * <code>file:</code> store, the other environments being skipped, and
+     * cached for this environment: the complete configuration cache is left
+     * untouched.
+     *
+     * @param environmentName the environment name.
+     * @return the Kalumet configuration.
+     * @throws KalumetException in case of configuration loading failure.
+     */
+    public static synchronized Kalumet getEnvironmentKalumet( String environmentName )
+        throws KalumetException
+    {
+        String path = CONFIG_LOCATION;
+        if ( path.startsWith( "http:" ) || path.startsWith( "HTTP:" ) )
+        {
+            // the whole store is transferred anyway, use the complete configuration cache
+            return Configuration.getKalumet( path );
+        }
+        String filePath = path;
+        if ( filePath.startsWith( "file:" ) || filePath.startsWith( "FILE:" ) )
+        {
+            filePath = filePath.substring( 5 );
+        }
+        File file = new File( filePath );
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if ( CONFIG_CACHE != null && path.equals( cacheLocation ) && lastModified != 0
+            && lastModified == cacheLastModified && length == cacheLength )
+        {
+            LOGGER.debug( "Configuration {} not modified, using the cache", path );
+            CACHE_HITS.incrementAndGet();
+            return CONFIG_CACHE;
+        }
+        EnvironmentCache cache = (EnvironmentCache) ENVIRONMENT_CACHES.get( environmentName );
+        if ( cache != null && path.equals( cache.location ) && lastModified != 0
+            && lastModified == cache.lastModified && length == cache.length )
+        {
+            LOGGER.debug( "Configuration {} not modified, using the environment {} cache", path, environmentName );
+            CACHE_HITS.incrementAndGet();
+            return cache.kalumet;
+        }
+        LOGGER.debug( "Loading environment {} from configuration {}", environmentName, path );
+        CACHE_MISSES.incrementAndGet();
+        long start = System.currentTimeMillis();
+        Kalumet kalumet = Kalumet.digesteEnvironment( path, environmentName );
+        PARSE_TIME.addAndGet( System.currentTimeMillis() - start );
+        ENVIRONMENT_CACHES.put( environmentName, new EnvironmentCache( kalumet, path, lastModified, length ) );
+        return kalumet;
+    }
+
+    /**
+     * Invalidate the configuration cache, the next call to
+     * <code>getKalumet()</code> will re-parse the store.
+     */
+    public static synchronized void invalidate()
+    {
+        cacheLastModified = -1;
+        cacheLength = -1;
+        cacheETag = null;
+        cacheDigest = null;
+        cacheRevision = null;
+        ENVIRONMENT_CACHES.clear();
+    }
+
+    /**
+     * Get the number of configuration requests served from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public static long getCacheHits()
+    {
+        return CACHE_HITS.get();
+    }
+
+    /**
+     * Get the number of configuration requests which required a parsing of
+     * the store.
+     *
+     * @return the number of cache misses.
+     */
+    public static long getCacheMisses()
+    {
+        return CACHE_MISSES.get();
+    }
+
+    /**
+     * Get the cumulated time spent to parse the store.
+     *
+     * @return the parse time in milliseconds.
+     */
+    public static long getParseTime()
+    {
+        return PARSE_TIME.get();
+    }
+
+    /**
+     * Load a <code>file:</code> configuration store, using the file mtime
+     * and size to detect changes.
+     *
+     * @param path the Kalumet configuration location.
+     * @return the Kalumet configuration.
+     * @throws KalumetException in case of configuration loading failure.
+     */
+    private static Kalumet loadFromFile( String path )
+        throws KalumetException
+    {
+        String filePath = path;
+        if ( filePath.startsWith( "file:" ) || filePath.startsWith( "FILE:" ) )
+        {
+            filePath = filePath.substring( 5 );
+        }
+        File file = new File( filePath );
+        long lastModified = file.lastModified();
+        long length = file.length();
+        if ( CONFIG_CACHE != null && lastModified != 0 && lastModified == cacheLastModified
+            && length == cacheLength )
+        {
+            LOGGER.debug( "Configuration {} not modified, using the cache", path );
+            CACHE_HITS.incrementAndGet();
+            return CONFIG_CACHE;
+        }
+        LOGGER.debug( "Configuration {} modified, parsing it", path );
+        CACHE_MISSES.incrementAndGet();
+        long start = System.currentTimeMillis();
+        Kalumet kalumet = Kalumet.digeste( path );
+        PARSE_TIME.addAndGet( System.currentTimeMillis() - start );
+        cacheLastModified = lastModified;
+        cacheLength = length;
+        return kalumet;
+    }
+
+    /**
+     * Load a <code>http:</code> configuration store using a conditional GET.
+     * If the server doesn't support validators, the content digest is used
+     * to avoid parsing an unchanged store.
+     * <p/>
+     * If the server provides the store revision, the next requests ask only
+     * for the changes since this revision, which are merged in the cached
+     * configuration.
+     *
+     * @param path the Kalumet configuration location.
+     * @return the Kalumet configuration.
+     * @throws KalumetException in case of configuration loading failure.
+     */
+    private static Kalumet loadFromHttp( String path )
+        throws KalumetException
+    {
+        HttpURLConnection connection = null;
+        InputStream stream = null;
+        try
+        {
+            String url = path;
+            if ( CONFIG_CACHE != null && cacheRevision != null )
+            {
+                url = url + ( url.indexOf( '?' ) == -1 ? "?" : "&" ) + "revision=" + cacheRevision;
+            }
+            connection = (HttpURLConnection) new URL( url ).openConnection();
+            connection.setRequestProperty( "Accept-Encoding", "gzip" );
+            if ( CONFIG_CACHE != null )
+            {
+                if ( cacheETag != null )
+                {
+                    connection.setRequestProperty( "If-None-Match", cacheETag );
+                }
+                if ( cacheLastModified > 0 )
+                {
+                    connection.setIfModifiedSince( cacheLastModified );
+                }
+            }
+            if ( connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && CONFIG_CACHE != null )
+            {
+                LOGGER.debug( "Configuration {} not modified, using the cache", path );
+                CACHE_HITS.incrementAndGet();
+                return CONFIG_CACHE;
+            }
+            if ( connection.getResponseCode() != HttpURLConnection.HTTP_OK )
+            {
+                throw new KalumetException(
+                    "Can't read Kalumet configuration from " + path + " (HTTP " + connection.getResponseCode()
+                        + ")" );
+            }
+            stream = connection.getInputStream();
+            if ( "gzip".equalsIgnoreCase( connection.getContentEncoding() ) )
+            {
+                stream = new GZIPInputStream( stream );
+            }
+            byte[] content = IOUtils.toByteArray( stream );
+            cacheETag = connection.getHeaderField( "ETag" );
+            cacheLastModified = connection.getLastModified();
+            if ( CONFIG_CACHE != null && "true".equals( connection.getHeaderField( "X-Kalumet-Delta" ) ) )
+            {
+                LOGGER.debug( "Configuration {} modified, merging the changes since revision {}", path,
+                              cacheRevision );
+                CACHE_MISSES.incrementAndGet();
+                long start = System.currentTimeMillis();
+                Kalumet delta = Kalumet.digeste( new ByteArrayInputStream( content ) );
+                Kalumet kalumet =
+                    Configuration.merge( CONFIG_CACHE, delta, connection.getHeaderField( "X-Kalumet-Removed" ) );
+                PARSE_TIME.addAndGet( System.currentTimeMillis() - start );
+                cacheDigest = null;
+                cacheRevision = connection.getHeaderField( "X-Kalumet-Revision" );
+                return kalumet;
+            }
+            byte[] digest = MessageDigest.getInstance( "MD5" ).digest( content );
+            cacheRevision = connection.getHeaderField( "X-Kalumet-Revision" );
+            if ( CONFIG_CACHE != null && Arrays.equals( digest, cacheDigest ) )
+            {
+                LOGGER.debug( "Configuration {} content not changed, using the cache", path );
+                CACHE_HITS.incrementAndGet();
+                return CONFIG_CACHE;
+            }
+            LOGGER.debug( "Configuration {} modified, parsing it", path );
+            CACHE_MISSES.incrementAndGet();
+            long start = System.currentTimeMillis();
+            Kalumet kalumet = Kalumet.digeste( new ByteArrayInputStream( content ) );
+            PARSE_TIME.addAndGet( System.currentTimeMillis() - start );
+            cacheDigest = digest;
+            return kalumet;
+        }
+        catch ( KalumetException kalumetException )
+        {
+            Configuration.invalidate();
+            throw kalumetException;
+        }
+        catch ( Exception e )
+        {
+            Configuration.invalidate();
+            throw new KalumetException( "Can't read Kalumet configuration from " + path, e );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( stream );
+        }
+    }
+
+    /**
+     * Merge the configuration changes sent by the console in the cached
+     * configuration. The cached configuration is not modified, a new
+     * <code>Kalumet</code> is created (the unchanged elements are shared).
+     *
+     * @param base    the cached configuration.
+     * @param delta   the added and modified properties, agents and environments.
+     * @param removed the URL encoded keys of the removed elements, comma separated.
+     * @return the merged configuration.
+     */
+    private static Kalumet merge( Kalumet base, Kalumet delta, String removed )
+        throws Exception
+    {
+        Set removedKeys = new HashSet();
+        if ( removed != null )
+        {
+            String[] tokens = removed.split( "," );
+            for ( int i = 0; i < tokens.length; i++ )
+            {
+                if ( tokens[i].length() > 0 )
+                {
+                    removedKeys.add( URLDecoder.decode( tokens[i], "UTF-8" ) );
+                }
+            }
+        }
+        Kalumet kalumet = new Kalumet();
+        kalumet.setSecurity( base.getSecurity() );
+        for ( Iterator propertyIterator = base.getProperties().iterator(); propertyIterator.hasNext(); )
+        {
+            Property property = (Property) propertyIterator.next();
+            if ( !removedKeys.contains( "property:" + property.getName() ) )
+            {
+                Property changed = delta.getProperty( property.getName() );
+                kalumet.addProperty( ( changed != null ) ? changed : property );
+            }
+        }
+        for ( Iterator propertyIterator = delta.getProperties().iterator(); propertyIterator.hasNext(); )
+        {
+            Property property = (Property) propertyIterator.next();
+            if ( kalumet.getProperty( property.getName() ) == null )
+            {
+                kalumet.addProperty( property );
+            }
+        }
+        for ( Iterator agentIterator = base.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            if ( !removedKeys.contains( "agent:" + agent.getId() ) )
+            {
+                Agent changed = delta.getAgent( agent.getId() );
+                kalumet.addAgent( ( changed != null ) ? changed : agent );
+            }
+        }
+        for ( Iterator agentIterator = delta.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            if ( kalumet.getAgent( agent.getId() ) == null )
+            {
+                kalumet.addAgent( agent );
+            }
+        }
+        for ( Iterator environmentIterator = base.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        {
+            Environment environment = (Environment) environmentIterator.next();
+            if ( !removedKeys.contains( "environment:" + environment.getName() ) )
+            {
+                Environment changed = delta.getEnvironment( environment.getName() );
+                kalumet.addEnvironment( ( changed != null ) ? changed : environment );
+            }
+        }
+        for ( Iterator environmentIterator = delta.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        {
+            Environment environment = (Environment) environmentIterator.next();
+            if ( kalumet.getEnvironment( environment.getName() ) == null )
+            {
+                kalumet.addEnvironment( environment );
+            }
+        }
+        return kalumet;
+    }
+
+    /**
+     * Partial configuration loaded for a single environment, with the store
+     * state at load time.
+     */
+    private static class EnvironmentCache
+    {
+
+        private final Kalumet kalumet;
+
+        private final String location;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private EnvironmentCache( Kalumet kalumet, String location, long lastModified, long length )
+        {
+            this.kalumet = kalumet;
+            this.location = location;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+    }
+
 }
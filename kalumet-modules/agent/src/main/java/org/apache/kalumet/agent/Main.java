@@ -26,6 +26,7 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.utils.AgentUtils;
 import org.quartz.CronTrigger;
@@ -93,7 +94,7 @@ public final class Main
         String cronString = null;
         try
         {
-            kalumet = Kalumet.digeste( configLocation );
+            kalumet = Configuration.getKalumet( configLocation );
         }
         catch ( Exception e )
         {
@@ -117,11 +118,17 @@ public final class Main
         cronString = kalumet.getAgent( agentId ).getCron();
         LOGGER.debug( "Cron definition: " + cronString );
 
+        // init the artifacts downloader
+        SchedulerJob.setDownloader( kalumet, agentId );
+        SchedulerJob.setPeers( kalumet, agentId );
+
         // start the WS server
         try
         {
-            int port = kalumet.getAgent( agentId ).getPort();
-            WsServer wsServer = new WsServer( port, "/apache-kalumet.wsdd" );
+            Agent agent = kalumet.getAgent( agentId );
+            int port = agent.getPort();
+            WsServer wsServer =
+                new WsServer( port, agent.getMinwsthreads(), agent.getMaxwsthreads(), "/apache-kalumet.wsdd" );
             wsServer.start();
             LOGGER.info( "WS server started on {}", port );
         }
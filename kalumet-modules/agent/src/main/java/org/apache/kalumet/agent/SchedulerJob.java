@@ -18,7 +18,9 @@
  */
 package org.apache.kalumet.agent;
 
+import org.apache.kalumet.FileManipulator;
 import org.apache.kalumet.agent.updater.EnvironmentUpdater;
+import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.Kalumet;
 import org.quartz.JobExecutionContext;
@@ -27,10 +29,25 @@ import org.quartz.StatefulJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Kalumet job in the quartz scheduler.
+ * <p/>
+ * The environments managed by the agent are updated concurrently by a pool
+ * of workers, sized by the agent <code>maxparallelupdates</code> (one
+ * worker if not defined). An environment still updating when the job is
+ * triggered again is skipped.
  */
 public class SchedulerJob
     implements StatefulJob
@@ -38,6 +55,10 @@ public class SchedulerJob
 
     private final static transient Logger LOGGER = LoggerFactory.getLogger( SchedulerJob.class );
 
+    private static ThreadPoolExecutor EXECUTOR = null;
+
+    private final static Set RUNNING = new HashSet();
+
     public SchedulerJob()
     {
     }
@@ -54,26 +75,152 @@ public class SchedulerJob
         try
         {
             LOGGER.debug( "Loading Kalumet configuration" );
-            kalumet = Kalumet.digeste( path );
+            kalumet = Configuration.getKalumet( path );
         }
         catch ( Exception e )
         {
             LOGGER.error( "Can't load Apache Kalumet configuration from {}", path, e );
             throw new RuntimeException( "Can't load Apache Kalumet configuration from " + path, e );
         }
-        // loop to update all environments managed by the agent
+        int workers = 1;
+        Agent agent = kalumet.getAgent( agentId );
+        if ( agent != null && agent.getMaxparallelupdates() > 1 )
+        {
+            workers = agent.getMaxparallelupdates();
+        }
+        // release the artifacts and digests not used anymore by the environments caches
+        FileManipulator.collect();
+        // the download settings may have changed since the previous run
+        SchedulerJob.setDownloader( kalumet, agentId );
+        SchedulerJob.setPeers( kalumet, agentId );
+        ThreadPoolExecutor executor = SchedulerJob.getExecutor( workers );
+        // submit the update of all environments managed by the agent
         for ( Iterator environmentIterator = kalumet.getEnvironmentsByAgent( agentId ).iterator();
               environmentIterator.hasNext(); )
         {
+            final Environment environment = (Environment) environmentIterator.next();
+            synchronized ( RUNNING )
+            {
+                if ( !RUNNING.add( environment.getName() ) )
+                {
+                    LOGGER.info( "Environment {} is still updating, update skipped", environment.getName() );
+                    continue;
+                }
+            }
             try
             {
-                EnvironmentUpdater.update( (Environment) environmentIterator.next() );
+                executor.execute( new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            EnvironmentUpdater.update( environment );
+                        }
+                        catch ( Exception e )
+                        {
+                            // ignore
+                        }
+                        finally
+                        {
+                            synchronized ( RUNNING )
+                            {
+                                RUNNING.remove( environment.getName() );
+                            }
+                        }
+                    }
+                } );
             }
-            catch ( Exception e )
+            catch ( RejectedExecutionException rejectedExecutionException )
+            {
+                LOGGER.warn( "Can't submit environment {} update", environment.getName(), rejectedExecutionException );
+                synchronized ( RUNNING )
+                {
+                    RUNNING.remove( environment.getName() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the artifacts downloader from the agent <code>downloadthreads</code>
+     * and <code>downloadbandwidth</code>.
+     *
+     * @param kalumet the Kalumet configuration.
+     * @param agentId the Kalumet agent ID.
+     */
+    static void setDownloader( Kalumet kalumet, String agentId )
+    {
+        Agent agent = kalumet.getAgent( agentId );
+        if ( agent != null )
+        {
+            FileManipulator.setDownloader( agent.getDownloadthreads(), agent.getDownloadbandwidth() );
+        }
+    }
+
+    /**
+     * Define the other agents of the configuration as the peers sharing
+     * their blob store.
+     *
+     * @param kalumet the Kalumet configuration.
+     * @param agentId the Kalumet agent ID.
+     */
+    static void setPeers( Kalumet kalumet, String agentId )
+    {
+        List peers = new LinkedList();
+        for ( Iterator agentIterator = kalumet.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            if ( !agent.getId().equals( agentId ) && agent.getHostname() != null )
             {
-                // ignore
+                peers.add( "http://" + agent.getHostname() + ":" + agent.getPort() );
             }
         }
+        FileManipulator.setPeers( peers );
+    }
+
+    /**
+     * Get the update workers pool, resized to the given number of workers.
+     *
+     * @param workers the number of workers.
+     * @return the update workers pool.
+     */
+    private static synchronized ThreadPoolExecutor getExecutor( int workers )
+    {
+        if ( EXECUTOR == null )
+        {
+            EXECUTOR = new ThreadPoolExecutor( workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue(),
+                                               new UpdaterThreadFactory() );
+        }
+        else if ( workers > EXECUTOR.getMaximumPoolSize() )
+        {
+            EXECUTOR.setMaximumPoolSize( workers );
+            EXECUTOR.setCorePoolSize( workers );
+        }
+        else if ( workers < EXECUTOR.getMaximumPoolSize() )
+        {
+            EXECUTOR.setCorePoolSize( workers );
+            EXECUTOR.setMaximumPoolSize( workers );
+        }
+        return EXECUTOR;
+    }
+
+    /**
+     * Create the daemon threads of the update workers pool.
+     */
+    private static class UpdaterThreadFactory
+        implements ThreadFactory
+    {
+
+        private AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "Apache Kalumet updater " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
     }
 
     /**
@@ -85,4 +232,4 @@ public class SchedulerJob
         SchedulerJob.perform( Configuration.CONFIG_LOCATION, Configuration.AGENT_ID );
     }
 
-}
\ No newline at end of file
+}
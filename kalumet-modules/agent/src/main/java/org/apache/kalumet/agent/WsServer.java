@@ -20,31 +20,47 @@ package org.apache.kalumet.agent;
 
 import org.apache.axis.EngineConfiguration;
 import org.apache.axis.configuration.FileProvider;
-import org.apache.axis.transport.http.SimpleAxisServer;
+import org.apache.axis.server.AxisServer;
+import org.apache.axis.transport.http.AxisServlet;
 import org.apache.kalumet.KalumetException;
+import org.mortbay.jetty.Server;
+import org.mortbay.jetty.handler.ContextHandlerCollection;
+import org.mortbay.jetty.nio.SelectChannelConnector;
+import org.mortbay.jetty.servlet.Context;
+import org.mortbay.jetty.servlet.ServletHolder;
+import org.mortbay.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.net.ServerSocket;
+import java.io.InputStream;
 
 /**
  * Kalumet agent embedded HTTP WS server.
  * This embedded server listens for incoming SOAP messages. These messages come from Kalumet console or other WS clients.
+ * <p/>
+ * The connections are handled by a NIO connector: an idle (keep-alive)
+ * connection doesn't hold a thread, the threads of the pool are only used
+ * to process the requests. The services are exposed on
+ * <code>/axis/services/*</code>, as defined by the WebService Deployment
+ * Descriptor, and the agent blob store is shared with the peer agents on
+ * <code>/blobs/*</code> (the blob sends use a quarter of the threads at
+ * most).
  */
 public class WsServer
 {
 
     private final static transient Logger LOGGER = LoggerFactory.getLogger( WsServer.class );
 
-    private final static int MAX_POOL_SIZE = 500;
+    public final static int DEFAULT_MIN_THREADS = 2;
 
-    private final static int MAX_SESSIONS_NUMBER = 500;
+    public final static int DEFAULT_MAX_THREADS = 100;
 
-    private SimpleAxisServer simpleAxisServer;
+    private final static int MAX_IDLE_TIME = 60000;
+
+    private Server server;
 
     /**
-     * Create an embedded WS server.
+     * Create an embedded WS server with the default thread pool.
      *
      * @param port     the WS server listen port.
      * @param wsddFile the WebService Deployment Descriptor.
@@ -53,20 +69,70 @@ public class WsServer
     public WsServer( int port, String wsddFile )
         throws KalumetException
     {
-        simpleAxisServer = new SimpleAxisServer( MAX_POOL_SIZE, MAX_SESSIONS_NUMBER );
-        LOGGER.debug( "Creating WS server" );
-        LOGGER.debug( " Max pool size: " + MAX_POOL_SIZE );
-        LOGGER.debug( " Max sessions number: " + MAX_SESSIONS_NUMBER );
-        try
+        this( port, DEFAULT_MIN_THREADS, DEFAULT_MAX_THREADS, wsddFile );
+    }
+
+    /**
+     * Create an embedded WS server.
+     *
+     * @param port       the WS server listen port.
+     * @param minThreads the min number of threads processing the requests (the default if lower than 1).
+     * @param maxThreads the max number of threads processing the requests (the default if lower than 1).
+     * @param wsddFile   the WebService Deployment Descriptor.
+     * @throws KalumetException in case of WS server creation failure.
+     */
+    public WsServer( int port, int minThreads, int maxThreads, String wsddFile )
+        throws KalumetException
+    {
+        if ( maxThreads < 1 )
+        {
+            maxThreads = DEFAULT_MAX_THREADS;
+        }
+        if ( minThreads < 1 )
         {
-            simpleAxisServer.setServerSocket( new ServerSocket( port ) );
-            LOGGER.debug( "WS server started on port {}", port );
+            minThreads = Math.min( DEFAULT_MIN_THREADS, maxThreads );
         }
-        catch ( IOException e )
+        if ( minThreads > maxThreads )
         {
-            LOGGER.error( "Can't create WS server on port {}", port, e );
-            throw new KalumetException( "Can't create WS server on port " + port, e );
+            maxThreads = minThreads;
         }
+        LOGGER.debug( "Creating WS server" );
+        LOGGER.debug( " Min threads: " + minThreads );
+        LOGGER.debug( " Max threads: " + maxThreads );
+        final AxisServer axisServer = new AxisServer( getEngineConfiguration( wsddFile ) );
+
+        QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setName( "Apache Kalumet WS server" );
+        threadPool.setMinThreads( minThreads );
+        threadPool.setMaxThreads( maxThreads );
+        threadPool.setDaemon( true );
+
+        SelectChannelConnector connector = new SelectChannelConnector();
+        connector.setPort( port );
+        connector.setMaxIdleTime( MAX_IDLE_TIME );
+
+        server = new Server();
+        server.setThreadPool( threadPool );
+        server.addConnector( connector );
+        server.setSendServerVersion( false );
+        server.setStopAtShutdown( true );
+
+        ContextHandlerCollection contexts = new ContextHandlerCollection();
+        server.setHandler( contexts );
+
+        // the Axis servlet uses the engine configured by the WSDD
+        Context context = new Context( contexts, "/axis", Context.SESSIONS );
+        context.addServlet( new ServletHolder( new AxisServlet()
+        {
+            public AxisServer getEngine()
+            {
+                return axisServer;
+            }
+        } ), "/services/*" );
+
+        // the blob store shared with the peer agents, using a quarter of the threads at most
+        Context blobs = new Context( contexts, "/blobs", Context.NO_SESSIONS );
+        blobs.addServlet( new ServletHolder( new BlobServlet( maxThreads / 4 ) ), "/*" );
     }
 
     /**
@@ -80,7 +146,7 @@ public class WsServer
         try
         {
             LOGGER.debug( "Starting WS server in daemon mode" );
-            simpleAxisServer.start( true );
+            server.start();
         }
         catch ( Exception e )
         {
@@ -89,6 +155,26 @@ public class WsServer
         }
     }
 
+    /**
+     * Stop the WS server.
+     *
+     * @throws KalumetException in case of WS server shutdown failure.
+     */
+    public void stop()
+        throws KalumetException
+    {
+        try
+        {
+            LOGGER.debug( "Stopping WS server" );
+            server.stop();
+        }
+        catch ( Exception e )
+        {
+            LOGGER.error( "Can't stop WS server", e );
+            throw new KalumetException( "Can't stop WS server", e );
+        }
+    }
+
     /**
      * Define the WS server configuration.
      *
@@ -99,7 +185,12 @@ public class WsServer
     private EngineConfiguration getEngineConfiguration( String wsddFile )
         throws KalumetException
     {
-        return new FileProvider( getClass().getResourceAsStream( wsddFile ) );
+        InputStream wsdd = getClass().getResourceAsStream( wsddFile );
+        if ( wsdd == null )
+        {
+            throw new KalumetException( "WebService Deployment Descriptor " + wsddFile + " is not found" );
+        }
+        return new FileProvider( wsdd );
     }
 
 }
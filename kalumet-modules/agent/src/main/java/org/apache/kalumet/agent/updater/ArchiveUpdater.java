@@ -25,6 +25,7 @@ import org.apache.kalumet.agent.Configuration;
 import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Archive;
 import org.apache.kalumet.model.Environment;
@@ -41,6 +42,8 @@ import org.apache.kalumet.ws.client.ClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Date;
+
 /**
  * JEE application archive updater.
  */
@@ -57,17 +60,38 @@ public class ArchiveUpdater
      * @param applicationName the target JEE application name.
      * @param archiveName     the target archive name.
      * @param delegation      flag indicating if the update is a delegation from another agent (true), or a client call (false).
+     * @return the update start time (in milliseconds), deferred after the count down for a client call.
      * @throws UpdateException in case of update failure.
      */
-    public static void update( String environmentName, String serverName, String applicationName, String archiveName,
-                               boolean delegation )
+    public static long update( final String environmentName, final String serverName, final String applicationName,
+                               final String archiveName, boolean delegation )
+        throws KalumetException
+    {
+        return ArchiveUpdater.update( environmentName, serverName, applicationName, archiveName, delegation, false );
+    }
+
+    /**
+     * Wrapper method to update JEE application archive.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @param applicationName the target JEE application name.
+     * @param archiveName     the target archive name.
+     * @param delegation      flag indicating if the update is a delegation from another agent (true), or a client call (false).
+     * @param deferred        flag indicating if the update is a deferred update started at the end of the count down.
+     * @return the update start time (in milliseconds), deferred after the count down for a client call.
+     * @throws UpdateException in case of update failure.
+     */
+    private static long update( final String environmentName, final String serverName,
+                                final String applicationName, final String archiveName, boolean delegation,
+                                boolean deferred )
         throws KalumetException
     {
         LOGGER.info( "Archive {} update requested by WS", archiveName );
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -96,22 +120,45 @@ public class ArchiveUpdater
                 "Archive " + archiveName + " is not found in JEE application " + applicationName );
         }
 
-        // update configuration cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post journal event
-        EventUtils.post( environment, "UPDATE", "Archive " + archiveName + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Archive " + archiveName + " update requested by WS" );
+
+        if ( !delegation && !deferred && NotifierUtils.isDeferrable( environment ) )
+        {
+            // the update is a client call, started at the end of the count down
+            Date start = NotifierUtils.defer( environment, "Archive " + serverName + "/" + applicationName + "/"
+                + archiveName + " update", new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        ArchiveUpdater.update( environmentName, serverName, applicationName, archiveName, false,
+                                               true );
+                    }
+                    catch ( Exception e )
+                    {
+                        LOGGER.warn( "Archive {} update failed", archiveName, e );
+                    }
+                }
+            } );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Archive " + archiveName + " update scheduled at " + start );
+            return start.getTime();
+        }
+        long start = System.currentTimeMillis();
+
         // create an update logger
         UpdateLog updateLog =
-            new UpdateLog( "Archive " + archiveName + " update in progress ...", environment.getName(), environment );
+            new UpdateLog( "Archive " + archiveName + " update in progress ...", environment.getName(), environment,
+                           kalumet );
 
         if ( !delegation )
         {
             // the update is a client call
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
-            NotifierUtils.waitAndNotify( environment );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
+            NotifierUtils.waitAndNotify( environment, deferred );
         }
 
         try
@@ -122,7 +169,8 @@ public class ArchiveUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Archive {} update failed", archiveName, e );
-            EventUtils.post( environment, "ERROR", "Archive " + archiveName + " update failed: " + e.getMessage() );
+            EventUtils.post( kalumet, environment, "ERROR",
+                             "Archive " + archiveName + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
                 updateLog.setStatus( "Archive " + archiveName + " update failed" );
@@ -136,7 +184,7 @@ public class ArchiveUpdater
 
         // update completed
         LOGGER.info( "Archive {} updated", archive.getName() );
-        EventUtils.post( environment, "UPDATE", "Archive " + archive.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Archive " + archive.getName() + " updated" );
 
         if ( !delegation )
         {
@@ -152,6 +200,7 @@ public class ArchiveUpdater
             LOGGER.info( "Publishing update report" );
             PublisherUtils.publish( environment );
         }
+        return start;
     }
 
     /**
@@ -167,16 +216,36 @@ public class ArchiveUpdater
                                Archive archive, UpdateLog updateLog )
         throws UpdateException
     {
+        ArchiveUpdater.update( environment, server, application, archive, updateLog, null );
+    }
+
+    /**
+     * Update an archive, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param application the target <code>JEEApplication</code>.
+     * @param archive     the target <code>Archive</code>.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JEEApplication application,
+                        Archive archive, UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating archive {}", archive.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating archive " + archive.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating archive " + archive.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating archive " + archive.getName() );
 
         if ( !archive.isActive() )
         {
             LOGGER.info( "Archive {} is inactive, so not updated", archive.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "Archive " + archive.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "Archive " + archive.getName() + " is inactive, so not updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Archive " + archive.getName() + " is inactive, so not updated" );
             return;
         }
 
@@ -185,11 +254,11 @@ public class ArchiveUpdater
             Configuration.AGENT_ID ) )
         {
             LOGGER.info( "Delegating archive {} update to agent {}", archive.getName(), archive.getAgent() );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating archive " + archive.getName() + " update to agent " + archive.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating archive " + archive.getName()
                 + " update to agent " + archive.getAgent() ) );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( archive.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( archive.getAgent() );
             if ( delegationAgent == null )
             {
                 LOGGER.error( "Agent {} is not found in the configuration", archive.getAgent() );
@@ -266,16 +335,21 @@ public class ArchiveUpdater
             LOGGER.error( "Can't get the JEE application server {} controller", server.getName(), e );
             throw new UpdateException( "Can't get the JEE application server " + server.getName() + " controller", e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the archive is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         // check if the archive is already deployed
         try
         {
-            if ( controller.isJEEApplicationDeployed( archiveInstallation, archive.getName() ) )
+            if ( inventory.isJEEApplicationDeployed( archiveInstallation, archive.getName() ) )
             {
                 // the archive is already deployed, check for update
                 LOGGER.info( "Archive {} is already deployed, check for update", archive.getName() );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "Archive " + archive.getName()
                     + " is already deployed, check for update" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "Archive " + archive.getName() + " is already deployed, check for update" );
                 if ( !fileManipulator.checksumEquals( archiveUri, archiveCache ) )
                 {
@@ -287,23 +361,25 @@ public class ArchiveUpdater
                                  archive.getName(), archiveUri );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "Archive " + archive.getName() + " (located "
                         + archiveUri + ") is different from the cache, performing update" ) );
-                    EventUtils.post( environment, "UPDATE", "Archive " + archive.getName() + " (located " + archiveUri
-                        + ") is different from the cache, performing update" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "Archive " + archive.getName() + " (located " + archiveUri
+                                         + ") is different from the cache, performing update" );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "Copy " + archiveUri + " to " + archiveInstallation ) );
-                    EventUtils.post( environment, "UPDATE", "Copy " + archiveUri + " to " + archiveInstallation );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "Copy " + archiveUri + " to " + archiveInstallation );
                     // update the archive path
                     fileManipulator.copy( archiveUri, archiveInstallation );
                     // undeploy the archive
                     LOGGER.info( "Undeploying archive {}", archive.getName() );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "Undeploying archive " + archive.getName() ) );
-                    EventUtils.post( environment, "UPDATE", "Undeploying archive " + archive.getName() );
+                    EventUtils.post( kalumet, environment, "UPDATE", "Undeploying archive " + archive.getName() );
                     controller.undeployJEEApplication( archiveInstallation, archive.getName() );
                     // deploy the archive
                     LOGGER.info( "Deploying archive {}", archive.getName() );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "Deploying archive " + archive.getName() ) );
-                    EventUtils.post( environment, "UPDATE", "Deploying archive " + archive.getName() );
+                    EventUtils.post( kalumet, environment, "UPDATE", "Deploying archive " + archive.getName() );
                     controller.deployJEEApplication( archiveInstallation, archive.getName(),
                                                      archive.getClassloaderorder(), archive.getClassloaderpolicy(),
                                                      VariableUtils.replace( archive.getVhost(),
@@ -311,7 +387,7 @@ public class ArchiveUpdater
                     LOGGER.info( "Archive {} updated", archive.getName() );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "Archive " + archive.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE", "Archive " + archive.getName() + " updated" );
+                    EventUtils.post( kalumet, environment, "UPDATE", "Archive " + archive.getName() + " updated" );
                     updateLog.setUpdated( true );
                 }
             }
@@ -321,7 +397,7 @@ public class ArchiveUpdater
                 LOGGER.info( "Archive {} is not deployed, deploying it", archive.getName() );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "Archive " + archive.getName() + " is not deployed, deploying it" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "Archive " + archive.getName() + " is not deployed, deploying it" );
                 // copy the archive agent locally
                 fileManipulator.copy( archiveUri, archiveCache );
@@ -330,7 +406,7 @@ public class ArchiveUpdater
                 // deploy the archive
                 LOGGER.info( "Deploying archive {}", archive.getName() );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "Deploying archive " + archive.getName() ) );
-                EventUtils.post( environment, "UPDATE", "Deploying archive " + archive.getName() );
+                EventUtils.post( kalumet, environment, "UPDATE", "Deploying archive " + archive.getName() );
                 controller.deployJEEApplication( archiveInstallation, archive.getName(), archive.getClassloaderorder(),
                                                  archive.getClassloaderpolicy(),
                                                  VariableUtils.replace( archive.getVhost(),
@@ -365,6 +441,10 @@ public class ArchiveUpdater
             }
             throw new UpdateException( "Archive " + archive.getName() + " update failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -383,7 +463,7 @@ public class ArchiveUpdater
         LOGGER.info( "Checking status of archive {} via WS", archiveName );
         // load configuration
         LOGGER.debug( "Load configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -434,7 +514,30 @@ public class ArchiveUpdater
         LOGGER.debug( "Getting JEE application server controller" );
         JEEApplicationServerController controller =
             JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+        try
+        {
+            return check( environment, application, archive, new JEEApplicationServerInventory( controller ) );
+        }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
 
+    /**
+     * Check if a local JEE application archive is up to date, using a given JEE application server inventory.
+     *
+     * @param environment the environment.
+     * @param application the JEE application.
+     * @param archive     the archive.
+     * @param inventory   the JEE application server inventory.
+     * @return true if the archive is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JEEApplication application, Archive archive,
+                          JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
         FileManipulator fileManipulator = null;
         try
         {
@@ -464,7 +567,7 @@ public class ArchiveUpdater
             }
             String archiveInstallation = VariableUtils.replace( archive.getPath(), environment.getVariables() );
 
-            if ( controller.isJEEApplicationDeployed( archiveInstallation, archive.getName() ) )
+            if ( inventory.isJEEApplicationDeployed( archiveInstallation, archive.getName() ) )
             {
                 // check if the archive is deployed or not
                 if ( fileManipulator.checksumEquals( archiveUri, archiveCache ) )
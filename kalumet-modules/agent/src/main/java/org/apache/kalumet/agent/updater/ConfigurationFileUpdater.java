@@ -63,17 +63,18 @@ public class ConfigurationFileUpdater
                                ConfigurationFile configurationFile, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating configuration file {}", configurationFile.getName() );
         updateLog.addUpdateMessage(
             new UpdateMessage( "info", "Updating configuration file " + configurationFile.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating configuration file " + configurationFile.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating configuration file " + configurationFile.getName() );
 
         if ( !configurationFile.isActive() )
         {
             LOGGER.info( "Configuration file {} is inactive, so not updated", configurationFile.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Configuration file " + configurationFile.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Configuration file " + configurationFile.getName() + " is inactive, so not updated" );
             return;
         }
@@ -86,10 +87,10 @@ public class ConfigurationFileUpdater
                          configurationFile.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating the configuration file "
                 + configurationFile.getName() + " update to agent " + configurationFile.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating the configuration file " + configurationFile.getName() + " update to agent "
                                  + configurationFile.getAgent() );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( configurationFile.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( configurationFile.getAgent() );
             if ( delegationAgent == null )
             {
                 // the delegation agent is not found
@@ -195,7 +196,7 @@ public class ConfigurationFileUpdater
                 LOGGER.info( "Configuration file {} updated", configurationFile.getName() );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "Configuration file " + configurationFile.getName() + " updated" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "Configuration file " + configurationFile.getName() + " updated" );
             }
         }
@@ -233,7 +234,7 @@ public class ConfigurationFileUpdater
 
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -264,23 +265,19 @@ public class ConfigurationFileUpdater
                 "Configuration file " + configurationFileName + " is not found in JEE application " + applicationName );
         }
 
-        // update cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post event and create update logger
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Configuration file " + configurationFile.getName() + " update requested by WS" );
         UpdateLog updateLog =
             new UpdateLog( "Configuration file " + configurationFile.getName() + " update in progress ...",
-                           environment.getName(), environment );
+                           environment.getName(), environment, kalumet );
 
         // send and wait a notification if it's not a delegation
         if ( !delegation )
         {
             // it's a client call
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -294,7 +291,7 @@ public class ConfigurationFileUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Configuration file {} update failed", configurationFile.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Configuration file " + configurationFile.getName() + " update failed: "
                                  + e.getMessage() );
             if ( !delegation )
@@ -311,7 +308,8 @@ public class ConfigurationFileUpdater
         }
 
         LOGGER.info( "Configuration file {} updated", configurationFile.getName() );
-        EventUtils.post( environment, "UPDATE", "Configuration file " + configurationFile.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Configuration file " + configurationFile.getName() + " updated" );
         if ( !delegation )
         {
             if ( updateLog.isUpdated() )
@@ -347,7 +345,7 @@ public class ConfigurationFileUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
@@ -385,7 +383,7 @@ public class ConfigurationFileUpdater
             // the check needs to be delegate to another agent
             LOGGER.info( "Delegating configuration file {} check to agent {}", configurationFile.getName(),
                          configurationFile.getAgent() );
-            Agent agentDelegation = Configuration.CONFIG_CACHE.getAgent( configurationFile.getAgent() );
+            Agent agentDelegation = kalumet.getAgent( configurationFile.getAgent() );
             if ( agentDelegation == null )
             {
                 LOGGER.error( "Agent {} is not found in the configuration", configurationFile.getAgent() );
@@ -398,6 +396,21 @@ public class ConfigurationFileUpdater
             return client.check( environmentName, serverName, applicationName, configurationFileName );
         }
 
+        return check( environment, application, configurationFile );
+    }
+
+    /**
+     * Check if a local JEE application configuration file is up to date.
+     *
+     * @param environment       the environment.
+     * @param application       the JEE application.
+     * @param configurationFile the configuration file.
+     * @return true if the configuration file is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JEEApplication application, ConfigurationFile configurationFile )
+        throws KalumetException
+    {
         // initialize the file manipulator.
         LOGGER.debug( "Initializing file manipulator" );
         FileManipulator fileManipulator = new FileManipulator();
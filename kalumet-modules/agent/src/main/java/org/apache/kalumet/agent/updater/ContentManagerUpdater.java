@@ -63,10 +63,11 @@ public class ContentManagerUpdater
                                ContentManager contentManager, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating content manager {}", contentManager.getName() );
         updateLog.addUpdateMessage(
             new UpdateMessage( "info", "Updating content manager " + contentManager.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating content manager " + contentManager.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating content manager " + contentManager.getName() );
 
         if ( !contentManager.isActive() )
         {
@@ -74,7 +75,7 @@ public class ContentManagerUpdater
             LOGGER.info( "Content manager {} is inactive, so not updated", contentManager.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Content manager " + contentManager.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Content manager " + contentManager.getName() + " is inactive, so not updated" );
             return;
         }
@@ -88,10 +89,10 @@ public class ContentManagerUpdater
             updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                            "Delegating content manager " + contentManager.getName()
                                                                + " update to agent " + contentManager.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating content manager " + contentManager.getName() + " update to agent "
                                  + contentManager.getAgent() );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( contentManager.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( contentManager.getAgent() );
             if ( delegationAgent == null )
             {
                 // the content manager agent is not found in the configuration
@@ -141,7 +142,8 @@ public class ContentManagerUpdater
             updateLog.setUpdated( true );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "Content manager " + contentManager.getName() + " updated" ) );
-            EventUtils.post( environment, "UPDATE", "Content manager " + contentManager.getName() + " updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Content manager " + contentManager.getName() + " updated" );
         }
         catch ( Exception e )
         {
@@ -168,7 +170,7 @@ public class ContentManagerUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects.
         Environment environment = kalumet.getEnvironment( environmentName );
@@ -204,22 +206,18 @@ public class ContentManagerUpdater
                 "Content manager " + contentManagerName + " is not found in JEE application " + application.getName() );
         }
 
-        // update configuration cache.
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post event and create an update log
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Content manager " + contentManager.getName() + " update requested by WS" );
         UpdateLog updateLog = new UpdateLog( "Content manager " + contentManager.getName() + " update in progress ...",
-                                             environment.getName(), environment );
+                                             environment.getName(), environment, kalumet );
 
         if ( !delegation )
         {
             // the update is a client call,
             // send a notification and waiting for the count down
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -232,7 +230,7 @@ public class ContentManagerUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Content manager " + contentManager.getName() + " update failed", e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Content manager " + contentManager.getName() + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -246,7 +244,7 @@ public class ContentManagerUpdater
 
         // update completed
         LOGGER.info( "Content manager {} updated", contentManager.getName() );
-        EventUtils.post( environment, "UPDATE", "Content manager " + contentManager.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Content manager " + contentManager.getName() + " updated" );
         if ( !delegation )
         {
             if ( updateLog.isUpdated() )
@@ -60,9 +60,10 @@ public class DatabaseUpdater
                                Database database, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating database {}", database.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating database " + database.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating database " + database.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating database " + database.getName() );
 
         if ( !database.isActive() )
         {
@@ -70,7 +71,8 @@ public class DatabaseUpdater
             LOGGER.info( "Database {} is inactive, so not updated", database.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "Database " + database.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "Database " + database.getName() + " is inactive, so not updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Database " + database.getName() + " is inactive, so not updated" );
             return;
         }
 
@@ -81,9 +83,9 @@ public class DatabaseUpdater
             LOGGER.info( "Delegating database {} update to agent {}", database.getName(), database.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating database " + database.getName()
                 + " update to agent " + database.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating database " + database.getName() + " update to agent " + database.getAgent() );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( database.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( database.getAgent() );
             if ( delegationAgent == null )
             {
                 // database agent is not found in configuration
@@ -124,8 +126,9 @@ public class DatabaseUpdater
                     LOGGER.error( "SQL script {} execution failed", sqlScript.getName(), updateException );
                     updateLog.addUpdateMessage( new UpdateMessage( "error", "SQL script " + sqlScript.getName()
                         + " execution failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR", "SQL script " + sqlScript.getName() + " execution failed: "
-                        + updateException.getMessage() );
+                    EventUtils.post( kalumet, environment, "ERROR",
+                                     "SQL script " + sqlScript.getName() + " execution failed: "
+                                         + updateException.getMessage() );
                     throw new UpdateException( "SQL script " + sqlScript.getName() + " execution failed",
                                                updateException );
                 }
@@ -137,9 +140,10 @@ public class DatabaseUpdater
                         + " execution failed: " + updateException.getMessage() ) );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "SQL script " + sqlScript.getName()
                         + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "SQL script " + sqlScript.getName() + " execution failed: "
-                        + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "WARN",
+                                     "SQL script " + sqlScript.getName() + " execution failed: "
+                                         + updateException.getMessage() );
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "SQL script " + sqlScript.getName() + " is not update blocker, update continues" );
                 }
             }
@@ -148,7 +152,7 @@ public class DatabaseUpdater
         // update completed
         LOGGER.info( "Database {} updated", database.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Database " + database.getName() + " updated" ) );
-        EventUtils.post( environment, "UPDATE", "Database " + database.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Database " + database.getName() + " updated" );
     }
 
     /**
@@ -169,7 +173,7 @@ public class DatabaseUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -199,21 +203,18 @@ public class DatabaseUpdater
                 "Database " + databaseName + " is not found in JEE application " + applicationName );
         }
 
-        // update configuration cache.
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post journal event
-        EventUtils.post( environment, "UPDATE", "Database " + databaseName + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Database " + databaseName + " update requested by WS" );
         // create an update logger
         UpdateLog updateLog =
-            new UpdateLog( "Database " + databaseName + " update in progress ...", environment.getName(), environment );
+            new UpdateLog( "Database " + databaseName + " update in progress ...", environment.getName(), environment,
+                           kalumet );
 
         if ( !delegation )
         {
             // the update is requested by a client
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -226,7 +227,7 @@ public class DatabaseUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Database {} update failed", database.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Database " + database.getName() + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -241,7 +242,7 @@ public class DatabaseUpdater
 
         // update completed
         LOGGER.info( "Database {} updated", database.getName() );
-        EventUtils.post( environment, "UPDATE", "Database " + database.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Database " + database.getName() + " updated" );
         if ( !delegation )
         {
             if ( updateLog.isUpdated() )
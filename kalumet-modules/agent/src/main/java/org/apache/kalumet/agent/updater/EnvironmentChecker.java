@@ -0,0 +1,442 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent.updater;
+
+import org.apache.kalumet.KalumetException;
+import org.apache.kalumet.agent.Configuration;
+import org.apache.kalumet.agent.utils.EventUtils;
+import org.apache.kalumet.controller.core.JEEApplicationServerController;
+import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
+import org.apache.kalumet.model.Archive;
+import org.apache.kalumet.model.ConfigurationFile;
+import org.apache.kalumet.model.Environment;
+import org.apache.kalumet.model.JDBCConnectionPool;
+import org.apache.kalumet.model.JDBCDataSource;
+import org.apache.kalumet.model.JEEApplication;
+import org.apache.kalumet.model.JEEApplicationServer;
+import org.apache.kalumet.model.JMSConnectionFactory;
+import org.apache.kalumet.model.JMSServer;
+import org.apache.kalumet.model.JNDIBinding;
+import org.apache.kalumet.model.Kalumet;
+import org.apache.kalumet.model.SharedLibrary;
+import org.apache.kalumet.ws.client.CheckResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Environment checker (via WS).
+ * <p/>
+ * Check all the resources of an environment (or of a JEE application
+ * server) in one call: the configuration is loaded once, each JEE
+ * application server controller and inventory are fetched once and shared
+ * by the checks of the server resources, and the JEE application servers are
+ * checked concurrently (see <code>UpdateGraph.PARALLELISM_PROPERTY</code>). A
+ * resource check failure is reported in the resource <code>CheckResult</code>
+ * and doesn't stop the other checks.
+ */
+public class EnvironmentChecker
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( EnvironmentChecker.class );
+
+    /**
+     * Check of a resource.
+     */
+    private static abstract class Check
+    {
+
+        /**
+         * Check the resource.
+         *
+         * @return true if the resource is up to date, false else.
+         * @throws KalumetException in case of check failure.
+         */
+        abstract boolean check()
+            throws KalumetException;
+
+    }
+
+    /**
+     * Wrapper method to check all the resources of an environment via WS.
+     *
+     * @param environmentName the target environment name.
+     * @return the status of each resource.
+     * @throws KalumetException in case of check failure.
+     */
+    public static CheckResult[] check( String environmentName )
+        throws KalumetException
+    {
+        LOGGER.info( "Environment {} check requested by WS", environmentName );
+
+        // load configuration
+        LOGGER.debug( "Loading configuration" );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
+        Environment environment = kalumet.getEnvironment( environmentName );
+        if ( environment == null )
+        {
+            LOGGER.error( "Environment {} is not found in the configuration", environmentName );
+            throw new KalumetException( "Environment " + environmentName + " is not found in the configuration" );
+        }
+
+        // post an event
+        EventUtils.post( kalumet, environment, "INFO", "Environment " + environmentName + " check requested by WS" );
+
+        return check( kalumet, environment, environment.getJEEApplicationServers().getJEEApplicationServers() );
+    }
+
+    /**
+     * Wrapper method to check all the resources of a JEE application server via WS.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @return the status of each resource.
+     * @throws KalumetException in case of check failure.
+     */
+    public static CheckResult[] checkJEEApplicationServer( String environmentName, String serverName )
+        throws KalumetException
+    {
+        LOGGER.info( "JEE application server {} check requested by WS", serverName );
+
+        // load configuration
+        LOGGER.debug( "Loading configuration" );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
+        Environment environment = kalumet.getEnvironment( environmentName );
+        if ( environment == null )
+        {
+            LOGGER.error( "Environment {} is not found in the configuration", environmentName );
+            throw new KalumetException( "Environment " + environmentName + " is not found in the configuration" );
+        }
+        JEEApplicationServer applicationServer =
+            environment.getJEEApplicationServers().getJEEApplicationServer( serverName );
+        if ( applicationServer == null )
+        {
+            LOGGER.error( "JEE application server {} is not found in environment {}", serverName, environmentName );
+            throw new KalumetException(
+                "JEE application server " + serverName + " is not found in environment " + environmentName );
+        }
+
+        // post an event
+        EventUtils.post( kalumet, environment, "INFO",
+                         "JEE application server " + serverName + " check requested by WS" );
+
+        List applicationServers = new LinkedList();
+        applicationServers.add( applicationServer );
+        return check( kalumet, environment, applicationServers );
+    }
+
+    /**
+     * Check JEE application servers concurrently.
+     *
+     * @param kalumet            the configuration.
+     * @param environment        the environment.
+     * @param applicationServers the JEE application servers to check.
+     * @return the status of each resource, in the order of the configuration.
+     * @throws KalumetException in case of check failure.
+     */
+    private static CheckResult[] check( Kalumet kalumet, final Environment environment, List applicationServers )
+        throws KalumetException
+    {
+        final List[] serverResults = new List[applicationServers.size()];
+        UpdateGraph graph = new UpdateGraph();
+        int index = 0;
+        for ( Iterator iterator = applicationServers.iterator(); iterator.hasNext(); )
+        {
+            final JEEApplicationServer applicationServer = (JEEApplicationServer) iterator.next();
+            final int serverIndex = index++;
+            graph.add( new UpdateGraph.Task( "JEE application server " + applicationServer.getName() + " check" )
+            {
+                void run()
+                {
+                    serverResults[serverIndex] = EnvironmentChecker.check( environment, applicationServer );
+                }
+            } );
+        }
+        try
+        {
+            graph.execute( UpdateGraph.getParallelism() );
+        }
+        catch ( UpdateException updateException )
+        {
+            LOGGER.error( "Environment {} check failed", environment.getName(), updateException );
+            throw new KalumetException( "Environment " + environment.getName() + " check failed", updateException );
+        }
+        List results = new LinkedList();
+        for ( int i = 0; i < serverResults.length; i++ )
+        {
+            results.addAll( serverResults[i] );
+        }
+        return (CheckResult[]) results.toArray( new CheckResult[results.size()] );
+    }
+
+    /**
+     * Check a JEE application server and all its resources, sharing the
+     * same controller.
+     *
+     * @param environment       the environment.
+     * @param applicationServer the JEE application server.
+     * @return the list of <code>CheckResult</code>s.
+     */
+    private static List check( final Environment environment, final JEEApplicationServer applicationServer )
+    {
+        final String serverName = applicationServer.getName();
+        List results = new LinkedList();
+
+        // get the JEE application server controller, shared by all checks
+        CheckResult serverResult = new CheckResult( CheckResult.JEE_APPLICATION_SERVER, serverName, null, serverName );
+        results.add( serverResult );
+        JEEApplicationServerController serverController = null;
+        try
+        {
+            LOGGER.debug( "Getting JEE application server {} controller", serverName );
+            serverController = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            serverResult.setStatus( serverController.status() );
+            serverResult.setUptodate( true );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "JEE application server {} status check failed", serverName, e );
+            serverResult.setError( e.getMessage() );
+        }
+        final JEEApplicationServerController controller = serverController;
+
+        // get the JEE application server inventory, shared by all checks
+        JEEApplicationServerInventory serverInventory = null;
+        if ( controller != null )
+        {
+            try
+            {
+                serverInventory = controller.getInventory();
+            }
+            catch ( Exception e )
+            {
+                LOGGER.warn( "Can't get JEE application server {} inventory, the resources will be checked one by one",
+                             serverName, e );
+                serverInventory = new JEEApplicationServerInventory( controller );
+            }
+        }
+        final JEEApplicationServerInventory inventory = serverInventory;
+
+        // check JDBC connection pools
+        for ( Iterator iterator = applicationServer.getJDBCConnectionPools().iterator(); iterator.hasNext(); )
+        {
+            final JDBCConnectionPool connectionPool = (JDBCConnectionPool) iterator.next();
+            CheckResult result =
+                new CheckResult( CheckResult.JDBC_CONNECTION_POOL, serverName, null, connectionPool.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    return JDBCConnectionPoolUpdater.check( environment, connectionPool, inventory );
+                }
+            } );
+        }
+
+        // check JDBC data sources
+        for ( Iterator iterator = applicationServer.getJDBCDataSources().iterator(); iterator.hasNext(); )
+        {
+            final JDBCDataSource dataSource = (JDBCDataSource) iterator.next();
+            CheckResult result =
+                new CheckResult( CheckResult.JDBC_DATA_SOURCE, serverName, null, dataSource.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    JDBCConnectionPool connectionPool =
+                        applicationServer.getJDBCConnectionPool( dataSource.getPool() );
+                    if ( connectionPool == null )
+                    {
+                        throw new KalumetException( "JDBC connection pool " + dataSource.getPool()
+                                                        + " is not found in JEE application server " + serverName );
+                    }
+                    return JDBCDataSourceUpdater.check( environment, dataSource, connectionPool, inventory );
+                }
+            } );
+        }
+
+        // check JMS connection factories
+        for ( Iterator iterator = applicationServer.getJMSConnectionFactories().iterator(); iterator.hasNext(); )
+        {
+            final JMSConnectionFactory jmsConnectionFactory = (JMSConnectionFactory) iterator.next();
+            CheckResult result =
+                new CheckResult( CheckResult.JMS_CONNECTION_FACTORY, serverName, null, jmsConnectionFactory.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    return JMSConnectionFactoryUpdater.check( environment, jmsConnectionFactory, inventory );
+                }
+            } );
+        }
+
+        // check JMS servers
+        for ( Iterator iterator = applicationServer.getJMSServers().iterator(); iterator.hasNext(); )
+        {
+            final JMSServer jmsServer = (JMSServer) iterator.next();
+            CheckResult result = new CheckResult( CheckResult.JMS_SERVER, serverName, null, jmsServer.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    return JMSServerUpdater.check( environment, jmsServer, inventory );
+                }
+            } );
+        }
+
+        // check JNDI bindings
+        for ( Iterator iterator = applicationServer.getJNDIBindings().iterator(); iterator.hasNext(); )
+        {
+            final JNDIBinding jndiBinding = (JNDIBinding) iterator.next();
+            CheckResult result = new CheckResult( CheckResult.JNDI_BINDING, serverName, null, jndiBinding.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    return JNDIBindingUpdater.check( environment, jndiBinding, inventory );
+                }
+            } );
+        }
+
+        // check shared libraries
+        for ( Iterator iterator = applicationServer.getSharedLibraries().iterator(); iterator.hasNext(); )
+        {
+            final SharedLibrary sharedLibrary = (SharedLibrary) iterator.next();
+            CheckResult result =
+                new CheckResult( CheckResult.SHARED_LIBRARY, serverName, null, sharedLibrary.getName() );
+            check( results, result, controller != null, new Check()
+            {
+                boolean check()
+                    throws KalumetException
+                {
+                    return SharedLibraryUpdater.check( environment, sharedLibrary, inventory );
+                }
+            } );
+        }
+
+        // check JEE applications archives and configuration files
+        for ( Iterator iterator = applicationServer.getJEEApplications().iterator(); iterator.hasNext(); )
+        {
+            final JEEApplication application = (JEEApplication) iterator.next();
+            for ( Iterator archiveIterator = application.getArchives().iterator(); archiveIterator.hasNext(); )
+            {
+                final Archive archive = (Archive) archiveIterator.next();
+                CheckResult result =
+                    new CheckResult( CheckResult.ARCHIVE, serverName, application.getName(), archive.getName() );
+                if ( isDelegated( archive.getAgent() ) )
+                {
+                    // the wrapper delegates the check to the other agent
+                    check( results, result, true, new Check()
+                    {
+                        boolean check()
+                            throws KalumetException
+                        {
+                            return ArchiveUpdater.check( environment.getName(), serverName, application.getName(),
+                                                         archive.getName() );
+                        }
+                    } );
+                }
+                else
+                {
+                    check( results, result, controller != null, new Check()
+                    {
+                        boolean check()
+                            throws KalumetException
+                        {
+                            return ArchiveUpdater.check( environment, application, archive, inventory );
+                        }
+                    } );
+                }
+            }
+            for ( Iterator configurationFileIterator = application.getConfigurationFiles().iterator();
+                  configurationFileIterator.hasNext(); )
+            {
+                final ConfigurationFile configurationFile = (ConfigurationFile) configurationFileIterator.next();
+                CheckResult result = new CheckResult( CheckResult.CONFIGURATION_FILE, serverName, application.getName(),
+                                                      configurationFile.getName() );
+                check( results, result, true, new Check()
+                {
+                    boolean check()
+                        throws KalumetException
+                    {
+                        if ( isDelegated( configurationFile.getAgent() ) )
+                        {
+                            // the wrapper delegates the check to the other agent
+                            return ConfigurationFileUpdater.check( environment.getName(), serverName,
+                                                                   application.getName(),
+                                                                   configurationFile.getName() );
+                        }
+                        return ConfigurationFileUpdater.check( environment, application, configurationFile );
+                    }
+                } );
+            }
+        }
+
+        // the checks catch their failures, the controller is given back once they're done
+        JEEApplicationServerControllerFactory.returnController( controller );
+        return results;
+    }
+
+    /**
+     * Perform a resource check and store its status.
+     *
+     * @param results   the list of <code>CheckResult</code>s.
+     * @param result    the resource <code>CheckResult</code>.
+     * @param available false if the JEE application server controller required by the check is not available.
+     * @param check     the resource check.
+     */
+    private static void check( List results, CheckResult result, boolean available, Check check )
+    {
+        results.add( result );
+        if ( !available )
+        {
+            result.setError( "JEE application server " + result.getServer() + " controller is not available" );
+            return;
+        }
+        try
+        {
+            result.setUptodate( check.check() );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Check of {} {} failed", result.getType(), result.getName(), e );
+            result.setError( e.getMessage() );
+        }
+    }
+
+    /**
+     * Check if a resource is managed by another agent.
+     *
+     * @param agent the agent ID of the resource.
+     * @return true if the resource is managed by another agent, false else.
+     */
+    private static boolean isDelegated( String agent )
+    {
+        return agent != null && agent.trim().length() > 0 && !agent.equals( Configuration.AGENT_ID );
+    }
+
+}
@@ -32,7 +32,14 @@ import org.apache.kalumet.utils.PublisherUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Environment updater.
@@ -42,18 +49,40 @@ public class EnvironmentUpdater
 
     private final static transient Logger LOGGER = LoggerFactory.getLogger( EnvironmentUpdater.class );
 
+    // environment name -> update lock, only for the environments being updated (or waiting for their update)
+    private final static Map LOCKS = new HashMap();
+
     /**
      * Updates an environment identified by a given name.
      * The update is forced even if the auto update flag is set to false.
+     * <p/>
+     * If the environment defines a notification count down, the update is
+     * deferred at the end of the count down and the call returns immediately.
      *
      * @param name the environment name.
+     * @return the update start time (in milliseconds).
      * @throws KalumetException
      */
-    public static void update( String name )
+    public static long update( final String name )
+        throws KalumetException
+    {
+        return EnvironmentUpdater.update( name, false );
+    }
+
+    /**
+     * Updates an environment identified by a given name.
+     * The update is forced even if the auto update flag is set to false.
+     *
+     * @param name     the environment name.
+     * @param deferred true if the update is a deferred update started at the end of the count down, false else.
+     * @return the update start time (in milliseconds).
+     * @throws KalumetException
+     */
+    private static long update( final String name, boolean deferred )
         throws KalumetException
     {
         // load the Kalumet configuration
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getKalumet();
         // get the environment
         Environment environment = kalumet.getEnvironment( name );
         if ( environment == null )
@@ -61,14 +90,35 @@ public class EnvironmentUpdater
             LOGGER.error( "Environment {} is not found in the configuration", name );
             throw new KalumetException( "Environment " + name + " is not found in the configuration" );
         }
+        if ( !deferred && NotifierUtils.isDeferrable( environment ) )
+        {
+            Date start = NotifierUtils.defer( environment, "Update", new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        EnvironmentUpdater.update( name, true );
+                    }
+                    catch ( Exception e )
+                    {
+                        LOGGER.warn( "Environment {} update failed", name, e );
+                    }
+                }
+            } );
+            EventUtils.post( kalumet, environment, "UPDATE", "Update scheduled at " + start );
+            return start.getTime();
+        }
+        long start = System.currentTimeMillis();
         try
         {
-            EnvironmentUpdater.update( environment, true );
+            EnvironmentUpdater.update( environment, true, deferred );
         }
         catch ( Exception e )
         {
             throw new KalumetException( e );
         }
+        return start;
     }
 
     /**
@@ -85,6 +135,9 @@ public class EnvironmentUpdater
 
     /**
      * Updates an environment.
+     * <p/>
+     * The updates of a same environment are serialized: if the environment
+     * is already updating, the call waits for the end of the running update.
      *
      * @param environment the environment to update.
      * @param force       true force the update (even if the autoupdate flag is false), false else
@@ -92,6 +145,89 @@ public class EnvironmentUpdater
      */
     public static void update( Environment environment, boolean force )
         throws UpdateException
+    {
+        EnvironmentUpdater.update( environment, force, false );
+    }
+
+    /**
+     * Updates an environment.
+     *
+     * @param environment the environment to update.
+     * @param force       true force the update (even if the autoupdate flag is false), false else
+     * @param deferred    true if the update is a deferred update started at the end of the count down, false else.
+     * @throws UpdateException in case of update failure.
+     */
+    private static void update( Environment environment, boolean force, boolean deferred )
+        throws UpdateException
+    {
+        UpdateLock lock = EnvironmentUpdater.acquireLock( environment.getName() );
+        lock.lock();
+        try
+        {
+            EnvironmentUpdater.doUpdate( environment, force, deferred );
+        }
+        finally
+        {
+            lock.unlock();
+            EnvironmentUpdater.releaseLock( environment.getName(), lock );
+        }
+    }
+
+    /**
+     * Update lock of an environment, with the number of updates holding it
+     * or waiting for it.
+     */
+    private static class UpdateLock
+        extends ReentrantLock
+    {
+
+        // guarded by LOCKS
+        private int users;
+
+    }
+
+    /**
+     * Get the update lock of an environment, before locking it.
+     *
+     * @param name the environment name.
+     * @return the environment update lock.
+     */
+    private static UpdateLock acquireLock( String name )
+    {
+        synchronized ( LOCKS )
+        {
+            UpdateLock lock = (UpdateLock) LOCKS.get( name );
+            if ( lock == null )
+            {
+                lock = new UpdateLock();
+                LOCKS.put( name, lock );
+            }
+            lock.users++;
+            return lock;
+        }
+    }
+
+    /**
+     * Release the update lock of an environment, after unlocking it. The
+     * lock is removed when no other update holds it or waits for it.
+     *
+     * @param name the environment name.
+     * @param lock the environment update lock.
+     */
+    private static void releaseLock( String name, UpdateLock lock )
+    {
+        synchronized ( LOCKS )
+        {
+            lock.users--;
+            if ( lock.users == 0 )
+            {
+                LOCKS.remove( name );
+            }
+        }
+    }
+
+    private static void doUpdate( Environment environment, boolean force, boolean deferred )
+        throws UpdateException
     {
         LOGGER.info( "Updating environment {}", environment.getName() );
 
@@ -99,13 +235,12 @@ public class EnvironmentUpdater
         Kalumet kalumet = null;
         try
         {
-            kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
-            Configuration.CONFIG_CACHE = kalumet;
+            kalumet = Configuration.getKalumet();
         }
         catch ( Exception e )
         {
             LOGGER.error( "Can't load configuration", e );
-            EventUtils.post( environment, "ERROR", "Can't load configuration: " + e.getMessage() );
+            EventUtils.post( kalumet, environment, "ERROR", "Can't load configuration: " + e.getMessage() );
             throw new UpdateException( "Can't load configuration", e );
         }
 
@@ -121,47 +256,126 @@ public class EnvironmentUpdater
         try
         {
             updateLog = new UpdateLog( "Environment " + environment.getName() + " update in progress ...",
-                                       environment.getName(), environment );
+                                       environment.getName(), environment, kalumet );
         }
         catch ( Exception e )
         {
             LOGGER.error( "Can't create the update logger", e );
-            EventUtils.post( environment, "ERROR", "Can't create the update logger: " + e.getMessage() );
+            EventUtils.post( kalumet, environment, "ERROR", "Can't create the update logger: " + e.getMessage() );
             throw new UpdateException( "Can't create the update logger", e );
         }
 
         // posting start update event
-        EventUtils.post( environment, "UPDATE", "Starting to update ..." );
+        EventUtils.post( kalumet, environment, "UPDATE", "Starting to update ..." );
 
         LOGGER.info( "Sending a notification and waiting for the update count down" );
-        EventUtils.post( environment, "UPDATE", "Sending a notification and waiting for the update count donw" );
-        NotifierUtils.waitAndNotify( environment );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Sending a notification and waiting for the update count donw" );
+        NotifierUtils.waitAndNotify( environment, deferred );
 
         try
         {
-            // update softwares flagged "before JEE"
-            LOGGER.info( "Updating softwares flagged before JEE" );
+            // the softwares flagged "before JEE" are updated in order, then
+            // the JEE application servers (independently), then the other
+            // softwares in order
+            UpdateGraph graph = new UpdateGraph();
+            UpdateGraph.Task previous = null;
             for ( Iterator softwareIterator = environment.getSoftwares().iterator(); softwareIterator.hasNext(); )
             {
                 Software software = (Software) softwareIterator.next();
+                if ( software.isBeforejee() )
+                {
+                    previous = graph.add( EnvironmentUpdater.softwareTask( environment, software, updateLog ),
+                                          previous );
+                }
+            }
+            List servers = new LinkedList();
+            for ( Iterator jeeApplicationServersIterator =
+                      environment.getJEEApplicationServers().getJEEApplicationServers().iterator();
+                  jeeApplicationServersIterator.hasNext(); )
+            {
+                JEEApplicationServer jeeApplicationServer = (JEEApplicationServer) jeeApplicationServersIterator.next();
+                servers.add( graph.add(
+                    EnvironmentUpdater.jeeApplicationServerTask( kalumet, environment, jeeApplicationServer,
+                                                                 updateLog ), previous ) );
+            }
+            if ( previous != null )
+            {
+                servers.add( previous );
+            }
+            for ( Iterator softwaresIterator = environment.getSoftwares().iterator(); softwaresIterator.hasNext(); )
+            {
+                Software software = (Software) softwaresIterator.next();
+                if ( !software.isBeforejee() )
+                {
+                    previous = graph.add( EnvironmentUpdater.softwareTask( environment, software, updateLog ),
+                                          servers );
+                    servers = Collections.singletonList( previous );
+                }
+            }
+            LOGGER.info( "Updating softwares and JEE application servers" );
+            graph.execute( UpdateGraph.getParallelism() );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.error( "Update failed", e );
+            EventUtils.post( kalumet, environment, "ERROR", "Update failed: " + e.getMessage() );
+            updateLog.setStatus( "Environment " + environment.getName() + " update failed" );
+            updateLog.addUpdateMessage( new UpdateMessage( "error", "Update failed: " + e.getMessage() ) );
+            LOGGER.info( "Publishing update report" );
+            PublisherUtils.publish( environment );
+            throw new UpdateException( "Update failed", e );
+        }
+
+        // publish update result
+        LOGGER.info( "Publishing update report" );
+        if ( updateLog.isUpdated() )
+        {
+            updateLog.setStatus( "Environment " + environment.getName() + " updated" );
+        }
+        else
+        {
+            updateLog.setStatus( "Environment " + environment.getName() + " already up to date" );
+        }
+        updateLog.addUpdateMessage(
+            new UpdateMessage( "info", "Environment " + environment.getName() + " update completed" ) );
+        EventUtils.post( kalumet, environment, "UPDATE", "Environment " + environment.getName() + " update completed" );
+        LOGGER.info( "Publishing update report" );
+        PublisherUtils.publish( environment );
+
+        LOGGER.info( "Update completed" );
+    }
+
+    /**
+     * Create the update task of a software.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param software    the <code>Software</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @return the software update task, failing if the software is update blocker.
+     */
+    private static UpdateGraph.Task softwareTask( final Environment environment, final Software software,
+                                                  final UpdateLog updateLog )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "Software " + software.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
                 try
                 {
-                    if ( software.isBeforejee() )
-                    {
-                        SoftwareUpdater.update( environment, software, updateLog );
-                    }
+                    SoftwareUpdater.update( environment, software, updateLog );
                 }
                 catch ( Exception e )
                 {
                     if ( software.isBlocker() )
                     {
                         LOGGER.error( "Software {} update failed", software.getName() );
-                        EventUtils.post( environment, "ERROR",
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "Software " + software.getName() + " update failed: " + e.getMessage() );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "Software " + software.getName()
                             + " update failed: " + e.getMessage() ) );
-                        updateLog.setStatus( "Environment " + environment.getName() + " update failed" );
-                        PublisherUtils.publish( environment );
                         throw new UpdateException( "Software " + software.getName() + " update failed", e );
                     }
                     else
@@ -171,21 +385,34 @@ public class EnvironmentUpdater
                             + " update failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName()
                             + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "Software " + software.getName() + " update failed: " + e.getMessage() );
-                        EventUtils.post( environment, "INFO", "Software " + software.getName()
+                        EventUtils.post( kalumet, environment, "INFO", "Software " + software.getName()
                             + " is not an update blocker, update continues" );
                     }
                 }
             }
+        };
+    }
 
-            // update JEE application servers
-            LOGGER.info( "Updating JEE application servers" );
-            for ( Iterator jeeApplicationServersIterator =
-                      environment.getJEEApplicationServers().getJEEApplicationServers().iterator();
-                  jeeApplicationServersIterator.hasNext(); )
+    /**
+     * Create the update task of a JEE application server.
+     *
+     * @param kalumet              the configuration.
+     * @param environment          the target <code>Environment</code>.
+     * @param jeeApplicationServer the <code>JEEApplicationServer</code> to update.
+     * @param updateLog            the <code>UpdateLog</code> to use.
+     * @return the JEE application server update task, failing if the server is update blocker.
+     */
+    private static UpdateGraph.Task jeeApplicationServerTask( final Kalumet kalumet, final Environment environment,
+                                                              final JEEApplicationServer jeeApplicationServer,
+                                                              final UpdateLog updateLog )
+    {
+        return new UpdateGraph.Task( "JEE application server " + jeeApplicationServer.getName() )
+        {
+            void run()
+                throws UpdateException
             {
-                JEEApplicationServer jeeApplicationServer = (JEEApplicationServer) jeeApplicationServersIterator.next();
                 try
                 {
                     JEEApplicationServerUpdater.update( kalumet, environment, jeeApplicationServer, updateLog );
@@ -194,102 +421,32 @@ public class EnvironmentUpdater
                 {
                     if ( jeeApplicationServer.isBlocker() )
                     {
-                        LOGGER.error( "JEE application server {} update failed", e );
-                        EventUtils.post( environment, "ERROR",
+                        LOGGER.error( "JEE application server {} update failed", jeeApplicationServer.getName(), e );
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "JEE application server " + jeeApplicationServer.getName() + " update failed: "
                                              + e.getMessage() );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server "
                             + jeeApplicationServer.getName() + " update failed: " + e.getMessage() ) );
-                        updateLog.setStatus( "Environment " + environment.getName() + " update failed" );
-                        PublisherUtils.publish( environment );
                         throw new UpdateException(
                             "JEE application server " + jeeApplicationServer.getName() + " update failed", e );
                     }
                     else
                     {
-                        LOGGER.warn( "JEE application server {} update failed", e );
+                        LOGGER.warn( "JEE application server {} update failed", jeeApplicationServer.getName(), e );
                         updateLog.addUpdateMessage( new UpdateMessage( "warn", "JEE application server "
                             + jeeApplicationServer.getName() + " update failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server "
                             + jeeApplicationServer.getName() + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "JEE application server " + jeeApplicationServer.getName() + " update failed: "
                                              + e.getMessage() );
-                        EventUtils.post( environment, "INFO", "JEE application server " + jeeApplicationServer.getName()
-                            + " is not an update blocker, update continues" );
-                    }
-                }
-            }
-
-            // update softwares
-            LOGGER.info( "Updating softwares" );
-            for ( Iterator softwaresIterator = environment.getSoftwares().iterator(); softwaresIterator.hasNext(); )
-            {
-                Software software = (Software) softwaresIterator.next();
-                try
-                {
-                    if ( !software.isBeforejee() )
-                    {
-                        SoftwareUpdater.update( environment, software, updateLog );
-                    }
-                }
-                catch ( Exception e )
-                {
-                    if ( software.isBlocker() )
-                    {
-                        LOGGER.error( "Software {} update failed", software.getName() );
-                        EventUtils.post( environment, "ERROR",
-                                         "Software " + software.getName() + " update failed: " + e.getMessage() );
-                        updateLog.addUpdateMessage( new UpdateMessage( "error", "Software " + software.getName()
-                            + " update failed: " + e.getMessage() ) );
-                        updateLog.setStatus( "Environment " + environment.getName() + " update failed" );
-                        PublisherUtils.publish( environment );
-                        throw new UpdateException( "Software " + software.getName() + " update failed", e );
-                    }
-                    else
-                    {
-                        LOGGER.warn( "Software {} update failed", software.getName() );
-                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "Software " + software.getName()
-                            + " update failed: " + e.getMessage() ) );
-                        updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName()
-                            + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
-                                         "Software " + software.getName() + " update failed: " + e.getMessage() );
-                        EventUtils.post( environment, "INFO", "Software " + software.getName()
-                            + " is not an update blocker, update continues" );
+                        EventUtils.post( kalumet, environment, "INFO",
+                                         "JEE application server " + jeeApplicationServer.getName()
+                                             + " is not an update blocker, update continues" );
                     }
                 }
             }
-        }
-        catch ( Exception e )
-        {
-            LOGGER.error( "Update failed", e );
-            EventUtils.post( environment, "ERROR", "Update failed: " + e.getMessage() );
-            updateLog.setStatus( "Environment " + environment.getName() + " update failed" );
-            updateLog.addUpdateMessage( new UpdateMessage( "error", "Update failed: " + e.getMessage() ) );
-            LOGGER.info( "Publishing update report" );
-            PublisherUtils.publish( environment );
-            throw new UpdateException( "Update failed", e );
-        }
-
-        // publish update result
-        LOGGER.info( "Publishing update report" );
-        if ( updateLog.isUpdated() )
-        {
-            updateLog.setStatus( "Environment " + environment.getName() + " updated" );
-        }
-        else
-        {
-            updateLog.setStatus( "Environment " + environment.getName() + " already up to date" );
-        }
-        updateLog.addUpdateMessage(
-            new UpdateMessage( "info", "Environment " + environment.getName() + " update completed" ) );
-        EventUtils.post( environment, "UPDATE", "Environment " + environment.getName() + " update completed" );
-        LOGGER.info( "Publishing update report" );
-        PublisherUtils.publish( environment );
-
-        LOGGER.info( "Update completed" );
+        };
     }
 
 }
-
@@ -23,6 +23,7 @@ import org.apache.kalumet.agent.Configuration;
 import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JDBCConnectionPool;
 import org.apache.kalumet.model.JEEApplicationServer;
@@ -55,17 +56,35 @@ public class JDBCConnectionPoolUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        JDBCConnectionPoolUpdater.update( environment, server, connectionPool, updateLog, null );
+    }
+
+    /**
+     * Update a JDBC connection pool, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment    the target <code>Environment</code>.
+     * @param server         the target <code>JEEApplicationServer</code>.
+     * @param connectionPool the target <code>JDBCConnectionPool</code>.
+     * @param updateLog      the <code>UpdateLog</code> to use.
+     * @param inventory      the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JDBCConnectionPool connectionPool,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JDBC connection pool {}", connectionPool.getName() );
         updateLog.addUpdateMessage(
             new UpdateMessage( "info", "Updating JDBC connection pool " + connectionPool.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating JDBC connection pool " + connectionPool.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JDBC connection pool " + connectionPool.getName() );
 
         if ( !connectionPool.isActive() )
         {
             LOGGER.info( "JDBC connection pool {} is inactive, so not updated", connectionPool.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JDBC connection pool " + connectionPool.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JDBC connection pool " + connectionPool.getName() + " is inactive, so not updated" );
             return;
         }
@@ -78,13 +97,18 @@ public class JDBCConnectionPoolUpdater
         String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
         String jdbcClasspath = VariableUtils.replace( connectionPool.getClasspath(), environment.getVariables() );
 
+        JEEApplicationServerController controller = null;
         try
         {
             // connect to JEE application server controller
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, server );
+            controller = JEEApplicationServerControllerFactory.getController( environment, server );
+            if ( inventory == null )
+            {
+                // no inventory, the JDBC connection pool is checked with the controller
+                inventory = new JEEApplicationServerInventory( controller );
+            }
             // test if the JDBC connection pool is already present in the JEE server
-            if ( controller.isJDBCConnectionPoolDeployed( connectionPool.getName() ) )
+            if ( inventory.isJDBCConnectionPoolDeployed( connectionPool.getName() ) )
             {
                 LOGGER.info( "JDBC connection pool {} already deployed, checking for update" );
                 if ( controller.updateJDBCConnectionPool( connectionPool.getName(), jdbcDriver,
@@ -96,7 +120,7 @@ public class JDBCConnectionPoolUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "JDBC connection pool " + connectionPool.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "JDBC connection pool " + connectionPool.getName() + " updated" );
                     LOGGER.info( "JDBC connection pool {} updated", connectionPool.getName() );
                 }
@@ -105,7 +129,7 @@ public class JDBCConnectionPoolUpdater
                     updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                                    "JDBC connection pool " + connectionPool.getName()
                                                                        + " already up to date" ) );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "JDBC connection pool " + connectionPool.getName() + " already up to date" );
                     LOGGER.info( "JDBC connection pool {} already up to date", connectionPool.getName() );
                 }
@@ -121,7 +145,7 @@ public class JDBCConnectionPoolUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JDBC connection pool " + connectionPool.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JDBC connection pool " + connectionPool.getName() + " deployed" );
                 LOGGER.info( "JDBC connection pool {} deployed", connectionPool.getName() );
             }
@@ -131,6 +155,10 @@ public class JDBCConnectionPoolUpdater
             LOGGER.error( "JDBC connection pool {} update failed", connectionPool.getName(), e );
             throw new UpdateException( "JDBC connection pool " + connectionPool.getName() + " update failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -148,7 +176,7 @@ public class JDBCConnectionPoolUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects.
         LOGGER.debug( "Looking for component objects" );
@@ -178,14 +206,14 @@ public class JDBCConnectionPoolUpdater
         }
 
         // post event and create update log
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "JDBC connection pool " + connectionPool.getName() + " update request by WS" );
         UpdateLog updateLog = new UpdateLog( "JDBC connection pool " + connectionPool.getName() + " update in progress",
-                                             environment.getName(), environment );
+                                             environment.getName(), environment, kalumet );
 
         // send a notification and waiting for the count down.
         LOGGER.info( "Send a notification and waiting for the count down" );
-        EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
         NotifierUtils.waitAndNotify( environment );
 
         try
@@ -197,7 +225,7 @@ public class JDBCConnectionPoolUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JDBC connection pool {} update failed", connectionPool.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JDBC connection pool " + connectionPool.getName() + " update failed: " + e.getMessage() );
             updateLog.setStatus( "JDBC connection pool " + connectionPool.getName() + " update failed" );
             updateLog.addUpdateMessage( new UpdateMessage( "error", "JDBC connection pool " + connectionPool.getName()
@@ -208,7 +236,8 @@ public class JDBCConnectionPoolUpdater
 
         // update completed.
         LOGGER.info( "JDBC connection pool {} updated", connectionPool.getName() );
-        EventUtils.post( environment, "UPDATE", "JDBC connection pool " + connectionPool.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "JDBC connection pool " + connectionPool.getName() + " updated" );
         if ( updateLog.isUpdated() )
         {
             updateLog.setStatus( "JDBC connection pool " + connectionPool.getName() + " updated" );
@@ -239,7 +268,7 @@ public class JDBCConnectionPoolUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         LOGGER.debug( "Looking for component objects." );
@@ -269,34 +298,60 @@ public class JDBCConnectionPoolUpdater
         }
 
         // post an event
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JDBC connection pool " + connectionPool.getName() + " status check requested by WS" );
 
+        JEEApplicationServerController controller = null;
         try
         {
             // get the JEE server JMX controller.
             LOGGER.debug( "Getting the JEE application server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, applicationServer );
-            // replace values with environment variables
-            LOGGER.debug( "Replacing variables in connection pool data" );
-            String jdbcDriver = VariableUtils.replace( connectionPool.getDriver(), environment.getVariables() );
-            String jdbcUser = VariableUtils.replace( connectionPool.getUser(), environment.getVariables() );
-            String jdbcPassword = VariableUtils.replace( connectionPool.getPassword(), environment.getVariables() );
-            String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
-            String jdbcClasspath = VariableUtils.replace( connectionPool.getClasspath(), environment.getVariables() );
-            // check JDBC connection pool using JMX controller
-            LOGGER.debug( "Checking JDBC connection pool using JMX controller." );
-            return controller.isJDBCConnectionPoolUpToDate( connectionPool.getName(), jdbcDriver,
-                                                            connectionPool.getIncrement(), connectionPool.getInitial(),
-                                                            connectionPool.getMaximal(), jdbcUser, jdbcPassword,
-                                                            jdbcUrl, jdbcClasspath );
+            controller = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            return check( environment, connectionPool, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
             LOGGER.error( "JDBC connection pool {} check failed", connectionPool.getName(), e );
             throw new KalumetException( "JDBC connection pool " + connectionPool.getName() + " check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a JDBC connection pool is up to date, using a given JEE application server inventory.
+     *
+     * @param environment    the environment.
+     * @param connectionPool the JDBC connection pool.
+     * @param inventory      the JEE application server inventory.
+     * @return true if the JDBC connection pool is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JDBCConnectionPool connectionPool,
+                          JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // an undeployed resource is not up to date, checked in the inventory
+        if ( !inventory.isJDBCConnectionPoolDeployed( connectionPool.getName() ) )
+        {
+            return false;
+        }
+        // replace values with environment variables
+        LOGGER.debug( "Replacing variables in connection pool data" );
+        String jdbcDriver = VariableUtils.replace( connectionPool.getDriver(), environment.getVariables() );
+        String jdbcUser = VariableUtils.replace( connectionPool.getUser(), environment.getVariables() );
+        String jdbcPassword = VariableUtils.replace( connectionPool.getPassword(), environment.getVariables() );
+        String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
+        String jdbcClasspath = VariableUtils.replace( connectionPool.getClasspath(), environment.getVariables() );
+        // check JDBC connection pool using JMX controller
+        LOGGER.debug( "Checking JDBC connection pool using JMX controller." );
+        return inventory.getController().isJDBCConnectionPoolUpToDate( connectionPool.getName(), jdbcDriver,
+                                                                       connectionPool.getIncrement(),
+                                                                       connectionPool.getInitial(),
+                                                                       connectionPool.getMaximal(), jdbcUser,
+                                                                       jdbcPassword, jdbcUrl, jdbcClasspath );
     }
 
 }
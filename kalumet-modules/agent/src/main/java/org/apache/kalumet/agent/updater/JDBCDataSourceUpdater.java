@@ -23,6 +23,7 @@ import org.apache.kalumet.agent.Configuration;
 import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JDBCConnectionPool;
 import org.apache.kalumet.model.JDBCDataSource;
@@ -56,9 +57,27 @@ public class JDBCDataSourceUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        JDBCDataSourceUpdater.update( environment, server, dataSource, updateLog, null );
+    }
+
+    /**
+     * Update a JDBC data source, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param dataSource  the target <code>JDBCDataSource</code>.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JDBCDataSource dataSource,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JDBC data source {}", dataSource.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating JDBC data source " + dataSource.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating JDBC data source " + dataSource.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JDBC data source " + dataSource.getName() );
 
         if ( !dataSource.isActive() )
         {
@@ -66,7 +85,7 @@ public class JDBCDataSourceUpdater
             LOGGER.info( "JDBC data source {} is inactive, so not updated", dataSource.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JDBC data source " + dataSource.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JDBC Data Source " + dataSource.getName() + " is inactive, so not updated" );
             return;
         }
@@ -91,13 +110,18 @@ public class JDBCDataSourceUpdater
             throw new UpdateException( "Can't connect to JEE application server " + server.getName() + " controller",
                                        e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the JDBC data source is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         // replace variables in the JDBC URL and helper class name
         LOGGER.debug( "Replacing variables in JDBC URL and helper class" );
         String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
         String helperClass = VariableUtils.replace( connectionPool.getHelperclass(), environment.getVariables() );
         try
         {
-            if ( controller.isJDBCDataSourceDeployed( dataSource.getName() ) )
+            if ( inventory.isJDBCDataSourceDeployed( dataSource.getName() ) )
             {
                 // JDBC data source already deployed in the JEE application server
                 LOGGER.info( "JDBC data source " + dataSource.getName() + " already deployed, checking for update" );
@@ -110,7 +134,8 @@ public class JDBCDataSourceUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "JDBC data source " + dataSource.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE", "JDBC data source " + dataSource.getName() + " updated" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "JDBC data source " + dataSource.getName() + " updated" );
                 }
             }
             else
@@ -122,7 +147,8 @@ public class JDBCDataSourceUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JDBC data source " + dataSource.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE", "JDBC data source " + dataSource.getName() + " deployed" );
+                EventUtils.post( kalumet, environment, "UPDATE",
+                                 "JDBC data source " + dataSource.getName() + " deployed" );
                 LOGGER.info( "JDBC data source {} deployed", dataSource.getName() );
             }
         }
@@ -131,6 +157,10 @@ public class JDBCDataSourceUpdater
             LOGGER.error( "JDBC data source {} update failed", dataSource.getName(), e );
             throw new UpdateException( "JDBC data source " + dataSource.getName() + " update failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -148,7 +178,7 @@ public class JDBCDataSourceUpdater
 
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         Environment environment = kalumet.getEnvironment( environmentName );
@@ -177,13 +207,13 @@ public class JDBCDataSourceUpdater
         }
 
         // post event and create update log
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "JDBC data source " + dataSource.getName() + " update requested by WS" );
         UpdateLog updateLog = new UpdateLog( "JDBC data source " + dataSource.getName() + " update in progress ...",
-                                             environment.getName(), environment );
+                                             environment.getName(), environment, kalumet );
 
         // send a notification and waiting for the count down
-        EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
         NotifierUtils.waitAndNotify( environment );
 
         try
@@ -195,7 +225,7 @@ public class JDBCDataSourceUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JDBC data source {} update failed", dataSource.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JDBC data source " + dataSource.getName() + " update failed: " + e.getMessage() );
             updateLog.setStatus( "JDBC data source " + dataSource.getName() + " update failed" );
             updateLog.addUpdateMessage( new UpdateMessage( "error", "JDBC data source " + dataSource.getName()
@@ -206,7 +236,7 @@ public class JDBCDataSourceUpdater
 
         // update completed
         LOGGER.info( "JDBC data source {} updated", dataSource.getName() );
-        EventUtils.post( environment, "UPDATE", "JDBC data source " + dataSource.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JDBC data source " + dataSource.getName() + " updated" );
         if ( updateLog.isUpdated() )
         {
             updateLog.setStatus( "JDBC data source " + dataSource.getName() + " updated" );
@@ -237,7 +267,7 @@ public class JDBCDataSourceUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         Environment environment = kalumet.getEnvironment( environmentName );
@@ -266,7 +296,7 @@ public class JDBCDataSourceUpdater
         }
 
         // post an event
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JDBC data source " + dataSource.getName() + " status check requested by WS" );
 
         // Get JDBC data source connection pool.
@@ -281,25 +311,51 @@ public class JDBCDataSourceUpdater
                     + applicationServer.getName() );
         }
 
+        JEEApplicationServerController controller = null;
         try
         {
             // connecting to JEE application server controller
             LOGGER.debug( "Connecting to JEE application server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, applicationServer );
-            // replace variables in the JDBC URL and helper class name
-            LOGGER.debug( "Replacing variables in JDBC URL and helper class" );
-            String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
-            String helperClass = VariableUtils.replace( connectionPool.getHelperclass(), environment.getVariables() );
-            // check the data source
-            return controller.isJDBCDataSourceUpToDate( dataSource.getName(), dataSource.getPool(), jdbcUrl,
-                                                        helperClass );
+            controller = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            return check( environment, dataSource, connectionPool, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
             LOGGER.error( "JDBC data source {} check failed", dataSource.getName(), e );
             throw new KalumetException( "JDBC data source " + dataSource.getName() + " check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a JDBC data source is up to date, using a given JEE application server inventory.
+     *
+     * @param environment    the environment.
+     * @param dataSource     the JDBC data source.
+     * @param connectionPool the JDBC connection pool used by the data source.
+     * @param inventory      the JEE application server inventory.
+     * @return true if the JDBC data source is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JDBCDataSource dataSource, JDBCConnectionPool connectionPool,
+                          JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // an undeployed resource is not up to date, checked in the inventory
+        if ( !inventory.isJDBCDataSourceDeployed( dataSource.getName() ) )
+        {
+            return false;
+        }
+        // replace variables in the JDBC URL and helper class name
+        LOGGER.debug( "Replacing variables in JDBC URL and helper class" );
+        String jdbcUrl = VariableUtils.replace( connectionPool.getUrl(), environment.getVariables() );
+        String helperClass = VariableUtils.replace( connectionPool.getHelperclass(), environment.getVariables() );
+        // check the data source
+        return inventory.getController().isJDBCDataSourceUpToDate( dataSource.getName(), dataSource.getPool(),
+                                                                   jdbcUrl, helperClass );
     }
 
 }
@@ -24,6 +24,7 @@ import org.apache.kalumet.agent.Configuration;
 import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Cache;
 import org.apache.kalumet.model.Environment;
@@ -47,8 +48,12 @@ import org.apache.kalumet.ws.client.JEEApplicationServerClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Update a JEE application server.
@@ -72,7 +77,7 @@ public class JEEApplicationServerUpdater
         LOGGER.info( "JEE application server {} update requested by WS", serverName );
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getKalumet();
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -87,20 +92,18 @@ public class JEEApplicationServerUpdater
             throw new KalumetException(
                 "JEE application server " + serverName + " is not found in environment " + environmentName );
         }
-        // update configuration cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
 
-        EventUtils.post( environment, "UPDATE", "JEE application server " + serverName + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "JEE application server " + serverName + " update requested by WS" );
         UpdateLog updateLog =
             new UpdateLog( "JEE application server " + serverName + " update in progress ...", environment.getName(),
-                           environment );
+                           environment, kalumet );
 
         if ( !delegation )
         {
             // it's not a delegation from another agent, send a notification and waiting for the count down
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -114,7 +117,7 @@ public class JEEApplicationServerUpdater
         {
             // an error occurs
             LOGGER.error( "JEE application server {} update failed", serverName, e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JEE application server " + serverName + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -129,7 +132,7 @@ public class JEEApplicationServerUpdater
 
         // update is completed
         LOGGER.info( "JEE application server {} updated", applicationServer.getName() );
-        EventUtils.post( environment, "UPDATE", "JEE application server " + serverName + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JEE application server " + serverName + " updated" );
 
         if ( !delegation )
         {
@@ -168,7 +171,7 @@ public class JEEApplicationServerUpdater
             LOGGER.info( "JEE application server {} is inactive, so not updated", server.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application server " + server.getName() + " is inactive, so not updated" );
             return;
         }
@@ -179,13 +182,13 @@ public class JEEApplicationServerUpdater
             // delegates the update to another agent
             LOGGER.info( "Delegating JEE application server {} update to agent {}", server.getName(),
                          server.getAgent() );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating JEE application server " + server.getName() + " update to agent "
                                  + server.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                            "Delegating JEE application server " + server.getName()
                                                                + " update to agent " + server.getAgent() ) );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( server.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( server.getAgent() );
             if ( delegationAgent == null )
             {
                 // the target agent is not found in the configuration
@@ -209,303 +212,110 @@ public class JEEApplicationServerUpdater
             return;
         }
 
-        EventUtils.post( environment, "UPDATE", "Updating JEE application server " + server.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JEE application server " + server.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                        "JEE application server " + server.getName() + " located "
                                                            + applicationServerJmxUrl ) );
 
+        // get the JEE application server inventory, the resources deployment is
+        // checked locally by the update tasks
+        JEEApplicationServerController controller = null;
+        JEEApplicationServerInventory inventory = null;
+        try
+        {
+            controller = JEEApplicationServerControllerFactory.getController( environment, server );
+            inventory = controller.getInventory();
+        }
+        catch ( KalumetException e )
+        {
+            LOGGER.warn( "Can't get JEE application server {} inventory, the resources will be checked one by one",
+                         server.getName(), e );
+        }
+
+        // the data sources depend on their connection pool, the JEE applications
+        // (updated in order) depend on all the other resources, the resources are
+        // independent
+        UpdateGraph graph = new UpdateGraph();
+        Map pools = new HashMap();
+        List resources = new LinkedList();
+
         // update JDBC connection pools
-        LOGGER.info( "Updating JDBC connection pools" );
         for ( Iterator connectionPoolIterator = server.getJDBCConnectionPools().iterator();
               connectionPoolIterator.hasNext(); )
         {
             JDBCConnectionPool connectionPool = (JDBCConnectionPool) connectionPoolIterator.next();
-            try
-            {
-                JDBCConnectionPoolUpdater.update( environment, server, connectionPool, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JDBC connection pool update has failed
-                if ( connectionPool.isBlocker() )
-                {
-                    // connection pool is update blocker
-                    LOGGER.error( "JDBC connection pool {} update failed", connectionPool.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error",
-                                                                   "JDBC connection pool " + connectionPool.getName()
-                                                                       + " update failed: "
-                                                                       + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
-                                     "JDBC connection pool " + connectionPool.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    throw new UpdateException( "JDBC connection ool " + connectionPool.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // connection pool is not update blocker
-                    LOGGER.warn( "JDBC connection pool {} update failed", connectionPool.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn",
-                                                                   "JDBC connection pool " + connectionPool.getName()
-                                                                       + " update failed: "
-                                                                       + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info",
-                                                                   "JDBC connection pool " + connectionPool.getName()
-                                                                       + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
-                                     "JDBC connection pool " + connectionPool.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "JDBC connection pool " + connectionPool.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            pools.put( connectionPool.getName(), graph.add(
+                JEEApplicationServerUpdater.connectionPoolTask( environment, server, connectionPool, updateLog,
+                                                                inventory ) ) );
         }
 
         // update JDBC data sources
-        LOGGER.info( "Updating JDBC data sources" );
         for ( Iterator dataSourceIterator = server.getJDBCDataSources().iterator(); dataSourceIterator.hasNext(); )
         {
             JDBCDataSource dataSource = (JDBCDataSource) dataSourceIterator.next();
-            try
-            {
-                JDBCDataSourceUpdater.update( environment, server, dataSource, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JDBC data source update has failed
-                if ( dataSource.isBlocker() )
-                {
-                    // data source is update blocker
-                    LOGGER.error( "JDBC data source {} udpate failed", dataSource.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "JDBC data source " + dataSource.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
-                                     "JDBC data source " + dataSource.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    throw new UpdateException( "JDBC data source " + dataSource.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // data source is not update blocker
-                    LOGGER.warn( "JDBC data source {} update failed", dataSource.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "JDBC data source " + dataSource.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "JDBC data source " + dataSource.getName()
-                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
-                                     "JDBC data source " + dataSource.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "JDBC data source " + dataSource.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            resources.add(
+                graph.add( JEEApplicationServerUpdater.dataSourceTask( environment, server, dataSource, updateLog,
+                                                                       inventory ),
+                           (UpdateGraph.Task) pools.get( dataSource.getPool() ) ) );
         }
 
         // update JMS connection factories
-        LOGGER.info( "Updating JMS connection factories" );
         for ( Iterator jmsConnectionFactoryIterator = server.getJMSConnectionFactories().iterator();
               jmsConnectionFactoryIterator.hasNext(); )
         {
             JMSConnectionFactory jmsConnectionFactory = (JMSConnectionFactory) jmsConnectionFactoryIterator.next();
-            try
-            {
-                JMSConnectionFactoryUpdater.update( environment, server, jmsConnectionFactory, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JMS connection factory update has failed
-                if ( jmsConnectionFactory.isBlocker() )
-                {
-                    // JMS connection factory is update blocker
-                    LOGGER.error( "JMS connection factory {} update failed", jmsConnectionFactory.getName(),
-                                  updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "JMS connection factory "
-                        + jmsConnectionFactory.getName() + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
-                                     "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    throw new UpdateException(
-                        "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
-                            + updateException.getMessage(), updateException );
-                }
-                else
-                {
-                    // JMS connection factory is not update blocker
-                    LOGGER.warn( "JMS connection factory {} update failed", jmsConnectionFactory.getName(),
-                                 updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "JMS connection factory "
-                        + jmsConnectionFactory.getName() + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS connection factory "
-                        + jmsConnectionFactory.getName() + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
-                                     "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "JMS connection factory " + jmsConnectionFactory.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            resources.add( graph.add(
+                JEEApplicationServerUpdater.jmsConnectionFactoryTask( environment, server, jmsConnectionFactory,
+                                                                      updateLog, inventory ) ) );
         }
 
         // update JMS servers
-        LOGGER.info( "Updating JMS servers" );
         for ( Iterator jmsServerIterator = server.getJMSServers().iterator(); jmsServerIterator.hasNext(); )
         {
             JMSServer jmsServer = (JMSServer) jmsServerIterator.next();
-            try
-            {
-                JMSServerUpdater.update( environment, server, jmsServer, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JMS server update has failed
-                if ( jmsServer.isBlocker() )
-                {
-                    // JMS server is update blocker
-                    LOGGER.error( "JMS server {} update failed", jmsServer.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "JMS server " + jmsServer.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR", "JMS server " + jmsServer.getName() + " update failed: "
-                        + updateException.getMessage() );
-                    throw new UpdateException( "JMS server " + jmsServer.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // JMS server is not update blocker
-                    LOGGER.warn( "JMS server {} update failed", jmsServer.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "JMS server " + jmsServer.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS server " + jmsServer.getName()
-                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "JMS server " + jmsServer.getName() + " update failed: "
-                        + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE",
-                                     "JMS server " + jmsServer.getName() + " is not update blocker, update continues" );
-                }
-            }
+            resources.add(
+                graph.add( JEEApplicationServerUpdater.jmsServerTask( environment, server, jmsServer, updateLog,
+                                                                      inventory ) ) );
         }
 
         // update JNDI name space bindings
-        LOGGER.info( "Updating JNDIbindings" );
         for ( Iterator jndiBindingsIterator = server.getJNDIBindings().iterator(); jndiBindingsIterator.hasNext(); )
         {
             JNDIBinding jndiBinding = (JNDIBinding) jndiBindingsIterator.next();
-            try
-            {
-                JNDIBindingUpdater.update( environment, server, jndiBinding, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JNDI binding update has failed
-                if ( jndiBinding.isBlocker() )
-                {
-                    // JNDIbinding is update blocker
-                    LOGGER.error( "JNDI binding {} update failed", jndiBinding.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "JNDI binding " + jndiBinding.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR", "JNDI binding " + jndiBinding.getName() + " update failed: "
-                        + updateException.getMessage() );
-                    throw new UpdateException( "JNDI binding " + jndiBinding.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // JNDI binding is not update blocker
-                    LOGGER.warn( "JNDI binding {} update failed", jndiBinding.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "JNDI binding " + jndiBinding.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "JNDI binding " + jndiBinding.getName()
-                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "JNDI binding " + jndiBinding.getName() + " update failed: "
-                        + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "JNDI binding " + jndiBinding.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            resources.add(
+                graph.add( JEEApplicationServerUpdater.jndiBindingTask( environment, server, jndiBinding,
+                                                                        updateLog, inventory ) ) );
         }
 
         // update shared libraries
-        LOGGER.info( "Updating shared libraries" );
         for ( Iterator sharedLibraryIterator = server.getSharedLibraries().iterator();
               sharedLibraryIterator.hasNext(); )
         {
             SharedLibrary sharedLibrary = (SharedLibrary) sharedLibraryIterator.next();
-            try
-            {
-                SharedLibraryUpdater.update( environment, server, sharedLibrary, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the shared library update has failed
-                if ( sharedLibrary.isBlocker() )
-                {
-                    // shared library is update blocker
-                    LOGGER.error( "Shared library {} update failed", sharedLibrary.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "Shared library " + sharedLibrary.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
-                                     "Shared library " + sharedLibrary.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    throw new UpdateException( "Shared library " + sharedLibrary.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // shared library is not update blocker
-                    LOGGER.warn( "Shared library {} update failed", sharedLibrary.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "Shared library " + sharedLibrary.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "Shared library " + sharedLibrary.getName()
-                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
-                                     "Shared library " + sharedLibrary.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "Shared library " + sharedLibrary.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            resources.add( graph.add(
+                JEEApplicationServerUpdater.sharedLibraryTask( environment, server, sharedLibrary, updateLog,
+                                                               inventory ) ) );
         }
 
         // update JEE applications
-        LOGGER.info( "Updating JEE applications" );
+        resources.addAll( pools.values() );
+        List dependencies = resources;
         for ( Iterator applicationIterator = server.getJEEApplications().iterator(); applicationIterator.hasNext(); )
         {
             JEEApplication application = (JEEApplication) applicationIterator.next();
-            try
-            {
-                JEEApplicationUpdater.update( environment, server, application, updateLog );
-            }
-            catch ( UpdateException updateException )
-            {
-                // the JEE application update has failed
-                if ( application.isBlocker() )
-                {
-                    // JEE application is update blocker
-                    LOGGER.error( "JEE application {} update failed", application.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application " + application.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
-                                     "JEE application " + application.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    throw new UpdateException( "JEE application " + application.getName() + " update failed",
-                                               updateException );
-                }
-                else
-                {
-                    // JEE application is not update blocker
-                    LOGGER.warn( "JEE application {} update failed", application.getName(), updateException );
-                    updateLog.addUpdateMessage( new UpdateMessage( "warn", "JEE application " + application.getName()
-                        + " update failed: " + updateException.getMessage() ) );
-                    updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application " + application.getName()
-                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
-                                     "JEE application " + application.getName() + " update failed: "
-                                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "JEE application " + application.getName()
-                        + " is not update blocker, update continues" );
-                }
-            }
+            dependencies = Collections.singletonList(
+                graph.add( JEEApplicationServerUpdater.applicationTask( environment, server, application, updateLog,
+                                                                        inventory ), dependencies ) );
+        }
+        LOGGER.info( "Updating JEE application server resources and applications" );
+        try
+        {
+            graph.execute( UpdateGraph.getParallelism() );
+        }
+        finally
+        {
+            // the update tasks don't use the inventory anymore
+            JEEApplicationServerControllerFactory.returnController( controller );
         }
 
         // stop JEE server
@@ -523,7 +333,7 @@ public class JEEApplicationServerUpdater
                 LOGGER.error( "JEE application server {} shutdown failed", server.getName(), updateException );
                 updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server " + server.getName()
                     + " shutdown failed: " + updateException.getMessage() ) );
-                EventUtils.post( environment, "ERROR",
+                EventUtils.post( kalumet, environment, "ERROR",
                                  "JEE application server " + server.getName() + " shutdown failed: "
                                      + updateException.getMessage() );
                 throw new UpdateException(
@@ -538,10 +348,10 @@ public class JEEApplicationServerUpdater
                     + " shutdown failed: " + updateException.getMessage() ) );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" ) );
-                EventUtils.post( environment, "WARN",
+                EventUtils.post( kalumet, environment, "WARN",
                                  "JEE application server " + server.getName() + " shutdown failed: "
                                      + updateException.getMessage() );
-                EventUtils.post( environment, "UPDATE", "JEE application server " + server.getName()
+                EventUtils.post( kalumet, environment, "UPDATE", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" );
             }
         }
@@ -562,7 +372,7 @@ public class JEEApplicationServerUpdater
                               updateException );
                 updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server " + server.getName()
                     + " cache directories cleanup failed: " + updateException.getMessage() ) );
-                EventUtils.post( environment, "ERROR",
+                EventUtils.post( kalumet, environment, "ERROR",
                                  "JEE application server " + server.getName() + " cache directories cleanup failed: "
                                      + updateException.getMessage() );
                 throw new UpdateException(
@@ -578,10 +388,10 @@ public class JEEApplicationServerUpdater
                     + " cache directories cleanup failed: " + updateException.getMessage() ) );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" ) );
-                EventUtils.post( environment, "WARN",
+                EventUtils.post( kalumet, environment, "WARN",
                                  "JEE application server " + server.getName() + " cache directories cleanup failed: "
                                      + updateException.getMessage() );
-                EventUtils.post( environment, "UPDATE", "JEE application server " + server.getName()
+                EventUtils.post( kalumet, environment, "UPDATE", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" );
             }
         }
@@ -601,8 +411,9 @@ public class JEEApplicationServerUpdater
                 LOGGER.error( "JEE application server {} start failed", server.getName(), updateException );
                 updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server " + server.getName()
                     + " start failed: " + updateException.getMessage() ) );
-                EventUtils.post( environment, "ERROR", "JEE application server " + server.getName() + " start failed: "
-                    + updateException.getMessage() );
+                EventUtils.post( kalumet, environment, "ERROR",
+                                 "JEE application server " + server.getName() + " start failed: "
+                                     + updateException.getMessage() );
                 throw new UpdateException( "JEE application server " + server.getName() + " start failed",
                                            updateException );
             }
@@ -614,15 +425,431 @@ public class JEEApplicationServerUpdater
                     + " start failed: " + updateException.getMessage() ) );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" ) );
-                EventUtils.post( environment, "WARN", "JEE application server " + server.getName() + " start failed: "
-                    + updateException.getMessage() );
-                EventUtils.post( environment, "UPDATE", "JEE application server " + server.getName()
+                EventUtils.post( kalumet, environment, "WARN",
+                                 "JEE application server " + server.getName() + " start failed: "
+                                     + updateException.getMessage() );
+                EventUtils.post( kalumet, environment, "UPDATE", "JEE application server " + server.getName()
                     + " is not update blocker, update continues" );
             }
         }
 
         // update completed
-        EventUtils.post( environment, "UPDATE", "JEE application server updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JEE application server updated" );
+    }
+
+    /**
+     * Create the update task of a JDBC connection pool.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param connectionPool the <code>JDBCConnectionPool</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JDBC connection pool update task, failing if the JDBC connection pool is update blocker.
+     */
+    private static UpdateGraph.Task connectionPoolTask( final Environment environment,
+                                                        final JEEApplicationServer server,
+                                                        final JDBCConnectionPool connectionPool,
+                                                        final UpdateLog updateLog,
+                                                        final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JDBC connection pool " + connectionPool.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JDBCConnectionPoolUpdater.update( environment, server, connectionPool, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JDBC connection pool update has failed
+                    if ( connectionPool.isBlocker() )
+                    {
+                        // connection pool is update blocker
+                        LOGGER.error( "JDBC connection pool {} update failed", connectionPool.getName(),
+                                      updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JDBC connection pool "
+                            + connectionPool.getName() + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "JDBC connection pool " + connectionPool.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException(
+                            "JDBC connection pool " + connectionPool.getName() + " update failed", updateException );
+                    }
+                    else
+                    {
+                        // connection pool is not update blocker
+                        LOGGER.warn( "JDBC connection pool {} update failed", connectionPool.getName(),
+                                     updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JDBC connection pool "
+                            + connectionPool.getName() + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JDBC connection pool "
+                            + connectionPool.getName() + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "JDBC connection pool " + connectionPool.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE",
+                                         "JDBC connection pool " + connectionPool.getName()
+                                             + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a JDBC data source.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param dataSource the <code>JDBCDataSource</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JDBC data source update task, failing if the JDBC data source is update blocker.
+     */
+    private static UpdateGraph.Task dataSourceTask( final Environment environment, final JEEApplicationServer server,
+                                                    final JDBCDataSource dataSource, final UpdateLog updateLog,
+                                                    final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JDBC data source " + dataSource.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JDBCDataSourceUpdater.update( environment, server, dataSource, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JDBC data source update has failed
+                    if ( dataSource.isBlocker() )
+                    {
+                        // data source is update blocker
+                        LOGGER.error( "JDBC data source {} udpate failed", dataSource.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JDBC data source "
+                            + dataSource.getName() + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "JDBC data source " + dataSource.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException( "JDBC data source " + dataSource.getName() + " update failed",
+                                                   updateException );
+                    }
+                    else
+                    {
+                        // data source is not update blocker
+                        LOGGER.warn( "JDBC data source {} update failed", dataSource.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JDBC data source "
+                            + dataSource.getName() + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JDBC data source "
+                            + dataSource.getName() + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "JDBC data source " + dataSource.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "JDBC data source " + dataSource.getName()
+                            + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a JMS connection factory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param jmsConnectionFactory the <code>JMSConnectionFactory</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JMS connection factory update task, failing if the JMS connection factory is update blocker.
+     */
+    private static UpdateGraph.Task jmsConnectionFactoryTask( final Environment environment,
+                                                              final JEEApplicationServer server,
+                                                              final JMSConnectionFactory jmsConnectionFactory,
+                                                              final UpdateLog updateLog,
+                                                              final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JMS connection factory " + jmsConnectionFactory.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JMSConnectionFactoryUpdater.update( environment, server, jmsConnectionFactory, updateLog,
+                                                        inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JMS connection factory update has failed
+                    if ( jmsConnectionFactory.isBlocker() )
+                    {
+                        // JMS connection factory is update blocker
+                        LOGGER.error( "JMS connection factory {} update failed", jmsConnectionFactory.getName(),
+                                      updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JMS connection factory "
+                            + jmsConnectionFactory.getName() + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException(
+                            "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
+                                + updateException.getMessage(), updateException );
+                    }
+                    else
+                    {
+                        // JMS connection factory is not update blocker
+                        LOGGER.warn( "JMS connection factory {} update failed", jmsConnectionFactory.getName(),
+                                     updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JMS connection factory "
+                            + jmsConnectionFactory.getName() + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS connection factory "
+                            + jmsConnectionFactory.getName() + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "JMS connection factory "
+                            + jmsConnectionFactory.getName() + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a JMS server.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param jmsServer the <code>JMSServer</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JMS server update task, failing if the JMS server is update blocker.
+     */
+    private static UpdateGraph.Task jmsServerTask( final Environment environment, final JEEApplicationServer server,
+                                                   final JMSServer jmsServer, final UpdateLog updateLog,
+                                                   final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JMS server " + jmsServer.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JMSServerUpdater.update( environment, server, jmsServer, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JMS server update has failed
+                    if ( jmsServer.isBlocker() )
+                    {
+                        // JMS server is update blocker
+                        LOGGER.error( "JMS server {} update failed", jmsServer.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JMS server " + jmsServer.getName()
+                            + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "JMS server " + jmsServer.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException( "JMS server " + jmsServer.getName() + " update failed",
+                                                   updateException );
+                    }
+                    else
+                    {
+                        // JMS server is not update blocker
+                        LOGGER.warn( "JMS server {} update failed", jmsServer.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JMS server " + jmsServer.getName()
+                            + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS server " + jmsServer.getName()
+                            + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "JMS server " + jmsServer.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "JMS server " + jmsServer.getName()
+                            + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a JNDI binding.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param jndiBinding the <code>JNDIBinding</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JNDI binding update task, failing if the JNDI binding is update blocker.
+     */
+    private static UpdateGraph.Task jndiBindingTask( final Environment environment, final JEEApplicationServer server,
+                                                     final JNDIBinding jndiBinding, final UpdateLog updateLog,
+                                                     final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JNDI binding " + jndiBinding.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JNDIBindingUpdater.update( environment, server, jndiBinding, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JNDI binding update has failed
+                    if ( jndiBinding.isBlocker() )
+                    {
+                        // JNDIbinding is update blocker
+                        LOGGER.error( "JNDI binding {} update failed", jndiBinding.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JNDI binding " + jndiBinding.getName()
+                            + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR", "JNDI binding " + jndiBinding.getName()
+                            + " update failed: " + updateException.getMessage() );
+                        throw new UpdateException( "JNDI binding " + jndiBinding.getName() + " update failed",
+                                                   updateException );
+                    }
+                    else
+                    {
+                        // JNDI binding is not update blocker
+                        LOGGER.warn( "JNDI binding {} update failed", jndiBinding.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JNDI binding " + jndiBinding.getName()
+                            + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JNDI binding " + jndiBinding.getName()
+                            + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN", "JNDI binding " + jndiBinding.getName()
+                            + " update failed: " + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "JNDI binding " + jndiBinding.getName()
+                            + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a shared library.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param sharedLibrary the <code>SharedLibrary</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the shared library update task, failing if the shared library is update blocker.
+     */
+    private static UpdateGraph.Task sharedLibraryTask( final Environment environment, final JEEApplicationServer server,
+                                                       final SharedLibrary sharedLibrary, final UpdateLog updateLog,
+                                                       final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "Shared library " + sharedLibrary.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    SharedLibraryUpdater.update( environment, server, sharedLibrary, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the shared library update has failed
+                    if ( sharedLibrary.isBlocker() )
+                    {
+                        // shared library is update blocker
+                        LOGGER.error( "Shared library {} update failed", sharedLibrary.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "Shared library "
+                            + sharedLibrary.getName() + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "Shared library " + sharedLibrary.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException( "Shared library " + sharedLibrary.getName() + " update failed",
+                                                   updateException );
+                    }
+                    else
+                    {
+                        // shared library is not update blocker
+                        LOGGER.warn( "Shared library {} update failed", sharedLibrary.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "Shared library "
+                            + sharedLibrary.getName() + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "Shared library "
+                            + sharedLibrary.getName() + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "Shared library " + sharedLibrary.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "Shared library " + sharedLibrary.getName()
+                            + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the update task of a JEE application.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param application the <code>JEEApplication</code> to update.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @return the JEE application update task, failing if the JEE application is update blocker.
+     */
+    private static UpdateGraph.Task applicationTask( final Environment environment, final JEEApplicationServer server,
+                                                     final JEEApplication application, final UpdateLog updateLog,
+                                                     final JEEApplicationServerInventory inventory )
+    {
+        final Kalumet kalumet = updateLog.getKalumet();
+        return new UpdateGraph.Task( "JEE application " + application.getName() )
+        {
+            void run()
+                throws UpdateException
+            {
+                try
+                {
+                    JEEApplicationUpdater.update( environment, server, application, updateLog, inventory );
+                }
+                catch ( UpdateException updateException )
+                {
+                    // the JEE application update has failed
+                    if ( application.isBlocker() )
+                    {
+                        // JEE application is update blocker
+                        LOGGER.error( "JEE application {} update failed", application.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application "
+                            + application.getName() + " update failed: " + updateException.getMessage() ) );
+                        EventUtils.post( kalumet, environment, "ERROR",
+                                         "JEE application " + application.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        throw new UpdateException( "JEE application " + application.getName() + " update failed",
+                                                   updateException );
+                    }
+                    else
+                    {
+                        // JEE application is not update blocker
+                        LOGGER.warn( "JEE application {} update failed", application.getName(), updateException );
+                        updateLog.addUpdateMessage( new UpdateMessage( "warn", "JEE application "
+                            + application.getName() + " update failed: " + updateException.getMessage() ) );
+                        updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application "
+                            + application.getName() + " is not update blocker, update continues" ) );
+                        EventUtils.post( kalumet, environment, "WARN",
+                                         "JEE application " + application.getName() + " update failed: "
+                                             + updateException.getMessage() );
+                        EventUtils.post( kalumet, environment, "UPDATE", "JEE application " + application.getName()
+                            + " is not update blocker, update continues" );
+                    }
+                }
+            }
+        };
     }
 
     /**
@@ -635,6 +862,7 @@ public class JEEApplicationServerUpdater
     protected static void stop( Environment environment, JEEApplicationServer server, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         // TODO delegate the JEE server stop to another agent is required
         try
         {
@@ -643,7 +871,7 @@ public class JEEApplicationServerUpdater
                 LOGGER.info( "JEE application server {} shutdown is not required", server.getName() );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                     + " shutdown is not required" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JEE application server " + server.getName() + " shutdown is not required" );
                 return;
             }
@@ -651,7 +879,7 @@ public class JEEApplicationServerUpdater
             LOGGER.info( "JEE application server {} shutdown is required", server.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "JEE application server " + server.getName() + " shutdown is required" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application server " + server.getName() + " shutdown is required" );
             if ( server.isUsejmxstop() )
             {
@@ -659,9 +887,19 @@ public class JEEApplicationServerUpdater
                 LOGGER.debug( "Getting JEE application server JMX controller" );
                 JEEApplicationServerController controller =
                     JEEApplicationServerControllerFactory.getController( environment, server );
-                controller.shutdown();
+                try
+                {
+                    controller.shutdown();
+                }
+                finally
+                {
+                    JEEApplicationServerControllerFactory.returnController( controller );
+                }
+                // the server connection is not usable anymore, the controller is released
+                JEEApplicationServerControllerFactory.release( environment, server );
                 LOGGER.info( "JEE application server {} shutdown completed", server.getName() );
-                EventUtils.post( environment, "UPDATE", "JEE server " + server.getName() + " shutdown completed" );
+                EventUtils.post( kalumet, environment, "UPDATE",
+                                 "JEE server " + server.getName() + " shutdown completed" );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JEE server " + server.getName() + " shutdown completed" ) );
                 return;
@@ -669,10 +907,12 @@ public class JEEApplicationServerUpdater
             LOGGER.debug( "JEE application server shutdown is performed using system command" );
             String output = CommandUtils.execute(
                 VariableUtils.replace( server.getShutdowncommand(), environment.getVariables() ) );
+            // the server connection is not usable anymore, the controller is released
+            JEEApplicationServerControllerFactory.release( environment, server );
             LOGGER.info( "JEE application server " + server.getName() + " shutdown completed: " + output );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                 + " shutdown completed: " + output ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE server " + server.getName() + " shutdown completed: " + output );
         }
         catch ( Exception exception )
@@ -681,8 +921,9 @@ public class JEEApplicationServerUpdater
             updateLog.addUpdateMessage( new UpdateMessage( "error",
                                                            "JEE server " + server.getName() + " shutdown failed: "
                                                                + exception.getMessage() ) );
-            EventUtils.post( environment, "ERROR", "JEE application server " + server.getName() + " shutdown failed: "
-                + exception.getMessage() );
+            EventUtils.post( kalumet, environment, "ERROR",
+                             "JEE application server " + server.getName() + " shutdown failed: "
+                                 + exception.getMessage() );
             throw new UpdateException( "JEE application server " + server.getName() + " shutdown failed", exception );
         }
     }
@@ -705,7 +946,7 @@ public class JEEApplicationServerUpdater
             if ( !server.isUpdateRequireRestart() || !updateLog.isUpdated() )
             {
                 LOGGER.info( "JEE application server {} start is not required", server.getName() );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JEE application server " + server.getName() + " start is not required" );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JEE application server " + server.getName() + " start is required" ) );
@@ -715,7 +956,7 @@ public class JEEApplicationServerUpdater
             LOGGER.info( "JEE application server {} start is required", server.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "JEE application server " + server.getName() + " start is required" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application server " + server.getName() + " start is required" );
 
             // get the agent configuration
@@ -741,16 +982,23 @@ public class JEEApplicationServerUpdater
                         // get the controller
                         JEEApplicationServerController controller =
                             JEEApplicationServerControllerFactory.getController( environment, server );
-                        if ( !controller.isStopped() )
+                        try
                         {
-                            applicationServersStarted++;
-                            if ( applicationServersStarted >= agent.getMaxjeeapplicationserversstarted() )
+                            if ( !controller.isStopped() )
                             {
-                                // the max number of application servers started is raised
-                                throw new UpdateException(
-                                    "The maximum number of started JEE application servers has been raised for the agent" );
+                                applicationServersStarted++;
+                                if ( applicationServersStarted >= agent.getMaxjeeapplicationserversstarted() )
+                                {
+                                    // the max number of application servers started is raised
+                                    throw new UpdateException(
+                                        "The maximum number of started JEE application servers has been raised for the agent" );
+                                }
                             }
                         }
+                        finally
+                        {
+                            JEEApplicationServerControllerFactory.returnController( controller );
+                        }
                     }
                 }
             }
@@ -758,11 +1006,13 @@ public class JEEApplicationServerUpdater
             // the start is performed using system command
             String output =
                 CommandUtils.execute( VariableUtils.replace( server.getStartupcommand(), environment.getVariables() ) );
+            // the server has been (re)started, the cached controller is released
+            JEEApplicationServerControllerFactory.release( environment, server );
             // application server start has been performed
             LOGGER.info( "JEE application server {} start completed: {}", server.getName(), output );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                 + " start completed: " + output ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application server " + server.getName() + " start completed: " + output );
         }
         catch ( Exception exception )
@@ -770,8 +1020,9 @@ public class JEEApplicationServerUpdater
             LOGGER.error( "JEE application server {} start failed", server.getName(), exception );
             updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server " + server.getName()
                 + " start failed: " + exception.getMessage() ) );
-            EventUtils.post( environment, "ERROR", "JEE application server " + server.getName() + " start failed: "
-                + exception.getMessage() );
+            EventUtils.post( kalumet, environment, "ERROR",
+                             "JEE application server " + server.getName() + " start failed: "
+                                 + exception.getMessage() );
             throw new UpdateException( "JEE application server " + server.getName() + " start failed", exception );
         }
     }
@@ -786,6 +1037,7 @@ public class JEEApplicationServerUpdater
     protected static void cleanCaches( Environment environment, JEEApplicationServer server, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         try
         {
             if ( !server.isUpdateRequireCacheCleaning() || !updateLog.isUpdated() )
@@ -793,7 +1045,7 @@ public class JEEApplicationServerUpdater
                 LOGGER.info( "JEE application server {} caches cleaning is not required", server.getName() );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                     + " caches cleaning is not required" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JEE application server " + server.getName() + " caches cleaning is not required" );
                 return;
             }
@@ -801,7 +1053,7 @@ public class JEEApplicationServerUpdater
             LOGGER.info( "JEE application server {} caches cleaning is required", server.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "JEE application server " + server.getName()
                 + " caches cleaning is required" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application server " + server.getName() + " caches cleaning is required" );
             // initializes the file manipulator instance
             FileManipulator fileManipulator = new FileManipulator();
@@ -817,7 +1069,7 @@ public class JEEApplicationServerUpdater
             LOGGER.error( "JEE application server {} cache directories cleanup failed", server.getName(), exception );
             updateLog.addUpdateMessage( new UpdateMessage( "error", "JEE application server" + server.getName()
                 + " cache directories cleanup failed: " + exception.getMessage() ) );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JEE application server " + server.getName() + " cache directories cleanup failed: "
                                  + exception.getMessage() );
             throw new UpdateException( "JEE application server " + server.getName() + " caches cleanup failed",
@@ -837,7 +1089,7 @@ public class JEEApplicationServerUpdater
         LOGGER.info( "JEE application server {} start requested by WS", serverName );
 
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getKalumet();
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -875,27 +1127,37 @@ public class JEEApplicationServerUpdater
                     // get the controller
                     JEEApplicationServerController controller =
                         JEEApplicationServerControllerFactory.getController( environment, server );
-                    if ( !controller.isStopped() )
+                    try
                     {
-                        applicationServersStarted++;
-                        if ( applicationServersStarted >= agent.getMaxjeeapplicationserversstarted() )
+                        if ( !controller.isStopped() )
                         {
-                            // the max number of application servers started is raised
-                            throw new KalumetException(
-                                "The maximum number of started JEE application servers has been raised for the agent" );
+                            applicationServersStarted++;
+                            if ( applicationServersStarted >= agent.getMaxjeeapplicationserversstarted() )
+                            {
+                                // the max number of application servers started is raised
+                                throw new KalumetException(
+                                    "The maximum number of started JEE application servers has been raised for the agent" );
+                            }
                         }
                     }
+                    finally
+                    {
+                        JEEApplicationServerControllerFactory.returnController( controller );
+                    }
                 }
             }
         }
 
-        EventUtils.post( environment, "INFO", "JEE application server " + serverName + " start requested by WS" );
+        EventUtils.post( kalumet, environment, "INFO",
+                         "JEE application server " + serverName + " start requested by WS" );
         // the start is performed using system command
         String output =
             CommandUtils.execute( VariableUtils.replace( server.getStartupcommand(), environment.getVariables() ) );
+        // the server has been (re)started, the cached controller is released
+        JEEApplicationServerControllerFactory.release( environment, server );
         // application server start has been performed
         LOGGER.info( "JEE application server {} STARTED: {}", serverName, output );
-        EventUtils.post( environment, "INFO", "JEE application server " + serverName + " started: " + output );
+        EventUtils.post( kalumet, environment, "INFO", "JEE application server " + serverName + " started: " + output );
     }
 
     /**
@@ -911,7 +1173,7 @@ public class JEEApplicationServerUpdater
         Kalumet kalumet;
         try
         {
-            kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+            kalumet = Configuration.getEnvironmentKalumet( environmentName );
         }
         catch ( KalumetException e )
         {
@@ -931,7 +1193,8 @@ public class JEEApplicationServerUpdater
             throw new UpdateException(
                 "JEE application server " + serverName + " is not found in environment " + environmentName );
         }
-        EventUtils.post( environment, "INFO", "JEE application server " + serverName + " shutdown requested by WS" );
+        EventUtils.post( kalumet, environment, "INFO",
+                         "JEE application server " + serverName + " shutdown requested by WS" );
         // check if the stop is made using JMX
         try
         {
@@ -939,9 +1202,18 @@ public class JEEApplicationServerUpdater
             {
                 JEEApplicationServerController controller =
                     JEEApplicationServerControllerFactory.getController( environment, server );
-                controller.shutdown();
+                try
+                {
+                    controller.shutdown();
+                }
+                finally
+                {
+                    JEEApplicationServerControllerFactory.returnController( controller );
+                }
+                // the server connection is not usable anymore, the controller is released
+                JEEApplicationServerControllerFactory.release( environment, server );
                 LOGGER.info( "JEE application server {} shutdown using the controller", serverName );
-                EventUtils.post( environment, "INFO",
+                EventUtils.post( kalumet, environment, "INFO",
                                  "JEE application server " + serverName + " shutdown using the controller" );
                 return;
             }
@@ -957,6 +1229,8 @@ public class JEEApplicationServerUpdater
         try
         {
             output = CommandUtils.execute( shutdownCommand );
+            // the server connection is not usable anymore, the controller is released
+            JEEApplicationServerControllerFactory.release( environment, server );
         }
         catch ( KalumetException e )
         {
@@ -964,7 +1238,7 @@ public class JEEApplicationServerUpdater
             throw new UpdateException( "JEE application server " + serverName + " shutdown failed", e );
         }
         LOGGER.info( "JEE application server {} shutdown using system command: {}", serverName, output );
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JEE application server " + serverName + " shutdown using system command: " + output );
     }
 
@@ -985,7 +1259,7 @@ public class JEEApplicationServerUpdater
         Kalumet kalumet;
         try
         {
-            kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+            kalumet = Configuration.getEnvironmentKalumet( environmentName );
         }
         catch ( KalumetException e )
         {
@@ -1007,13 +1281,13 @@ public class JEEApplicationServerUpdater
             throw new UpdateException(
                 "JEE application server " + applicationServerName + " is not found in environment " + environmentName );
         }
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JEE application server " + applicationServerName + " status requested by WS" );
+        JEEApplicationServerController controller = null;
         try
         {
             // get the controller
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, server );
+            controller = JEEApplicationServerControllerFactory.getController( environment, server );
             // get the application server status
             return controller.status();
         }
@@ -1022,6 +1296,10 @@ public class JEEApplicationServerUpdater
             LOGGER.error( "JEE application server {} status check failed", applicationServerName, e );
             throw new UpdateException( "JEE application server " + applicationServerName + " status check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
 }
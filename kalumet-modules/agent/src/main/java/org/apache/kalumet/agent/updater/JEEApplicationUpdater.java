@@ -23,6 +23,7 @@ import org.apache.kalumet.FileManipulatorException;
 import org.apache.kalumet.KalumetException;
 import org.apache.kalumet.agent.Configuration;
 import org.apache.kalumet.agent.utils.EventUtils;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Archive;
 import org.apache.kalumet.model.ConfigurationFile;
@@ -65,6 +66,25 @@ public class JEEApplicationUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        JEEApplicationUpdater.update( environment, server, application, updateLog, null );
+    }
+
+    /**
+     * Update a JEE application, checking the deployment of its archives in a
+     * JEE application server inventory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param application the target <code>JEEApplication</code>.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException if the update failed.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JEEApplication application,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JEE application {}", application.getName() );
 
         String applicationUri = VariableUtils.replace( application.getUri(), environment.getVariables() );
@@ -72,7 +92,7 @@ public class JEEApplicationUpdater
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating JEE application " + application.getName() ) );
         updateLog.addUpdateMessage(
             new UpdateMessage( "summary", "JEE application " + application.getName() + " located " + applicationUri ) );
-        EventUtils.post( environment, "UPDATE", "Updating JEE application " + application.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JEE application " + application.getName() );
 
         if ( !application.isActive() )
         {
@@ -80,7 +100,7 @@ public class JEEApplicationUpdater
             LOGGER.info( "JEE application {} is inactive, so not updated", application.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "JEE application " + application.getName() + " is inactive, not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JEE application " + application.getName() + " is inactive, not updated" );
             return;
         }
@@ -91,8 +111,8 @@ public class JEEApplicationUpdater
             // delegates the application update to another agent
             LOGGER.info( "Delegating JEE application {} update to agent {}", application.getName(),
                          application.getAgent() );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( application.getAgent() );
-            EventUtils.post( environment, "UPDATE",
+            Agent delegationAgent = kalumet.getAgent( application.getAgent() );
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating JEE application " + application.getName() + " update to agent "
                                  + application.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating JEE application " + application.getName()
@@ -152,7 +172,7 @@ public class JEEApplicationUpdater
                                                                    "Configuration file " + configurationFile.getName()
                                                                        + " update failed: "
                                                                        + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
+                    EventUtils.post( kalumet, environment, "ERROR",
                                      "Configuration file " + configurationFile.getName() + " update failed: "
                                          + updateException.getMessage() );
                     throw new UpdateException( "Configuration file " + configurationFile.getName() + " update failed",
@@ -169,10 +189,10 @@ public class JEEApplicationUpdater
                     updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                                    "Configuration file " + configurationFile.getName()
                                                                        + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
+                    EventUtils.post( kalumet, environment, "WARN",
                                      "Configuration file " + configurationFile.getName() + " update failed: "
                                          + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "Configuration file " + configurationFile.getName()
+                    EventUtils.post( kalumet, environment, "UPDATE", "Configuration file " + configurationFile.getName()
                         + " is not update blocker, update continues" );
                 }
             }
@@ -197,8 +217,9 @@ public class JEEApplicationUpdater
                     updateLog.addUpdateMessage( new UpdateMessage( "error",
                                                                    "Database " + database.getName() + " update failed: "
                                                                        + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR", "Database " + database.getName() + " update failed: "
-                        + updateException.getMessage() );
+                    EventUtils.post( kalumet, environment, "ERROR",
+                                     "Database " + database.getName() + " update failed: "
+                                         + updateException.getMessage() );
                     throw new UpdateException( "Database " + database.getName() + " update failed", updateException );
                 }
                 else
@@ -210,9 +231,9 @@ public class JEEApplicationUpdater
                                                                        + updateException.getMessage() ) );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "Database " + database.getName()
                         + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "Database " + database.getName() + " update failed: "
+                    EventUtils.post( kalumet, environment, "WARN", "Database " + database.getName() + " update failed: "
                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "Database " + database.getName() + " is not update blocker, update continues" );
                 }
             }
@@ -239,7 +260,7 @@ public class JEEApplicationUpdater
                                                                    "Content manager " + contentManager.getName()
                                                                        + " update failed: "
                                                                        + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR",
+                    EventUtils.post( kalumet, environment, "ERROR",
                                      "Content manager " + contentManager.getName() + " update failed: "
                                          + updateException.getMessage() );
                     throw new UpdateException( "Content manager " + contentManager.getName() + " update failed",
@@ -253,10 +274,10 @@ public class JEEApplicationUpdater
                         + " update failed: " + updateException.getMessage() ) );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "Content manager " + contentManager.getName()
                         + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN",
+                    EventUtils.post( kalumet, environment, "WARN",
                                      "Content manager " + contentManager.getName() + " update failed: "
                                          + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE", "Content manager " + contentManager.getName()
+                    EventUtils.post( kalumet, environment, "UPDATE", "Content manager " + contentManager.getName()
                         + " is not update blocker, update continues" );
                 }
             }
@@ -269,7 +290,7 @@ public class JEEApplicationUpdater
             Archive archive = (Archive) archiveIterator.next();
             try
             {
-                ArchiveUpdater.update( environment, server, application, archive, updateLog );
+                ArchiveUpdater.update( environment, server, application, archive, updateLog, inventory );
             }
             catch ( UpdateException updateException )
             {
@@ -281,7 +302,7 @@ public class JEEApplicationUpdater
                     updateLog.addUpdateMessage( new UpdateMessage( "error",
                                                                    "Archive " + archive.getName() + " update failed: "
                                                                        + updateException.getMessage() ) );
-                    EventUtils.post( environment, "ERROR", "Archive " + archive.getName() + " update failed: "
+                    EventUtils.post( kalumet, environment, "ERROR", "Archive " + archive.getName() + " update failed: "
                         + updateException.getMessage() );
                     throw new UpdateException( "Archive " + archive.getName() + " update failed", updateException );
                 }
@@ -294,9 +315,9 @@ public class JEEApplicationUpdater
                                                                        + updateException.getMessage() ) );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "Archive " + archive.getName()
                         + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "Archive " + archive.getName() + " update failed: "
+                    EventUtils.post( kalumet, environment, "WARN", "Archive " + archive.getName() + " update failed: "
                         + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "Archive " + archive.getName() + " is not update blocker, update continues" );
                 }
             }
@@ -306,7 +327,7 @@ public class JEEApplicationUpdater
         LOGGER.info( "JEE application {} updated", application.getName() );
         updateLog.addUpdateMessage(
             new UpdateMessage( "info", "JEE application " + application.getName() + " updated" ) );
-        EventUtils.post( environment, "UPDATE", "JEE application " + application.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JEE application " + application.getName() + " updated" );
     }
 
     /**
@@ -324,7 +345,7 @@ public class JEEApplicationUpdater
         LOGGER.info( "JEE application {} update requested by WS", applicationName );
 
         LOGGER.debug( "Loading the configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -351,20 +372,16 @@ public class JEEApplicationUpdater
                     + serverName );
         }
 
-        // update the agent cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
-        EventUtils.post( environment, "UPDATE", "JEE application {} update requested by WS", applicationName );
+        EventUtils.post( kalumet, environment, "UPDATE", "JEE application {} update requested by WS", applicationName );
         UpdateLog updateLog =
             new UpdateLog( "JEE application " + applicationName + " update in progress ...", environment.getName(),
-                           environment );
+                           environment, kalumet );
 
         if ( !delegation )
         {
             // it's a client call
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
         try
@@ -375,7 +392,7 @@ public class JEEApplicationUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JEE application {} update failed", applicationName, e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JEE application " + applicationName + " udpate failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -390,7 +407,7 @@ public class JEEApplicationUpdater
 
         // update completed
         LOGGER.info( "JEE application {} updated", application.getName() );
-        EventUtils.post( environment, "UPDATE", "JEE application " + application.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JEE application " + application.getName() + " updated" );
         if ( !delegation )
         {
             if ( updateLog.isUpdated() )
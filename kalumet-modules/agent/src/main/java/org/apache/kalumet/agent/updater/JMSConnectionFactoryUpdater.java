@@ -24,6 +24,7 @@ import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.ControllerException;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.JMSConnectionFactory;
@@ -55,10 +56,29 @@ public class JMSConnectionFactoryUpdater
                                JMSConnectionFactory jmsConnectionFactory, UpdateLog updateLog )
         throws UpdateException
     {
+        JMSConnectionFactoryUpdater.update( environment, server, jmsConnectionFactory, updateLog, null );
+    }
+
+    /**
+     * Update a JMS connection factory, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment          the target <code>Environment</code>.
+     * @param server               the target <code>JEEApplicationServer</code>.
+     * @param jmsConnectionFactory the target <code>JMSConnectionFactory</code>.
+     * @param updateLog            the <code>UpdateLog</code> to use.
+     * @param inventory            the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JMSConnectionFactory jmsConnectionFactory,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JMS connection factory {}", jmsConnectionFactory.getName() );
         updateLog.addUpdateMessage(
             new UpdateMessage( "info", "Updating JMS connection factory " + jmsConnectionFactory.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating JMS connection factory " + jmsConnectionFactory.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Updating JMS connection factory " + jmsConnectionFactory.getName() );
         if ( !jmsConnectionFactory.isActive() )
         {
             // the JMS connection factory is not active
@@ -66,7 +86,7 @@ public class JMSConnectionFactoryUpdater
             updateLog.addUpdateMessage( new UpdateMessage( "info",
                                                            "JMS connection factory " + jmsConnectionFactory.getName()
                                                                + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "JMS Connection Factory " + jmsConnectionFactory.getName()
+            EventUtils.post( kalumet, environment, "UPDATE", "JMS Connection Factory " + jmsConnectionFactory.getName()
                 + " is inactive, so not updated" );
             return;
         }
@@ -83,15 +103,20 @@ public class JMSConnectionFactoryUpdater
             throw new UpdateException( "Can't connect to JEE application server " + server.getName() + " controller",
                                        e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the JMS connection factory is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         try
         {
-            if ( controller.isJMSConnectionFactoryDeployed( jmsConnectionFactory.getName() ) )
+            if ( inventory.isJMSConnectionFactoryDeployed( jmsConnectionFactory.getName() ) )
             {
                 // JMS connection factory already deployed in the JEE application server
                 LOGGER.info( "JMS connection factory {} already deployed", jmsConnectionFactory.getName() );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS connection factory "
                     + jmsConnectionFactory.getName() + " already deployed" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JMS connection factory " + jmsConnectionFactory.getName() + " already deployed" );
             }
             else
@@ -102,7 +127,7 @@ public class JMSConnectionFactoryUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage( new UpdateMessage( "info", "JMS connection factory "
                     + jmsConnectionFactory.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "JMS connection factory " + jmsConnectionFactory.getName() + " deployed" );
                 LOGGER.info( "JMS connection factory {} deployed", jmsConnectionFactory.getName() );
             }
@@ -113,6 +138,10 @@ public class JMSConnectionFactoryUpdater
             throw new UpdateException( "JMS connection factory " + jmsConnectionFactory.getName() + " update failed",
                                        e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -130,7 +159,7 @@ public class JMSConnectionFactoryUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         Environment environment = kalumet.getEnvironment( environmentName );
@@ -159,15 +188,15 @@ public class JMSConnectionFactoryUpdater
 
         // post event and create update log
         LOGGER.debug( "Posting event and creating update log" );
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "JMS connection factory " + jmsConnectionFactory.getName() + " update requested by WS" );
         UpdateLog updateLog =
             new UpdateLog( "JMS connection factory " + jmsConnectionFactory.getName() + " update in progress ...",
-                           environment.getName(), environment );
+                           environment.getName(), environment, kalumet );
 
         // send a notification and waiting for the count down
         LOGGER.debug( "Send a notification and waiting for the count down" );
-        EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
         NotifierUtils.waitAndNotify( environment );
 
         try
@@ -179,7 +208,7 @@ public class JMSConnectionFactoryUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JMS connection factory {} update failed", jmsConnectionFactory.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JMS connection factory " + jmsConnectionFactory.getName() + " update failed: "
                                  + e.getMessage() );
             updateLog.setStatus( "JMS connection factory " + jmsConnectionFactory.getName() + " update failed" );
@@ -193,7 +222,7 @@ public class JMSConnectionFactoryUpdater
 
         // update completed.
         LOGGER.info( "JMS connection factory {} updated", jmsConnectionFactory.getName() );
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "JMS connection factory " + jmsConnectionFactory.getName() + " updated" );
         if ( updateLog.isUpdated() )
         {
@@ -226,7 +255,7 @@ public class JMSConnectionFactoryUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         Environment environment = kalumet.getEnvironment( environmentName );
@@ -256,18 +285,16 @@ public class JMSConnectionFactoryUpdater
         }
 
         // post an event
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JMS connection factory " + jmsConnectionFactory.getName() + " status check requested by WS" );
 
+        JEEApplicationServerController controller = null;
         try
         {
             // get JEE application server controller.
             LOGGER.debug( "Getting JEE application server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, server );
-            // check if the JMS connection factory is deployed
-            LOGGER.debug( "Check the status of the JMS connection factory " + jmsConnectionFactory.getName() );
-            return controller.isJMSConnectionFactoryDeployed( jmsConnectionFactory.getName() );
+            controller = JEEApplicationServerControllerFactory.getController( environment, server );
+            return check( environment, jmsConnectionFactory, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
@@ -275,6 +302,28 @@ public class JMSConnectionFactoryUpdater
             throw new KalumetException(
                 "JMS connection factory " + jmsConnectionFactory.getName() + " status check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a JMS connection factory is up to date, using a given JEE application server inventory.
+     *
+     * @param environment          the environment.
+     * @param jmsConnectionFactory the JMS connection factory.
+     * @param inventory            the JEE application server inventory.
+     * @return true if the JMS connection factory is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JMSConnectionFactory jmsConnectionFactory,
+                          JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // check if the JMS connection factory is deployed
+        LOGGER.debug( "Check the status of the JMS connection factory " + jmsConnectionFactory.getName() );
+        return inventory.isJMSConnectionFactoryDeployed( jmsConnectionFactory.getName() );
     }
 
 }
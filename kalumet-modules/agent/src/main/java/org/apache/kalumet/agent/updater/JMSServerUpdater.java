@@ -24,6 +24,7 @@ import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.ControllerException;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.JMSQueue;
@@ -62,16 +63,34 @@ public class JMSServerUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        JMSServerUpdater.update( environment, server, jmsServer, updateLog, null );
+    }
+
+    /**
+     * Update a JMS server, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param jmsServer   the target <code>JMSServer</code>.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JMSServer jmsServer, UpdateLog updateLog,
+                        JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JMS server {}", jmsServer.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating JMS server " + jmsServer.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating JMS server " + jmsServer.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JMS server " + jmsServer.getName() );
         if ( !jmsServer.isActive() )
         {
             // JMS server is not active
             LOGGER.info( "JMS server {} is inactive, so not updated", jmsServer.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "JMS server " + jmsServer.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JMS server " + jmsServer.getName() + " is inactive, so not updated" );
             return;
         }
@@ -103,9 +122,14 @@ public class JMSServerUpdater
             throw new UpdateException( "Can't connect to JEE application server " + server.getName() + " controller",
                                        e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the JMS server is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         try
         {
-            if ( controller.isJMSServerDeployed( jmsServer.getName() ) )
+            if ( inventory.isJMSServerDeployed( jmsServer.getName() ) )
             {
                 // JMS server already deployed, check for update
                 LOGGER.info( "JMS server {} already deployed, checking for update", jmsServer.getName() );
@@ -115,7 +139,7 @@ public class JMSServerUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "JMS server " + jmsServer.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE", "JMS server " + jmsServer.getName() + " updated" );
+                    EventUtils.post( kalumet, environment, "UPDATE", "JMS server " + jmsServer.getName() + " updated" );
                     LOGGER.info( "JMS server {} updated", jmsServer.getName() );
                 }
             }
@@ -127,7 +151,7 @@ public class JMSServerUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JMS server " + jmsServer.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE", "JMS server " + jmsServer.getName() + " deployed" );
+                EventUtils.post( kalumet, environment, "UPDATE", "JMS server " + jmsServer.getName() + " deployed" );
                 LOGGER.info( "JMS server {} deployed" );
             }
         }
@@ -136,6 +160,10 @@ public class JMSServerUpdater
             LOGGER.error( "JMS server {} update failed", jmsServer.getName(), e );
             throw new UpdateException( "JMS server " + jmsServer.getName() + " update failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -153,7 +181,7 @@ public class JMSServerUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         LOGGER.debug( "Looking for component objects" );
@@ -184,14 +212,15 @@ public class JMSServerUpdater
 
         // post an event and create update log.
         LOGGER.debug( "Posting an event and creating update log" );
-        EventUtils.post( environment, "UPDATE", "JMS server " + jmsServer.getName() + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "JMS server " + jmsServer.getName() + " update requested by WS" );
         UpdateLog updateLog =
             new UpdateLog( "JMS server " + jmsServer.getName() + " update in progress ...", environment.getName(),
-                           environment );
+                           environment, kalumet );
 
         // send a notification and waiting for the count down.
         LOGGER.info( "Send a notification and waiting for the count down" );
-        EventUtils.post( environment, "UPDATE", "Post an event and waiting for the count down" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Post an event and waiting for the count down" );
         NotifierUtils.waitAndNotify( environment );
 
         try
@@ -203,7 +232,7 @@ public class JMSServerUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JMS server {} update failed", jmsServer.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JMS server " + jmsServer.getName() + " update failed: " + e.getMessage() );
             updateLog.setStatus( "JMS server " + jmsServer.getName() + " update failed" );
             updateLog.addUpdateMessage( new UpdateMessage( "error",
@@ -215,7 +244,7 @@ public class JMSServerUpdater
 
         // update completed
         LOGGER.info( "JMS server {} updated", jmsServer.getName() );
-        EventUtils.post( environment, "UPDATE", "JMS server " + jmsServer.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JMS server " + jmsServer.getName() + " updated" );
         if ( updateLog.isUpdated() )
         {
             updateLog.setStatus( "JMS server " + jmsServer.getName() + " updated" );
@@ -245,7 +274,7 @@ public class JMSServerUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // load component objects
         LOGGER.debug( "Loading component objects" );
@@ -275,39 +304,64 @@ public class JMSServerUpdater
         }
 
         // post an event.
-        EventUtils.post( environment, "INFO", "JMS server " + jmsServer.getName() + " status check requested by WS" );
+        EventUtils.post( kalumet, environment, "INFO",
+                         "JMS server " + jmsServer.getName() + " status check requested by WS" );
 
+        JEEApplicationServerController controller = null;
         try
         {
             // get JEE application server controller.
             LOGGER.debug( "Getting JEE application server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, applicationServer );
-            // construct the queue list.
-            LOGGER.debug( "Constructing the queue list" );
-            LinkedList queues = new LinkedList();
-            for ( Iterator queueIterator = jmsServer.getJMSQueues().iterator(); queueIterator.hasNext(); )
-            {
-                JMSQueue queue = (JMSQueue) queueIterator.next();
-                queues.add( queue );
-            }
-            // construct the topic list.
-            LOGGER.debug( "Constructing the topic list" );
-            LinkedList topics = new LinkedList();
-            for ( Iterator topicIterator = jmsServer.getJMSTopics().iterator(); topicIterator.hasNext(); )
-            {
-                JMSTopic topic = (JMSTopic) topicIterator.next();
-                topics.add( topic );
-            }
-            // check if the JMS server is up to date.
-            LOGGER.debug( "Checking if JMS server {} is up to date", jmsServer.getName() );
-            return controller.isJMSServerUpToDate( jmsServer.getName(), queues, topics );
+            controller = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            return check( environment, jmsServer, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
             LOGGER.error( "JMS server {} check failed", jmsServer.getName(), e );
             throw new KalumetException( "JMS server " + jmsServer.getName() + " check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a JMS server is up to date, using a given JEE application server inventory.
+     *
+     * @param environment the environment.
+     * @param jmsServer   the JMS server.
+     * @param inventory   the JEE application server inventory.
+     * @return true if the JMS server is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JMSServer jmsServer, JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // an undeployed resource is not up to date, checked in the inventory
+        if ( !inventory.isJMSServerDeployed( jmsServer.getName() ) )
+        {
+            return false;
+        }
+        // construct the queue list.
+        LOGGER.debug( "Constructing the queue list" );
+        LinkedList queues = new LinkedList();
+        for ( Iterator queueIterator = jmsServer.getJMSQueues().iterator(); queueIterator.hasNext(); )
+        {
+            JMSQueue queue = (JMSQueue) queueIterator.next();
+            queues.add( queue );
+        }
+        // construct the topic list.
+        LOGGER.debug( "Constructing the topic list" );
+        LinkedList topics = new LinkedList();
+        for ( Iterator topicIterator = jmsServer.getJMSTopics().iterator(); topicIterator.hasNext(); )
+        {
+            JMSTopic topic = (JMSTopic) topicIterator.next();
+            topics.add( topic );
+        }
+        // check if the JMS server is up to date.
+        LOGGER.debug( "Checking if JMS server {} is up to date", jmsServer.getName() );
+        return inventory.getController().isJMSServerUpToDate( jmsServer.getName(), queues, topics );
     }
 
 }
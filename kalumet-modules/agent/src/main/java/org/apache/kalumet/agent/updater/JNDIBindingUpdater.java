@@ -24,6 +24,7 @@ import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.ControllerException;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.JNDIBinding;
@@ -57,16 +58,34 @@ public class JNDIBindingUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        JNDIBindingUpdater.update( environment, server, jndiBinding, updateLog, null );
+    }
+
+    /**
+     * Update a JNDI binding, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment the target <code>Environment</code>.
+     * @param server      the target <code>JEEApplicationServer</code>.
+     * @param jndiBinding the target <code>JNDIBinding</code>.
+     * @param updateLog   the <code>UpdateLog</code> to use.
+     * @param inventory   the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, JNDIBinding jndiBinding,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating JNDI binding {}", jndiBinding.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating JNDI binding " + jndiBinding.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating JNDI binding " + jndiBinding.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating JNDI binding " + jndiBinding.getName() );
         if ( !jndiBinding.isActive() )
         {
             // the JNDI binding is not active
             LOGGER.info( "JNDI binding {} is inactive, so not updated", jndiBinding.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "JNDI binding " + jndiBinding.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "JNDI binding " + jndiBinding.getName() + " is inactive, so not updated" );
             return;
         }
@@ -83,6 +102,11 @@ public class JNDIBindingUpdater
             throw new UpdateException( "Can't connect to JEE application server " + server.getName() + " controller",
                                        e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the JNDI binding is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         // replaces variables in name space binding data
         LOGGER.debug( "Replacing variables in name space binding data" );
         String mapJndiName = VariableUtils.replace( jndiBinding.getJndiname(), environment.getVariables() );
@@ -90,7 +114,7 @@ public class JNDIBindingUpdater
         String mapJndiProviderUrl = VariableUtils.replace( jndiBinding.getProviderurl(), environment.getVariables() );
         try
         {
-            if ( controller.isJNDIBindingDeployed( jndiBinding.getName() ) )
+            if ( inventory.isJNDIBindingDeployed( jndiBinding.getName() ) )
             {
                 // the JNDI binding is already deployed, check for update
                 LOGGER.info( "JNDI binding {} already deployed, checking for update", jndiBinding.getName() );
@@ -102,7 +126,8 @@ public class JNDIBindingUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "JNDI binding " + jndiBinding.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE", "JNDI binding " + jndiBinding.getName() + " updated" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "JNDI binding " + jndiBinding.getName() + " updated" );
                     LOGGER.info( "JNDI binding {} updated", jndiBinding.getName() );
                 }
             }
@@ -114,7 +139,8 @@ public class JNDIBindingUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "JNDI binding " + jndiBinding.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE", "JNDI binding " + jndiBinding.getName() + " deployed" );
+                EventUtils.post( kalumet, environment, "UPDATE",
+                                 "JNDI binding " + jndiBinding.getName() + " deployed" );
                 LOGGER.info( "JNDI binding {} deployed", jndiBinding.getName() );
             }
         }
@@ -123,6 +149,10 @@ public class JNDIBindingUpdater
             LOGGER.error( "JNDI binding {} update failed", jndiBinding.getName(), e );
             throw new UpdateException( "JNDI binding " + jndiBinding.getName() + " update failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -140,7 +170,7 @@ public class JNDIBindingUpdater
 
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects.
         LOGGER.debug( "Looking for component objects" );
@@ -168,14 +198,15 @@ public class JNDIBindingUpdater
 
         // post an event and create the update log.
         LOGGER.debug( "Posting an event and creating the update log" );
-        EventUtils.post( environment, "UPDATE", "JNDI binding " + jndiBinding.getName() + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "JNDI binding " + jndiBinding.getName() + " update requested by WS" );
         UpdateLog updateLog =
             new UpdateLog( "JNDI binding " + jndiBinding.getName() + " update in progress ...", jndiBinding.getName(),
-                           environment );
+                           environment, kalumet );
 
         // send a notification and waiting for the count down.
         LOGGER.info( "Send a notification and waiting for the count down" );
-        EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
         NotifierUtils.waitAndNotify( environment );
 
         try
@@ -187,7 +218,7 @@ public class JNDIBindingUpdater
         catch ( Exception e )
         {
             LOGGER.error( "JNDI binding {} update failed", jndiBinding.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "JNDI binding " + jndiBinding.getName() + " update failed: " + e.getMessage() );
             updateLog.setStatus( "JNDI binding " + jndiBinding.getName() + " update failed" );
             updateLog.addUpdateMessage( new UpdateMessage( "error",
@@ -199,7 +230,7 @@ public class JNDIBindingUpdater
 
         // update completed
         LOGGER.info( "JNDI binding {} updated", jndiBinding.getName() );
-        EventUtils.post( environment, "UPDATE", "JNDI binding " + jndiBinding.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "JNDI binding " + jndiBinding.getName() + " updated" );
         if ( updateLog.isUpdated() )
         {
             updateLog.setStatus( "JNDI binding " + jndiBinding.getName() + " updated" );
@@ -229,7 +260,7 @@ public class JNDIBindingUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         LOGGER.debug( "Looking for component objects" );
@@ -258,28 +289,53 @@ public class JNDIBindingUpdater
         }
 
         // post an event
-        EventUtils.post( environment, "INFO",
+        EventUtils.post( kalumet, environment, "INFO",
                          "JNDI binding " + jndiBinding.getName() + " status check requested by WS" );
 
+        JEEApplicationServerController controller = null;
         try
         {
             // get JEE application server controller
             LOGGER.debug( "Getting JEE aplication server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, applicationServer );
-            // replace JNDI binding data with environment variables.
-            LOGGER.debug( "Replaces variables in JNDI binding data" );
-            String jndiName = VariableUtils.replace( jndiBinding.getJndiname(), environment.getVariables() );
-            String jndiAlias = VariableUtils.replace( jndiBinding.getJndialias(), environment.getVariables() );
-            String jndiProviderUrl = VariableUtils.replace( jndiBinding.getProviderurl(), environment.getVariables() );
-            // check if the JNDI binding is up to date.
-            return controller.isJNDIBindingUpToDate( jndiBinding.getName(), jndiName, jndiAlias, jndiProviderUrl );
+            controller = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            return check( environment, jndiBinding, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
             LOGGER.error( "JNDI binding {} status check failed", jndiBinding.getName(), e );
             throw new KalumetException( "JNDI binding " + jndiBinding.getName() + " status check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a JNDI binding is up to date, using a given JEE application server inventory.
+     *
+     * @param environment the environment.
+     * @param jndiBinding the JNDI binding.
+     * @param inventory   the JEE application server inventory.
+     * @return true if the JNDI binding is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, JNDIBinding jndiBinding, JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // an undeployed resource is not up to date, checked in the inventory
+        if ( !inventory.isJNDIBindingDeployed( jndiBinding.getName() ) )
+        {
+            return false;
+        }
+        // replace JNDI binding data with environment variables.
+        LOGGER.debug( "Replaces variables in JNDI binding data" );
+        String jndiName = VariableUtils.replace( jndiBinding.getJndiname(), environment.getVariables() );
+        String jndiAlias = VariableUtils.replace( jndiBinding.getJndialias(), environment.getVariables() );
+        String jndiProviderUrl = VariableUtils.replace( jndiBinding.getProviderurl(), environment.getVariables() );
+        // check if the JNDI binding is up to date.
+        return inventory.getController().isJNDIBindingUpToDate( jndiBinding.getName(), jndiName, jndiAlias,
+                                                                jndiProviderUrl );
     }
 
 }
@@ -24,6 +24,7 @@ import org.apache.kalumet.agent.utils.EventUtils;
 import org.apache.kalumet.controller.core.ControllerException;
 import org.apache.kalumet.controller.core.JEEApplicationServerController;
 import org.apache.kalumet.controller.core.JEEApplicationServerControllerFactory;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.Kalumet;
@@ -57,17 +58,35 @@ public class SharedLibraryUpdater
                                UpdateLog updateLog )
         throws UpdateException
     {
+        SharedLibraryUpdater.update( environment, server, sharedLibrary, updateLog, null );
+    }
+
+    /**
+     * Update a shared library, checking its deployment in a JEE application server inventory.
+     *
+     * @param environment   the target <code>Environment</code>.
+     * @param server        the target <code>JEEApplicationServer</code>.
+     * @param sharedLibrary the target <code>SharedLibrary</code>.
+     * @param updateLog     the <code>UpdateLog</code> to use.
+     * @param inventory     the JEE application server inventory, null to check with the controller.
+     * @throws UpdateException in case of update failure.
+     */
+    static void update( Environment environment, JEEApplicationServer server, SharedLibrary sharedLibrary,
+                        UpdateLog updateLog, JEEApplicationServerInventory inventory )
+        throws UpdateException
+    {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating shared library {}", sharedLibrary.getName() );
 
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating shared library " + sharedLibrary.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Updating shared library " + sharedLibrary.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating shared library " + sharedLibrary.getName() );
         if ( !sharedLibrary.isActive() )
         {
             // the shared library is not active
             LOGGER.info( "Shared library {} is inactive, so not updated", sharedLibrary.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Shared library " + sharedLibrary.getName()
                 + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Shared library " + sharedLibrary.getName() + " is inactive, so not updated" );
             return;
         }
@@ -84,12 +103,17 @@ public class SharedLibraryUpdater
             throw new UpdateException( "Can't connect to JEE application server " + server.getName() + " controller",
                                        e );
         }
+        if ( inventory == null )
+        {
+            // no inventory, the shared library is checked with the controller
+            inventory = new JEEApplicationServerInventory( controller );
+        }
         // replaces variables in shared library class path.
         LOGGER.debug( "Replacing variables into the shared library classpath" );
         String mapClasspath = VariableUtils.replace( sharedLibrary.getClasspath(), environment.getVariables() );
         try
         {
-            if ( controller.isSharedLibraryDeployed( sharedLibrary.getName() ) )
+            if ( inventory.isSharedLibraryDeployed( sharedLibrary.getName() ) )
             {
                 // the shared library is already deployed, check for update
                 LOGGER.info( "Shared library {} already deployed, checking for update", sharedLibrary.getName() );
@@ -100,7 +124,8 @@ public class SharedLibraryUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "Shared library " + sharedLibrary.getName() + " updated" ) );
-                    EventUtils.post( environment, "UPDATE", "Shared library " + sharedLibrary.getName() + " updated" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "Shared library " + sharedLibrary.getName() + " updated" );
                     LOGGER.info( "Shared library " + sharedLibrary.getName() + " udpated" );
                 }
             }
@@ -112,7 +137,8 @@ public class SharedLibraryUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "Shared library " + sharedLibrary.getName() + " deployed" ) );
-                EventUtils.post( environment, "UPDATE", "Shared library " + sharedLibrary.getName() + " deployed" );
+                EventUtils.post( kalumet, environment, "UPDATE",
+                                 "Shared library " + sharedLibrary.getName() + " deployed" );
                 LOGGER.info( "Shared library " + sharedLibrary.getName() + " deployed" );
             }
         }
@@ -121,6 +147,10 @@ public class SharedLibraryUpdater
             LOGGER.error( "Shared library {} update failed", sharedLibrary.getName(), exception );
             throw new UpdateException( "Shared library " + sharedLibrary.getName() + " update failed", exception );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
     }
 
     /**
@@ -138,7 +168,7 @@ public class SharedLibraryUpdater
 
         // load configuration.
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects.
         LOGGER.debug( "Looking for component objects" );
@@ -170,10 +200,10 @@ public class SharedLibraryUpdater
 
         // post an event and create update log
         LOGGER.debug( "Posting an event and creating update log" );
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Shared library " + sharedLibrary.getName() + " update requested by WS" );
         UpdateLog updateLog = new UpdateLog( "Shared library " + sharedLibrary.getName() + " update in progress ...",
-                                             environment.getName(), environment );
+                                             environment.getName(), environment, kalumet );
 
         // send a notification and waiting for the count down
         LOGGER.info( "Send a notification and waiting for the count down" );
@@ -188,7 +218,7 @@ public class SharedLibraryUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Shared library {} update failed", sharedLibrary.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Shared library " + sharedLibrary.getName() + " update failed: " + e.getMessage() );
             updateLog.setStatus( "Shared library " + sharedLibrary.getName() + " update failed" );
             updateLog.addUpdateMessage( new UpdateMessage( "error", "Shared library " + sharedLibrary.getName()
@@ -229,7 +259,7 @@ public class SharedLibraryUpdater
 
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         LOGGER.debug( "Looking for component objects" );
@@ -258,24 +288,49 @@ public class SharedLibraryUpdater
                     + applicationServer.getName() );
         }
 
+        JEEApplicationServerController controller = null;
         try
         {
             // get JEE application server controller
             LOGGER.debug( "Getting JEE application server controller" );
-            JEEApplicationServerController controller =
-                JEEApplicationServerControllerFactory.getController( environment, applicationServer );
-            // replaces variables in shared library class path.
-            LOGGER.debug( "Replacing variables into the shared library classpath" );
-            String classpath = VariableUtils.replace( sharedLibrary.getClasspath(), environment.getVariables() );
-            // check shared library using controller.
-            LOGGER.debug( "Checking status of the shared library using controller" );
-            return controller.isSharedLibraryUpToDate( sharedLibrary.getName(), classpath );
+            controller = JEEApplicationServerControllerFactory.getController( environment, applicationServer );
+            return check( environment, sharedLibrary, new JEEApplicationServerInventory( controller ) );
         }
         catch ( Exception e )
         {
             LOGGER.error( "Shared library {} status check failed", sharedLibrary.getName(), e );
             throw new KalumetException( "Shared library " + sharedLibrary.getName() + " status check failed", e );
         }
+        finally
+        {
+            JEEApplicationServerControllerFactory.returnController( controller );
+        }
+    }
+
+    /**
+     * Check if a shared library is up to date, using a given JEE application server inventory.
+     *
+     * @param environment   the environment.
+     * @param sharedLibrary the shared library.
+     * @param inventory     the JEE application server inventory.
+     * @return true if the shared library is up to date, false else.
+     * @throws KalumetException in case of check failure.
+     */
+    static boolean check( Environment environment, SharedLibrary sharedLibrary,
+                          JEEApplicationServerInventory inventory )
+        throws KalumetException
+    {
+        // an undeployed resource is not up to date, checked in the inventory
+        if ( !inventory.isSharedLibraryDeployed( sharedLibrary.getName() ) )
+        {
+            return false;
+        }
+        // replaces variables in shared library class path.
+        LOGGER.debug( "Replacing variables into the shared library classpath" );
+        String classpath = VariableUtils.replace( sharedLibrary.getClasspath(), environment.getVariables() );
+        // check shared library using controller.
+        LOGGER.debug( "Checking status of the shared library using controller" );
+        return inventory.getController().isSharedLibraryUpToDate( sharedLibrary.getName(), classpath );
     }
 
 }
@@ -68,6 +68,7 @@ public class SoftwareUpdater
     public static void update( Environment environment, Software software, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating software {}", software.getName() );
 
         if ( !software.isActive() )
@@ -75,7 +76,8 @@ public class SoftwareUpdater
             LOGGER.info( "Software {} is inactive, so not updated", software.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "Software " + software.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " is inactive, so not updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Software " + software.getName() + " is inactive, so not updated" );
             return;
         }
 
@@ -83,11 +85,11 @@ public class SoftwareUpdater
             Configuration.AGENT_ID ) )
         {
             LOGGER.info( "Delegating software {} update to agent {}", software.getName(), software.getAgent() );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating software " + software.getName() + " update to agent " + software.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating software " + software.getName()
                 + " update to agent " + software.getAgent() ) );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( software.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( software.getAgent() );
             if ( delegationAgent == null )
             {
                 LOGGER.error( "Agent {} is not found in the configuration", software.getAgent() );
@@ -110,7 +112,7 @@ public class SoftwareUpdater
         // add an update message
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Updating software " + software.getName() ) );
         // post an event
-        EventUtils.post( environment, "UPDATE", "Updating software " + software.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Updating software " + software.getName() );
 
         // iterate in the software update plan
         for ( Iterator updatePlanIterator = software.getUpdatePlan().iterator(); updatePlanIterator.hasNext(); )
@@ -132,7 +134,7 @@ public class SoftwareUpdater
                         LOGGER.error( "Command {} execution failed", command.getName(), e );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "Command " + command.getName()
                             + " execution failed: " + e.getMessage() ) );
-                        EventUtils.post( environment, "ERROR",
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "Command " + command.getName() + " execution failed: " + e.getMessage() );
                         throw new UpdateException( "Command " + command.getName() + " execution failed", e );
                     }
@@ -143,9 +145,9 @@ public class SoftwareUpdater
                             + " execution failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "Command " + command.getName()
                             + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "Command " + command.getName() + " execution failed: " + e.getMessage() );
-                        EventUtils.post( environment, "UPDATE", "Command " + command.getName()
+                        EventUtils.post( kalumet, environment, "UPDATE", "Command " + command.getName()
                             + " is not an update blocker, update continues" );
                     }
                 }
@@ -166,7 +168,7 @@ public class SoftwareUpdater
                         LOGGER.error( "Location {} update failed", location.getName(), e );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "Location " + location.getName()
                             + " update failed: " + e.getMessage() ) );
-                        EventUtils.post( environment, "ERROR",
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "Location " + location.getName() + " update failed: " + e.getMessage() );
                         throw new UpdateException( "Location " + location.getName() + " update failed", e );
                     }
@@ -177,9 +179,9 @@ public class SoftwareUpdater
                             + " update failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "Location " + location.getName()
                             + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "Location " + location.getName() + " execution failed: " + e.getMessage() );
-                        EventUtils.post( environment, "UPDATE", "Location " + location.getName()
+                        EventUtils.post( kalumet, environment, "UPDATE", "Location " + location.getName()
                             + " is not an update blocker, update continues" );
                     }
                 }
@@ -200,7 +202,7 @@ public class SoftwareUpdater
                         LOGGER.error( "Configuration file {} update failed", configurationFile.getName(), e );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "Configuration file "
                             + configurationFile.getName() + " update failed: " + e.getMessage() ) );
-                        EventUtils.post( environment, "ERROR",
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "Configuration file " + configurationFile.getName() + " update failed: "
                                              + e.getMessage() );
                         throw new UpdateException(
@@ -213,11 +215,12 @@ public class SoftwareUpdater
                             + configurationFile.getName() + " update failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "Configuration file "
                             + configurationFile.getName() + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "Configuration file " + configurationFile.getName() + " update failed: "
                                              + e.getMessage() );
-                        EventUtils.post( environment, "UPDATE", "Configuration file " + configurationFile.getName()
-                            + " is not an update blocker, update continues" );
+                        EventUtils.post( kalumet, environment, "UPDATE",
+                                         "Configuration file " + configurationFile.getName()
+                                             + " is not an update blocker, update continues" );
                     }
                 }
             }
@@ -237,7 +240,7 @@ public class SoftwareUpdater
                         LOGGER.error( "Database {} update failed", database.getName(), e );
                         updateLog.addUpdateMessage( new UpdateMessage( "error", "Database " + database.getName()
                             + " update failed: " + e.getMessage() ) );
-                        EventUtils.post( environment, "ERROR",
+                        EventUtils.post( kalumet, environment, "ERROR",
                                          "Database " + database.getName() + " update failed: " + e.getMessage() );
                         throw new UpdateException( "Database " + database.getName() + " update failed", e );
                     }
@@ -248,9 +251,9 @@ public class SoftwareUpdater
                             + " update failed: " + e.getMessage() ) );
                         updateLog.addUpdateMessage( new UpdateMessage( "info", "Database " + database.getName()
                             + " is not an update blocker, update continues" ) );
-                        EventUtils.post( environment, "WARN",
+                        EventUtils.post( kalumet, environment, "WARN",
                                          "Database " + database.getName() + " update failed: " + e.getMessage() );
-                        EventUtils.post( environment, "UPDATE", "Database " + database.getName()
+                        EventUtils.post( kalumet, environment, "UPDATE", "Database " + database.getName()
                             + " is not an update blocker, update continues" );
                     }
                 }
@@ -271,7 +274,7 @@ public class SoftwareUpdater
         LOGGER.info( "Software {} update requested by WS", softwareName );
 
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
@@ -290,15 +293,15 @@ public class SoftwareUpdater
         LOGGER.debug( "Creating an update log" );
         UpdateLog updateLog =
             new UpdateLog( "Software " + software.getName() + " update in progress ...", environment.getName(),
-                           environment );
-        EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " update requested by WS" );
+                           environment, kalumet );
+        EventUtils.post( kalumet, environment, "UPDATE", "Software " + software.getName() + " update requested by WS" );
 
         if ( !delegation )
         {
             LOGGER.info( "Send a notification and waiting for the count down" );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "Send a notification and waiting for the count down" ) );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
         try
@@ -309,7 +312,7 @@ public class SoftwareUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Software {} update failed", software.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Software " + software.getName() + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -323,11 +326,11 @@ public class SoftwareUpdater
         }
 
         LOGGER.info( "Software {} updated", software.getName() );
-        EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Software " + software.getName() + " updated" );
         if ( !delegation )
         {
             LOGGER.debug( "The update is a client call, publish result" );
-            EventUtils.post( environment, "UPDATE", "Update completed" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Update completed" );
             if ( updateLog.isUpdated() )
             {
                 updateLog.setStatus( "Software " + software.getName() + " updated" );
@@ -355,6 +358,7 @@ public class SoftwareUpdater
                                        UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Executing software {} command {}", software.getName(), command.getName() );
 
         if ( !command.isActive() )
@@ -362,8 +366,9 @@ public class SoftwareUpdater
             LOGGER.info( "Software {} command {} is inactive, so not executed", software.getName(), command.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName() + " command "
                 + command.getName() + " is inactive, so not executed" ) );
-            EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " command " + command.getName()
-                + " is inactive, so not executed" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Software " + software.getName() + " command " + command.getName()
+                                 + " is inactive, so not executed" );
             return;
         }
 
@@ -372,10 +377,10 @@ public class SoftwareUpdater
         {
             // delegates the command execution to another agent
             LOGGER.info( "Delegating command {} execution to agent {}", command.getName(), command.getAgent() );
-            Agent agentDelegation = Configuration.CONFIG_CACHE.getAgent( command.getAgent() );
+            Agent agentDelegation = kalumet.getAgent( command.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating command " + command.getName()
                 + " execution to agent " + command.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating command " + command.getName() + " execution to agent " + command );
             if ( agentDelegation == null )
             {
@@ -416,7 +421,7 @@ public class SoftwareUpdater
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName() + " command "
             + command.getName() + " executed: " + output ) );
         // post an event
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Software " + software.getName() + " command " + command.getName() + " executed: " + output );
     }
 
@@ -433,7 +438,7 @@ public class SoftwareUpdater
         throws KalumetException
     {
         LOGGER.info( "Software {} command {} execution requested by WS", softwareName, commandName );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -453,21 +458,18 @@ public class SoftwareUpdater
             LOGGER.error( "Command {} is not found in software {}", commandName, softwareName );
             throw new KalumetException( "Command " + commandName + " is not found in software " + softwareName );
         }
-        // update the agent configuration cache
-        LOGGER.debug( "Updating agent configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
         // post a journal event
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Software " + softwareName + " command " + commandName + " execution requested by WS" );
         // create an update logger
         UpdateLog updateLog =
             new UpdateLog( "Software " + softwareName + " command " + commandName + " execution in progress ...",
-                           environment.getName(), environment );
+                           environment.getName(), environment, kalumet );
         if ( !delegation )
         {
             // the call is not a delegation from another agent
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
         try
@@ -479,7 +481,7 @@ public class SoftwareUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Command {} execution failed", command.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Command " + command.getName() + " execution failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -494,7 +496,8 @@ public class SoftwareUpdater
 
         // command execution is completed
         LOGGER.info( "Command {} has been executed successfully", command.getName() );
-        EventUtils.post( environment, "UPDATE", "Command " + command.getName() + " has been executed successfully" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Command " + command.getName() + " has been executed successfully" );
         if ( !delegation )
         {
             updateLog.setStatus( "Command " + command.getName() + " has been executed successfully" );
@@ -522,7 +525,7 @@ public class SoftwareUpdater
 
         // loading configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -543,23 +546,20 @@ public class SoftwareUpdater
             throw new KalumetException( "Location " + locationName + " is not found in software " + softwareName );
         }
 
-        // update configuration cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post journal event
-        EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " location " + location.getName()
-            + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Software " + software.getName() + " location " + location.getName()
+                             + " update requested by WS" );
         // create an update logger
         UpdateLog updateLog = new UpdateLog(
             "Software " + software.getName() + " location " + location.getName() + " update in progress ....",
-            environment.getName(), environment );
+            environment.getName(), environment, kalumet );
 
         if ( !delegation )
         {
             // the call is not a delegation from another agent, it's an atomic update
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
         try
@@ -571,7 +571,7 @@ public class SoftwareUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Location {} update failed", location.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Location " + location.getName() + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -585,7 +585,7 @@ public class SoftwareUpdater
 
         // location updated
         LOGGER.info( "Location {} updated", location.getName() );
-        EventUtils.post( environment, "UPDATE", "Location " + location.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Location " + location.getName() + " updated" );
         if ( !delegation )
         {
             updateLog.setStatus( "Location " + location.getName() + " updated" );
@@ -608,6 +608,7 @@ public class SoftwareUpdater
                                        UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating software {} location {}", software.getName(), location.getName() );
 
         if ( !location.isActive() )
@@ -616,8 +617,9 @@ public class SoftwareUpdater
                          location.getName() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName() + " location "
                 + location.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " location " + location.getName()
-                + "is inactive, so not updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Software " + software.getName() + " location " + location.getName()
+                                 + "is inactive, so not updated" );
             return;
         }
 
@@ -626,10 +628,10 @@ public class SoftwareUpdater
         {
             // delegates the location update to another agent
             LOGGER.info( "Delegating location {} update to agent {}", location.getName(), location.getAgent() );
-            Agent agentDelegation = Configuration.CONFIG_CACHE.getAgent( location.getAgent() );
+            Agent agentDelegation = kalumet.getAgent( location.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating location " + location.getName()
                 + " update to agent " + location.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating location " + location.getName() + " update to agent " + location.getAgent() );
             if ( agentDelegation == null )
             {
@@ -689,7 +691,7 @@ public class SoftwareUpdater
         LOGGER.info( "Software {} location {} updated", software.getName(), location.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName() + " location "
             + location.getName() + " updated" ) );
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Software " + software.getName() + " location " + location.getName() + " updated" );
     }
 
@@ -710,7 +712,7 @@ public class SoftwareUpdater
 
         // loading configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
@@ -733,24 +735,20 @@ public class SoftwareUpdater
                 "Configuration file " + configurationFileName + " is not found in software " + softwareName );
         }
 
-        // update agent configuration cache
-        LOGGER.debug( "Updating agent configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post journal event
-        EventUtils.post( environment, "UPDATE",
+        EventUtils.post( kalumet, environment, "UPDATE",
                          "Software " + software.getName() + " configuration file " + configurationFile.getName()
                              + " update requested by WS" );
         // create update log
         UpdateLog updateLog = new UpdateLog(
             "Software " + software.getName() + " configuration file " + configurationFile.getName()
-                + " update in progress ...", environment.getName(), environment );
+                + " update in progress ...", environment.getName(), environment, kalumet );
 
         if ( !delegation )
         {
             // the update is not call by another agent, it's an atomic update
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -763,7 +761,7 @@ public class SoftwareUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Configuration file {} update failed", configurationFile.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Configuration file " + configurationFile.getName() + " update failed: "
                                  + e.getMessage() );
             if ( !delegation )
@@ -779,7 +777,8 @@ public class SoftwareUpdater
 
         // configuration file updated
         LOGGER.info( "Configuration file {} updated", configurationFile.getName() );
-        EventUtils.post( environment, "UPDATE", "Configuration file " + configurationFile.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Configuration file " + configurationFile.getName() + " updated" );
         if ( !delegation )
         {
             updateLog.setStatus( "Configuration file " + configurationFile.getName() + " updated" );
@@ -803,6 +802,7 @@ public class SoftwareUpdater
                                                 ConfigurationFile configurationFile, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Updating software {} configuration file {}", software.getName(), configurationFile.getName() );
 
         if ( !configurationFile.isActive() )
@@ -813,7 +813,7 @@ public class SoftwareUpdater
                                                            "Software " + software.getName() + " configuration file "
                                                                + configurationFile.getName()
                                                                + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Software " + software.getName() + " configuration file " + configurationFile.getName()
                                  + " is inactive, so not updated" );
             return;
@@ -825,10 +825,10 @@ public class SoftwareUpdater
             // delegates configuration file update to another agent
             LOGGER.info( "Delegating configuration file {} update to agent {}", configurationFile.getName(),
                          configurationFile.getAgent() );
-            Agent agentDelegation = Configuration.CONFIG_CACHE.getAgent( configurationFile.getAgent() );
+            Agent agentDelegation = kalumet.getAgent( configurationFile.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating configuration file "
                 + configurationFile.getName() + " update to agent " + configurationFile.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating configuration file " + configurationFile.getName() + " update to agent "
                                  + configurationFile.getAgent() );
             if ( agentDelegation == null )
@@ -931,7 +931,7 @@ public class SoftwareUpdater
                 updateLog.setUpdated( true );
                 updateLog.addUpdateMessage(
                     new UpdateMessage( "info", "Configuration file " + configurationFile.getName() + " updated" ) );
-                EventUtils.post( environment, "UPDATE",
+                EventUtils.post( kalumet, environment, "UPDATE",
                                  "Configuration file " + configurationFile.getName() + " updated" );
                 LOGGER.info( "Configuration file {} updated", configurationFile.getName() );
             }
@@ -961,7 +961,7 @@ public class SoftwareUpdater
         LOGGER.info( "Software {} database {} update requested by WS", softwareName, databaseName );
 
         // load configuration
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
         Environment environment = kalumet.getEnvironment( environmentName );
         if ( environment == null )
         {
@@ -982,23 +982,20 @@ public class SoftwareUpdater
             throw new KalumetException( "Database " + databaseName + " is not found in software " + softwareName );
         }
 
-        // updating configuration cache
-        LOGGER.debug( "Updating configuration cache" );
-        Configuration.CONFIG_CACHE = kalumet;
-
         // post journal event
-        EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " database " + database.getName()
-            + " update requested by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "Software " + software.getName() + " database " + database.getName()
+                             + " update requested by WS" );
         // create update log
         UpdateLog updateLog = new UpdateLog(
             "Software " + software.getName() + " database " + database.getName() + " update in progress ...",
-            environment.getName(), environment );
+            environment.getName(), environment, kalumet );
 
         if ( !delegation )
         {
             // the call is not a delegation from another agent, it's an atomic update
             LOGGER.info( "Send a notification and waiting for the count down" );
-            EventUtils.post( environment, "UPDATE", "Send a notification and waiting for the count down" );
+            EventUtils.post( kalumet, environment, "UPDATE", "Send a notification and waiting for the count down" );
             NotifierUtils.waitAndNotify( environment );
         }
 
@@ -1011,7 +1008,7 @@ public class SoftwareUpdater
         catch ( Exception e )
         {
             LOGGER.error( "Database {} update failed", database.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "Database " + database.getName() + " update failed: " + e.getMessage() );
             if ( !delegation )
             {
@@ -1026,7 +1023,7 @@ public class SoftwareUpdater
 
         // database updated
         LOGGER.info( "Database {} updated", database.getName() );
-        EventUtils.post( environment, "UPDATE", "Database " + database.getName() + " updated" );
+        EventUtils.post( kalumet, environment, "UPDATE", "Database " + database.getName() + " updated" );
         if ( !delegation )
         {
             updateLog.setStatus( "Database " + database.getName() + " updated" );
@@ -1048,6 +1045,7 @@ public class SoftwareUpdater
                                        UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Update software {} database {}", software.getName(), database.getName() );
 
         if ( !database.isActive() )
@@ -1056,8 +1054,9 @@ public class SoftwareUpdater
                          new Object[]{ software.getName(), database.getName(), environment.getName() } );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Software " + software.getName() + " database "
                 + database.getName() + " is inactive, so not updated" ) );
-            EventUtils.post( environment, "UPDATE", "Software " + software.getName() + " database " + database.getName()
-                + " is inactive, so not updated" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             "Software " + software.getName() + " database " + database.getName()
+                                 + " is inactive, so not updated" );
             return;
         }
 
@@ -1067,10 +1066,10 @@ public class SoftwareUpdater
             // the database update is delegated to another agent
             LOGGER.info( "Delegating software {} database {} update to agent {}",
                          new Object[]{ software.getName(), database.getName(), database.getAgent() } );
-            Agent delegationAgent = Configuration.CONFIG_CACHE.getAgent( database.getAgent() );
+            Agent delegationAgent = kalumet.getAgent( database.getAgent() );
             updateLog.addUpdateMessage( new UpdateMessage( "info", "Delegating database " + database.getName()
                 + " update to agent " + database.getAgent() ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "Delegating database " + database.getName() + " update to agent " + database.getAgent() );
             if ( delegationAgent == null )
             {
@@ -1120,9 +1119,10 @@ public class SoftwareUpdater
                         + " execution failed: " + updateException.getMessage() ) );
                     updateLog.addUpdateMessage( new UpdateMessage( "info", "SQL script " + sqlScript.getName()
                         + " is not update blocker, update continues" ) );
-                    EventUtils.post( environment, "WARN", "SQL script " + sqlScript.getName() + " execution failed: "
-                        + updateException.getMessage() );
-                    EventUtils.post( environment, "UPDATE",
+                    EventUtils.post( kalumet, environment, "WARN",
+                                     "SQL script " + sqlScript.getName() + " execution failed: "
+                                         + updateException.getMessage() );
+                    EventUtils.post( kalumet, environment, "UPDATE",
                                      "SQL script " + sqlScript.getName() + " is not update blocker, update continues" );
                 }
             }
@@ -1143,9 +1143,10 @@ public class SoftwareUpdater
                                          SqlScript sqlScript, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Executing SQL script {}", sqlScript.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Executing SQL script " + sqlScript.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Executing SQL script " + sqlScript.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Executing SQL script " + sqlScript.getName() );
 
         if ( !sqlScript.isActive() )
         {
@@ -1153,7 +1154,7 @@ public class SoftwareUpdater
             LOGGER.info( "SQL script {} is inactive, so not executed", sqlScript.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " is inactive, so not executed" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "SQL script " + sqlScript.getName() + " is inactive, so not executed" );
             return;
         }
@@ -1218,7 +1219,8 @@ public class SoftwareUpdater
             // the user provided a directory
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", sqlScript.getName() + "is a folder, iterate in the SQL scripts" ) );
-            EventUtils.post( environment, "UPDATE", sqlScript.getName() + " is a folder, iterate in the SQL scripts" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             sqlScript.getName() + " is a folder, iterate in the SQL scripts" );
             LOGGER.info( "{} is a folder, iterate in the SQL scripts", sqlScript.getName() );
             FileObject[] children = fileManipulator.browse( sqlScriptCache );
             for ( int i = 0; i < children.length; i++ )
@@ -1250,7 +1252,8 @@ public class SoftwareUpdater
                             String output = SqlScriptUtils.executeUsingCommand( singleSqlScriptRuntime, command );
                             updateLog.addUpdateMessage(
                                 new UpdateMessage( "info", "SQL script " + name + " executed: " + output ) );
-                            EventUtils.post( environment, "UPDATE", "SQL script " + name + " executed: " + output );
+                            EventUtils.post( kalumet, environment, "UPDATE",
+                                             "SQL script " + name + " executed: " + output );
                             LOGGER.info( "SQL script {} executed succesfully", name );
                         }
                         else
@@ -1312,7 +1315,8 @@ public class SoftwareUpdater
                         updateLog.setUpdated( true );
                         updateLog.addUpdateMessage(
                             new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed" ) );
-                        EventUtils.post( environment, "UPDATE", "SQL script " + sqlScript.getName() + " executed" );
+                        EventUtils.post( kalumet, environment, "UPDATE",
+                                         "SQL script " + sqlScript.getName() + " executed" );
                         LOGGER.info( "SQL script " + sqlScript.getName() + " executed" );
                     }
                 }
@@ -1362,7 +1366,7 @@ public class SoftwareUpdater
                         String output = SqlScriptUtils.executeUsingCommand( sqlScriptRuntime, command );
                         updateLog.addUpdateMessage(
                             new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed: " + output ) );
-                        EventUtils.post( environment, "UPDATE",
+                        EventUtils.post( kalumet, environment, "UPDATE",
                                          "SQL script " + sqlScript.getName() + " executed: " + output );
                         LOGGER.info( "SQL script {} executed successfully", sqlScript.getName() );
                     }
@@ -1424,7 +1428,8 @@ public class SoftwareUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed" ) );
-                    EventUtils.post( environment, "UPDATE", "SQL script " + sqlScript.getName() + " executed" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "SQL script " + sqlScript.getName() + " executed" );
                     LOGGER.info( "SQL script {} executed sucessfully", sqlScript.getName() );
                 }
             }
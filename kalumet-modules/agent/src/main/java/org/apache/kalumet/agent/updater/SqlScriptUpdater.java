@@ -66,9 +66,10 @@ public class SqlScriptUpdater
                                 Database database, SqlScript sqlScript, UpdateLog updateLog )
         throws UpdateException
     {
+        Kalumet kalumet = updateLog.getKalumet();
         LOGGER.info( "Executing SQL script {}", sqlScript.getName() );
         updateLog.addUpdateMessage( new UpdateMessage( "info", "Executing SQL script " + sqlScript.getName() ) );
-        EventUtils.post( environment, "UPDATE", "Executing SQL script " + sqlScript.getName() );
+        EventUtils.post( kalumet, environment, "UPDATE", "Executing SQL script " + sqlScript.getName() );
 
         if ( !sqlScript.isActive() )
         {
@@ -76,7 +77,7 @@ public class SqlScriptUpdater
             LOGGER.info( "SQL Script {} is inactive, so not executed", sqlScript.getName() );
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", "SQL Script " + sqlScript.getName() + " is inactive, so not executed" ) );
-            EventUtils.post( environment, "UPDATE",
+            EventUtils.post( kalumet, environment, "UPDATE",
                              "SQL Script " + sqlScript.getName() + " is inactive, so not executed" );
             return;
         }
@@ -138,7 +139,8 @@ public class SqlScriptUpdater
             // the user provided a directory
             updateLog.addUpdateMessage(
                 new UpdateMessage( "info", sqlScript.getName() + " is a folder, iterate in the SQL scripts" ) );
-            EventUtils.post( environment, "UPDATE", sqlScript.getName() + " is a folder, iterate in the SQL scripts" );
+            EventUtils.post( kalumet, environment, "UPDATE",
+                             sqlScript.getName() + " is a folder, iterate in the SQL scripts" );
             LOGGER.info( sqlScript.getName() + " is a folder, iterate in the SQL scripts" );
             FileObject[] children = fileManipulator.browse( sqlScriptCache );
             for ( int i = 0; i < children.length; i++ )
@@ -169,7 +171,8 @@ public class SqlScriptUpdater
                             String output = SqlScriptUtils.executeUsingCommand( singleSqlScriptRuntime, command );
                             updateLog.addUpdateMessage(
                                 new UpdateMessage( "info", "SQL script " + name + " executed: " + output ) );
-                            EventUtils.post( environment, "UPDATE", "SQL script " + name + " executed:" + output );
+                            EventUtils.post( kalumet, environment, "UPDATE",
+                                             "SQL script " + name + " executed:" + output );
                             LOGGER.info( "SQL script " + name + " executed successfully" );
                         }
                         else
@@ -218,7 +221,8 @@ public class SqlScriptUpdater
                         updateLog.setUpdated( true );
                         updateLog.addUpdateMessage(
                             new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed" ) );
-                        EventUtils.post( environment, "UPDATE", "SQL script " + sqlScript.getName() + " executed" );
+                        EventUtils.post( kalumet, environment, "UPDATE",
+                                         "SQL script " + sqlScript.getName() + " executed" );
                         LOGGER.info( "SQL script {} executed", sqlScript.getName() );
                     }
                 }
@@ -267,7 +271,7 @@ public class SqlScriptUpdater
                         String output = SqlScriptUtils.executeUsingCommand( sqlScriptRuntime, command );
                         updateLog.addUpdateMessage(
                             new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed: " + output ) );
-                        EventUtils.post( environment, "UPDATE",
+                        EventUtils.post( kalumet, environment, "UPDATE",
                                          "SQL script " + sqlScript.getName() + " executed: " + output );
                         LOGGER.info( "SQL script " + sqlScript.getName() + " executed: " + output );
                     }
@@ -315,7 +319,8 @@ public class SqlScriptUpdater
                     updateLog.setUpdated( true );
                     updateLog.addUpdateMessage(
                         new UpdateMessage( "info", "SQL script " + sqlScript.getName() + " executed" ) );
-                    EventUtils.post( environment, "UPDATE", "SQL script " + sqlScript.getName() + " executed" );
+                    EventUtils.post( kalumet, environment, "UPDATE",
+                                     "SQL script " + sqlScript.getName() + " executed" );
                     LOGGER.info( "SQL script " + sqlScript.getName() + " executed" );
                 }
             }
@@ -364,7 +369,7 @@ public class SqlScriptUpdater
 
         // load configuration
         LOGGER.debug( "Loading configuration" );
-        Kalumet kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+        Kalumet kalumet = Configuration.getEnvironmentKalumet( environmentName );
 
         // looking for component objects
         LOGGER.debug( "Looking for component objects" );
@@ -409,10 +414,11 @@ public class SqlScriptUpdater
 
         // post an event and create the update log.
         LOGGER.debug( "Post an event and create the update log" );
-        EventUtils.post( environment, "UPDATE", "SQL script " + sqlScript.getName() + " execution request by WS" );
+        EventUtils.post( kalumet, environment, "UPDATE",
+                         "SQL script " + sqlScript.getName() + " execution request by WS" );
         UpdateLog updateLog =
             new UpdateLog( "SQL script " + sqlScript.getName() + " execution in progress ...", sqlScript.getName(),
-                           environment );
+                           environment, kalumet );
 
         // send a notification and waiting for the count down.
         LOGGER.info( "Send a notification and waiting for the count down" );
@@ -427,7 +433,7 @@ public class SqlScriptUpdater
         catch ( Exception e )
         {
             LOGGER.error( "SQL script {} execution failed", sqlScript.getName(), e );
-            EventUtils.post( environment, "ERROR",
+            EventUtils.post( kalumet, environment, "ERROR",
                              "SQL script " + sqlScript.getName() + " execution failed: " + e.getMessage() );
             updateLog.setStatus( "SQL script " + sqlScript.getName() + " execution error" );
             updateLog.addUpdateMessage( new UpdateMessage( "error",
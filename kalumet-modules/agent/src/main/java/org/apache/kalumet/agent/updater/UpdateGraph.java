@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent.updater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Graph of update tasks.
+ * <p/>
+ * Each task is executed once all the tasks it depends on are completed. The
+ * independent tasks are executed concurrently by the calling thread, helped
+ * by up to <code>parallelism - 1</code> workers. The ready tasks are taken in
+ * the order they have been added to the graph, so an execution with a
+ * parallelism of 1 keeps the order of the graph definition.
+ * <p/>
+ * The workers are shared by all the graphs (nested graphs included) and
+ * bounded (see <code>WORKERS_PROPERTY</code>): when they are all busy, a
+ * graph is executed with less helpers, or by its calling thread only. So the
+ * agent runs at most <code>maxparallelupdates</code> environment updates
+ * plus the shared workers concurrently, whatever the parallelism of each
+ * graph (see <code>PARALLELISM_PROPERTY</code>).
+ * <p/>
+ * A task fails by throwing an <code>UpdateException</code> (the update
+ * blockers): all the tasks depending on it, directly or not, are cancelled,
+ * the other tasks continue and the graph execution fails at the end with
+ * the first failure.
+ */
+class UpdateGraph
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( UpdateGraph.class );
+
+    /**
+     * System property defining the max number of update workers shared by
+     * all the graphs (default 16).
+     */
+    final static String WORKERS_PROPERTY = "kalumet.agent.updateworkers";
+
+    /**
+     * System property defining the max number of tasks of a graph executed
+     * concurrently (default 4), apart from the agent
+     * <code>maxparallelupdates</code> which bounds the concurrent
+     * environment updates.
+     */
+    final static String PARALLELISM_PROPERTY = "kalumet.agent.updategraph.parallelism";
+
+    // no queue: a helper is started only if a worker is available, the
+    // calling thread of a graph always works on it, so a task can execute a
+    // nested graph (the JEE application server update) and wait for it even
+    // if all the workers are busy
+    private final static ExecutorService WORKERS =
+        new ThreadPoolExecutor( 0, Math.max( Integer.getInteger( WORKERS_PROPERTY, 16 ).intValue(), 1 ), 60L,
+                                TimeUnit.SECONDS, new SynchronousQueue(), new WorkerThreadFactory() );
+
+    private final List tasks = new LinkedList();
+
+    private final PriorityQueue ready = new PriorityQueue( 11, new Comparator()
+    {
+        public int compare( Object o1, Object o2 )
+        {
+            return ( (Task) o1 ).index - ( (Task) o2 ).index;
+        }
+    } );
+
+    private int remaining;
+
+    private UpdateException failure;
+
+    /**
+     * Update task, node of the graph.
+     */
+    static abstract class Task
+    {
+
+        private final String name;
+
+        private final List dependents = new LinkedList();
+
+        private int index;
+
+        private int pending;
+
+        private boolean cancelled;
+
+        /**
+         * Create an update task.
+         *
+         * @param name the task name, used in the log messages.
+         */
+        Task( String name )
+        {
+            this.name = name;
+        }
+
+        String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Execute the task.
+         *
+         * @throws UpdateException if the task fails and the dependent tasks have to be cancelled.
+         */
+        abstract void run()
+            throws UpdateException;
+
+    }
+
+    /**
+     * Get the parallelism of the update graphs, defined by the
+     * <code>PARALLELISM_PROPERTY</code> system property.
+     *
+     * @return the update graphs parallelism.
+     */
+    static int getParallelism()
+    {
+        return Math.max( Integer.getInteger( PARALLELISM_PROPERTY, 4 ).intValue(), 1 );
+    }
+
+    /**
+     * Add a task without dependency in the graph.
+     *
+     * @param task the task to add.
+     * @return the added task.
+     */
+    Task add( Task task )
+    {
+        return this.add( task, new Task[0] );
+    }
+
+    /**
+     * Add a task in the graph.
+     *
+     * @param task         the task to add.
+     * @param dependencies the tasks (already in the graph) that have to be completed before this task.
+     * @return the added task.
+     */
+    Task add( Task task, Task[] dependencies )
+    {
+        task.index = this.tasks.size();
+        for ( int i = 0; i < dependencies.length; i++ )
+        {
+            if ( dependencies[i] != null && !dependencies[i].dependents.contains( task ) )
+            {
+                dependencies[i].dependents.add( task );
+                task.pending++;
+            }
+        }
+        this.tasks.add( task );
+        return task;
+    }
+
+    /**
+     * Add a task in the graph.
+     *
+     * @param task         the task to add.
+     * @param dependencies the tasks (already in the graph) that have to be completed before this task.
+     * @return the added task.
+     */
+    Task add( Task task, List dependencies )
+    {
+        return this.add( task, (Task[]) dependencies.toArray( new Task[dependencies.size()] ) );
+    }
+
+    /**
+     * Add a task in the graph.
+     *
+     * @param task       the task to add.
+     * @param dependency the task (already in the graph) that has to be completed before this task, may be null.
+     * @return the added task.
+     */
+    Task add( Task task, Task dependency )
+    {
+        return this.add( task, new Task[]{ dependency } );
+    }
+
+    /**
+     * Execute the graph and wait for the completion of all tasks.
+     *
+     * @param parallelism the max number of tasks executed concurrently.
+     * @throws UpdateException if a task has failed.
+     */
+    void execute( int parallelism )
+        throws UpdateException
+    {
+        synchronized ( this )
+        {
+            this.remaining = this.tasks.size();
+            for ( Iterator iterator = this.tasks.iterator(); iterator.hasNext(); )
+            {
+                Task task = (Task) iterator.next();
+                if ( task.pending == 0 )
+                {
+                    this.ready.add( task );
+                }
+            }
+        }
+        int helpers = Math.min( parallelism, this.tasks.size() ) - 1;
+        for ( int i = 0; i < helpers; i++ )
+        {
+            try
+            {
+                WORKERS.execute( new Runnable()
+                {
+                    public void run()
+                    {
+                        UpdateGraph.this.work();
+                    }
+                } );
+            }
+            catch ( RejectedExecutionException rejectedExecutionException )
+            {
+                LOGGER.debug( "All the update workers are busy, the graph is executed with {} helpers",
+                              new Integer( i ) );
+                break;
+            }
+        }
+        // the calling thread works on the graph too
+        this.work();
+        synchronized ( this )
+        {
+            while ( this.remaining > 0 )
+            {
+                try
+                {
+                    this.wait();
+                }
+                catch ( InterruptedException interruptedException )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new UpdateException( "Update interrupted", interruptedException );
+                }
+            }
+            if ( this.failure != null )
+            {
+                throw this.failure;
+            }
+        }
+    }
+
+    /**
+     * Execute the ready tasks until all tasks are completed.
+     */
+    private void work()
+    {
+        while ( true )
+        {
+            Task task;
+            synchronized ( this )
+            {
+                while ( this.ready.isEmpty() && this.remaining > 0 )
+                {
+                    try
+                    {
+                        this.wait();
+                    }
+                    catch ( InterruptedException interruptedException )
+                    {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if ( this.remaining == 0 )
+                {
+                    return;
+                }
+                task = (Task) this.ready.poll();
+            }
+            UpdateException taskFailure = null;
+            try
+            {
+                task.run();
+            }
+            catch ( UpdateException updateException )
+            {
+                taskFailure = updateException;
+            }
+            catch ( RuntimeException runtimeException )
+            {
+                taskFailure = new UpdateException( task.getName() + " update failed", runtimeException );
+            }
+            this.completed( task, taskFailure );
+        }
+    }
+
+    /**
+     * Release the dependents of a completed task, or cancel them if the task
+     * has failed.
+     *
+     * @param task    the completed task.
+     * @param failure the task failure, null if the task succeeded.
+     */
+    private synchronized void completed( Task task, UpdateException failure )
+    {
+        this.remaining--;
+        if ( failure != null )
+        {
+            if ( this.failure == null )
+            {
+                this.failure = failure;
+            }
+            this.cancel( task );
+        }
+        else
+        {
+            for ( Iterator iterator = task.dependents.iterator(); iterator.hasNext(); )
+            {
+                Task dependent = (Task) iterator.next();
+                if ( --dependent.pending == 0 && !dependent.cancelled )
+                {
+                    this.ready.add( dependent );
+                }
+            }
+        }
+        this.notifyAll();
+    }
+
+    /**
+     * Cancel the tasks depending (directly or not) on a failed task.
+     *
+     * @param task the failed task.
+     */
+    private void cancel( Task task )
+    {
+        for ( Iterator iterator = task.dependents.iterator(); iterator.hasNext(); )
+        {
+            Task dependent = (Task) iterator.next();
+            if ( !dependent.cancelled )
+            {
+                LOGGER.warn( "{} update cancelled as {} update failed", dependent.getName(), task.getName() );
+                dependent.cancelled = true;
+                this.remaining--;
+                this.cancel( dependent );
+            }
+        }
+    }
+
+    /**
+     * Thread factory of the update workers.
+     */
+    private static class WorkerThreadFactory
+        implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "Apache Kalumet update worker " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
+    }
+
+}
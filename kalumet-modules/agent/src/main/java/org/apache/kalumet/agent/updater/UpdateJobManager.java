@@ -0,0 +1,449 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent.updater;
+
+import org.apache.kalumet.KalumetException;
+import org.apache.kalumet.model.update.UpdateLog;
+import org.apache.kalumet.model.update.UpdateLogListener;
+import org.apache.kalumet.model.update.UpdateMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous update jobs (via WS).
+ * <p/>
+ * A job submission returns immediately the job ID, the update is performed
+ * by a job thread. The client polls the job status and the
+ * <code>UpdateMessage</code>s of the update logs created by the job, the
+ * messages of the other jobs on the same environment are not collected.
+ * <p/>
+ * The number of concurrent jobs is bounded (see <code>JOBS_PROPERTY</code>),
+ * the other submitted jobs are pending in a queue.
+ * <p/>
+ * The memory is bounded: a job keeps its last <code>MAX_MESSAGES</code>
+ * messages and only the last <code>MAX_COMPLETED_JOBS</code> completed jobs
+ * are kept.
+ */
+public class UpdateJobManager
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( UpdateJobManager.class );
+
+    public final static String PENDING = "pending";
+
+    public final static String RUNNING = "running";
+
+    public final static String COMPLETED = "completed";
+
+    public final static String FAILED = "failed";
+
+    public final static int MAX_COMPLETED_JOBS = 100;
+
+    public final static int MAX_MESSAGES = 1000;
+
+    /**
+     * System property defining the max number of jobs running concurrently
+     * (default 4).
+     */
+    public final static String JOBS_PROPERTY = "kalumet.agent.updatejobs";
+
+    private final static int JOB_THREADS = Math.max( Integer.getInteger( JOBS_PROPERTY, 4 ).intValue(), 1 );
+
+    private final static ExecutorService EXECUTOR =
+        new ThreadPoolExecutor( JOB_THREADS, JOB_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue(),
+                                new JobThreadFactory() );
+
+    private final static AtomicLong COUNTER = new AtomicLong();
+
+    // job ID -> Job, in the submission order
+    private final static Map JOBS = new LinkedHashMap();
+
+    /**
+     * Update job.
+     */
+    private static abstract class Job
+        implements UpdateLogListener, Runnable
+    {
+
+        private final String id;
+
+        private final String description;
+
+        private String status = PENDING;
+
+        private String error;
+
+        private long start;
+
+        private final LinkedList messages = new LinkedList();
+
+        private int dropped;
+
+        Job( String description )
+        {
+            this.id = Long.toString( System.currentTimeMillis(), 36 ) + "-" + COUNTER.incrementAndGet();
+            this.description = description;
+        }
+
+        /**
+         * Perform the update.
+         *
+         * @return the update start time (in milliseconds).
+         * @throws KalumetException in case of update failure.
+         */
+        abstract long update()
+            throws KalumetException;
+
+        public void run()
+        {
+            synchronized ( this )
+            {
+                this.status = RUNNING;
+            }
+            // collect the messages of the update logs created by this job only
+            UpdateLog.setListener( this );
+            try
+            {
+                long start = this.update();
+                synchronized ( this )
+                {
+                    this.start = start;
+                    this.status = COMPLETED;
+                }
+                LOGGER.info( "Job {} ({}) completed", this.id, this.description );
+            }
+            catch ( Exception e )
+            {
+                LOGGER.warn( "Job {} ({}) failed", new Object[]{ this.id, this.description, e } );
+                synchronized ( this )
+                {
+                    this.error = e.getMessage();
+                    this.status = FAILED;
+                }
+            }
+            finally
+            {
+                UpdateLog.setListener( null );
+            }
+        }
+
+        public synchronized void messageAdded( UpdateMessage updateMessage )
+        {
+            if ( this.messages.size() >= MAX_MESSAGES )
+            {
+                this.messages.removeFirst();
+                this.dropped++;
+            }
+            this.messages.add( updateMessage );
+        }
+
+        synchronized boolean isDone()
+        {
+            return COMPLETED.equals( this.status ) || FAILED.equals( this.status );
+        }
+
+    }
+
+    /**
+     * Submit the update of an environment.
+     *
+     * @param environmentName the target environment name.
+     * @return the job ID.
+     * @throws KalumetException if the job can't be submitted.
+     */
+    public static String submitEnvironmentUpdate( final String environmentName )
+        throws KalumetException
+    {
+        return UpdateJobManager.submit( new Job( "Environment " + environmentName + " update" )
+        {
+            long update()
+                throws KalumetException
+            {
+                return EnvironmentUpdater.update( environmentName );
+            }
+        } );
+    }
+
+    /**
+     * Submit the update of a JEE application server.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @return the job ID.
+     * @throws KalumetException if the job can't be submitted.
+     */
+    public static String submitJEEApplicationServerUpdate( final String environmentName, final String serverName )
+        throws KalumetException
+    {
+        return UpdateJobManager.submit(
+            new Job( "JEE application server " + serverName + " update" )
+            {
+                long update()
+                    throws KalumetException
+                {
+                    long start = System.currentTimeMillis();
+                    JEEApplicationServerUpdater.update( environmentName, serverName, false );
+                    return start;
+                }
+            } );
+    }
+
+    /**
+     * Submit the update of a JEE application.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @param applicationName the target JEE application name.
+     * @return the job ID.
+     * @throws KalumetException if the job can't be submitted.
+     */
+    public static String submitJEEApplicationUpdate( final String environmentName, final String serverName,
+                                                     final String applicationName )
+        throws KalumetException
+    {
+        return UpdateJobManager.submit( new Job( "JEE application " + applicationName + " update" )
+        {
+            long update()
+                throws KalumetException
+            {
+                long start = System.currentTimeMillis();
+                JEEApplicationUpdater.update( environmentName, serverName, applicationName, false );
+                return start;
+            }
+        } );
+    }
+
+    /**
+     * Submit the update of a JEE application archive.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @param applicationName the target JEE application name.
+     * @param archiveName     the target archive name.
+     * @return the job ID.
+     * @throws KalumetException if the job can't be submitted.
+     */
+    public static String submitArchiveUpdate( final String environmentName, final String serverName,
+                                              final String applicationName, final String archiveName )
+        throws KalumetException
+    {
+        return UpdateJobManager.submit( new Job( "Archive " + archiveName + " update" )
+        {
+            long update()
+                throws KalumetException
+            {
+                return ArchiveUpdater.update( environmentName, serverName, applicationName, archiveName, false );
+            }
+        } );
+    }
+
+    /**
+     * Submit the update of a software.
+     *
+     * @param environmentName the target environment name.
+     * @param softwareName    the target software name.
+     * @return the job ID.
+     * @throws KalumetException if the job can't be submitted.
+     */
+    public static String submitSoftwareUpdate( final String environmentName, final String softwareName )
+        throws KalumetException
+    {
+        return UpdateJobManager.submit( new Job( "Software " + softwareName + " update" )
+        {
+            long update()
+                throws KalumetException
+            {
+                long start = System.currentTimeMillis();
+                SoftwareUpdater.update( environmentName, softwareName, false );
+                return start;
+            }
+        } );
+    }
+
+    /**
+     * Get the status of a job.
+     *
+     * @param jobId the job ID.
+     * @return the job status (pending, running, completed or failed).
+     * @throws KalumetException if the job is not found.
+     */
+    public static String getStatus( String jobId )
+        throws KalumetException
+    {
+        Job job = UpdateJobManager.getJob( jobId );
+        synchronized ( job )
+        {
+            return job.status;
+        }
+    }
+
+    /**
+     * Get the error message of a failed job.
+     *
+     * @param jobId the job ID.
+     * @return the job error message, null if the job has not failed.
+     * @throws KalumetException if the job is not found.
+     */
+    public static String getError( String jobId )
+        throws KalumetException
+    {
+        Job job = UpdateJobManager.getJob( jobId );
+        synchronized ( job )
+        {
+            return job.error;
+        }
+    }
+
+    /**
+     * Get the update start time of a completed job. The start time is in the
+     * future if the update has been deferred after the notification count
+     * down.
+     *
+     * @param jobId the job ID.
+     * @return the update start time (in milliseconds), 0 if the job is not completed.
+     * @throws KalumetException if the job is not found.
+     */
+    public static long getStart( String jobId )
+        throws KalumetException
+    {
+        Job job = UpdateJobManager.getJob( jobId );
+        synchronized ( job )
+        {
+            return job.start;
+        }
+    }
+
+    /**
+     * Get the update messages of a job, starting from a given message index.
+     * Each message is formatted as <code>priority:message</code>.
+     *
+     * @param jobId the job ID.
+     * @param from  the index of the first message to get (the number of messages already read).
+     * @return the update messages.
+     * @throws KalumetException if the job is not found.
+     */
+    public static String[] getMessages( String jobId, int from )
+        throws KalumetException
+    {
+        Job job = UpdateJobManager.getJob( jobId );
+        synchronized ( job )
+        {
+            int skip = Math.max( 0, from - job.dropped );
+            if ( skip >= job.messages.size() )
+            {
+                return new String[0];
+            }
+            String[] messages = new String[job.messages.size() - skip];
+            int index = 0;
+            for ( Iterator iterator = job.messages.listIterator( skip ); iterator.hasNext(); )
+            {
+                UpdateMessage updateMessage = (UpdateMessage) iterator.next();
+                messages[index++] = updateMessage.getPriority() + ":" + updateMessage.getMessage();
+            }
+            return messages;
+        }
+    }
+
+    private static Job getJob( String jobId )
+        throws KalumetException
+    {
+        synchronized ( JOBS )
+        {
+            Job job = (Job) JOBS.get( jobId );
+            if ( job == null )
+            {
+                throw new KalumetException( "Job " + jobId + " is not found" );
+            }
+            return job;
+        }
+    }
+
+    private static String submit( Job job )
+        throws KalumetException
+    {
+        synchronized ( JOBS )
+        {
+            // purge the oldest completed jobs
+            int completed = 0;
+            for ( Iterator iterator = JOBS.values().iterator(); iterator.hasNext(); )
+            {
+                if ( ( (Job) iterator.next() ).isDone() )
+                {
+                    completed++;
+                }
+            }
+            for ( Iterator iterator = JOBS.values().iterator();
+                  completed >= MAX_COMPLETED_JOBS && iterator.hasNext(); )
+            {
+                if ( ( (Job) iterator.next() ).isDone() )
+                {
+                    iterator.remove();
+                    completed--;
+                }
+            }
+            JOBS.put( job.id, job );
+        }
+        try
+        {
+            EXECUTOR.execute( job );
+        }
+        catch ( RejectedExecutionException rejectedExecutionException )
+        {
+            synchronized ( JOBS )
+            {
+                JOBS.remove( job.id );
+            }
+            throw new KalumetException( "Can't submit " + job.description, rejectedExecutionException );
+        }
+        LOGGER.info( "Job {} ({}) submitted", job.id, job.description );
+        return job.id;
+    }
+
+    /**
+     * Thread factory of the job threads.
+     */
+    private static class JobThreadFactory
+        implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "Apache Kalumet job " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
+    }
+
+}
@@ -36,28 +36,26 @@ public class EventUtils
     /**
      * Wrapper method to post an event.
      *
+     * @param kalumet     the Kalumet configuration the caller runs with (defining the console location).
      * @param environment the target environment.
      * @param author      the event author.
      * @param severity    the event severity.
      * @param event       the event message.
      */
-    public static void post( Environment environment, String author, String severity, String event )
+    public static void post( Kalumet kalumet, Environment environment, String author, String severity, String event )
     {
-        LOGGER.debug( "Loading configuration from the cache" );
-        Kalumet kalumet = Configuration.CONFIG_CACHE;
         if ( kalumet == null )
         {
-            LOGGER.debug( "No configuration in cache, updating it" );
+            LOGGER.debug( "No configuration loaded, loading it" );
             try
             {
-                kalumet = Kalumet.digeste( Configuration.CONFIG_LOCATION );
+                kalumet = Configuration.getKalumet();
             }
             catch ( KalumetException kalumetException )
             {
                 LOGGER.warn( "Can't post journal event", kalumetException );
                 return;
             }
-            Configuration.CONFIG_CACHE = kalumet;
         }
         org.apache.kalumet.utils.EventUtils.post( environment, author, severity, event, kalumet );
     }
@@ -65,13 +63,14 @@ public class EventUtils
     /**
      * Wrapper method to post an event.
      *
+     * @param kalumet     the Kalumet configuration the caller runs with (defining the console location).
      * @param environment the target environment.
      * @param severity    the event severity.
      * @param event       the event message.
      */
-    public static void post( Environment environment, String severity, String event )
+    public static void post( Kalumet kalumet, Environment environment, String severity, String event )
     {
-        EventUtils.post( environment, Configuration.AGENT_ID, severity, event );
+        EventUtils.post( kalumet, environment, Configuration.AGENT_ID, severity, event );
     }
 
 }
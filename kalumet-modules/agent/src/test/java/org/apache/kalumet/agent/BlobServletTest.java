@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent;
+
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests on the <code>BlobServlet</code>.
+ */
+public class BlobServletTest
+{
+
+    /**
+     * HTTP exchange recording the response status and headers.
+     */
+    private static class Exchange
+        implements InvocationHandler
+    {
+
+        private final Map headers = new HashMap();
+
+        private int status = HttpServletResponse.SC_OK;
+
+        public Object invoke( Object proxy, Method method, Object[] args )
+        {
+            if ( method.getName().equals( "getPathInfo" ) )
+            {
+                // a blob not in the store
+                return "/0123456789abcdef0123456789abcdef";
+            }
+            if ( method.getName().equals( "getRemoteAddr" ) )
+            {
+                return "127.0.0.1";
+            }
+            if ( method.getName().equals( "setHeader" ) )
+            {
+                headers.put( args[0], args[1] );
+            }
+            if ( method.getName().equals( "sendError" ) )
+            {
+                status = ( (Integer) args[0] ).intValue();
+            }
+            return null;
+        }
+
+        HttpServletRequest getRequest()
+        {
+            return (HttpServletRequest) Proxy.newProxyInstance( getClass().getClassLoader(),
+                                                                new Class[]{ HttpServletRequest.class }, this );
+        }
+
+        HttpServletResponse getResponse()
+        {
+            return (HttpServletResponse) Proxy.newProxyInstance( getClass().getClassLoader(),
+                                                                 new Class[]{ HttpServletResponse.class }, this );
+        }
+
+    }
+
+    @Test
+    public void testBusy()
+        throws Exception
+    {
+        BlobServlet servlet = new BlobServlet( 1 );
+        // a blob send is running
+        servlet.sends.acquire();
+        Exchange get = new Exchange();
+        servlet.doGet( get.getRequest(), get.getResponse() );
+        assertEquals( HttpServletResponse.SC_SERVICE_UNAVAILABLE, get.status );
+        assertEquals( "10", get.headers.get( "Retry-After" ) );
+        // the busy agent is not proposed to the peers
+        Exchange head = new Exchange();
+        servlet.doHead( head.getRequest(), head.getResponse() );
+        assertEquals( HttpServletResponse.SC_SERVICE_UNAVAILABLE, head.status );
+        servlet.sends.release();
+        Exchange free = new Exchange();
+        servlet.doGet( free.getRequest(), free.getResponse() );
+        assertEquals( HttpServletResponse.SC_NOT_FOUND, free.status );
+        // the send is released, even when the blob is not found
+        assertEquals( 1, servlet.sends.availablePermits() );
+    }
+
+    @Test
+    public void testRange()
+        throws Exception
+    {
+        String eTag = "\"0123456789abcdef0123456789abcdef\"";
+        long[] range = BlobServlet.getRange( "bytes=0-99", null, eTag, 1000 );
+        assertEquals( 0, range[0] );
+        assertEquals( 99, range[1] );
+        // the last chunk is truncated to the blob length
+        range = BlobServlet.getRange( "bytes=900-1099", eTag, eTag, 1000 );
+        assertEquals( 900, range[0] );
+        assertEquals( 999, range[1] );
+        range = BlobServlet.getRange( "bytes=500-", null, eTag, 1000 );
+        assertEquals( 500, range[0] );
+        assertEquals( 999, range[1] );
+        range = BlobServlet.getRange( "bytes=-100", null, eTag, 1000 );
+        assertEquals( 900, range[0] );
+        assertEquals( 999, range[1] );
+        // not satisfiable
+        assertEquals( 0, BlobServlet.getRange( "bytes=1000-1099", null, eTag, 1000 ).length );
+        // the whole blob is sent for another version, multiple ranges or no range
+        assertNull( BlobServlet.getRange( "bytes=0-99", "\"other\"", eTag, 1000 ) );
+        assertNull( BlobServlet.getRange( "bytes=0-99,200-299", null, eTag, 1000 ) );
+        assertNull( BlobServlet.getRange( null, null, eTag, 1000 ) );
+    }
+
+}
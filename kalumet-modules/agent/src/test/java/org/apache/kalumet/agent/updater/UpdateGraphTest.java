@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.agent.updater;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests on the <code>UpdateGraph</code>.
+ */
+public class UpdateGraphTest
+{
+
+    /**
+     * Task recording its execution.
+     */
+    private static class RecordingTask
+        extends UpdateGraph.Task
+    {
+
+        private final List executed;
+
+        private final boolean fail;
+
+        RecordingTask( String name, List executed, boolean fail )
+        {
+            super( name );
+            this.executed = executed;
+            this.fail = fail;
+        }
+
+        void run()
+            throws UpdateException
+        {
+            try
+            {
+                Thread.sleep( 10 );
+            }
+            catch ( InterruptedException interruptedException )
+            {
+                throw new UpdateException( "Interrupted", interruptedException );
+            }
+            if ( fail )
+            {
+                throw new UpdateException( getName() + " failed" );
+            }
+            executed.add( getName() );
+        }
+
+    }
+
+    @Test
+    public void testSequentialOrder()
+        throws Exception
+    {
+        List executed = Collections.synchronizedList( new LinkedList() );
+        UpdateGraph graph = new UpdateGraph();
+        UpdateGraph.Task a = graph.add( new RecordingTask( "a", executed, false ) );
+        graph.add( new RecordingTask( "b", executed, false ) );
+        graph.add( new RecordingTask( "c", executed, false ), a );
+        graph.add( new RecordingTask( "d", executed, false ) );
+        graph.execute( 1 );
+        assertEquals( Arrays.asList( new String[]{ "a", "b", "c", "d" } ), executed );
+    }
+
+    @Test
+    public void testDependencies()
+        throws Exception
+    {
+        List executed = Collections.synchronizedList( new LinkedList() );
+        UpdateGraph graph = new UpdateGraph();
+        UpdateGraph.Task a = graph.add( new RecordingTask( "a", executed, false ) );
+        UpdateGraph.Task b = graph.add( new RecordingTask( "b", executed, false ) );
+        UpdateGraph.Task c = graph.add( new RecordingTask( "c", executed, false ), new UpdateGraph.Task[]{ a, b } );
+        graph.add( new RecordingTask( "d", executed, false ), c );
+        graph.add( new RecordingTask( "e", executed, false ) );
+        graph.execute( 4 );
+        assertEquals( 5, executed.size() );
+        assertTrue( executed.indexOf( "c" ) > executed.indexOf( "a" ) );
+        assertTrue( executed.indexOf( "c" ) > executed.indexOf( "b" ) );
+        assertTrue( executed.indexOf( "d" ) > executed.indexOf( "c" ) );
+    }
+
+    @Test
+    public void testFailure()
+        throws Exception
+    {
+        List executed = Collections.synchronizedList( new LinkedList() );
+        UpdateGraph graph = new UpdateGraph();
+        UpdateGraph.Task a = graph.add( new RecordingTask( "a", executed, true ) );
+        UpdateGraph.Task b = graph.add( new RecordingTask( "b", executed, false ), a );
+        graph.add( new RecordingTask( "c", executed, false ), b );
+        graph.add( new RecordingTask( "d", executed, false ) );
+        try
+        {
+            graph.execute( 2 );
+            fail( "The graph execution should fail" );
+        }
+        catch ( UpdateException updateException )
+        {
+            assertEquals( "a failed", updateException.getMessage() );
+        }
+        // the dependents of the failed task are cancelled, the other tasks are executed
+        assertEquals( Arrays.asList( new String[]{ "d" } ), executed );
+    }
+
+    @Test
+    public void testParallelism()
+        throws Exception
+    {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        UpdateGraph graph = new UpdateGraph();
+        for ( int i = 0; i < 20; i++ )
+        {
+            graph.add( new UpdateGraph.Task( "task" + i )
+            {
+                void run()
+                    throws UpdateException
+                {
+                    int current = running.incrementAndGet();
+                    synchronized ( max )
+                    {
+                        max.set( Math.max( max.get(), current ) );
+                    }
+                    try
+                    {
+                        Thread.sleep( 10 );
+                    }
+                    catch ( InterruptedException interruptedException )
+                    {
+                        throw new UpdateException( "Interrupted", interruptedException );
+                    }
+                    running.decrementAndGet();
+                }
+            } );
+        }
+        graph.execute( 3 );
+        assertTrue( max.get() <= 3 );
+    }
+
+    @Test( timeout = 60000 )
+    public void testNestedGraphs()
+        throws Exception
+    {
+        // more nested graphs than update workers: the calling threads execute them
+        final List executed = Collections.synchronizedList( new LinkedList() );
+        UpdateGraph graph = new UpdateGraph();
+        for ( int i = 0; i < 40; i++ )
+        {
+            final String name = "outer" + i;
+            graph.add( new UpdateGraph.Task( name )
+            {
+                void run()
+                    throws UpdateException
+                {
+                    UpdateGraph nested = new UpdateGraph();
+                    for ( int j = 0; j < 4; j++ )
+                    {
+                        nested.add( new RecordingTask( name + "-" + j, executed, false ) );
+                    }
+                    nested.execute( 4 );
+                }
+            } );
+        }
+        graph.execute( 40 );
+        assertEquals( 160, executed.size() );
+    }
+
+}
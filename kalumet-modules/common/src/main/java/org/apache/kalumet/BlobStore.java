@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Content-addressable store of the artifacts fetched by an agent.
+ * <p/>
+ * An artifact is stored once, named by its MD5 digest, whatever the number of
+ * environments and applications using it. The cache files are hard links to
+ * their blob (copies if the platform doesn't support the links), recorded as
+ * references to the blob (with their size and last modification time): a
+ * blob without references anymore (the cache files have been removed or
+ * changed) is deleted by the garbage collection.
+ * <p/>
+ * The references index is stored at most every
+ * <code>kalumet.blobs.store.interval</code> milliseconds (default 1 minute),
+ * by <code>flush()</code> and by the garbage collection: the references
+ * recorded meanwhile are lost if the agent stops, their blobs are then
+ * deleted by the garbage collection but the cache files (hard links) keep
+ * their content.
+ */
+public class BlobStore
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( BlobStore.class );
+
+    // an unreferenced blob is kept a while, it may be in use by a running copy
+    final static long GRACE_PERIOD = 60 * 60 * 1000;
+
+    public final static long STORE_INTERVAL = Long.getLong( "kalumet.blobs.store.interval", 60000 ).longValue();
+
+    private final File directory;
+
+    private final File indexFile;
+
+    // cache file path -> digest|validator
+    private Properties references;
+
+    // digest -> number of references
+    private Map counts;
+
+    // the references index has been changed since its last store
+    private boolean dirty = false;
+
+    private long stored = System.currentTimeMillis();
+
+    /**
+     * Default constructor.
+     *
+     * @param directory the store directory.
+     */
+    public BlobStore( File directory )
+    {
+        this.directory = directory;
+        this.indexFile = new File( directory, "references.properties" );
+    }
+
+    /**
+     * Get the store directory.
+     *
+     * @return the store directory.
+     */
+    public File getDirectory()
+    {
+        return this.directory;
+    }
+
+    /**
+     * Get a stored artifact.
+     *
+     * @param digest the artifact digest.
+     * @return the blob file, null if the artifact is not stored.
+     */
+    public File get( byte[] digest )
+    {
+        File blob = this.getBlob( DigestCache.toHex( digest ) );
+        return blob.isFile() ? blob : null;
+    }
+
+    /**
+     * Store an artifact, if it's not already stored.
+     *
+     * @param file   the artifact file.
+     * @param digest the artifact digest.
+     * @throws IOException in case of store failure.
+     */
+    public void add( File file, byte[] digest )
+        throws IOException
+    {
+        File blob = this.getBlob( DigestCache.toHex( digest ) );
+        if ( blob.isFile() )
+        {
+            return;
+        }
+        blob.getParentFile().mkdirs();
+        // link in a temporary file, the blobs are always complete
+        File temp = File.createTempFile( "blob", ".tmp", blob.getParentFile() );
+        try
+        {
+            FileManipulator.linkLocalFile( file, temp );
+            // the blob creation time starts the grace period
+            temp.setLastModified( System.currentTimeMillis() );
+            synchronized ( this )
+            {
+                if ( !blob.isFile() && !temp.renameTo( blob ) )
+                {
+                    throw new IOException( "Can't store " + file.getPath() + " to " + blob.getPath() );
+                }
+            }
+            LOGGER.debug( "{} stored to {}", file.getPath(), blob.getPath() );
+        }
+        finally
+        {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Record a cache file as a reference to a blob. The references index is
+     * stored if it has not been stored for <code>STORE_INTERVAL</code>.
+     *
+     * @param file   the cache file.
+     * @param digest the digest of the cache file content.
+     */
+    public synchronized void reference( File file, byte[] digest )
+    {
+        String hex = DigestCache.toHex( digest );
+        String path = file.getAbsolutePath();
+        String previous = this.getReferences().getProperty( path );
+        if ( previous != null )
+        {
+            this.release( previous.substring( 0, previous.indexOf( '|' ) ) );
+        }
+        this.references.setProperty( path, hex + "|" + BlobStore.validator( file ) );
+        Integer count = (Integer) this.counts.get( hex );
+        this.counts.put( hex, new Integer( ( count == null ) ? 1 : count.intValue() + 1 ) );
+        this.dirty = true;
+        if ( System.currentTimeMillis() - this.stored >= STORE_INTERVAL )
+        {
+            this.store();
+        }
+    }
+
+    /**
+     * Garbage collect the store: drop the references of the cache files
+     * removed or changed, delete the blobs without references, and store
+     * the references index.
+     */
+    public synchronized void collect()
+    {
+        for ( Iterator iterator = this.getReferences().entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            String value = (String) entry.getValue();
+            int separator = value.indexOf( '|' );
+            File file = new File( (String) entry.getKey() );
+            if ( !file.isFile() || !value.substring( separator + 1 ).equals( BlobStore.validator( file ) ) )
+            {
+                LOGGER.debug( "{} has been removed or changed, release its blob", file.getPath() );
+                iterator.remove();
+                this.release( value.substring( 0, separator ) );
+                this.dirty = true;
+            }
+        }
+        this.flush();
+        File[] prefixes = this.directory.listFiles();
+        for ( int i = 0; prefixes != null && i < prefixes.length; i++ )
+        {
+            File[] blobs = prefixes[i].listFiles();
+            for ( int j = 0; blobs != null && j < blobs.length; j++ )
+            {
+                if ( !this.counts.containsKey( blobs[j].getName() )
+                    && System.currentTimeMillis() - blobs[j].lastModified() > GRACE_PERIOD )
+                {
+                    LOGGER.debug( "Delete unreferenced blob {}", blobs[j].getPath() );
+                    blobs[j].delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Store the references index if it has been changed since its last
+     * store.
+     */
+    public synchronized void flush()
+    {
+        if ( this.dirty )
+        {
+            this.store();
+        }
+    }
+
+    private File getBlob( String hex )
+    {
+        return new File( this.directory, hex.substring( 0, 2 ) + "/" + hex );
+    }
+
+    private void release( String hex )
+    {
+        Integer count = (Integer) this.counts.get( hex );
+        if ( count == null || count.intValue() <= 1 )
+        {
+            this.counts.remove( hex );
+        }
+        else
+        {
+            this.counts.put( hex, new Integer( count.intValue() - 1 ) );
+        }
+    }
+
+    private static String validator( File file )
+    {
+        return file.length() + ":" + file.lastModified();
+    }
+
+    /**
+     * Load the references index on first use.
+     *
+     * @return the references index.
+     */
+    private Properties getReferences()
+    {
+        if ( this.references == null )
+        {
+            this.references = new Properties();
+            this.counts = new HashMap();
+            if ( this.indexFile.exists() )
+            {
+                InputStream inputStream = null;
+                try
+                {
+                    inputStream = new FileInputStream( this.indexFile );
+                    this.references.load( inputStream );
+                }
+                catch ( Exception e )
+                {
+                    LOGGER.warn( "Can't load the blob references {}, starting with no reference",
+                                 this.indexFile.getPath(), e );
+                    this.references.clear();
+                }
+                finally
+                {
+                    IOUtils.closeQuietly( inputStream );
+                }
+            }
+            for ( Iterator iterator = this.references.values().iterator(); iterator.hasNext(); )
+            {
+                String value = (String) iterator.next();
+                String hex = value.substring( 0, Math.max( value.indexOf( '|' ), 0 ) );
+                Integer count = (Integer) this.counts.get( hex );
+                this.counts.put( hex, new Integer( ( count == null ) ? 1 : count.intValue() + 1 ) );
+            }
+        }
+        return this.references;
+    }
+
+    private void store()
+    {
+        // write a temporary file and rename it, to not corrupt the index in case of failure
+        File temp = new File( this.indexFile.getPath() + ".tmp" );
+        OutputStream outputStream = null;
+        try
+        {
+            this.directory.mkdirs();
+            outputStream = new FileOutputStream( temp );
+            this.references.store( outputStream, "Apache Kalumet blob references" );
+            outputStream.close();
+            outputStream = null;
+            if ( !temp.renameTo( this.indexFile ) )
+            {
+                // the rename doesn't overwrite an existing file on some platforms
+                this.indexFile.delete();
+                temp.renameTo( this.indexFile );
+            }
+            this.dirty = false;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't store the blob references {}", this.indexFile.getPath(), e );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( outputStream );
+            this.stored = System.currentTimeMillis();
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Persistent index of the files MD5 digests.
+ * <p/>
+ * A digest is indexed by the file URI, with a validator of the file version
+ * (the size and last modification time of a local file, the ETag of a HTTP
+ * resource, ...): the digest is valid as long as the validator is the same,
+ * so an unchanged file is not read again to compute its digest.
+ * <p/>
+ * The index is stored at most every <code>kalumet.digests.store.interval</code>
+ * milliseconds (default 1 minute) and by <code>flush()</code>: the digests
+ * indexed meanwhile are only computed again if the agent stops. The digests
+ * of the removed local files, and the digests not used for
+ * <code>kalumet.digests.max.age</code> milliseconds (default 7 days), are
+ * dropped by <code>prune()</code>.
+ */
+public class DigestCache
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( DigestCache.class );
+
+    public final static long STORE_INTERVAL = Long.getLong( "kalumet.digests.store.interval", 60000 ).longValue();
+
+    public final static long MAX_AGE = Long.getLong( "kalumet.digests.max.age", 7 * 24 * 60 * 60 * 1000L ).longValue();
+
+    private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File file;
+
+    // URI -> digest|validator
+    private Properties index;
+
+    // URI -> last use time (the index load time for the digests not used since)
+    private Map used;
+
+    // the index has been changed since its last store
+    private boolean dirty = false;
+
+    private long stored = System.currentTimeMillis();
+
+    /**
+     * Default constructor.
+     *
+     * @param file the index file.
+     */
+    public DigestCache( File file )
+    {
+        this.file = file;
+    }
+
+    /**
+     * Get the digest of a file.
+     *
+     * @param uri       the file URI.
+     * @param validator the current file validator.
+     * @return the file digest, null if the file is not indexed or if it has changed.
+     */
+    public synchronized byte[] get( String uri, String validator )
+    {
+        String value = this.getIndex().getProperty( uri );
+        if ( value == null )
+        {
+            return null;
+        }
+        int separator = value.indexOf( '|' );
+        if ( separator < 0 || !value.substring( separator + 1 ).equals( validator ) )
+        {
+            LOGGER.debug( "{} has changed since its digest has been indexed", uri );
+            return null;
+        }
+        this.used.put( uri, new Long( System.currentTimeMillis() ) );
+        return DigestCache.fromHex( value.substring( 0, separator ) );
+    }
+
+    /**
+     * Index the digest of a file. The index is stored if it has not been
+     * stored for <code>STORE_INTERVAL</code>.
+     *
+     * @param uri       the file URI.
+     * @param validator the file validator.
+     * @param digest    the file digest.
+     */
+    public synchronized void put( String uri, String validator, byte[] digest )
+    {
+        this.getIndex().setProperty( uri, DigestCache.toHex( digest ) + "|" + validator );
+        this.used.put( uri, new Long( System.currentTimeMillis() ) );
+        this.dirty = true;
+        if ( System.currentTimeMillis() - this.stored >= STORE_INTERVAL )
+        {
+            this.store();
+        }
+    }
+
+    /**
+     * Drop the digests of the removed local files and the digests not used
+     * for <code>MAX_AGE</code>, and store the index.
+     */
+    public synchronized void prune()
+    {
+        long now = System.currentTimeMillis();
+        for ( Iterator iterator = this.getIndex().keySet().iterator(); iterator.hasNext(); )
+        {
+            String uri = (String) iterator.next();
+            Long lastUse = (Long) this.used.get( uri );
+            if ( lastUse == null || now - lastUse.longValue() > MAX_AGE || DigestCache.isRemoved( uri ) )
+            {
+                LOGGER.debug( "Drop the digest of {}", uri );
+                iterator.remove();
+                this.used.remove( uri );
+                this.dirty = true;
+            }
+        }
+        this.flush();
+    }
+
+    /**
+     * Store the index if it has been changed since its last store.
+     */
+    public synchronized void flush()
+    {
+        if ( this.dirty )
+        {
+            this.store();
+        }
+    }
+
+    /**
+     * Check if an URI is a local file which doesn't exist anymore.
+     *
+     * @param uri the file URI.
+     * @return true if the URI is a removed local file, false else.
+     */
+    private static boolean isRemoved( String uri )
+    {
+        if ( !uri.startsWith( "file:" ) )
+        {
+            return false;
+        }
+        try
+        {
+            return !new File( new URI( uri ) ).exists();
+        }
+        catch ( Exception e )
+        {
+            // not a valid local file URI, kept until it expires
+            return false;
+        }
+    }
+
+    private void store()
+    {
+        // write a temporary file and rename it, to not corrupt the index in case of failure
+        File temp = new File( this.file.getPath() + ".tmp" );
+        OutputStream outputStream = null;
+        try
+        {
+            this.file.getParentFile().mkdirs();
+            outputStream = new FileOutputStream( temp );
+            this.index.store( outputStream, "Apache Kalumet files digests" );
+            outputStream.close();
+            outputStream = null;
+            if ( !temp.renameTo( this.file ) )
+            {
+                // the rename doesn't overwrite an existing file on some platforms
+                this.file.delete();
+                temp.renameTo( this.file );
+            }
+            this.dirty = false;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't store the digests index {}", this.file.getPath(), e );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( outputStream );
+            this.stored = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Load the index on first use.
+     *
+     * @return the index.
+     */
+    private Properties getIndex()
+    {
+        if ( this.index == null )
+        {
+            this.index = new Properties();
+            this.used = new HashMap();
+            if ( this.file.exists() )
+            {
+                InputStream inputStream = null;
+                try
+                {
+                    inputStream = new FileInputStream( this.file );
+                    this.index.load( inputStream );
+                }
+                catch ( Exception e )
+                {
+                    LOGGER.warn( "Can't load the digests index {}, starting with an empty index",
+                                 this.file.getPath(), e );
+                    this.index.clear();
+                }
+                finally
+                {
+                    IOUtils.closeQuietly( inputStream );
+                }
+            }
+            // the last use of the loaded digests is unknown, their age starts now
+            Long now = new Long( System.currentTimeMillis() );
+            for ( Iterator iterator = this.index.keySet().iterator(); iterator.hasNext(); )
+            {
+                this.used.put( iterator.next(), now );
+            }
+        }
+        return this.index;
+    }
+
+    /**
+     * Encode a digest in hexadecimal.
+     *
+     * @param digest the digest.
+     * @return the hexadecimal digest.
+     */
+    public static String toHex( byte[] digest )
+    {
+        char[] hex = new char[digest.length * 2];
+        for ( int i = 0; i < digest.length; i++ )
+        {
+            hex[2 * i] = HEX[( digest[i] >> 4 ) & 0x0f];
+            hex[2 * i + 1] = HEX[digest[i] & 0x0f];
+        }
+        return new String( hex );
+    }
+
+    /**
+     * Decode an hexadecimal digest.
+     *
+     * @param hex the hexadecimal digest.
+     * @return the digest, null if the hexadecimal string is not valid.
+     */
+    public static byte[] fromHex( String hex )
+    {
+        if ( hex.length() % 2 != 0 )
+        {
+            return null;
+        }
+        byte[] digest = new byte[hex.length() / 2];
+        for ( int i = 0; i < digest.length; i++ )
+        {
+            int high = Character.digit( hex.charAt( 2 * i ), 16 );
+            int low = Character.digit( hex.charAt( 2 * i + 1 ), 16 );
+            if ( high < 0 || low < 0 )
+            {
+                return null;
+            }
+            digest[i] = (byte) ( ( high << 4 ) | low );
+        }
+        return digest;
+    }
+
+}
@@ -0,0 +1,599 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.apache.axis.encoding.Base64;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Download manager of the HTTP artifacts.
+ * <p/>
+ * A file is downloaded by chunks, with parallel HTTP <code>Range</code>
+ * requests, into a partial file next to the destination. The downloaded
+ * chunks are recorded, so an interrupted download is resumed from the
+ * partial file as long as the remote file has not changed (same size and
+ * same <code>ETag</code> or last modification date). At the end, the size and
+ * the <code>Content-MD5</code> (if provided by the server) of the partial file
+ * are checked before it's renamed to the destination.
+ * <p/>
+ * If the server doesn't support the ranges, the file is downloaded in a
+ * single request. The bandwidth used by all the downloads of a downloader is
+ * throttled.
+ */
+public class Downloader
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( Downloader.class );
+
+    public final static int DEFAULT_THREADS = 4;
+
+    final static long CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final static int RETRIES = 3;
+
+    private final static int TIMEOUT = 30000;
+
+    private final static String PART_EXTENSION = ".part";
+
+    private final static String STATE_EXTENSION = ".part.properties";
+
+    private final int threads;
+
+    // bytes per second, 0 for no throttling
+    private final long bandwidth;
+
+    // the time (in nanoseconds) when the bandwidth is free again
+    private long freeTime = System.nanoTime();
+
+    /**
+     * Remote file headers.
+     */
+    private static class RemoteFile
+    {
+
+        long length = -1;
+
+        boolean ranges;
+
+        // strong ETag or last modification date, used to check if the file has changed
+        String validator;
+
+        String md5;
+
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param threads   the number of parallel requests of a download (0 for the default).
+     * @param bandwidth the bandwidth used by the downloads, in KB/s (0 for no throttling).
+     */
+    public Downloader( int threads, int bandwidth )
+    {
+        this.threads = ( threads > 0 ) ? threads : DEFAULT_THREADS;
+        this.bandwidth = ( bandwidth > 0 ) ? bandwidth * 1024L : 0;
+    }
+
+    /**
+     * Check if the downloader uses the given settings.
+     *
+     * @param threads   the number of parallel requests of a download (0 for the default).
+     * @param bandwidth the bandwidth used by the downloads, in KB/s (0 for no throttling).
+     * @return true if the downloader uses the same settings, false else.
+     */
+    public boolean isConfigured( int threads, int bandwidth )
+    {
+        return this.threads == ( ( threads > 0 ) ? threads : DEFAULT_THREADS )
+            && this.bandwidth == ( ( bandwidth > 0 ) ? bandwidth * 1024L : 0 );
+    }
+
+    /**
+     * Check if a source URI can be downloaded by the downloader.
+     *
+     * @param uri the source URI.
+     * @return true if the source is a plain HTTP URL, false else.
+     */
+    public static boolean accept( String uri )
+    {
+        // the credentials and the wildcards are managed by VFS
+        return ( uri.startsWith( "http://" ) || uri.startsWith( "https://" ) ) && uri.indexOf( '@' ) == -1
+            && uri.indexOf( '*' ) == -1;
+    }
+
+    /**
+     * Download a file.
+     *
+     * @param uri  the HTTP URL of the file.
+     * @param dest the local destination file.
+     * @throws IOException in case of download failure (the partial file is kept to resume the download).
+     */
+    public void download( String uri, File dest )
+        throws IOException
+    {
+        URL url = new URL( uri );
+        RemoteFile remote = Downloader.head( url );
+        File part = new File( dest.getPath() + PART_EXTENSION );
+        File stateFile = new File( dest.getPath() + STATE_EXTENSION );
+        if ( dest.getParentFile() != null )
+        {
+            dest.getParentFile().mkdirs();
+        }
+        if ( remote.length < 0 || !remote.ranges )
+        {
+            LOGGER.debug( "{} doesn't support the ranges, download it in a single request", uri );
+            stateFile.delete();
+            this.downloadAll( url, part );
+        }
+        else
+        {
+            this.downloadChunks( url, remote, part, stateFile );
+        }
+        // integrity checks
+        long length = part.length();
+        if ( remote.length >= 0 && length != remote.length )
+        {
+            part.delete();
+            stateFile.delete();
+            throw new IOException( "Downloaded " + uri + " size is " + length + " instead of " + remote.length );
+        }
+        if ( remote.md5 != null && !MessageDigest.isEqual( Base64.decode( remote.md5 ), Downloader.digest( part ) ) )
+        {
+            part.delete();
+            stateFile.delete();
+            throw new IOException( "Downloaded " + uri + " doesn't match the Content-MD5 " + remote.md5 );
+        }
+        if ( !part.renameTo( dest ) )
+        {
+            // the rename doesn't overwrite an existing file on some platforms
+            dest.delete();
+            if ( !part.renameTo( dest ) )
+            {
+                throw new IOException( "Can't rename " + part.getPath() + " to " + dest.getPath() );
+            }
+        }
+        stateFile.delete();
+        LOGGER.debug( "{} downloaded to {}", uri, dest.getPath() );
+    }
+
+    /**
+     * Download a file in parallel chunks, resuming a previous download.
+     *
+     * @param url       the file URL.
+     * @param remote    the remote file headers.
+     * @param part      the partial file.
+     * @param stateFile the file recording the downloaded chunks.
+     * @throws IOException in case of download failure.
+     */
+    private void downloadChunks( final URL url, final RemoteFile remote, final File part, final File stateFile )
+        throws IOException
+    {
+        final Properties state = Downloader.loadState( remote, part, stateFile );
+        RandomAccessFile file = new RandomAccessFile( part, "rw" );
+        try
+        {
+            file.setLength( remote.length );
+        }
+        finally
+        {
+            file.close();
+        }
+        List chunks = new LinkedList();
+        for ( long start = 0; start < remote.length; start = start + CHUNK_SIZE )
+        {
+            if ( state.getProperty( Long.toString( start ) ) == null )
+            {
+                chunks.add( new Long( start ) );
+            }
+            else
+            {
+                LOGGER.debug( "Chunk {} of {} already downloaded", new Long( start ), url );
+            }
+        }
+        if ( chunks.isEmpty() )
+        {
+            return;
+        }
+        LOGGER.debug( "Download {} chunks of {}", new Integer( chunks.size() ), url );
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( this.threads, chunks.size() ) );
+        try
+        {
+            List futures = new LinkedList();
+            for ( Iterator iterator = chunks.iterator(); iterator.hasNext(); )
+            {
+                final long start = ( (Long) iterator.next() ).longValue();
+                final long end = Math.min( start + CHUNK_SIZE, remote.length );
+                futures.add( executor.submit( new Callable()
+                {
+                    public Object call()
+                        throws Exception
+                    {
+                        Downloader.this.downloadChunk( url, remote, part, start, end );
+                        synchronized ( state )
+                        {
+                            state.setProperty( Long.toString( start ), "done" );
+                            Downloader.storeState( state, stateFile );
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+            IOException failure = null;
+            for ( Iterator iterator = futures.iterator(); iterator.hasNext(); )
+            {
+                try
+                {
+                    ( (Future) iterator.next() ).get();
+                }
+                catch ( ExecutionException executionException )
+                {
+                    LOGGER.warn( "Can't download a chunk of {}", url, executionException.getCause() );
+                    if ( failure == null )
+                    {
+                        failure = new IOException( "Can't download " + url + ": " + executionException.getCause() );
+                    }
+                }
+                catch ( InterruptedException interruptedException )
+                {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException( "Download of " + url + " interrupted" );
+                }
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Download a chunk of a file, retrying in case of failure.
+     *
+     * @param url    the file URL.
+     * @param remote the remote file headers.
+     * @param part   the partial file.
+     * @param start  the chunk start position.
+     * @param end    the chunk end position (excluded).
+     * @throws IOException in case of download failure.
+     */
+    private void downloadChunk( URL url, RemoteFile remote, File part, long start, long end )
+        throws IOException
+    {
+        for ( int attempt = 1; ; attempt++ )
+        {
+            HttpURLConnection connection = Downloader.open( url );
+            RandomAccessFile file = null;
+            InputStream inputStream = null;
+            try
+            {
+                connection.setRequestProperty( "Range", "bytes=" + start + "-" + ( end - 1 ) );
+                if ( remote.validator != null )
+                {
+                    // the whole file is sent if it has changed
+                    connection.setRequestProperty( "If-Range", remote.validator );
+                }
+                if ( connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL )
+                {
+                    throw new IOException( "Range request on " + url + " failed (HTTP " + connection.getResponseCode()
+                                               + "), the file may have changed" );
+                }
+                inputStream = connection.getInputStream();
+                file = new RandomAccessFile( part, "rw" );
+                file.seek( start );
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long position = start;
+                int read;
+                while ( position < end
+                    && ( read = inputStream.read( buffer, 0, (int) Math.min( buffer.length, end - position ) ) ) != -1 )
+                {
+                    file.write( buffer, 0, read );
+                    position = position + read;
+                    this.throttle( read );
+                }
+                if ( position < end )
+                {
+                    throw new IOException( "Premature end of chunk " + start + " of " + url );
+                }
+                return;
+            }
+            catch ( IOException ioException )
+            {
+                if ( attempt >= RETRIES || Thread.currentThread().isInterrupted() )
+                {
+                    throw ioException;
+                }
+                LOGGER.debug( "Chunk {} of {} download failed, retrying", new Long( start ), url );
+            }
+            finally
+            {
+                IOUtils.closeQuietly( inputStream );
+                if ( file != null )
+                {
+                    file.close();
+                }
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Download a file in a single request.
+     *
+     * @param url  the file URL.
+     * @param part the partial file.
+     * @throws IOException in case of download failure.
+     */
+    private void downloadAll( URL url, File part )
+        throws IOException
+    {
+        HttpURLConnection connection = Downloader.open( url );
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+        try
+        {
+            if ( connection.getResponseCode() != HttpURLConnection.HTTP_OK )
+            {
+                throw new IOException( "Can't download " + url + " (HTTP " + connection.getResponseCode() + ")" );
+            }
+            inputStream = connection.getInputStream();
+            outputStream = new FileOutputStream( part );
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ( ( read = inputStream.read( buffer ) ) != -1 )
+            {
+                outputStream.write( buffer, 0, read );
+                this.throttle( read );
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly( inputStream );
+            IOUtils.closeQuietly( outputStream );
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Wait until the bandwidth is free to transfer some bytes.
+     *
+     * @param bytes the number of bytes transferred.
+     * @throws InterruptedIOException if the thread is interrupted.
+     */
+    private void throttle( int bytes )
+        throws InterruptedIOException
+    {
+        if ( this.bandwidth <= 0 )
+        {
+            return;
+        }
+        long wait;
+        synchronized ( this )
+        {
+            // nanoseconds, the small buffers are not truncated to 0 ms on a fast bandwidth
+            long now = System.nanoTime();
+            if ( this.freeTime - now < 0 )
+            {
+                this.freeTime = now;
+            }
+            this.freeTime = this.freeTime + ( bytes * 1000000000L ) / this.bandwidth;
+            wait = this.freeTime - now;
+        }
+        if ( wait > 0 )
+        {
+            try
+            {
+                Thread.sleep( wait / 1000000, (int) ( wait % 1000000 ) );
+            }
+            catch ( InterruptedException interruptedException )
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException( "Download interrupted" );
+            }
+        }
+    }
+
+    /**
+     * Get the headers of a remote file with a HEAD request.
+     *
+     * @param url the file URL.
+     * @return the remote file headers (unknown if the HEAD request failed).
+     */
+    private static RemoteFile head( URL url )
+    {
+        RemoteFile remote = new RemoteFile();
+        HttpURLConnection connection = null;
+        try
+        {
+            connection = Downloader.open( url );
+            connection.setRequestMethod( "HEAD" );
+            if ( connection.getResponseCode() != HttpURLConnection.HTTP_OK )
+            {
+                LOGGER.debug( "HEAD request on {} failed (HTTP {})", url, new Integer( connection.getResponseCode() ) );
+                return remote;
+            }
+            // the int content length is limited to 2GB
+            String length = connection.getHeaderField( "Content-Length" );
+            if ( length != null )
+            {
+                remote.length = Long.parseLong( length.trim() );
+            }
+            remote.ranges = "bytes".equalsIgnoreCase( connection.getHeaderField( "Accept-Ranges" ) );
+            String eTag = connection.getHeaderField( "ETag" );
+            if ( eTag != null && !eTag.startsWith( "W/" ) )
+            {
+                remote.validator = eTag;
+            }
+            else
+            {
+                remote.validator = connection.getHeaderField( "Last-Modified" );
+            }
+            remote.md5 = connection.getHeaderField( "Content-MD5" );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "HEAD request on {} failed", url, e );
+        }
+        finally
+        {
+            if ( connection != null )
+            {
+                connection.disconnect();
+            }
+        }
+        return remote;
+    }
+
+    private static HttpURLConnection open( URL url )
+        throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout( TIMEOUT );
+        connection.setReadTimeout( TIMEOUT );
+        return connection;
+    }
+
+    /**
+     * Load the downloaded chunks of a previous download, if the remote file
+     * has not changed since.
+     *
+     * @param remote    the remote file headers.
+     * @param part      the partial file.
+     * @param stateFile the file recording the downloaded chunks.
+     * @return the download state.
+     */
+    private static Properties loadState( RemoteFile remote, File part, File stateFile )
+    {
+        Properties state = new Properties();
+        if ( remote.validator != null && part.exists() && stateFile.exists() )
+        {
+            InputStream inputStream = null;
+            try
+            {
+                inputStream = new FileInputStream( stateFile );
+                state.load( inputStream );
+                if ( remote.validator.equals( state.getProperty( "validator" ) )
+                    && Long.toString( remote.length ).equals( state.getProperty( "length" ) ) )
+                {
+                    LOGGER.debug( "Resume the download of {}", part.getPath() );
+                    return state;
+                }
+            }
+            catch ( Exception e )
+            {
+                LOGGER.warn( "Can't load the download state {}", stateFile.getPath(), e );
+            }
+            finally
+            {
+                IOUtils.closeQuietly( inputStream );
+            }
+        }
+        // the remote file has changed or can't be identified, restart the download
+        part.delete();
+        stateFile.delete();
+        state.clear();
+        if ( remote.validator != null )
+        {
+            state.setProperty( "validator", remote.validator );
+            state.setProperty( "length", Long.toString( remote.length ) );
+        }
+        return state;
+    }
+
+    private static void storeState( Properties state, File stateFile )
+    {
+        if ( state.getProperty( "validator" ) == null )
+        {
+            // the download can't be resumed
+            return;
+        }
+        OutputStream outputStream = null;
+        try
+        {
+            outputStream = new FileOutputStream( stateFile );
+            state.store( outputStream, "Apache Kalumet download state" );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't store the download state {}", stateFile.getPath(), e );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( outputStream );
+        }
+    }
+
+    private static byte[] digest( File file )
+        throws IOException
+    {
+        InputStream inputStream = null;
+        try
+        {
+            MessageDigest messageDigest = MessageDigest.getInstance( "MD5" );
+            inputStream = new FileInputStream( file );
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ( ( read = inputStream.read( buffer ) ) != -1 )
+            {
+                messageDigest.update( buffer, 0, read );
+            }
+            return messageDigest.digest();
+        }
+        catch ( IOException ioException )
+        {
+            throw ioException;
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( "Can't compute the digest of " + file.getPath() + ": " + e.getMessage() );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( inputStream );
+        }
+    }
+
+}
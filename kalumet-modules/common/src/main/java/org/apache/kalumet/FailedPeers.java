@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Peer agents which have recently failed to send a blob.
+ * <p/>
+ * A peer not available (down, unreachable or failing the transfers) is
+ * skipped by the blob fetches during a retry delay, instead of costing a
+ * connection timeout to each fetch of each environment update.
+ */
+public class FailedPeers
+{
+
+    private final long retryDelay;
+
+    // peer -> failure time
+    private final Map failures = new HashMap();
+
+    /**
+     * Default constructor.
+     *
+     * @param retryDelay the delay (in milliseconds) during which a failed peer is skipped.
+     */
+    public FailedPeers( long retryDelay )
+    {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Record a peer failure.
+     *
+     * @param peer the peer base URL.
+     */
+    public synchronized void failed( String peer )
+    {
+        this.failures.put( peer, new Long( System.currentTimeMillis() ) );
+    }
+
+    /**
+     * Check if a peer has failed during the retry delay.
+     *
+     * @param peer the peer base URL.
+     * @return true if the peer has to be skipped, false else.
+     */
+    public synchronized boolean isFailed( String peer )
+    {
+        Long failure = (Long) this.failures.get( peer );
+        if ( failure == null )
+        {
+            return false;
+        }
+        if ( System.currentTimeMillis() - failure.longValue() < this.retryDelay )
+        {
+            return true;
+        }
+        // the retry delay is over
+        this.failures.remove( peer );
+        return false;
+    }
+
+    /**
+     * Get the peers not failed during the retry delay.
+     *
+     * @param peers the list of the peers base URLs.
+     * @return the list of the available peers.
+     */
+    public List getAvailable( List peers )
+    {
+        List available = new LinkedList();
+        for ( Iterator iterator = peers.iterator(); iterator.hasNext(); )
+        {
+            String peer = (String) iterator.next();
+            if ( !this.isFailed( peer ) )
+            {
+                available.add( peer );
+            }
+        }
+        return available;
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.apache.kalumet;
 
+import org.apache.axis.encoding.Base64;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -29,6 +30,7 @@ import org.apache.commons.vfs.FileType;
 import org.apache.commons.vfs.Selectors;
 import org.apache.commons.vfs.VFS;
 import org.apache.commons.vfs.impl.StandardFileSystemManager;
+import org.apache.commons.vfs.provider.local.LocalFileName;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.JEEApplication;
 import org.apache.kalumet.model.Software;
@@ -43,11 +45,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.security.DigestInputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Virtual file system (VFS) wrapper to perform various actions on files or directories (local or remote).
@@ -83,6 +96,31 @@ public class FileManipulator
 
     private static final String TBZ2_PROTOCOL = "tbz2:";
 
+    private static final String LOCAL_SCHEME = "file";
+
+    private static final String CONTENT_MD5_VALIDATOR = "md5:";
+
+    private static final int HEAD_TIMEOUT = 30000;
+
+    private static final long TRANSFER_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final DigestCache DIGEST_CACHE =
+        new DigestCache( new File( BASE_DIR + "/" + WORKING_DIR + "/digests.properties" ) );
+
+    private static final BlobStore BLOB_STORE = new BlobStore( new File( BASE_DIR + "/" + WORKING_DIR + "/.blobs" ) );
+
+    private static volatile Downloader DOWNLOADER = new Downloader( 0, 0 );
+
+    private static final int MAX_PEERS = 3;
+
+    private static final int PEER_TIMEOUT = 2000;
+
+    private static volatile List PEERS = new LinkedList();
+
+    // a failed peer is skipped during 5 minutes by default
+    private static final FailedPeers FAILED_PEERS =
+        new FailedPeers( Long.getLong( "kalumet.peers.retry.delay", 5 * 60 * 1000 ).longValue() );
+
     private static FileManipulator _singleton = null;
 
     private FileSystemManager fileSystemManager;
@@ -119,6 +157,44 @@ public class FileManipulator
         // just a hook in case of custom VFS filesystem implementation
     }
 
+    /**
+     * Set the settings of the downloader of the HTTP files, shared by all the
+     * file manipulators. The downloader is replaced only if the settings have
+     * changed.
+     *
+     * @param threads   the number of parallel requests of a download (0 for the default).
+     * @param bandwidth the bandwidth used by the downloads, in KB/s (0 for no throttling).
+     */
+    public static synchronized void setDownloader( int threads, int bandwidth )
+    {
+        if ( !DOWNLOADER.isConfigured( threads, bandwidth ) )
+        {
+            LOGGER.debug( "Set the downloader to {} threads and {} KB/s", new Integer( threads ),
+                          new Integer( bandwidth ) );
+            FileManipulator.DOWNLOADER = new Downloader( threads, bandwidth );
+        }
+    }
+
+    /**
+     * Set the peer agents sharing their blob store.
+     *
+     * @param peers the list of the peer agents base URLs (<code>http://hostname:port</code>).
+     */
+    public static void setPeers( List peers )
+    {
+        FileManipulator.PEERS = peers;
+    }
+
+    /**
+     * Garbage collect the store of the artifacts fetched in the work directory
+     * caches, and drop the unused digests of the digests index.
+     */
+    public static void collect()
+    {
+        FileManipulator.BLOB_STORE.collect();
+        FileManipulator.DIGEST_CACHE.prune();
+    }
+
     /**
      * Get the current basedir path.
      *
@@ -288,6 +364,13 @@ public class FileManipulator
 
     /**
      * Compare checksum of two files.
+     * <p/>
+     * The checksums are indexed in the working directory: the checksum of an
+     * unchanged local file (same size and last modification time) is not
+     * computed again. The checksum of a HTTP source is given by a HEAD request
+     * if the server provides a <code>Content-MD5</code> header, or found in
+     * the index if the <code>ETag</code> (or size and last modification date)
+     * hasn't changed.
      *
      * @param src  the source file.
      * @param dest the destination file.
@@ -301,10 +384,31 @@ public class FileManipulator
         FileObject destFile = null;
         try
         {
-            if ( !srcFile.exists() )
+            srcFile = this.resolveFile( src );
+            destFile = this.resolveFile( dest );
+            LOGGER.debug( "Looking for the source checksum without reading it" );
+            String srcValidator = FileManipulator.head( src );
+            byte[] srcMd5 = null;
+            if ( srcValidator != null && srcValidator.startsWith( CONTENT_MD5_VALIDATOR ) )
+            {
+                srcMd5 = Base64.decode( srcValidator.substring( CONTENT_MD5_VALIDATOR.length() ) );
+            }
+            else if ( srcValidator != null )
             {
-                LOGGER.error( "Source {} doesn't exist", src );
-                throw new FileManipulatorException( "Source " + src + " doesn't exist" );
+                srcMd5 = DIGEST_CACHE.get( src, srcValidator );
+            }
+            if ( srcMd5 == null )
+            {
+                if ( !srcFile.exists() )
+                {
+                    LOGGER.error( "Source {} doesn't exist", src );
+                    throw new FileManipulatorException( "Source " + src + " doesn't exist" );
+                }
+                if ( !srcFile.getType().equals( FileType.FILE ) )
+                {
+                    LOGGER.error( "Source {} is not a file", src );
+                    throw new FileManipulatorException( "Source " + src + " is not a file" );
+                }
             }
             if ( destFile.exists() && destFile.getType().equals( FileType.FOLDER ) )
             {
@@ -314,37 +418,24 @@ public class FileManipulator
             {
                 return false;
             }
-            if ( !srcFile.getType().equals( FileType.FILE ) )
-            {
-                LOGGER.error( "Source {} is not a file", src );
-                throw new FileManipulatorException( "Source " + src + " is not a file" );
-            }
             if ( !destFile.getType().equals( FileType.FILE ) )
             {
                 LOGGER.error( "Destination {} is not a file", dest );
                 throw new FileManipulatorException( "Destination " + dest + " is not a file" );
             }
-            LOGGER.debug( "Create the message digest" );
-            MessageDigest messageDigest = MessageDigest.getInstance( "MD5" );
-            LOGGER.debug( "Generate the checksum for the source" );
-            DigestInputStream srcStream = new DigestInputStream( srcFile.getContent().getInputStream(), messageDigest );
-            byte[] srcBuffer = new byte[8192];
-            while ( srcStream.read( srcBuffer ) != -1 )
+            if ( srcMd5 == null && srcValidator != null )
             {
-                ;
+                LOGGER.debug( "Generate the checksum for the source" );
+                srcMd5 = FileManipulator.digest( srcFile );
+                DIGEST_CACHE.put( src, srcValidator, srcMd5 );
             }
-            byte[] srcMd5 = messageDigest.digest();
-            // reset the message digest
-            messageDigest.reset();
-            LOGGER.debug( "Generate the checksum for the destination" );
-            DigestInputStream destStream =
-                new DigestInputStream( destFile.getContent().getInputStream(), messageDigest );
-            byte[] destBuffer = new byte[8192];
-            while ( destStream.read( destBuffer ) != -1 )
+            else if ( srcMd5 == null )
             {
-                ;
+                LOGGER.debug( "Get the checksum for the source" );
+                srcMd5 = FileManipulator.checksum( srcFile );
             }
-            byte[] destMd5 = messageDigest.digest();
+            LOGGER.debug( "Get the checksum for the destination" );
+            byte[] destMd5 = FileManipulator.checksum( destFile );
             LOGGER.debug( "Compare the checksum" );
             return MessageDigest.isEqual( srcMd5, destMd5 );
         }
@@ -380,6 +471,144 @@ public class FileManipulator
         }
     }
 
+    /**
+     * Get the MD5 checksum of a file, using the checksums index for the local
+     * files.
+     *
+     * @param file the file.
+     * @return the file checksum.
+     * @throws Exception in case of read failure.
+     */
+    private static byte[] checksum( FileObject file )
+        throws Exception
+    {
+        if ( !LOCAL_SCHEME.equals( file.getName().getScheme() ) )
+        {
+            return FileManipulator.digest( file );
+        }
+        String uri = file.getName().getURI();
+        String validator = file.getContent().getSize() + ":" + file.getContent().getLastModifiedTime();
+        byte[] md5 = DIGEST_CACHE.get( uri, validator );
+        if ( md5 == null )
+        {
+            LOGGER.debug( "Generate the checksum of {}", uri );
+            md5 = FileManipulator.digest( file );
+            DIGEST_CACHE.put( uri, validator, md5 );
+        }
+        return md5;
+    }
+
+    /**
+     * Compute the MD5 checksum of a file, reading its content.
+     *
+     * @param file the file.
+     * @return the file checksum.
+     * @throws Exception in case of read failure.
+     */
+    private static byte[] digest( FileObject file )
+        throws Exception
+    {
+        return FileManipulator.digest( file.getContent().getInputStream() );
+    }
+
+    /**
+     * Compute the MD5 checksum of a local file, reading its content.
+     *
+     * @param file the local file.
+     * @return the file checksum.
+     * @throws Exception in case of read failure.
+     */
+    private static byte[] digest( File file )
+        throws Exception
+    {
+        return FileManipulator.digest( new FileInputStream( file ) );
+    }
+
+    /**
+     * Compute the MD5 checksum of a content and close it.
+     *
+     * @param inputStream the content.
+     * @return the content checksum.
+     * @throws Exception in case of read failure.
+     */
+    private static byte[] digest( InputStream inputStream )
+        throws Exception
+    {
+        try
+        {
+            // a message digest per file, the digests can't be shared
+            MessageDigest messageDigest = MessageDigest.getInstance( "MD5" );
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = inputStream.read( buffer ) ) != -1 )
+            {
+                messageDigest.update( buffer, 0, read );
+            }
+            return messageDigest.digest();
+        }
+        finally
+        {
+            IOUtils.closeQuietly( inputStream );
+        }
+    }
+
+    /**
+     * Perform a HEAD request on a HTTP source to get its version validator:
+     * its <code>Content-MD5</code>, its <code>ETag</code> or its size and last
+     * modification date.
+     *
+     * @param src the source VFS path.
+     * @return the source validator, null if the source is not a plain HTTP URL or if the validator is not available.
+     */
+    private static String head( String src )
+    {
+        if ( !( src.startsWith( "http:" ) || src.startsWith( "https:" ) ) || src.indexOf( '*' ) != -1
+            || src.indexOf( '@' ) != -1 )
+        {
+            // not a plain HTTP URL (wildcard or credentials, handled by VFS)
+            return null;
+        }
+        HttpURLConnection connection = null;
+        try
+        {
+            connection = (HttpURLConnection) new URL( src ).openConnection();
+            connection.setRequestMethod( "HEAD" );
+            connection.setConnectTimeout( HEAD_TIMEOUT );
+            connection.setReadTimeout( HEAD_TIMEOUT );
+            if ( connection.getResponseCode() != HttpURLConnection.HTTP_OK )
+            {
+                return null;
+            }
+            String contentMd5 = connection.getHeaderField( "Content-MD5" );
+            if ( contentMd5 != null && contentMd5.trim().length() > 0 )
+            {
+                return CONTENT_MD5_VALIDATOR + contentMd5.trim();
+            }
+            String etag = connection.getHeaderField( "ETag" );
+            if ( etag != null && etag.trim().length() > 0 && !etag.startsWith( "W/" ) )
+            {
+                // only the strong ETags identify the content
+                return "etag:" + etag.trim();
+            }
+            if ( connection.getContentLength() >= 0 && connection.getLastModified() > 0 )
+            {
+                return "modified:" + connection.getContentLength() + ":" + connection.getLastModified();
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "Can't perform HEAD request on {}", src, e );
+        }
+        finally
+        {
+            if ( connection != null )
+            {
+                connection.disconnect();
+            }
+        }
+        return null;
+    }
+
     /**
      * Copy files.
      *
@@ -396,6 +625,23 @@ public class FileManipulator
         {
             srcFile = this.resolveFile( src );
             destFile = this.resolveFile( dest );
+            if ( FileManipulator.isLocal( srcFile ) && FileManipulator.isLocal( destFile ) )
+            {
+                LOGGER.debug( "Source {} and destination {} are local, copy without VFS", src, dest );
+                FileManipulator.copyLocal( FileManipulator.toLocalFile( srcFile ),
+                                           FileManipulator.toLocalFile( destFile ) );
+                return;
+            }
+            if ( FileManipulator.isLocal( destFile ) && srcFile.getType().equals( FileType.FILE ) )
+            {
+                File localFile = FileManipulator.toLocalFile( destFile );
+                if ( localFile.isDirectory() )
+                {
+                    localFile = new File( localFile, srcFile.getName().getBaseName() );
+                }
+                this.fetch( src, srcFile, localFile );
+                return;
+            }
             if ( srcFile.getType().equals( FileType.FOLDER ) )
             {
                 LOGGER.debug( "Source {} is a folder", src );
@@ -409,6 +655,11 @@ public class FileManipulator
                     LOGGER.error( "Destination {} must be a folder", dest );
                     throw new IllegalArgumentException( "Destination " + dest + " must be a folder" );
                 }
+                if ( FileManipulator.isLocal( destFile )
+                    && FileManipulator.isCache( FileManipulator.toLocalFile( destFile ) ) )
+                {
+                    FileManipulator.unlink( srcFile, FileManipulator.toLocalFile( destFile ) );
+                }
                 LOGGER.debug( "Copy source folder {} to {} using SELECT_ALL selector", src, dest );
                 destFile.copyFrom( srcFile, Selectors.SELECT_ALL );
             }
@@ -454,6 +705,525 @@ public class FileManipulator
         }
     }
 
+    /**
+     * Fetch a remote file to a local file. An artifact already fetched (same
+     * source version) is linked to the blob store, and the artifacts fetched
+     * in the work directory caches are added to the blob store, so an artifact
+     * used by several environments is fetched and stored once.
+     *
+     * @param src     the source VFS path.
+     * @param srcFile the resolved remote source file.
+     * @param dest    the local destination file.
+     * @throws Exception in case of fetch failure.
+     */
+    private void fetch( String src, FileObject srcFile, File dest )
+        throws Exception
+    {
+        String validator = FileManipulator.head( src );
+        if ( validator == null && srcFile.getFileSystem().getParentLayer() == null )
+        {
+            try
+            {
+                validator =
+                    "modified:" + srcFile.getContent().getSize() + ":" + srcFile.getContent().getLastModifiedTime();
+            }
+            catch ( Exception e )
+            {
+                LOGGER.debug( "Can't get {} size and last modification time", src, e );
+            }
+        }
+        byte[] md5 = null;
+        if ( validator != null && validator.startsWith( CONTENT_MD5_VALIDATOR ) )
+        {
+            md5 = Base64.decode( validator.substring( CONTENT_MD5_VALIDATOR.length() ) );
+        }
+        else if ( validator != null )
+        {
+            md5 = DIGEST_CACHE.get( src, validator );
+        }
+        boolean cached = FileManipulator.isCache( dest );
+        File blob = ( md5 != null ) ? BLOB_STORE.get( md5 ) : null;
+        if ( blob != null )
+        {
+            LOGGER.debug( "{} already fetched, link it to the blob store {}", src, blob.getPath() );
+            try
+            {
+                FileManipulator.linkLocalFile( blob, dest );
+            }
+            catch ( IOException ioException )
+            {
+                // the blob may have been collected in the mean time
+                LOGGER.debug( "Can't link the blob {}, fetch {}", new Object[]{ blob.getPath(), src }, ioException );
+                blob = null;
+            }
+        }
+        if ( blob == null )
+        {
+            // the destination may be linked to a blob, replace it instead of writing it in place
+            dest.delete();
+            byte[] fetched = null;
+            if ( validator != null )
+            {
+                fetched = FileManipulator.fetchFromPeers( src, validator, md5, dest );
+            }
+            if ( fetched == null )
+            {
+                if ( Downloader.accept( srcFile.getName().getURI() ) )
+                {
+                    LOGGER.debug( "Download {} to {}", src, dest.getPath() );
+                    DOWNLOADER.download( srcFile.getName().getURI(), dest );
+                }
+                else
+                {
+                    FileObject destFile = this.resolveFile( dest.getPath() );
+                    try
+                    {
+                        destFile.copyFrom( srcFile, Selectors.SELECT_SELF );
+                    }
+                    finally
+                    {
+                        destFile.close();
+                    }
+                }
+                if ( validator != null || cached )
+                {
+                    fetched = FileManipulator.digest( dest );
+                }
+            }
+            md5 = fetched;
+            if ( md5 != null && validator != null )
+            {
+                DIGEST_CACHE.put( src, validator, md5 );
+            }
+            if ( md5 != null && cached )
+            {
+                BLOB_STORE.add( dest, md5 );
+            }
+        }
+        if ( cached && md5 != null )
+        {
+            BLOB_STORE.reference( dest, md5 );
+        }
+    }
+
+    /**
+     * Try to fetch a file from the blob store of the peer agents. The peers
+     * are tried in random order, to spread the load, and a peer file is
+     * checked against the digest sent by the peer (and against the expected
+     * digest, if known). The peers which have recently failed are skipped.
+     * <p/>
+     * The file is requested by digest when the digest is known. Else it's
+     * requested by source, and only checked against the peer digest, which
+     * is then indexed as the source digest: the peers (the agents of the
+     * Kalumet configuration) are trusted.
+     *
+     * @param src       the source VFS path.
+     * @param validator the source version validator.
+     * @param md5       the expected digest, null if unknown.
+     * @param dest      the local destination file.
+     * @return the fetched file digest, null if no peer has the file.
+     */
+    private static byte[] fetchFromPeers( String src, String validator, byte[] md5, File dest )
+    {
+        List peers = new ArrayList( FAILED_PEERS.getAvailable( PEERS ) );
+        Collections.shuffle( peers );
+        String path;
+        try
+        {
+            path = ( md5 != null ) ? "/blobs/" + DigestCache.toHex( md5 ) : "/blobs/source?uri=" + URLEncoder.encode(
+                src, "UTF-8" ) + "&validator=" + URLEncoder.encode( validator, "UTF-8" );
+        }
+        catch ( UnsupportedEncodingException unsupportedEncodingException )
+        {
+            return null;
+        }
+        for ( int i = 0; i < peers.size() && i < MAX_PEERS; i++ )
+        {
+            String peer = (String) peers.get( i );
+            String url = peer + path;
+            byte[] digest = FileManipulator.probe( peer, url );
+            if ( digest == null || ( md5 != null && !MessageDigest.isEqual( md5, digest ) ) )
+            {
+                continue;
+            }
+            try
+            {
+                LOGGER.debug( "Fetch {} from the peer {}", src, peer );
+                // the downloader checks the peer file against its Content-MD5
+                DOWNLOADER.download( url, dest );
+                return digest;
+            }
+            catch ( Exception e )
+            {
+                LOGGER.debug( "Can't fetch {} from the peer {}", new Object[]{ src, peer }, e );
+                FAILED_PEERS.failed( peer );
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if a peer agent has a file in its blob store. A peer not
+     * available is recorded as failed, a busy peer is only skipped.
+     *
+     * @param peer the peer base URL.
+     * @param url  the peer blob URL.
+     * @return the peer file digest, null if the peer doesn't have the file, is busy or is not available.
+     */
+    private static byte[] probe( String peer, String url )
+    {
+        HttpURLConnection connection = null;
+        try
+        {
+            connection = (HttpURLConnection) new URL( url ).openConnection();
+            connection.setRequestMethod( "HEAD" );
+            connection.setConnectTimeout( PEER_TIMEOUT );
+            connection.setReadTimeout( PEER_TIMEOUT );
+            String contentMd5 = connection.getHeaderField( "Content-MD5" );
+            if ( connection.getResponseCode() == HttpURLConnection.HTTP_OK && contentMd5 != null )
+            {
+                return Base64.decode( contentMd5.trim() );
+            }
+            if ( connection.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE )
+            {
+                LOGGER.debug( "Peer {} is busy", peer );
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "Peer {} is not available", url, e );
+            FAILED_PEERS.failed( peer );
+        }
+        finally
+        {
+            if ( connection != null )
+            {
+                connection.disconnect();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get a file of the blob store, to share it with the peer agents.
+     *
+     * @param md5       the file digest (hexadecimal), null to look for the file by source.
+     * @param uri       the file source VFS path.
+     * @param validator the file source version validator.
+     * @return the blob file, null if the file is not in the blob store.
+     */
+    public static File getBlob( String md5, String uri, String validator )
+    {
+        byte[] digest = null;
+        if ( md5 != null )
+        {
+            digest = DigestCache.fromHex( md5 );
+        }
+        else if ( uri != null && validator != null )
+        {
+            digest = DIGEST_CACHE.get( uri, validator );
+        }
+        return ( digest != null && digest.length > 0 ) ? BLOB_STORE.get( digest ) : null;
+    }
+
+    /**
+     * Check if a local file is in the work directory caches.
+     *
+     * @param file the local file.
+     * @return true if the file is in the work directory (but not in the blob store), false else.
+     * @throws IOException if the file canonical path can't be resolved.
+     */
+    private static boolean isCache( File file )
+        throws IOException
+    {
+        String path = file.getCanonicalPath();
+        return path.startsWith( new File( BASE_DIR, WORKING_DIR ).getCanonicalPath() + File.separator )
+            && !path.startsWith( BLOB_STORE.getDirectory().getCanonicalPath() + File.separator );
+    }
+
+    /**
+     * Check if a resolved file is on the local file system.
+     *
+     * @param file the resolved file.
+     * @return true if the file is local, false else.
+     */
+    private static boolean isLocal( FileObject file )
+    {
+        return LOCAL_SCHEME.equals( file.getName().getScheme() ) && file.getName() instanceof LocalFileName;
+    }
+
+    /**
+     * Get the local file of a resolved local VFS file.
+     *
+     * @param file the resolved local file.
+     * @return the local file.
+     * @throws FileSystemException if the file path can't be decoded.
+     */
+    private static File toLocalFile( FileObject file )
+        throws FileSystemException
+    {
+        // same path as the one used by the VFS local provider
+        return new File( ( (LocalFileName) file.getName() ).getRootFile() + file.getName().getPathDecoded() );
+    }
+
+    /**
+     * Copy a local file or directory, with the same semantic as the VFS copy:
+     * the content of a source directory is copied into the destination
+     * directory (created if required), a source file is copied into the
+     * destination if it's a directory, or to the destination else.
+     * <p/>
+     * A copy from a work directory cache to another one links the files
+     * instead of copying them: the cache files are never written in place
+     * (they are replaced, see <code>replaceLocalFile</code>), so the linked
+     * files can't change each other. The files copied out of the caches
+     * (installation paths, ...) may be changed in place by the applications,
+     * they are always copied.
+     *
+     * @param src  the local source file or directory.
+     * @param dest the local destination.
+     * @throws IOException in case of copy failure.
+     */
+    private static void copyLocal( File src, File dest )
+        throws IOException
+    {
+        if ( !src.exists() )
+        {
+            throw new IOException( "Source " + src.getPath() + " doesn't exist" );
+        }
+        boolean link = FileManipulator.isCache( src ) && FileManipulator.isCache( dest );
+        if ( src.isDirectory() )
+        {
+            if ( !dest.exists() )
+            {
+                LOGGER.debug( "Destination folder {} doesn't exist, create it", dest.getPath() );
+                dest.mkdirs();
+            }
+            if ( !dest.isDirectory() )
+            {
+                LOGGER.error( "Destination {} must be a folder", dest.getPath() );
+                throw new IllegalArgumentException( "Destination " + dest.getPath() + " must be a folder" );
+            }
+            FileManipulator.copyLocalDirectory( src, dest, link );
+        }
+        else
+        {
+            if ( dest.isDirectory() )
+            {
+                dest = new File( dest, src.getName() );
+            }
+            FileManipulator.copyLocalFile( src, dest, link );
+        }
+    }
+
+    /**
+     * Recursively copy the content of a local directory, skipping the files
+     * with the same size and last modification time in the destination
+     * (the copied files keep the source last modification time).
+     *
+     * @param src  the local source directory.
+     * @param dest the local destination directory.
+     * @param link true to link the files instead of copying them.
+     * @throws IOException in case of copy failure.
+     */
+    private static void copyLocalDirectory( File src, File dest, boolean link )
+        throws IOException
+    {
+        File[] children = src.listFiles();
+        if ( children == null )
+        {
+            throw new IOException( "Can't list the content of " + src.getPath() );
+        }
+        for ( int i = 0; i < children.length; i++ )
+        {
+            File target = new File( dest, children[i].getName() );
+            if ( children[i].isDirectory() )
+            {
+                if ( !target.isDirectory() && !target.mkdirs() )
+                {
+                    throw new IOException( "Can't create directory " + target.getPath() );
+                }
+                FileManipulator.copyLocalDirectory( children[i], target, link );
+            }
+            else if ( target.isFile() && target.length() == children[i].length()
+                && target.lastModified() == children[i].lastModified() )
+            {
+                LOGGER.debug( "{} is unchanged, skip it", target.getPath() );
+            }
+            else
+            {
+                FileManipulator.copyLocalFile( children[i], target, link );
+            }
+        }
+    }
+
+    /**
+     * Copy or link a local file.
+     *
+     * @param src  the local source file.
+     * @param dest the local destination file.
+     * @param link true to link the file instead of copying it.
+     * @throws IOException in case of copy failure.
+     */
+    private static void copyLocalFile( File src, File dest, boolean link )
+        throws IOException
+    {
+        if ( link && !src.getCanonicalFile().equals( dest.getCanonicalFile() ) )
+        {
+            LOGGER.debug( "Link {} to {}", dest.getPath(), src.getPath() );
+            FileManipulator.linkLocalFile( src, dest );
+        }
+        else
+        {
+            FileManipulator.copyLocalFile( src, dest );
+        }
+    }
+
+    /**
+     * Copy a local file using the file channels, letting the OS transfer the
+     * content without copying it in the JVM heap.
+     *
+     * @param src  the local source file.
+     * @param dest the local destination file.
+     * @throws IOException in case of copy failure.
+     */
+    static void copyLocalFile( File src, File dest )
+        throws IOException
+    {
+        if ( src.getCanonicalFile().equals( dest.getCanonicalFile() ) )
+        {
+            LOGGER.debug( "Source and destination {} are the same file", src.getPath() );
+            return;
+        }
+        if ( dest.getParentFile() != null )
+        {
+            dest.getParentFile().mkdirs();
+        }
+        // the destination may be linked to a blob, replace it instead of writing it in place
+        dest.delete();
+        FileInputStream inputStream = null;
+        FileOutputStream outputStream = null;
+        try
+        {
+            inputStream = new FileInputStream( src );
+            outputStream = new FileOutputStream( dest );
+            FileChannel in = inputStream.getChannel();
+            FileChannel out = outputStream.getChannel();
+            long size = in.size();
+            long position = 0;
+            while ( position < size )
+            {
+                // transfer by chunks, some platforms fail on large transfers
+                position += in.transferTo( position, Math.min( TRANSFER_CHUNK_SIZE, size - position ), out );
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly( inputStream );
+            IOUtils.closeQuietly( outputStream );
+        }
+        if ( dest.length() != src.length() )
+        {
+            throw new IOException( "Can't copy the full content of " + src.getPath() + " to " + dest.getPath() );
+        }
+        dest.setLastModified( src.lastModified() );
+    }
+
+    /**
+     * Delete the files of a local cache directory overwritten by the copy of
+     * a source folder: VFS writes the files in place, a cache file linked to
+     * a blob has to be replaced instead.
+     *
+     * @param srcFile the source folder.
+     * @param dest    the local destination directory.
+     * @throws FileSystemException if the source folder can't be browsed.
+     */
+    private static void unlink( FileObject srcFile, File dest )
+        throws FileSystemException
+    {
+        FileObject[] files = srcFile.findFiles( Selectors.EXCLUDE_SELF );
+        for ( int i = 0; files != null && i < files.length; i++ )
+        {
+            if ( files[i].getType().equals( FileType.FILE ) )
+            {
+                new File( dest, srcFile.getName().getRelativeName( files[i].getName() ) ).delete();
+            }
+        }
+    }
+
+    /**
+     * Replace a local file by a new one, renaming the new file: the replaced
+     * file may be linked to a blob, it must not be written in place.
+     *
+     * @param temp the new file, in the same directory as the replaced file.
+     * @param file the replaced file.
+     * @throws IOException if the new file can't be renamed.
+     */
+    static void replaceLocalFile( File temp, File file )
+        throws IOException
+    {
+        if ( !temp.renameTo( file ) )
+        {
+            // the rename doesn't overwrite an existing file on some platforms
+            file.delete();
+            if ( !temp.renameTo( file ) )
+            {
+                throw new IOException( "Can't rename " + temp.getPath() + " to " + file.getPath() );
+            }
+        }
+    }
+
+    /**
+     * Link a local file to another one: the destination is a hard link to the
+     * source when the platform supports it, a copy else.
+     *
+     * @param src  the local source file.
+     * @param dest the local destination file.
+     * @throws IOException in case of link and copy failure.
+     */
+    static void linkLocalFile( File src, File dest )
+        throws IOException
+    {
+        if ( dest.getParentFile() != null )
+        {
+            dest.getParentFile().mkdirs();
+        }
+        dest.delete();
+        if ( !src.isFile() )
+        {
+            throw new IOException( src.getPath() + " doesn't exist" );
+        }
+        if ( !FileManipulator.link( src, dest ) )
+        {
+            FileManipulator.copyLocalFile( src, dest );
+        }
+    }
+
+    /**
+     * Create a hard link to a file, using <code>java.nio.file.Files</code>
+     * when the runtime provides it.
+     *
+     * @param file the existing file.
+     * @param link the link to create.
+     * @return true if the link has been created, false else.
+     */
+    public static boolean link( File file, File link )
+    {
+        try
+        {
+            Class pathClass = Class.forName( "java.nio.file.Path" );
+            Method toPath = File.class.getMethod( "toPath", new Class[0] );
+            Method createLink =
+                Class.forName( "java.nio.file.Files" ).getMethod( "createLink", new Class[]{ pathClass, pathClass } );
+            createLink.invoke( null, new Object[]{ toPath.invoke( link, new Object[0] ),
+                toPath.invoke( file, new Object[0] ) } );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            return false;
+        }
+    }
+
     /**
      * Check if a given path is a directory.
      *
@@ -575,6 +1345,36 @@ public class FileManipulator
                 LOGGER.error( "{} is not a file", vfsPath );
                 throw new IllegalArgumentException( vfsPath + " is not a file" );
             }
+            if ( FileManipulator.isLocal( file ) )
+            {
+                // the file may be linked to a blob, write a new file replacing it when closed
+                final File local = FileManipulator.toLocalFile( file );
+                local.getParentFile().mkdirs();
+                final File temp = File.createTempFile( "write", ".tmp", local.getParentFile() );
+                return new FileOutputStream( temp )
+                {
+                    private boolean closed = false;
+
+                    public void close()
+                        throws IOException
+                    {
+                        if ( this.closed )
+                        {
+                            return;
+                        }
+                        this.closed = true;
+                        try
+                        {
+                            super.close();
+                            FileManipulator.replaceLocalFile( temp, local );
+                        }
+                        finally
+                        {
+                            temp.delete();
+                        }
+                    }
+                };
+            }
             return file.getContent().getOutputStream();
         }
         catch ( Exception e )
@@ -785,16 +1585,28 @@ public class FileManipulator
      */
     public static void searchAndReplace( String path, String regex, String substitute )
     {
+        File file = new File( path ).getAbsoluteFile();
+        File temp = null;
         try
         {
-            String content = FileUtils.readFileToString( new File( path ), null );
+            String content = FileUtils.readFileToString( file, null );
             content = StringUtils.replace( content, regex, substitute );
-            FileUtils.writeStringToFile( new File( path ), content, null );
+            // the file may be linked to a blob, write a new file and rename it instead of writing it in place
+            temp = File.createTempFile( "replace", ".tmp", file.getParentFile() );
+            FileUtils.writeStringToFile( temp, content, null );
+            FileManipulator.replaceLocalFile( temp, file );
         }
         catch ( IOException ioException )
         {
             LOGGER.warn( "Can't replace {} with {} in {}", new Object[]{ regex, substitute, path }, ioException );
         }
+        finally
+        {
+            if ( temp != null )
+            {
+                temp.delete();
+            }
+        }
     }
 
 }
@@ -31,6 +31,7 @@ import java.util.List;
  * Represents the <code>access</code> tag in the Kalumet XML DOM.
  */
 public class Access
+    extends ModelObject
     implements Serializable, Cloneable
 {
 
@@ -42,7 +43,7 @@ public class Access
 
     public Access()
     {
-        properties = new LinkedList();
+        this.properties = new ModelList();
     }
 
     public String getGroup()
@@ -52,6 +53,11 @@ public class Access
 
     public void setGroup( String group )
     {
+        if ( this.group != null && !this.group.equals( group ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.group = group;
     }
 
@@ -88,6 +94,10 @@ public class Access
      */
     public Property getProperty( String name )
     {
+        if ( this.properties instanceof ModelList )
+        {
+            return (Property) ( (ModelList) this.properties ).get( name );
+        }
         for ( Iterator propertyIterator = this.properties.iterator(); propertyIterator.hasNext(); )
         {
             Property property = (Property) propertyIterator.next();
@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represents the <code>agent</code> tag in the Kalumet DOM.
  */
 public class Agent
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -45,6 +46,16 @@ public class Agent
 
     private int maxjeeapplicationserversstarted;
 
+    private int maxparallelupdates;
+
+    private int minwsthreads;
+
+    private int maxwsthreads;
+
+    private int downloadthreads;
+
+    private int downloadbandwidth;
+
     public Agent()
     {
     }
@@ -56,6 +67,11 @@ public class Agent
 
     public void setId( String id )
     {
+        if ( this.id != null && !this.id.equals( id ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.id = id;
     }
 
@@ -109,6 +125,56 @@ public class Agent
         this.maxjeeapplicationserversstarted = maxenvironmentsactive;
     }
 
+    public int getMaxparallelupdates()
+    {
+        return this.maxparallelupdates;
+    }
+
+    public void setMaxparallelupdates( int maxparallelupdates )
+    {
+        this.maxparallelupdates = maxparallelupdates;
+    }
+
+    public int getMinwsthreads()
+    {
+        return this.minwsthreads;
+    }
+
+    public void setMinwsthreads( int minwsthreads )
+    {
+        this.minwsthreads = minwsthreads;
+    }
+
+    public int getMaxwsthreads()
+    {
+        return this.maxwsthreads;
+    }
+
+    public void setMaxwsthreads( int maxwsthreads )
+    {
+        this.maxwsthreads = maxwsthreads;
+    }
+
+    public int getDownloadthreads()
+    {
+        return this.downloadthreads;
+    }
+
+    public void setDownloadthreads( int downloadthreads )
+    {
+        this.downloadthreads = downloadthreads;
+    }
+
+    public int getDownloadbandwidth()
+    {
+        return this.downloadbandwidth;
+    }
+
+    public void setDownloadbandwidth( int downloadbandwidth )
+    {
+        this.downloadbandwidth = downloadbandwidth;
+    }
+
     /**
      * @see java.lang.Object#clone()
      */
@@ -122,6 +188,11 @@ public class Agent
         clone.setCron( this.getCron() );
         clone.setMaxmanagedenvironments( this.getMaxmanagedenvironments() );
         clone.setMaxjeeapplicationserversstarted( this.getMaxjeeapplicationserversstarted() );
+        clone.setMaxparallelupdates( this.getMaxparallelupdates() );
+        clone.setMinwsthreads( this.getMinwsthreads() );
+        clone.setMaxwsthreads( this.getMaxwsthreads() );
+        clone.setDownloadthreads( this.getDownloadthreads() );
+        clone.setDownloadbandwidth( this.getDownloadbandwidth() );
         return clone;
     }
 
@@ -141,6 +212,11 @@ public class Agent
         element.setAttribute( "maxmanagedenvironments", new Integer( this.getMaxmanagedenvironments() ).toString() );
         element.setAttribute( "maxjeeapplicationserversstarted",
                               new Integer( this.getMaxjeeapplicationserversstarted() ).toString() );
+        element.setAttribute( "maxparallelupdates", new Integer( this.getMaxparallelupdates() ).toString() );
+        element.setAttribute( "minwsthreads", new Integer( this.getMinwsthreads() ).toString() );
+        element.setAttribute( "maxwsthreads", new Integer( this.getMaxwsthreads() ).toString() );
+        element.setAttribute( "downloadthreads", new Integer( this.getDownloadthreads() ).toString() );
+        element.setAttribute( "downloadbandwidth", new Integer( this.getDownloadbandwidth() ).toString() );
         return element;
     }
 
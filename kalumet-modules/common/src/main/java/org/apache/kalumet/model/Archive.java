@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represents the <code>archive</code> tag in the Kalumet DOM.
  */
 public class Archive
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -64,6 +65,11 @@ public class Archive
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
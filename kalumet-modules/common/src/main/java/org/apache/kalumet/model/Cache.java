@@ -29,6 +29,7 @@ import java.io.Serializable;
  * file.
  */
 public class Cache
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -47,6 +48,11 @@ public class Cache
 
     public void setPath( String path )
     {
+        if ( this.path != null && !this.path.equals( path ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.path = path;
     }
 
@@ -31,6 +31,7 @@ import java.util.List;
  * Represents the <code>configurationfile</code> tag in the Kalumet DOM.
  */
 public class ConfigurationFile
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -52,7 +53,7 @@ public class ConfigurationFile
 
     public ConfigurationFile()
     {
-        this.mappings = new LinkedList();
+        this.mappings = new ModelList();
     }
 
     public String getName()
@@ -62,6 +63,11 @@ public class ConfigurationFile
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -162,6 +168,10 @@ public class ConfigurationFile
      */
     public Mapping getMapping( String key )
     {
+        if ( this.mappings instanceof ModelList )
+        {
+            return (Mapping) ( (ModelList) this.mappings ).get( key );
+        }
         for ( Iterator mappingIterator = this.getMappings().iterator(); mappingIterator.hasNext(); )
         {
             Mapping mapping = (Mapping) mappingIterator.next();
@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>contentmanager</code> tag in the Kalumet DOM.
  */
 public class ContentManager
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -50,7 +51,7 @@ public class ContentManager
 
     public ContentManager()
     {
-        this.properties = new LinkedList();
+        this.properties = new ModelList();
     }
 
     public String getName()
@@ -60,6 +61,11 @@ public class ContentManager
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -150,6 +156,10 @@ public class ContentManager
      */
     public Property getProperty( String name )
     {
+        if ( this.properties instanceof ModelList )
+        {
+            return (Property) ( (ModelList) this.properties ).get( name );
+        }
         for ( Iterator propertyIterator = this.getProperties().iterator(); propertyIterator.hasNext(); )
         {
             Property property = (Property) propertyIterator.next();
@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>database</code> tag in the Kalumet configuration DOM.
  */
 public class Database
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -60,7 +61,7 @@ public class Database
 
     public Database()
     {
-        this.sqlScripts = new LinkedList();
+        this.sqlScripts = new ModelList();
     }
 
     public String getName()
@@ -70,6 +71,11 @@ public class Database
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -210,6 +216,10 @@ public class Database
      */
     public SqlScript getSqlScript( String name )
     {
+        if ( this.sqlScripts instanceof ModelList )
+        {
+            return (SqlScript) ( (ModelList) this.sqlScripts ).get( name );
+        }
         for ( Iterator sqlScriptIterator = this.getSqlScripts().iterator(); sqlScriptIterator.hasNext(); )
         {
             SqlScript sqlScript = (SqlScript) sqlScriptIterator.next();
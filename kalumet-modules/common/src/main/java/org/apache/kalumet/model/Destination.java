@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent the <code>destination</code> tag in the Kalumet configuration DOM.
  */
 public class Destination
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -46,6 +47,11 @@ public class Destination
 
     public void setAddress( String address )
     {
+        if ( this.address != null && !this.address.equals( address ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.address = address;
     }
 
@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>Email</code> tag in the Kalumet configuration DOM.
  */
 public class Email
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -44,7 +45,7 @@ public class Email
 
     public Email()
     {
-        this.destinations = new LinkedList();
+        this.destinations = new ModelList();
     }
 
     public String getMailhost()
@@ -54,6 +55,11 @@ public class Email
 
     public void setMailhost( String mailhost )
     {
+        if ( this.mailhost != null && !this.mailhost.equals( mailhost ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.mailhost = mailhost;
     }
 
@@ -115,6 +121,10 @@ public class Email
      */
     public Destination getDestination( String address )
     {
+        if ( this.destinations instanceof ModelList )
+        {
+            return (Destination) ( (ModelList) this.destinations ).get( address );
+        }
         for ( Iterator destinationIterator = this.getDestinations().iterator(); destinationIterator.hasNext(); )
         {
             Destination destination = (Destination) destinationIterator.next();
@@ -32,6 +32,7 @@ import java.util.List;
  * Represent the <code>environment</code> tag in the Kalumet configuration DOM.
  */
 public class Environment
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -75,14 +76,14 @@ public class Environment
 
     public Environment()
     {
-        this.variables = new LinkedList();
-        this.freeFields = new LinkedList();
-        this.accesses = new LinkedList();
+        this.variables = new ModelList();
+        this.freeFields = new ModelList();
+        this.accesses = new ModelList( this );
         this.jeeApplicationServers = new JEEApplicationServers();
-        this.softwares = new LinkedList();
-        this.logFiles = new LinkedList();
+        this.softwares = new ModelList();
+        this.logFiles = new ModelList();
         this.notifiers = new Notifiers();
-        this.publishers = new LinkedList();
+        this.publishers = new ModelList();
         this.statistics = new Statistics();
     }
 
@@ -93,6 +94,11 @@ public class Environment
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -104,6 +110,8 @@ public class Environment
     public void setGroup( String group )
     {
         this.group = group;
+        // the environments are indexed by group
+        this.changed();
     }
 
     public String getTag()
@@ -134,6 +142,8 @@ public class Environment
     public void setAgent( String agent )
     {
         this.agent = agent;
+        // the environments are indexed by agent
+        this.changed();
     }
 
     public String getLock()
@@ -223,6 +233,10 @@ public class Environment
      */
     public Variable getVariable( String name )
     {
+        if ( this.variables instanceof ModelList )
+        {
+            return (Variable) ( (ModelList) this.variables ).get( name );
+        }
         for ( Iterator variableIterator = this.getVariables().iterator(); variableIterator.hasNext(); )
         {
             Variable variable = (Variable) variableIterator.next();
@@ -282,6 +296,10 @@ public class Environment
      */
     public FreeField getFreeField( String name )
     {
+        if ( this.freeFields instanceof ModelList )
+        {
+            return (FreeField) ( (ModelList) this.freeFields ).get( name );
+        }
         for ( Iterator freeFieldIterator = this.getFreeFields().iterator(); freeFieldIterator.hasNext(); )
         {
             FreeField freeField = (FreeField) freeFieldIterator.next();
@@ -329,7 +347,9 @@ public class Environment
      */
     public void setAccesses( LinkedList accesses )
     {
+        ModelList.setContainer( accesses, this );
         this.accesses = accesses;
+        this.changed();
     }
 
     /**
@@ -341,6 +361,10 @@ public class Environment
      */
     public Access getAccess( String group )
     {
+        if ( this.accesses instanceof ModelList )
+        {
+            return (Access) ( (ModelList) this.accesses ).get( group );
+        }
         for ( Iterator accessIterator = this.getAccesses().iterator(); accessIterator.hasNext(); )
         {
             Access access = (Access) accessIterator.next();
@@ -421,6 +445,10 @@ public class Environment
      */
     public Software getSoftware( String name )
     {
+        if ( this.softwares instanceof ModelList )
+        {
+            return (Software) ( (ModelList) this.softwares ).get( name );
+        }
         for ( Iterator softwareIterator = this.getSoftwares().iterator(); softwareIterator.hasNext(); )
         {
             Software software = (Software) softwareIterator.next();
@@ -460,6 +488,10 @@ public class Environment
      */
     public LogFile getLogFile( String name )
     {
+        if ( this.logFiles instanceof ModelList )
+        {
+            return (LogFile) ( (ModelList) this.logFiles ).get( name );
+        }
         for ( Iterator logFileIterator = this.getLogFiles().iterator(); logFileIterator.hasNext(); )
         {
             LogFile logFile = (LogFile) logFileIterator.next();
@@ -554,6 +586,10 @@ public class Environment
      */
     public Email getPublisher( String mailhost )
     {
+        if ( this.publishers instanceof ModelList )
+        {
+            return (Email) ( (ModelList) this.publishers ).get( mailhost );
+        }
         for ( Iterator publisherIterator = this.getPublishers().iterator(); publisherIterator.hasNext(); )
         {
             Email email = (Email) publisherIterator.next();
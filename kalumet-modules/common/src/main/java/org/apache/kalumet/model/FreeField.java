@@ -29,6 +29,7 @@ import java.io.Serializable;
  * Represent the <code>freefield</code> tag in the Kalumet configuration DOM.
  */
 public class FreeField
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -49,6 +50,11 @@ public class FreeField
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
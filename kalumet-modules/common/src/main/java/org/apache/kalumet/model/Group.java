@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>group</code> tag in the Kalumet configuration DOM.
  */
 public class Group
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -44,7 +45,7 @@ public class Group
 
     public Group()
     {
-        this.users = new LinkedList();
+        this.users = new ModelList( this );
     }
 
     public String getId()
@@ -54,6 +55,11 @@ public class Group
 
     public void setId( String id )
     {
+        if ( this.id != null && !this.id.equals( id ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.id = id;
     }
 
@@ -100,7 +106,9 @@ public class Group
      */
     public void setUsers( LinkedList users )
     {
+        ModelList.setContainer( users, this );
         this.users = users;
+        this.changed();
     }
 
     /**
@@ -112,6 +120,10 @@ public class Group
      */
     public User getUser( String id )
     {
+        if ( this.users instanceof ModelList )
+        {
+            return (User) ( (ModelList) this.users ).get( id );
+        }
         for ( Iterator userIterator = this.getUsers().iterator(); userIterator.hasNext(); )
         {
             User user = (User) userIterator.next();
@@ -29,6 +29,7 @@ import java.io.Serializable;
  * configuration file.
  */
 public class JDBCConnectionPool
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -69,6 +70,11 @@ public class JDBCConnectionPool
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
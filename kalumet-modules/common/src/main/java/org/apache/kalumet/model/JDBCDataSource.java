@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent the <code>jdbcdatasource</code> tag in the Kalumet configuration DOM.
  */
 public class JDBCDataSource
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -52,6 +53,11 @@ public class JDBCDataSource
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -31,6 +31,7 @@ import java.util.List;
  * Represents the <code>jeeapplication</code> tag in the Kalumet DOM.
  */
 public class JEEApplication
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -59,10 +60,10 @@ public class JEEApplication
      */
     public JEEApplication()
     {
-        this.archives = new LinkedList();
-        this.contentManagers = new LinkedList();
-        this.configurationFiles = new LinkedList();
-        this.databases = new LinkedList();
+        this.archives = new ModelList();
+        this.contentManagers = new ModelList();
+        this.configurationFiles = new ModelList();
+        this.databases = new ModelList();
     }
 
     public String getName()
@@ -72,6 +73,11 @@ public class JEEApplication
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -159,6 +165,10 @@ public class JEEApplication
      */
     public Archive getArchive( String name )
     {
+        if ( this.archives instanceof ModelList )
+        {
+            return (Archive) ( (ModelList) this.archives ).get( name );
+        }
         for ( Iterator archiveIterator = this.getArchives().iterator(); archiveIterator.hasNext(); )
         {
             Archive archive = (Archive) archiveIterator.next();
@@ -214,6 +224,10 @@ public class JEEApplication
      */
     public ContentManager getContentManager( String name )
     {
+        if ( this.contentManagers instanceof ModelList )
+        {
+            return (ContentManager) ( (ModelList) this.contentManagers ).get( name );
+        }
         for ( Iterator contentManagerIterator = this.getContentManagers().iterator();
               contentManagerIterator.hasNext(); )
         {
@@ -275,6 +289,10 @@ public class JEEApplication
      */
     public ConfigurationFile getConfigurationFile( String name )
     {
+        if ( this.configurationFiles instanceof ModelList )
+        {
+            return (ConfigurationFile) ( (ModelList) this.configurationFiles ).get( name );
+        }
         for ( Iterator configurationFileIterator = this.getConfigurationFiles().iterator();
               configurationFileIterator.hasNext(); )
         {
@@ -335,6 +353,10 @@ public class JEEApplication
      */
     public Database getDatabase( String name )
     {
+        if ( this.databases instanceof ModelList )
+        {
+            return (Database) ( (ModelList) this.databases ).get( name );
+        }
         for ( Iterator databaseIterator = this.getDatabases().iterator(); databaseIterator.hasNext(); )
         {
             Database database = (Database) databaseIterator.next();
@@ -32,6 +32,7 @@ import java.util.List;
  * Represents the <code>jeeapplicationserver</code> tag in the Kalumet DOM.
  */
 public class JEEApplicationServer
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -88,14 +89,14 @@ public class JEEApplicationServer
      */
     public JEEApplicationServer()
     {
-        this.jdbcConnectionPools = new LinkedList();
-        this.jdbcDataSources = new LinkedList();
-        this.jmsConnectionFactories = new LinkedList();
-        this.jmsServers = new LinkedList();
-        this.jndiBindings = new LinkedList();
-        this.sharedLibraries = new LinkedList();
-        this.jeeApplications = new LinkedList();
-        this.caches = new LinkedList();
+        this.jdbcConnectionPools = new ModelList();
+        this.jdbcDataSources = new ModelList();
+        this.jmsConnectionFactories = new ModelList();
+        this.jmsServers = new ModelList();
+        this.jndiBindings = new ModelList();
+        this.sharedLibraries = new ModelList();
+        this.jeeApplications = new ModelList();
+        this.caches = new ModelList();
         this.logAccesses = new LinkedList();
     }
 
@@ -106,6 +107,11 @@ public class JEEApplicationServer
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -288,6 +294,10 @@ public class JEEApplicationServer
      */
     public JDBCConnectionPool getJDBCConnectionPool( String name )
     {
+        if ( this.jdbcConnectionPools instanceof ModelList )
+        {
+            return (JDBCConnectionPool) ( (ModelList) this.jdbcConnectionPools ).get( name );
+        }
         for ( Iterator connectionPoolIterator = this.getJDBCConnectionPools().iterator();
               connectionPoolIterator.hasNext(); )
         {
@@ -348,6 +358,10 @@ public class JEEApplicationServer
      */
     public JDBCDataSource getJDBCDataSource( String name )
     {
+        if ( this.jdbcDataSources instanceof ModelList )
+        {
+            return (JDBCDataSource) ( (ModelList) this.jdbcDataSources ).get( name );
+        }
         for ( Iterator dataSourceIterator = this.getJDBCDataSources().iterator(); dataSourceIterator.hasNext(); )
         {
             JDBCDataSource JDBCDataSource = (JDBCDataSource) dataSourceIterator.next();
@@ -408,6 +422,10 @@ public class JEEApplicationServer
      */
     public JMSConnectionFactory getJMSConnectionFactory( String name )
     {
+        if ( this.jmsConnectionFactories instanceof ModelList )
+        {
+            return (JMSConnectionFactory) ( (ModelList) this.jmsConnectionFactories ).get( name );
+        }
         for ( Iterator jmsConnectionFactoryIterator = this.getJMSConnectionFactories().iterator();
               jmsConnectionFactoryIterator.hasNext(); )
         {
@@ -469,6 +487,10 @@ public class JEEApplicationServer
      */
     public JMSServer getJMSServer( String name )
     {
+        if ( this.jmsServers instanceof ModelList )
+        {
+            return (JMSServer) ( (ModelList) this.jmsServers ).get( name );
+        }
         for ( Iterator jmsServerIterator = this.getJMSServers().iterator(); jmsServerIterator.hasNext(); )
         {
             JMSServer jmsServer = (JMSServer) jmsServerIterator.next();
@@ -528,6 +550,10 @@ public class JEEApplicationServer
      */
     public JNDIBinding getJNDIBinding( String name )
     {
+        if ( this.jndiBindings instanceof ModelList )
+        {
+            return (JNDIBinding) ( (ModelList) this.jndiBindings ).get( name );
+        }
         for ( Iterator jndiBindingIterator = this.getJNDIBindings().iterator(); jndiBindingIterator.hasNext(); )
         {
             JNDIBinding JNDIBinding = (JNDIBinding) jndiBindingIterator.next();
@@ -587,6 +613,10 @@ public class JEEApplicationServer
      */
     public SharedLibrary getSharedLibrary( String name )
     {
+        if ( this.sharedLibraries instanceof ModelList )
+        {
+            return (SharedLibrary) ( (ModelList) this.sharedLibraries ).get( name );
+        }
         for ( Iterator sharedLibraryIterator = this.getSharedLibraries().iterator(); sharedLibraryIterator.hasNext(); )
         {
             SharedLibrary sharedLibrary = (SharedLibrary) sharedLibraryIterator.next();
@@ -647,6 +677,10 @@ public class JEEApplicationServer
      */
     public JEEApplication getJEEApplication( String name )
     {
+        if ( this.jeeApplications instanceof ModelList )
+        {
+            return (JEEApplication) ( (ModelList) this.jeeApplications ).get( name );
+        }
         for ( Iterator applicationIterator = this.getJEEApplications().iterator(); applicationIterator.hasNext(); )
         {
             JEEApplication jeeApplication = (JEEApplication) applicationIterator.next();
@@ -706,6 +740,10 @@ public class JEEApplicationServer
      */
     public Cache getCache( String path )
     {
+        if ( this.caches instanceof ModelList )
+        {
+            return (Cache) ( (ModelList) this.caches ).get( path );
+        }
         for ( Iterator cacheIterator = this.getCaches().iterator(); cacheIterator.hasNext(); )
         {
             Cache cache = (Cache) cacheIterator.next();
@@ -42,7 +42,7 @@ public class JEEApplicationServers
 
     public JEEApplicationServers()
     {
-        this.jeeApplicationServers = new LinkedList();
+        this.jeeApplicationServers = new ModelList();
     }
 
     public boolean isCluster()
@@ -103,6 +103,10 @@ public class JEEApplicationServers
      */
     public JEEApplicationServer getJEEApplicationServer( String name )
     {
+        if ( this.jeeApplicationServers instanceof ModelList )
+        {
+            return (JEEApplicationServer) ( (ModelList) this.jeeApplicationServers ).get( name );
+        }
         for ( Iterator applicationServerIterator = this.getJEEApplicationServers().iterator();
               applicationServerIterator.hasNext(); )
         {
@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>jmsserver</code> tag in the Kalumet configuration DOM.
  */
 public class JMSServer
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -48,8 +49,8 @@ public class JMSServer
 
     public JMSServer()
     {
-        this.jmsQueues = new LinkedList();
-        this.jmsTopics = new LinkedList();
+        this.jmsQueues = new ModelList();
+        this.jmsTopics = new ModelList();
     }
 
     public String getName()
@@ -59,6 +60,11 @@ public class JMSServer
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -129,6 +135,10 @@ public class JMSServer
      */
     public JMSQueue getJMSQueue( String name )
     {
+        if ( this.jmsQueues instanceof ModelList )
+        {
+            return (JMSQueue) ( (ModelList) this.jmsQueues ).get( name );
+        }
         for ( Iterator jmsQueueIterator = this.getJMSQueues().iterator(); jmsQueueIterator.hasNext(); )
         {
             JMSQueue jmsQueue = (JMSQueue) jmsQueueIterator.next();
@@ -187,6 +197,10 @@ public class JMSServer
      */
     public JMSTopic getJMSTopic( String name )
     {
+        if ( this.jmsTopics instanceof ModelList )
+        {
+            return (JMSTopic) ( (ModelList) this.jmsTopics ).get( name );
+        }
         for ( Iterator jmsTopicIterator = this.getJMSTopics().iterator(); jmsTopicIterator.hasNext(); )
         {
             JMSTopic jmsTopic = (JMSTopic) jmsTopicIterator.next();
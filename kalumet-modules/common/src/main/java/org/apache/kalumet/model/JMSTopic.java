@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent the <code>jmstopic</code> tag in the Kalumet configuration DOM.
  */
 public class JMSTopic
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -46,6 +47,11 @@ public class JMSTopic
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent the <code>jndibinding</code> tag in the Kalumet configuration DOM.
  */
 public class JNDIBinding
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -56,6 +57,11 @@ public class JNDIBinding
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -19,33 +19,52 @@
 package org.apache.kalumet.model;
 
 import org.apache.commons.digester.Digester;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.kalumet.FileManipulator;
 import org.apache.kalumet.KalumetException;
 import org.apache.xerces.dom.CoreDocumentImpl;
 import org.apache.xerces.dom.ElementImpl;
 import org.apache.xml.serialize.OutputFormat;
 import org.apache.xml.serialize.XMLSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Represents the <code>kalumet</code> root tag in the main Kalumet DOM.
  */
 public class Kalumet
+    extends ModelObject
     implements Serializable, Cloneable
 {
 
     private static final long serialVersionUID = -3237352886418250595L;
 
-    private static ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( Kalumet.class );
+
+    /**
+     * Serialize the writers of the Kalumet files. The readers don't lock: the
+     * files are written aside and renamed, a reader always gets a complete
+     * file.
+     */
+    private final static Object WRITE_LOCK = new Object();
 
     private LinkedList properties;
 
@@ -55,12 +74,14 @@ public class Kalumet
 
     private LinkedList environments;
 
+    private transient volatile Indexes indexes;
+
     public Kalumet()
     {
-        this.properties = new LinkedList();
+        this.properties = new ModelList();
         this.security = new Security();
-        this.agents = new LinkedList();
-        this.environments = new LinkedList();
+        this.agents = new ModelList();
+        this.environments = new ModelList( this );
     }
 
     /**
@@ -110,6 +131,10 @@ public class Kalumet
      */
     public Property getProperty( String name )
     {
+        if ( this.properties instanceof ModelList )
+        {
+            return (Property) ( (ModelList) this.properties ).get( name );
+        }
         for ( Iterator propertyIterator = this.getProperties().iterator(); propertyIterator.hasNext(); )
         {
             Property property = (Property) propertyIterator.next();
@@ -189,6 +214,10 @@ public class Kalumet
      */
     public Agent getAgent( String id )
     {
+        if ( this.agents instanceof ModelList )
+        {
+            return (Agent) ( (ModelList) this.agents ).get( id );
+        }
         for ( Iterator agentIterator = this.getAgents().iterator(); agentIterator.hasNext(); )
         {
             Agent agent = (Agent) agentIterator.next();
@@ -235,7 +264,9 @@ public class Kalumet
      */
     public void setEnvironments( LinkedList environments )
     {
+        ModelList.setContainer( environments, this );
         this.environments = environments;
+        this.changed();
     }
 
     /**
@@ -247,6 +278,10 @@ public class Kalumet
      */
     public Environment getEnvironment( String name )
     {
+        if ( this.environments instanceof ModelList )
+        {
+            return (Environment) ( (ModelList) this.environments ).get( name );
+        }
         for ( Iterator environmentIterator = this.getEnvironments().iterator(); environmentIterator.hasNext(); )
         {
             Environment environment = (Environment) environmentIterator.next();
@@ -258,6 +293,111 @@ public class Kalumet
         return null;
     }
 
+    /**
+     * Secondary indexes of the environments, computed once from the model of
+     * a <code>Kalumet</code> and kept while the model stamps of the
+     * <code>Kalumet</code> and of its <code>Security</code> don't change (the
+     * environments, their agent, group and accesses, and the security groups
+     * bump them, see <code>ModelObject.changed()</code>).
+     */
+    private static class Indexes
+    {
+
+        private final int stamp;
+
+        private final Security security;
+
+        private final int securityStamp;
+
+        private final Map environmentsByAgent;
+
+        private final Map environmentsByGroup;
+
+        private final Map environmentsByUser;
+
+        /**
+         * Create empty indexes of the current model of a <code>Kalumet</code>.
+         *
+         * @param kalumet the indexed <code>Kalumet</code>.
+         */
+        private Indexes( Kalumet kalumet )
+        {
+            this( kalumet, new HashMap(), new HashMap(), Collections.synchronizedMap( new HashMap() ) );
+        }
+
+        /**
+         * Share the indexes of a <code>Kalumet</code> with a copy of it.
+         *
+         * @param kalumet the <code>Kalumet</code> copy.
+         * @param shared  the indexes of the copied <code>Kalumet</code>.
+         */
+        private Indexes( Kalumet kalumet, Indexes shared )
+        {
+            this( kalumet, shared.environmentsByAgent, shared.environmentsByGroup, shared.environmentsByUser );
+        }
+
+        private Indexes( Kalumet kalumet, Map environmentsByAgent, Map environmentsByGroup, Map environmentsByUser )
+        {
+            // the stamps are taken before the indexes are computed, a concurrent change is seen on the next check
+            this.stamp = kalumet.getStamp();
+            this.security = kalumet.security;
+            this.securityStamp = this.security.getStamp();
+            this.environmentsByAgent = environmentsByAgent;
+            this.environmentsByGroup = environmentsByGroup;
+            this.environmentsByUser = environmentsByUser;
+        }
+
+        /**
+         * Check if the indexes are up to date with the model of a
+         * <code>Kalumet</code>.
+         *
+         * @param kalumet the indexed <code>Kalumet</code>.
+         * @return true if the model has not been changed since the indexes have been computed, false else.
+         */
+        private boolean isUpToDate( Kalumet kalumet )
+        {
+            // a list not created by the model doesn't notify its changes
+            return kalumet.environments instanceof ModelList && this.stamp == kalumet.getStamp()
+                && this.security == kalumet.security && this.securityStamp == this.security.getStamp();
+        }
+
+    }
+
+    /**
+     * Get the secondary indexes of the environments, rebuilding them if this
+     * model has been modified since they have been computed.
+     *
+     * @return the up to date indexes.
+     */
+    private Indexes getIndexes()
+    {
+        Indexes current = this.indexes;
+        if ( current != null && current.isUpToDate( this ) )
+        {
+            return current;
+        }
+        current = new Indexes( this );
+        for ( Iterator environmentIterator = this.environments.iterator(); environmentIterator.hasNext(); )
+        {
+            Environment environment = (Environment) environmentIterator.next();
+            Kalumet.index( current.environmentsByAgent, environment.getAgent(), environment );
+            Kalumet.index( current.environmentsByGroup, environment.getGroup(), environment );
+        }
+        this.indexes = current;
+        return current;
+    }
+
+    private static void index( Map index, String key, Environment environment )
+    {
+        List environments = (List) index.get( key );
+        if ( environments == null )
+        {
+            environments = new LinkedList();
+            index.put( key, environments );
+        }
+        environments.add( environment );
+    }
+
     /**
      * Get the <code>Environment</code> map order by group.
      *
@@ -266,14 +406,11 @@ public class Kalumet
     public Map getEnvironmentsByGroups()
     {
         HashMap map = new HashMap();
-        for ( Iterator environmentIterator = environments.iterator(); environmentIterator.hasNext(); )
+        for ( Iterator groupIterator = this.getIndexes().environmentsByGroup.entrySet().iterator();
+              groupIterator.hasNext(); )
         {
-            Environment current = (Environment) environmentIterator.next();
-            if ( !map.containsKey( current.getGroup() ) )
-            {
-                map.put( current.getGroup(), new LinkedList() );
-            }
-            ( (List) map.get( current.getGroup() ) ).add( current );
+            Map.Entry group = (Map.Entry) groupIterator.next();
+            map.put( group.getKey(), new LinkedList( (List) group.getValue() ) );
         }
         return map;
     }
@@ -286,17 +423,23 @@ public class Kalumet
      */
     public List getUserEnvironments( String userid )
     {
-        LinkedList userEnvironments = new LinkedList();
-        Security security = this.getSecurity();
-        for ( Iterator environmentIterator = this.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        Indexes current = this.getIndexes();
+        List userEnvironments = (List) current.environmentsByUser.get( userid );
+        if ( userEnvironments == null )
         {
-            Environment environment = (Environment) environmentIterator.next();
-            if ( security.checkEnvironmentUserAccess( environment, userid, null ) )
+            userEnvironments = new LinkedList();
+            Security security = this.getSecurity();
+            for ( Iterator environmentIterator = this.getEnvironments().iterator(); environmentIterator.hasNext(); )
             {
-                userEnvironments.add( environment );
+                Environment environment = (Environment) environmentIterator.next();
+                if ( security.checkEnvironmentUserAccess( environment, userid, null ) )
+                {
+                    userEnvironments.add( environment );
+                }
             }
+            current.environmentsByUser.put( userid, userEnvironments );
         }
-        return userEnvironments;
+        return new LinkedList( userEnvironments );
     }
 
     /**
@@ -329,20 +472,32 @@ public class Kalumet
      */
     public List getEnvironmentsByAgent( String id )
     {
-        LinkedList list = new LinkedList();
-        for ( Iterator environmentIterator = this.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        List environments = (List) this.getIndexes().environmentsByAgent.get( id );
+        if ( environments == null )
         {
-            Environment current = (Environment) environmentIterator.next();
-            if ( current.getAgent().equals( id ) )
-            {
-                list.add( current );
-            }
+            return new LinkedList();
         }
-        return list;
+        return new LinkedList( environments );
     }
 
+    /**
+     * System property defining the parser used to read the Kalumet XML:
+     * <code>digester</code> (default) or <code>stax</code> (opt-in).
+     */
+    public final static String PARSER_PROPERTY = "kalumet.parser";
+
+    /**
+     * System property defining the number of backups kept when writing a
+     * Kalumet XML file with backup (default 3).
+     */
+    public final static String BACKUPS_PROPERTY = "kalumet.backups";
+
     /**
      * Digeste a given XML file and return the main kalumet root tag.
+     * <p/>
+     * For a local file, the binary snapshot written by
+     * <code>writeSnapshotFile()</code> is used instead of the XML if it's up
+     * to date.
      *
      * @param path the Kalumet XML file to parse.
      * @return the main <code>Kalumet</code> corresponding with the root tag.
@@ -356,483 +511,101 @@ public class Kalumet
             path = "file:" + path;
         }
         Kalumet kalumet = null;
+        InputStream stream = null;
         try
         {
-            lock.readLock().lock();
-
-            // init the digester with no validation on the XML file (no DTD)
-            Digester digester = new Digester();
-            digester.setValidating( false );
-
-            // kalumet tag rules
-            digester.addObjectCreate( "kalumet", "org.apache.kalumet.model.Kalumet" );
-            digester.addSetProperties( "kalumet" );
-
-            // properties/property tag rules
-            digester.addObjectCreate( "kalumet/properties/property", "org.apache.kalumet.model.Property" );
-            digester.addSetProperties( "kalumet/properties/property" );
-
-            // add property in the kalumet tag rule
-            digester.addSetNext( "kalumet/properties/property", "addProperty", "org.apache.kalumet.model.Property" );
+            if ( path.startsWith( "file:" ) || path.startsWith( "FILE:" ) )
+            {
+                // use the binary snapshot if it's up to date
+                kalumet = KalumetSnapshot.read( new File( path.substring( 5 ) ) );
+                if ( kalumet != null )
+                {
+                    return kalumet;
+                }
+            }
+            // parse the XML file
+            if ( Kalumet.useStax() )
+            {
+                stream = new URL( path ).openStream();
+                kalumet = KalumetReader.read( stream );
+            }
+            else
+            {
+                kalumet = (Kalumet) Kalumet.createDigester().parse( path );
+            }
+        }
+        catch ( KalumetException kalumetException )
+        {
+            throw kalumetException;
+        }
+        catch ( Exception e )
+        {
+            throw new KalumetException( "Can't read Kalumet configuration.", e );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( stream );
+        }
+        return kalumet;
+    }
 
-            // security tag rules
-            digester.addObjectCreate( "kalumet/security", "org.apache.kalumet.model.Security" );
-            digester.addSetProperties( "kalumet/security" );
-
-            // user tag rules
-            digester.addObjectCreate( "kalumet/security/users/user", "org.apache.kalumet.model.User" );
-            digester.addSetProperties( "kalumet/security/users/user" );
-
-            // add user to security tag rule
-            digester.addSetNext( "kalumet/security/users/user", "addUser", "org.apache.kalumet.model.User" );
-
-            // group tag rules
-            digester.addObjectCreate( "kalumet/security/groups/group", "org.apache.kalumet.model.Group" );
-            digester.addSetProperties( "kalumet/security/groups/group" );
-
-            // user group tag rules
-            digester.addObjectCreate( "kalumet/security/groups/group/users/user", "org.apache.kalumet.model.User" );
-            digester.addSetProperties( "kalumet/security/groups/group/users/user" );
-
-            // add user in group tag rule
-            digester.addSetNext( "kalumet/security/groups/group/users/user", "addUser",
-                                 "org.apache.kalumet.model.User" );
-
-            // add group to security tag rule
-            digester.addSetNext( "kalumet/security/groups/group", "addGroup", "org.apache.kalumet.model.Group" );
-
-            // add security to kalumet tag rule
-            digester.addSetNext( "kalumet/security", "setSecurity", "org.apache.kalumet.model.Security" );
-
-            // agent tag rules
-            digester.addObjectCreate( "kalumet/agents/agent", "org.apache.kalumet.model.Agent" );
-            digester.addSetProperties( "kalumet/agents/agent" );
-
-            // add agent to kalumet tag rule
-            digester.addSetNext( "kalumet/agents/agent", "addAgent", "org.apache.kalumet.model.Agent" );
-
-            // environment tag rules
-            digester.addObjectCreate( "kalumet/environments/environment", "org.apache.kalumet.model.Environment" );
-            digester.addSetProperties( "kalumet/environments/environment" );
-
-            // variables tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/variables/variable",
-                                      "org.apache.kalumet.model.Variable" );
-            digester.addSetProperties( "kalumet/environments/environment/variables/variable" );
-
-            // add variable to environment tag rule
-            digester.addSetNext( "kalumet/environments/environment/variables/variable", "addVariable",
-                                 "org.apache.kalumet.model.Variable" );
-
-            // freefield tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/freefields/freefield",
-                                      "org.apache.kalumet.model.FreeField" );
-            digester.addSetProperties( "kalumet/environments/environment/freefields/freefield" );
-            // add freefield content
-            digester.addCallMethod( "kalumet/environments/environment/freefields/freefield", "setContent", 0 );
-
-            // add freefield to environment tag rule
-            digester.addSetNext( "kalumet/environments/environment/freefields/freefield", "addFreeField",
-                                 "org.apache.kalumet.model.FreeField" );
-
-            // access tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/accesses/access",
-                                      "org.apache.kalumet.model.Access" );
-            digester.addSetProperties( "kalumet/environments/environment/accesses/access" );
-
-            // access properties rules
-            digester.addObjectCreate( "kalumet/environments/environment/accesses/access/properties/property",
-                                      "org.apache.kalumet.model.Property" );
-            digester.addSetProperties( "kalumet/environments/environment/accesses/access/properties/property" );
-
-            // add property in access tag rule
-            digester.addSetNext( "kalumet/environments/environment/accesses/access/properties/property", "addProperty",
-                                 "org.apache.kalumet.model.Property" );
-
-            // add access to environment tag rule
-            digester.addSetNext( "kalumet/environments/environment/accesses/access", "addAccess",
-                                 "org.apache.kalumet.model.Access" );
-
-            // environment notes and weblinks tag rules
-            digester.addCallMethod( "kalumet/environments/environment/notes", "setNotes", 0 );
-            digester.addCallMethod( "kalumet/environments/environment/weblinks", "setWeblinks", 0 );
-
-            // jeeapplicationservers tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/jeeapplicationservers",
-                                      "org.apache.kalumet.model.JEEApplicationServers" );
-            digester.addSetProperties( "kalumet/environments/environment/jeeapplicationservers" );
-
-            // jeeapplicationserver tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver",
-                                      "org.apache.kalumet.model.JEEApplicationServer" );
-            digester.addSetProperties( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver" );
-
-            // jeeapplicationserver startupcommand and shutdowncommand tag rules
-            digester.addCallMethod(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/startupcommand",
-                "setStartupcommand", 0 );
-            digester.addCallMethod(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/shutdowncommand",
-                "setShutdowncommand", 0 );
-
-            // jdbcconnectionpool tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool",
-                "org.apache.kalumet.model.JDBCConnectionPool" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool" );
-
-            // add jdbcconnectionpool to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool",
-                "addJDBCConnectionPool", "org.apache.kalumet.model.JDBCConnectionPool" );
-
-            // jdbcdatasource tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource",
-                "org.apache.kalumet.model.JDBCDataSource" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource" );
-
-            // add jdbcdatasource to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource",
-                "addJDBCDataSource", "org.apache.kalumet.model.JDBCDataSource" );
-
-            // jmsconnectionfactory tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory",
-                "org.apache.kalumet.model.JMSConnectionFactory" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory" );
-
-            // add jmsconnectionfactory to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory",
-                "addJMSConnectionFactory", "org.apache.kalumet.model.JMSConnectionFactory" );
-
-            // jmsserver tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver",
-                "org.apache.kalumet.model.JMSServer" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver" );
-
-            // jmsqueue tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue",
-                "org.apache.kalumet.model.JMSQueue" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue" );
-
-            // add jmsqueue to jmsserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue",
-                "addJMSQueue", "org.apache.kalumet.model.JMSQueue" );
-
-            // jmstopic tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic",
-                "org.apache.kalumet.model.JMSTopic" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic" );
-
-            // add jmstopic to jmsserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic",
-                "addJMSTopic", "org.apache.kalumet.model.JMSTopic" );
-
-            // add jmsserver to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver",
-                "addJMSServer", "org.apache.kalumet.model.JMSServer" );
-
-            // jndibinding tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding",
-                "org.apache.kalumet.model.JNDIBinding" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding" );
-
-            // add jndibinding to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding",
-                "addJNDIBinding", "org.apache.kalumet.model.JNDIBinding" );
-
-            // sharedlibrary tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary",
-                "org.apache.kalumet.model.SharedLibrary" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary" );
-
-            // add sharedlibrary to jeeapplicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary",
-                "addSharedLibrary", "org.apache.kalumet.model.SharedLibrary" );
-
-            // application tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication",
-                "org.apache.kalumet.model.JEEApplication" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication" );
-
-            // archive tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive",
-                "org.apache.kalumet.model.Archive" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive" );
-
-            // add archive archive to application
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive",
-                "addArchive", "org.apache.kalumet.model.Archive" );
-
-            // contentmanager tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager",
-                "org.apache.kalumet.model.ContentManager" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager" );
-
-            // contentmanager property tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property",
-                "org.apache.kalumet.model.Property" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property" );
-
-            // add property in contentmanager
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property",
-                "addProperty", "org.apache.kalumet.model.Property" );
-
-            // add contentmanager to application
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager",
-                "addContentManager", "org.apache.kalumet.model.ContentManager" );
-
-            // configurationfile tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile",
-                "org.apache.kalumet.model.ConfigurationFile" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile" );
-
-            // mapping tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping",
-                "org.apache.kalumet.model.Mapping" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping" );
-
-            // add mapping to configurationfile
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping",
-                "addMapping", "org.apache.kalumet.model.Mapping" );
-
-            // add configurationfile to application
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile",
-                "addConfigurationFile", "org.apache.kalumet.model.ConfigurationFile" );
-
-            // database tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database",
-                "org.apache.kalumet.model.Database" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database" );
-
-            // sqlscript tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript",
-                "org.apache.kalumet.model.SqlScript" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript" );
-
-            // sqlscript mapping tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping",
-                "org.apache.kalumet.model.Mapping" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping" );
-
-            // add mapping to sqlscript
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping",
-                "addMapping", "org.apache.kalumet.model.Mapping" );
-
-            // add sqlscript to database
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript",
-                "addSqlScript", "org.apache.kalumet.model.SqlScript" );
-
-            // add database to application
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database",
-                "addDatabase", "org.apache.kalumet.model.Database" );
-
-            // add application to applicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/application",
-                "addApplication", "org.apache.kalumet.model.JEEApplication" );
-
-            // cache tag rules
-            digester.addObjectCreate(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache",
-                "org.apache.kalumet.model.Cache" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache" );
-
-            // add cache to applicationserver
-            digester.addSetNext(
-                "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache", "addCache",
-                "org.apache.kalumet.model.Cache" );
-
-            // add applicationserver to applicationservers tag rule
-            digester.addSetNext( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver",
-                                 "addJEEApplicationServer", "org.apache.kalumet.model.JEEApplicationServer" );
-
-            // add applicationservers to environment tag rule
-            digester.addSetNext( "kalumet/environments/environment/jeeapplicationservers", "setJEEApplicationServers",
-                                 "org.apache.kalumet.model.JEEApplicationServers" );
-
-            // logfile tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/logfiles/logfile",
-                                      "org.apache.kalumet.model.LogFile" );
-            digester.addSetProperties( "kalumet/environments/environment/logfiles/logfile" );
-
-            // add logfile to environment tag rule
-            digester.addSetNext( "kalumet/environments/environment/logfiles/logfile", "addLogFile",
-                                 "org.apache.kalumet.model.LogFile" );
-
-            // software tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/softwares/software",
-                                      "org.apache.kalumet.model.Software" );
-            digester.addSetProperties( "kalumet/environments/environment/softwares/software" );
-
-            // software update plan command item
-            digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/command",
-                                      "org.apache.kalumet.model.Command" );
-            digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/command" );
-            digester.addCallMethod( "kalumet/environments/environment/softwares/software/updateplan/command",
-                                    "setCommand", 0 );
-            digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/command", "addCommand",
-                                 "org.apache.kalumet.model.Command" );
-
-            // software update plan location item
-            digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/location",
-                                      "org.apache.kalumet.model.Location" );
-            digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/location" );
-            digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/location",
-                                 "addLocation", "org.apache.kalumet.model.Location" );
-
-            // software update plan configuration file item
-            digester.addObjectCreate(
-                "kalumet/environments/environment/softwares/software/updateplan/configurationfile",
-                "org.apache.kalumet.model.ConfigurationFile" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/softwares/software/updateplan/configurationfile" );
-            digester.addObjectCreate(
-                "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping",
-                "org.apache.kalumet.model.Mapping" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping" );
-            digester.addSetNext(
-                "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping",
-                "addMapping", "org.apache.kalumet.model.Mapping" );
-            digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/configurationfile",
-                                 "addConfigurationFile", "org.apache.kalumet.model.ConfigurationFile" );
-
-            // software update plan database item
-            digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/database",
-                                      "org.apache.kalumet.model.Database" );
-            digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/database" );
-            digester.addObjectCreate(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript",
-                "org.apache.kalumet.model.SqlScript" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript" );
-            digester.addObjectCreate(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping",
-                "org.apache.kalumet.model.Mapping" );
-            digester.addSetProperties(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping" );
-            digester.addSetNext(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping",
-                "addMapping", "org.apache.kalumet.model.Mapping" );
-            digester.addSetNext(
-                "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript",
-                "addSqlScript", "org.apache.kalumet.model.SqlScript" );
-            digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/database",
-                                 "addDatabase", "org.apache.kalumet.model.Database" );
-
-            // add software to environment
-            digester.addSetNext( "kalumet/environments/environment/softwares/software", "addSoftware",
-                                 "org.apache.kalumet.model.Software" );
-
-            // notifiers tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/notifiers",
-                                      "org.apache.kalumet.model.Notifiers" );
-            digester.addSetProperties( "kalumet/environments/environment/notifiers" );
-
-            // email tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/notifiers/email",
-                                      "org.apache.kalumet.model.Email" );
-            digester.addSetProperties( "kalumet/environments/environment/notifiers/email" );
-
-            // destination tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/notifiers/email/destinations/destination",
-                                      "org.apache.kalumet.model.Destination" );
-            digester.addSetProperties( "kalumet/environments/environment/notifiers/email/destinations/destination" );
-
-            // add destination to email notifier
-            digester.addSetNext( "kalumet/environments/environment/notifiers/email/destinations/destination",
-                                 "addDestination", "org.apache.kalumet.model.Destination" );
-
-            // add email to notifiers
-            digester.addSetNext( "kalumet/environments/environment/notifiers/email", "addNotifier",
-                                 "org.apache.kalumet.model.Email" );
-
-            // add notifiers to environment
-            digester.addSetNext( "kalumet/environments/environment/notifiers", "setNotifiers",
-                                 "org.apache.kalumet.model.Notifiers" );
-
-            // email publisher tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/publishers/email",
-                                      "org.apache.kalumet.model.Email" );
-            digester.addSetProperties( "kalumet/environments/environment/publishers/email" );
-
-            // destination email publisher tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/publishers/email/destinations/destination",
-                                      "org.apache.kalumet.model.Destination" );
-            digester.addSetProperties( "kalumet/environments/environment/publishers/email/destinations/destination" );
-
-            // add destination to email publisher
-            digester.addSetNext( "kalumet/environments/environment/publishers/email/destinations/destination",
-                                 "addDestination", "org.apache.kalumet.model.Destination" );
-
-            // add email publisher to environment
-            digester.addSetNext( "kalumet/environments/environment/publishers/email", "addPublisher",
-                                 "org.apache.kalumet.model.Email" );
-
-            // statistics tag rules
-            digester.addObjectCreate( "kalumet/environments/environment/statistics",
-                                      "org.apache.kalumet.model.Statistics" );
-            digester.addSetProperties( "kalumet/environments/environment/statistics" );
-
-            // add statistics to environment
-            digester.addSetNext( "kalumet/environments/environment/statistics", "setStatistics",
-                                 "org.apache.kalumet.model.Statistics" );
-
-            // add environment to kalumet tag rule
-            digester.addSetNext( "kalumet/environments/environment", "addEnvironment",
-                                 "org.apache.kalumet.model.Environment" );
+    /**
+     * Digeste a given XML stream and return the main kalumet root tag.
+     *
+     * @param stream the Kalumet XML stream to parse.
+     * @return the main <code>Kalumet</code> corresponding with the root tag.
+     */
+    public static Kalumet digeste( InputStream stream )
+        throws KalumetException
+    {
+        if ( Kalumet.useStax() )
+        {
+            return KalumetReader.read( stream );
+        }
+        try
+        {
+            return (Kalumet) Kalumet.createDigester().parse( stream );
+        }
+        catch ( Exception e )
+        {
+            throw new KalumetException( "Can't read Kalumet configuration.", e );
+        }
+    }
 
-            // parse the XML file
-            kalumet = (Kalumet) digester.parse( path );
+    /**
+     * Digeste a given XML file, loading only the given environment.
+     * <p/>
+     * With the StAX reader, the XML is streamed and the subtrees of the other
+     * environments are skipped (with the Digester, the whole XML is parsed and
+     * the other environments are dropped). The returned <code>Kalumet</code>
+     * contains the properties, the agents and the requested environment (if
+     * found), but no security definition.
+     *
+     * @param path            the Kalumet XML file to parse.
+     * @param environmentName the name of the <code>Environment</code> to load.
+     * @return the partial <code>Kalumet</code> corresponding with the root tag.
+     */
+    public static Kalumet digesteEnvironment( String path, String environmentName )
+        throws KalumetException
+    {
+        if ( !path.startsWith( "http:" ) && !path.startsWith( "HTTP:" ) && !path.startsWith( "file:" )
+            && !path.startsWith( "FILE:" ) )
+        {
+            path = "file:" + path;
+        }
+        if ( !Kalumet.useStax() )
+        {
+            return Kalumet.restrict( Kalumet.digeste( path ), environmentName );
+        }
+        InputStream stream = null;
+        try
+        {
+            stream = new URL( path ).openStream();
+            return KalumetReader.read( stream, environmentName );
+        }
+        catch ( KalumetException kalumetException )
+        {
+            throw kalumetException;
         }
         catch ( Exception e )
         {
@@ -840,11 +613,545 @@ public class Kalumet
         }
         finally
         {
-            lock.readLock().unlock();
+            IOUtils.closeQuietly( stream );
+        }
+    }
+
+    /**
+     * Digeste a given XML stream, loading only the given environment.
+     *
+     * @param stream          the Kalumet XML stream to parse.
+     * @param environmentName the name of the <code>Environment</code> to load.
+     * @return the partial <code>Kalumet</code> corresponding with the root tag.
+     * @see #digesteEnvironment(String, String)
+     */
+    public static Kalumet digesteEnvironment( InputStream stream, String environmentName )
+        throws KalumetException
+    {
+        if ( !Kalumet.useStax() )
+        {
+            return Kalumet.restrict( Kalumet.digeste( stream ), environmentName );
+        }
+        return KalumetReader.read( stream, environmentName );
+    }
+
+    /**
+     * Keep only the given environment in a complete <code>Kalumet</code>,
+     * as returned by the partial loads.
+     *
+     * @param kalumet         the complete <code>Kalumet</code>.
+     * @param environmentName the name of the <code>Environment</code> to keep.
+     * @return the partial <code>Kalumet</code>.
+     */
+    private static Kalumet restrict( Kalumet kalumet, String environmentName )
+    {
+        LinkedList environments = new ModelList();
+        Environment environment = kalumet.getEnvironment( environmentName );
+        if ( environment != null )
+        {
+            environments.add( environment );
         }
+        kalumet.setEnvironments( environments );
+        kalumet.setSecurity( new Security() );
         return kalumet;
     }
 
+    /**
+     * Check if the StAX reader has been selected with the
+     * <code>kalumet.parser</code> system property. The Digester rules are
+     * used by default.
+     *
+     * @return true if the StAX reader has to be used, false to use the Digester rules.
+     */
+    private static boolean useStax()
+    {
+        return "stax".equalsIgnoreCase( System.getProperty( PARSER_PROPERTY, "digester" ) );
+    }
+
+    /**
+     * Create the digester containing all rules to map the Kalumet XML to the
+     * Kalumet model.
+     *
+     * @return the digester ready to parse a Kalumet XML.
+     */
+    private static Digester createDigester()
+    {
+        // init the digester with no validation on the XML file (no DTD)
+        Digester digester = new Digester();
+        digester.setValidating( false );
+
+        // kalumet tag rules
+        digester.addObjectCreate( "kalumet", "org.apache.kalumet.model.Kalumet" );
+        digester.addSetProperties( "kalumet" );
+
+        // properties/property tag rules
+        digester.addObjectCreate( "kalumet/properties/property", "org.apache.kalumet.model.Property" );
+        digester.addSetProperties( "kalumet/properties/property" );
+
+        // add property in the kalumet tag rule
+        digester.addSetNext( "kalumet/properties/property", "addProperty", "org.apache.kalumet.model.Property" );
+
+        // security tag rules
+        digester.addObjectCreate( "kalumet/security", "org.apache.kalumet.model.Security" );
+        digester.addSetProperties( "kalumet/security" );
+
+        // user tag rules
+        digester.addObjectCreate( "kalumet/security/users/user", "org.apache.kalumet.model.User" );
+        digester.addSetProperties( "kalumet/security/users/user" );
+
+        // add user to security tag rule
+        digester.addSetNext( "kalumet/security/users/user", "addUser", "org.apache.kalumet.model.User" );
+
+        // group tag rules
+        digester.addObjectCreate( "kalumet/security/groups/group", "org.apache.kalumet.model.Group" );
+        digester.addSetProperties( "kalumet/security/groups/group" );
+
+        // user group tag rules
+        digester.addObjectCreate( "kalumet/security/groups/group/users/user", "org.apache.kalumet.model.User" );
+        digester.addSetProperties( "kalumet/security/groups/group/users/user" );
+
+        // add user in group tag rule
+        digester.addSetNext( "kalumet/security/groups/group/users/user", "addUser",
+                             "org.apache.kalumet.model.User" );
+
+        // add group to security tag rule
+        digester.addSetNext( "kalumet/security/groups/group", "addGroup", "org.apache.kalumet.model.Group" );
+
+        // add security to kalumet tag rule
+        digester.addSetNext( "kalumet/security", "setSecurity", "org.apache.kalumet.model.Security" );
+
+        // agent tag rules
+        digester.addObjectCreate( "kalumet/agents/agent", "org.apache.kalumet.model.Agent" );
+        digester.addSetProperties( "kalumet/agents/agent" );
+
+        // add agent to kalumet tag rule
+        digester.addSetNext( "kalumet/agents/agent", "addAgent", "org.apache.kalumet.model.Agent" );
+
+        // environment tag rules
+        digester.addObjectCreate( "kalumet/environments/environment", "org.apache.kalumet.model.Environment" );
+        digester.addSetProperties( "kalumet/environments/environment" );
+
+        // variables tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/variables/variable",
+                                  "org.apache.kalumet.model.Variable" );
+        digester.addSetProperties( "kalumet/environments/environment/variables/variable" );
+
+        // add variable to environment tag rule
+        digester.addSetNext( "kalumet/environments/environment/variables/variable", "addVariable",
+                             "org.apache.kalumet.model.Variable" );
+
+        // freefield tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/freefields/freefield",
+                                  "org.apache.kalumet.model.FreeField" );
+        digester.addSetProperties( "kalumet/environments/environment/freefields/freefield" );
+        // add freefield content
+        digester.addCallMethod( "kalumet/environments/environment/freefields/freefield", "setContent", 0 );
+
+        // add freefield to environment tag rule
+        digester.addSetNext( "kalumet/environments/environment/freefields/freefield", "addFreeField",
+                             "org.apache.kalumet.model.FreeField" );
+
+        // access tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/accesses/access",
+                                  "org.apache.kalumet.model.Access" );
+        digester.addSetProperties( "kalumet/environments/environment/accesses/access" );
+
+        // access properties rules
+        digester.addObjectCreate( "kalumet/environments/environment/accesses/access/properties/property",
+                                  "org.apache.kalumet.model.Property" );
+        digester.addSetProperties( "kalumet/environments/environment/accesses/access/properties/property" );
+
+        // add property in access tag rule
+        digester.addSetNext( "kalumet/environments/environment/accesses/access/properties/property", "addProperty",
+                             "org.apache.kalumet.model.Property" );
+
+        // add access to environment tag rule
+        digester.addSetNext( "kalumet/environments/environment/accesses/access", "addAccess",
+                             "org.apache.kalumet.model.Access" );
+
+        // environment notes and weblinks tag rules
+        digester.addCallMethod( "kalumet/environments/environment/notes", "setNotes", 0 );
+        digester.addCallMethod( "kalumet/environments/environment/weblinks", "setWeblinks", 0 );
+
+        // jeeapplicationservers tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/jeeapplicationservers",
+                                  "org.apache.kalumet.model.JEEApplicationServers" );
+        digester.addSetProperties( "kalumet/environments/environment/jeeapplicationservers" );
+
+        // jeeapplicationserver tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver",
+                                  "org.apache.kalumet.model.JEEApplicationServer" );
+        digester.addSetProperties( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver" );
+
+        // jeeapplicationserver startupcommand and shutdowncommand tag rules
+        digester.addCallMethod(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/startupcommand",
+            "setStartupcommand", 0 );
+        digester.addCallMethod(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/shutdowncommand",
+            "setShutdowncommand", 0 );
+
+        // jdbcconnectionpool tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool",
+            "org.apache.kalumet.model.JDBCConnectionPool" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool" );
+
+        // add jdbcconnectionpool to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcconnectionpools/jdbcconnectionpool",
+            "addJDBCConnectionPool", "org.apache.kalumet.model.JDBCConnectionPool" );
+
+        // jdbcdatasource tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource",
+            "org.apache.kalumet.model.JDBCDataSource" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource" );
+
+        // add jdbcdatasource to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jdbcdatasources/jdbcdatasource",
+            "addJDBCDataSource", "org.apache.kalumet.model.JDBCDataSource" );
+
+        // jmsconnectionfactory tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory",
+            "org.apache.kalumet.model.JMSConnectionFactory" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory" );
+
+        // add jmsconnectionfactory to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsconnectionfactories/jmsconnectionfactory",
+            "addJMSConnectionFactory", "org.apache.kalumet.model.JMSConnectionFactory" );
+
+        // jmsserver tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver",
+            "org.apache.kalumet.model.JMSServer" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver" );
+
+        // jmsqueue tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue",
+            "org.apache.kalumet.model.JMSQueue" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue" );
+
+        // add jmsqueue to jmsserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmsqueues/jmsqueue",
+            "addJMSQueue", "org.apache.kalumet.model.JMSQueue" );
+
+        // jmstopic tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic",
+            "org.apache.kalumet.model.JMSTopic" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic" );
+
+        // add jmstopic to jmsserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver/jmstopics/jmstopic",
+            "addJMSTopic", "org.apache.kalumet.model.JMSTopic" );
+
+        // add jmsserver to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jmsservers/jmsserver",
+            "addJMSServer", "org.apache.kalumet.model.JMSServer" );
+
+        // jndibinding tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding",
+            "org.apache.kalumet.model.JNDIBinding" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding" );
+
+        // add jndibinding to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jndibindings/jndibinding",
+            "addJNDIBinding", "org.apache.kalumet.model.JNDIBinding" );
+
+        // sharedlibrary tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary",
+            "org.apache.kalumet.model.SharedLibrary" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary" );
+
+        // add sharedlibrary to jeeapplicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/sharedlibrairies/sharedlibrary",
+            "addSharedLibrary", "org.apache.kalumet.model.SharedLibrary" );
+
+        // application tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication",
+            "org.apache.kalumet.model.JEEApplication" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication" );
+
+        // archive tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive",
+            "org.apache.kalumet.model.Archive" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive" );
+
+        // add archive archive to application
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/archives/archive",
+            "addArchive", "org.apache.kalumet.model.Archive" );
+
+        // contentmanager tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager",
+            "org.apache.kalumet.model.ContentManager" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager" );
+
+        // contentmanager property tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property",
+            "org.apache.kalumet.model.Property" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property" );
+
+        // add property in contentmanager
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager/properties/property",
+            "addProperty", "org.apache.kalumet.model.Property" );
+
+        // add contentmanager to application
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/contentmanagers/contentmanager",
+            "addContentManager", "org.apache.kalumet.model.ContentManager" );
+
+        // configurationfile tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile",
+            "org.apache.kalumet.model.ConfigurationFile" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile" );
+
+        // mapping tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping",
+            "org.apache.kalumet.model.Mapping" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping" );
+
+        // add mapping to configurationfile
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile/mappings/mapping",
+            "addMapping", "org.apache.kalumet.model.Mapping" );
+
+        // add configurationfile to application
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/configurationfiles/configurationfile",
+            "addConfigurationFile", "org.apache.kalumet.model.ConfigurationFile" );
+
+        // database tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database",
+            "org.apache.kalumet.model.Database" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database" );
+
+        // sqlscript tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript",
+            "org.apache.kalumet.model.SqlScript" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript" );
+
+        // sqlscript mapping tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping",
+            "org.apache.kalumet.model.Mapping" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping" );
+
+        // add mapping to sqlscript
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript/mappings/mapping",
+            "addMapping", "org.apache.kalumet.model.Mapping" );
+
+        // add sqlscript to database
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database/sqlscripts/sqlscript",
+            "addSqlScript", "org.apache.kalumet.model.SqlScript" );
+
+        // add database to application
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication/databases/database",
+            "addDatabase", "org.apache.kalumet.model.Database" );
+
+        // add application to applicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/jeeapplications/jeeapplication",
+            "addJEEApplication", "org.apache.kalumet.model.JEEApplication" );
+
+        // cache tag rules
+        digester.addObjectCreate(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache",
+            "org.apache.kalumet.model.Cache" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache" );
+
+        // add cache to applicationserver
+        digester.addSetNext(
+            "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver/caches/cache", "addCache",
+            "org.apache.kalumet.model.Cache" );
+
+        // add applicationserver to applicationservers tag rule
+        digester.addSetNext( "kalumet/environments/environment/jeeapplicationservers/jeeapplicationserver",
+                             "addJEEApplicationServer", "org.apache.kalumet.model.JEEApplicationServer" );
+
+        // add applicationservers to environment tag rule
+        digester.addSetNext( "kalumet/environments/environment/jeeapplicationservers", "setJEEApplicationServers",
+                             "org.apache.kalumet.model.JEEApplicationServers" );
+
+        // logfile tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/logfiles/logfile",
+                                  "org.apache.kalumet.model.LogFile" );
+        digester.addSetProperties( "kalumet/environments/environment/logfiles/logfile" );
+
+        // add logfile to environment tag rule
+        digester.addSetNext( "kalumet/environments/environment/logfiles/logfile", "addLogFile",
+                             "org.apache.kalumet.model.LogFile" );
+
+        // software tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/softwares/software",
+                                  "org.apache.kalumet.model.Software" );
+        digester.addSetProperties( "kalumet/environments/environment/softwares/software" );
+
+        // software update plan command item
+        digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/command",
+                                  "org.apache.kalumet.model.Command" );
+        digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/command" );
+        digester.addCallMethod( "kalumet/environments/environment/softwares/software/updateplan/command",
+                                "setCommand", 0 );
+        digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/command", "addCommand",
+                             "org.apache.kalumet.model.Command" );
+
+        // software update plan location item
+        digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/location",
+                                  "org.apache.kalumet.model.Location" );
+        digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/location" );
+        digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/location",
+                             "addLocation", "org.apache.kalumet.model.Location" );
+
+        // software update plan configuration file item
+        digester.addObjectCreate(
+            "kalumet/environments/environment/softwares/software/updateplan/configurationfile",
+            "org.apache.kalumet.model.ConfigurationFile" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/softwares/software/updateplan/configurationfile" );
+        digester.addObjectCreate(
+            "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping",
+            "org.apache.kalumet.model.Mapping" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping" );
+        digester.addSetNext(
+            "kalumet/environments/environment/softwares/software/updateplan/configurationfile/mappings/mapping",
+            "addMapping", "org.apache.kalumet.model.Mapping" );
+        digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/configurationfile",
+                             "addConfigurationFile", "org.apache.kalumet.model.ConfigurationFile" );
+
+        // software update plan database item
+        digester.addObjectCreate( "kalumet/environments/environment/softwares/software/updateplan/database",
+                                  "org.apache.kalumet.model.Database" );
+        digester.addSetProperties( "kalumet/environments/environment/softwares/software/updateplan/database" );
+        digester.addObjectCreate(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript",
+            "org.apache.kalumet.model.SqlScript" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript" );
+        digester.addObjectCreate(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping",
+            "org.apache.kalumet.model.Mapping" );
+        digester.addSetProperties(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping" );
+        digester.addSetNext(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript/mappings/mapping",
+            "addMapping", "org.apache.kalumet.model.Mapping" );
+        digester.addSetNext(
+            "kalumet/environments/environment/softwares/software/updateplan/database/sqlscripts/sqlscript",
+            "addSqlScript", "org.apache.kalumet.model.SqlScript" );
+        digester.addSetNext( "kalumet/environments/environment/softwares/software/updateplan/database",
+                             "addDatabase", "org.apache.kalumet.model.Database" );
+
+        // add software to environment
+        digester.addSetNext( "kalumet/environments/environment/softwares/software", "addSoftware",
+                             "org.apache.kalumet.model.Software" );
+
+        // notifiers tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/notifiers",
+                                  "org.apache.kalumet.model.Notifiers" );
+        digester.addSetProperties( "kalumet/environments/environment/notifiers" );
+
+        // email tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/notifiers/email",
+                                  "org.apache.kalumet.model.Email" );
+        digester.addSetProperties( "kalumet/environments/environment/notifiers/email" );
+
+        // destination tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/notifiers/email/destinations/destination",
+                                  "org.apache.kalumet.model.Destination" );
+        digester.addSetProperties( "kalumet/environments/environment/notifiers/email/destinations/destination" );
+
+        // add destination to email notifier
+        digester.addSetNext( "kalumet/environments/environment/notifiers/email/destinations/destination",
+                             "addDestination", "org.apache.kalumet.model.Destination" );
+
+        // add email to notifiers
+        digester.addSetNext( "kalumet/environments/environment/notifiers/email", "addNotifier",
+                             "org.apache.kalumet.model.Email" );
+
+        // add notifiers to environment
+        digester.addSetNext( "kalumet/environments/environment/notifiers", "setNotifiers",
+                             "org.apache.kalumet.model.Notifiers" );
+
+        // email publisher tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/publishers/email",
+                                  "org.apache.kalumet.model.Email" );
+        digester.addSetProperties( "kalumet/environments/environment/publishers/email" );
+
+        // destination email publisher tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/publishers/email/destinations/destination",
+                                  "org.apache.kalumet.model.Destination" );
+        digester.addSetProperties( "kalumet/environments/environment/publishers/email/destinations/destination" );
+
+        // add destination to email publisher
+        digester.addSetNext( "kalumet/environments/environment/publishers/email/destinations/destination",
+                             "addDestination", "org.apache.kalumet.model.Destination" );
+
+        // add email publisher to environment
+        digester.addSetNext( "kalumet/environments/environment/publishers/email", "addPublisher",
+                             "org.apache.kalumet.model.Email" );
+
+        // statistics tag rules
+        digester.addObjectCreate( "kalumet/environments/environment/statistics",
+                                  "org.apache.kalumet.model.Statistics" );
+        digester.addSetProperties( "kalumet/environments/environment/statistics",
+                                   new String[]{ "updatecount", "lastupdatedate", "lastchangedate" },
+                                   new String[]{ "updateCount", "lastUpdateDate", "lastChangeDate" } );
+
+        // add statistics to environment
+        digester.addSetNext( "kalumet/environments/environment/statistics", "setStatistics",
+                             "org.apache.kalumet.model.Statistics" );
+
+        // add environment to kalumet tag rule
+        digester.addSetNext( "kalumet/environments/environment", "addEnvironment",
+                             "org.apache.kalumet.model.Environment" );
+
+        return digester;
+    }
+
     /**
      * Transform the <code>Kalumet</code> POJO to a DOM Element.
      *
@@ -917,45 +1224,321 @@ public class Kalumet
     }
 
     /**
-     * Write a Kalumet XML file with the content of the in-memory
-     * configuration.
+     * Create an editable copy of the <code>Kalumet</code> container sharing
+     * its properties, agents, environments, users and groups with this one:
+     * only the containers are copied, not the model objects.
+     * <p/>
+     * The shared objects belong to both configurations and must not be
+     * modified: use <code>editProperty()</code>, <code>editAgent()</code>,
+     * <code>editEnvironment()</code> (or the <code>Security</code> ones) to
+     * replace an object by its own copy before modifying it. So an edit only
+     * copies the path from the root to the modified object.
      *
-     * @param path   the path to the file to write.
-     * @param backup a flag indicated if a previous backup must be copied before writing.
+     * @return the <code>Kalumet</code> copy.
      */
-    public synchronized void writeXMLFile( String path, boolean backup )
-        throws KalumetException
+    public Kalumet copy()
     {
-        if ( backup )
+        Kalumet copy = new Kalumet();
+        copy.properties.addAll( this.properties );
+        copy.security = this.security.copy();
+        copy.agents.addAll( this.agents );
+        copy.environments.addAll( this.environments );
+        // the copies of a cached configuration share its indexes, while they are not modified
+        copy.indexes = new Indexes( copy, this.getIndexes() );
+        return copy;
+    }
+
+    /**
+     * Replace a <code>Property</code> by its own copy in the
+     * <code>Kalumet</code> container, to modify it without affecting the
+     * configurations sharing it (see <code>copy()</code>).
+     *
+     * @param name the <code>Property</code> name.
+     * @return the <code>Property</code> copy to modify, or null if no <code>Property</code> found.
+     */
+    public Property editProperty( String name )
+    {
+        Property property = this.getProperty( name );
+        if ( property == null )
         {
-            this.backupXMLFile( path );
+            return null;
         }
         try
         {
-            lock.writeLock().lock();
-            OutputFormat format = new OutputFormat();
-            format.setLineWidth( 72 );
-            format.setIndenting( true );
-            format.setIndent( 3 );
-            format.setEncoding( "ISO-8859-1" );
-            if ( path.startsWith( "http:" ) || path.startsWith( "http:" ) )
+            Property copy = (Property) property.clone();
+            this.properties.set( this.properties.indexOf( property ), copy );
+            return copy;
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            throw new IllegalStateException( "Can't copy property " + name );
+        }
+    }
+
+    /**
+     * Replace an <code>Agent</code> by its own copy in the
+     * <code>Kalumet</code> container, to modify it without affecting the
+     * configurations sharing it (see <code>copy()</code>).
+     *
+     * @param id the <code>Agent</code> id.
+     * @return the <code>Agent</code> copy to modify, or null if no <code>Agent</code> found.
+     */
+    public Agent editAgent( String id )
+    {
+        Agent agent = this.getAgent( id );
+        if ( agent == null )
+        {
+            return null;
+        }
+        try
+        {
+            Agent copy = (Agent) agent.clone();
+            this.agents.set( this.agents.indexOf( agent ), copy );
+            return copy;
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            throw new IllegalStateException( "Can't copy agent " + id );
+        }
+    }
+
+    /**
+     * Replace all the <code>Agent</code>s by their own copy in the
+     * <code>Kalumet</code> container, to modify them without affecting the
+     * configurations sharing them.
+     *
+     * @return the <code>Agent</code> list to modify.
+     */
+    public List editAgents()
+    {
+        for ( ListIterator agentIterator = this.agents.listIterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            try
             {
-                throw new KalumetException( "Can't write Kalumet XML file over a HTTP URL." );
+                agentIterator.set( agent.clone() );
             }
-            if ( path.startsWith( "file:" ) || path.startsWith( "FILE:" ) )
+            catch ( CloneNotSupportedException e )
             {
-                path = path.substring( 5 );
+                throw new IllegalStateException( "Can't copy agent " + agent.getId() );
             }
-            XMLSerializer serializer = new XMLSerializer( new FileOutputStream( path ), format );
+        }
+        return this.agents;
+    }
+
+    /**
+     * Replace an <code>Environment</code> by its own copy in the
+     * <code>Kalumet</code> container, to modify it without affecting the
+     * configurations sharing it (see <code>copy()</code>).
+     *
+     * @param name the <code>Environment</code> name.
+     * @return the <code>Environment</code> copy to modify, or null if no <code>Environment</code> found.
+     */
+    public Environment editEnvironment( String name )
+    {
+        Environment environment = this.getEnvironment( name );
+        if ( environment == null )
+        {
+            return null;
+        }
+        try
+        {
+            Environment copy = (Environment) environment.clone();
+            this.environments.set( this.environments.indexOf( environment ), copy );
+            return copy;
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            throw new IllegalStateException( "Can't copy environment " + name );
+        }
+    }
+
+    /**
+     * Compute the MD5 digest of each property, agent and environment of the
+     * <code>Kalumet</code> container. The digests are used to detect the
+     * changes between two versions of the configuration.
+     *
+     * @return the map of element keys (<code>property:name</code>, <code>agent:id</code> or <code>environment:name</code>) and hexadecimal digests.
+     */
+    public Map getDigests()
+        throws KalumetException
+    {
+        Map digests = new HashMap();
+        CoreDocumentImpl document = new CoreDocumentImpl( true );
+        for ( Iterator propertyIterator = this.getProperties().iterator(); propertyIterator.hasNext(); )
+        {
+            Property property = (Property) propertyIterator.next();
+            digests.put( "property:" + property.getName(), Kalumet.getDigest( property.toDOMElement( document ) ) );
+        }
+        for ( Iterator agentIterator = this.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            digests.put( "agent:" + agent.getId(), Kalumet.getDigest( agent.toDOMElement( document ) ) );
+        }
+        for ( Iterator environmentIterator = this.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        {
+            Environment environment = (Environment) environmentIterator.next();
+            digests.put( "environment:" + environment.getName(),
+                         Kalumet.getDigest( environment.toDOMElement( document ) ) );
+        }
+        return digests;
+    }
+
+    /**
+     * Compute the MD5 digest of a DOM element.
+     *
+     * @param element the DOM element.
+     * @return the hexadecimal MD5 digest of the element XML.
+     */
+    private static String getDigest( Element element )
+        throws KalumetException
+    {
+        try
+        {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            XMLSerializer serializer = new XMLSerializer( stream, new OutputFormat() );
+            serializer.serialize( element );
+            byte[] digest = MessageDigest.getInstance( "MD5" ).digest( stream.toByteArray() );
+            StringBuffer buffer = new StringBuffer();
+            for ( int i = 0; i < digest.length; i++ )
+            {
+                buffer.append( Integer.toHexString( ( digest[i] & 0xFF ) | 0x100 ).substring( 1 ) );
+            }
+            return buffer.toString();
+        }
+        catch ( Exception e )
+        {
+            throw new KalumetException( "Can't compute Kalumet element digest.", e );
+        }
+    }
+
+    /**
+     * Write the Kalumet XML content of the in-memory configuration to a
+     * given stream.
+     *
+     * @param stream the stream where to write the XML.
+     */
+    public void writeXML( OutputStream stream )
+        throws KalumetException
+    {
+        try
+        {
+            OutputFormat format = new OutputFormat();
+            format.setEncoding( "ISO-8859-1" );
+            XMLSerializer serializer = new XMLSerializer( stream, format );
             serializer.serialize( this.toDOMElement( new CoreDocumentImpl( true ) ) );
         }
         catch ( Exception e )
         {
-            throw new KalumetException( "Can't write Kalumet XML file.", e );
+            throw new KalumetException( "Can't write Kalumet XML.", e );
         }
-        finally
+    }
+
+    /**
+     * Write a Kalumet XML file with the content of the in-memory
+     * configuration.
+     * <p/>
+     * The XML is written and synced in a temporary file, renamed to the
+     * target file: the readers get the previous file or the new one, never a
+     * partial one, and never wait for the writers.
+     *
+     * @param path   the path to the file to write.
+     * @param backup a flag indicated if a previous backup must be copied before writing.
+     */
+    public void writeXMLFile( String path, boolean backup )
+        throws KalumetException
+    {
+        this.writeXMLFile( path, backup, false );
+    }
+
+    /**
+     * Write a Kalumet XML file with the content of the in-memory
+     * configuration, and optionally its binary snapshot.
+     * <p/>
+     * The XML file and the snapshot are written under the same lock, the
+     * snapshot being stamped with the last modification date and length of
+     * the XML file just written: a concurrent writer can't slip its XML file
+     * between them. A snapshot failure doesn't fail the write, the readers
+     * use the XML file.
+     *
+     * @param path     the path to the file to write.
+     * @param backup   a flag indicated if a previous backup must be copied before writing.
+     * @param snapshot a flag indicated if the binary snapshot must be written too.
+     * @return the last modification date and the length of the written XML file.
+     */
+    public long[] writeXMLFile( String path, boolean backup, boolean snapshot )
+        throws KalumetException
+    {
+        if ( path.startsWith( "http:" ) || path.startsWith( "HTTP:" ) )
         {
-            lock.writeLock().unlock();
+            throw new KalumetException( "Can't write Kalumet XML file over a HTTP URL." );
+        }
+        if ( path.startsWith( "file:" ) || path.startsWith( "FILE:" ) )
+        {
+            path = path.substring( 5 );
+        }
+        synchronized ( WRITE_LOCK )
+        {
+            if ( backup )
+            {
+                this.backupXMLFile( path );
+            }
+            File file = new File( path );
+            File temp = new File( path + ".tmp" );
+            FileOutputStream stream = null;
+            long lastModified;
+            long length;
+            try
+            {
+                OutputFormat format = new OutputFormat();
+                format.setLineWidth( 72 );
+                format.setIndenting( true );
+                format.setIndent( 3 );
+                format.setEncoding( "ISO-8859-1" );
+                stream = new FileOutputStream( temp );
+                XMLSerializer serializer = new XMLSerializer( stream, format );
+                serializer.serialize( this.toDOMElement( new CoreDocumentImpl( true ) ) );
+                // the content is on the disk before the rename
+                stream.getFD().sync();
+                stream.close();
+                stream = null;
+                // the rename keeps the last modification date
+                lastModified = temp.lastModified();
+                length = temp.length();
+                if ( !temp.renameTo( file ) )
+                {
+                    // some platforms don't allow to rename over an existing file
+                    file.delete();
+                    if ( !temp.renameTo( file ) )
+                    {
+                        throw new KalumetException( "Can't rename " + temp.getPath() + " to " + path );
+                    }
+                }
+            }
+            catch ( KalumetException kalumetException )
+            {
+                temp.delete();
+                throw kalumetException;
+            }
+            catch ( Exception e )
+            {
+                IOUtils.closeQuietly( stream );
+                temp.delete();
+                throw new KalumetException( "Can't write Kalumet XML file.", e );
+            }
+            if ( snapshot )
+            {
+                try
+                {
+                    KalumetSnapshot.write( this, file, lastModified, length );
+                }
+                catch ( KalumetException kalumetException )
+                {
+                    LOGGER.warn( "Can't write the Kalumet configuration snapshot, the XML file will be used",
+                                 kalumetException );
+                }
+            }
+            return new long[]{ lastModified, length };
         }
     }
 
@@ -971,28 +1554,102 @@ public class Kalumet
         this.writeXMLFile( path, false );
     }
 
+    /**
+     * Write the binary snapshot of the in-memory configuration next to a
+     * Kalumet XML file. The XML file must have been written before, the
+     * snapshot being only used while it matches the XML file.
+     *
+     * @param path the path to the Kalumet XML file.
+     */
+    public void writeSnapshotFile( String path )
+        throws KalumetException
+    {
+        if ( path.startsWith( "http:" ) || path.startsWith( "HTTP:" ) )
+        {
+            throw new KalumetException( "Can't write Kalumet snapshot file over a HTTP URL." );
+        }
+        if ( path.startsWith( "file:" ) || path.startsWith( "FILE:" ) )
+        {
+            path = path.substring( 5 );
+        }
+        synchronized ( WRITE_LOCK )
+        {
+            File file = new File( path );
+            KalumetSnapshot.write( this, file, file.lastModified(), file.length() );
+        }
+    }
+
     /**
      * Make a backup of the old Kalumet XML configuration to avoid file
      * corruption (for example when disk full).
+     * <p/>
+     * The last backups are kept (see <code>BACKUPS_PROPERTY</code>): the
+     * most recent one is <code>path.backup</code>, the older ones
+     * <code>path.backup.1</code>, <code>path.backup.2</code>, ... The
+     * backups are rotated by renaming them, and the new backup is a hard link
+     * to the current file when the platform supports it (a copy else).
      *
      * @param path the path to the Kalumet XML file.
      */
     public void backupXMLFile( String path )
         throws KalumetException
     {
-        FileManipulator fileManipulator = null;
-        try
+        if ( path.startsWith( "file:" ) || path.startsWith( "FILE:" ) )
         {
-            fileManipulator = new FileManipulator();
-            fileManipulator.copy( path, path + ".backup" );
+            path = path.substring( 5 );
         }
-        finally
+        File file = new File( path );
+        if ( !file.exists() )
         {
-            if ( fileManipulator != null )
+            return;
+        }
+        synchronized ( WRITE_LOCK )
+        {
+            int backups = Integer.getInteger( BACKUPS_PROPERTY, 3 ).intValue();
+            if ( backups < 1 )
             {
-                fileManipulator.close();
+                return;
             }
+            // rotate the previous backups
+            new File( Kalumet.getBackupPath( path, backups - 1 ) ).delete();
+            for ( int i = backups - 1; i > 0; i-- )
+            {
+                File older = new File( Kalumet.getBackupPath( path, i - 1 ) );
+                if ( older.exists() )
+                {
+                    older.renameTo( new File( Kalumet.getBackupPath( path, i ) ) );
+                }
+            }
+            File backup = new File( Kalumet.getBackupPath( path, 0 ) );
+            backup.delete();
+            if ( !FileManipulator.link( file, backup ) )
+            {
+                try
+                {
+                    FileUtils.copyFile( file, backup );
+                }
+                catch ( Exception e )
+                {
+                    throw new KalumetException( "Can't backup Kalumet XML file " + path, e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the path of a Kalumet XML file backup.
+     *
+     * @param path  the path to the Kalumet XML file.
+     * @param index the backup index, 0 for the most recent.
+     * @return the backup path.
+     */
+    private static String getBackupPath( String path, int index )
+    {
+        if ( index == 0 )
+        {
+            return path + ".backup";
         }
+        return path + ".backup." + index;
     }
 
     public static void writeDefault( String path )
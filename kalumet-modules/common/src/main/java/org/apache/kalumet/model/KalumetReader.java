@@ -0,0 +1,1830 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import org.apache.kalumet.KalumetException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Streaming (StAX) reader of the Kalumet XML.
+ * <p/>
+ * It populates the Kalumet model directly, without the reflection used by
+ * the Digester rules, and produces the same object graph: only the
+ * attributes present in the XML are set, text contents are trimmed and
+ * children are added to their parent once completely read.
+ * <p/>
+ * The reader can also be restricted to a single environment: the subtrees
+ * of the other environments and the security definition are skipped, only
+ * the properties, the agents and the requested environment are loaded.
+ */
+class KalumetReader
+{
+
+    private final static XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static
+    {
+        FACTORY.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+        FACTORY.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE );
+    }
+
+    private final XMLStreamReader reader;
+
+    private final String environmentName;
+
+    private KalumetReader( XMLStreamReader reader, String environmentName )
+    {
+        this.reader = reader;
+        this.environmentName = environmentName;
+    }
+
+    /**
+     * Read a Kalumet XML stream.
+     *
+     * @param stream the Kalumet XML stream.
+     * @return the <code>Kalumet</code> corresponding with the root tag.
+     * @throws KalumetException in case of read failure.
+     */
+    static Kalumet read( InputStream stream )
+        throws KalumetException
+    {
+        return KalumetReader.read( stream, null );
+    }
+
+    /**
+     * Read a Kalumet XML stream, loading only the given environment.
+     *
+     * @param stream          the Kalumet XML stream.
+     * @param environmentName the name of the environment to load, null to load all environments.
+     * @return the <code>Kalumet</code> corresponding with the root tag.
+     * @throws KalumetException in case of read failure.
+     */
+    static Kalumet read( InputStream stream, String environmentName )
+        throws KalumetException
+    {
+        XMLStreamReader reader = null;
+        try
+        {
+            reader = FACTORY.createXMLStreamReader( stream );
+            while ( reader.hasNext() && reader.next() != XMLStreamConstants.START_ELEMENT )
+            {
+                // go to the root element
+            }
+            if ( !reader.isStartElement() || !"kalumet".equals( reader.getLocalName() ) )
+            {
+                throw new KalumetException( "Kalumet XML root tag not found." );
+            }
+            return new KalumetReader( reader, environmentName ).readKalumet();
+        }
+        catch ( XMLStreamException e )
+        {
+            throw new KalumetException( "Can't read Kalumet configuration.", e );
+        }
+        finally
+        {
+            if ( reader != null )
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch ( XMLStreamException e )
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Move to the next child element of the current element.
+     *
+     * @return true if the reader is on a child start element, false if it reached the current element end.
+     */
+    private boolean nextChild()
+        throws XMLStreamException
+    {
+        while ( reader.hasNext() )
+        {
+            int event = reader.next();
+            if ( event == XMLStreamConstants.START_ELEMENT )
+            {
+                return true;
+            }
+            if ( event == XMLStreamConstants.END_ELEMENT )
+            {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip the current element and all its children.
+     */
+    private void skip()
+        throws XMLStreamException
+    {
+        int depth = 1;
+        while ( depth > 0 && reader.hasNext() )
+        {
+            int event = reader.next();
+            if ( event == XMLStreamConstants.START_ELEMENT )
+            {
+                depth++;
+            }
+            else if ( event == XMLStreamConstants.END_ELEMENT )
+            {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Read the trimmed text content of the current element.
+     *
+     * @return the element text.
+     */
+    private String text()
+        throws XMLStreamException
+    {
+        return reader.getElementText().trim();
+    }
+
+    private boolean is( String name )
+    {
+        return name.equals( reader.getLocalName() );
+    }
+
+    /**
+     * Convert an attribute value to a boolean the same way as the
+     * commons-beanutils converter used by the Digester.
+     */
+    private static boolean toBoolean( String value )
+    {
+        String trimmed = value.trim();
+        return trimmed.equalsIgnoreCase( "true" ) || trimmed.equalsIgnoreCase( "yes" ) || trimmed.equalsIgnoreCase(
+            "y" ) || trimmed.equalsIgnoreCase( "on" ) || trimmed.equals( "1" );
+    }
+
+    /**
+     * Convert an attribute value to an int the same way as the
+     * commons-beanutils converter used by the Digester.
+     */
+    private static int toInt( String value )
+    {
+        try
+        {
+            return Integer.parseInt( value.trim() );
+        }
+        catch ( NumberFormatException e )
+        {
+            return 0;
+        }
+    }
+
+    private Kalumet readKalumet()
+        throws XMLStreamException, KalumetException
+    {
+        Kalumet kalumet = new Kalumet();
+        while ( nextChild() )
+        {
+            if ( is( "properties" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "property" ) )
+                    {
+                        kalumet.addProperty( readProperty() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "security" ) && environmentName == null )
+            {
+                kalumet.setSecurity( readSecurity() );
+            }
+            else if ( is( "agents" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "agent" ) )
+                    {
+                        kalumet.addAgent( readAgent() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "environments" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "environment" ) && ( environmentName == null || environmentName.equals(
+                        reader.getAttributeValue( null, "name" ) ) ) )
+                    {
+                        kalumet.addEnvironment( readEnvironment() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return kalumet;
+    }
+
+    private Property readProperty()
+        throws XMLStreamException
+    {
+        Property property = new Property();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                property.setName( value );
+            }
+            else if ( name.equals( "value" ) )
+            {
+                property.setValue( value );
+            }
+        }
+        skip();
+        return property;
+    }
+
+    private Security readSecurity()
+        throws XMLStreamException, KalumetException
+    {
+        Security security = new Security();
+        while ( nextChild() )
+        {
+            if ( is( "users" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "user" ) )
+                    {
+                        security.addUser( readUser() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "groups" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "group" ) )
+                    {
+                        security.addGroup( readGroup() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return security;
+    }
+
+    private User readUser()
+        throws XMLStreamException
+    {
+        User user = new User();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "id" ) )
+            {
+                user.setId( value );
+            }
+            else if ( name.equals( "name" ) )
+            {
+                user.setName( value );
+            }
+            else if ( name.equals( "email" ) )
+            {
+                user.setEmail( value );
+            }
+            else if ( name.equals( "password" ) )
+            {
+                user.setPassword( value );
+            }
+        }
+        skip();
+        return user;
+    }
+
+    private Group readGroup()
+        throws XMLStreamException, KalumetException
+    {
+        Group group = new Group();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "id" ) )
+            {
+                group.setId( value );
+            }
+            else if ( name.equals( "name" ) )
+            {
+                group.setName( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "users" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "user" ) )
+                    {
+                        group.addUser( readUser() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return group;
+    }
+
+    private Agent readAgent()
+        throws XMLStreamException
+    {
+        Agent agent = new Agent();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "id" ) )
+            {
+                agent.setId( value );
+            }
+            else if ( name.equals( "hostname" ) )
+            {
+                agent.setHostname( value );
+            }
+            else if ( name.equals( "port" ) )
+            {
+                agent.setPort( toInt( value ) );
+            }
+            else if ( name.equals( "cron" ) )
+            {
+                agent.setCron( value );
+            }
+            else if ( name.equals( "maxmanagedenvironments" ) )
+            {
+                agent.setMaxmanagedenvironments( toInt( value ) );
+            }
+            else if ( name.equals( "maxjeeapplicationserversstarted" ) )
+            {
+                agent.setMaxjeeapplicationserversstarted( toInt( value ) );
+            }
+            else if ( name.equals( "maxparallelupdates" ) )
+            {
+                agent.setMaxparallelupdates( toInt( value ) );
+            }
+            else if ( name.equals( "minwsthreads" ) )
+            {
+                agent.setMinwsthreads( toInt( value ) );
+            }
+            else if ( name.equals( "maxwsthreads" ) )
+            {
+                agent.setMaxwsthreads( toInt( value ) );
+            }
+            else if ( name.equals( "downloadthreads" ) )
+            {
+                agent.setDownloadthreads( toInt( value ) );
+            }
+            else if ( name.equals( "downloadbandwidth" ) )
+            {
+                agent.setDownloadbandwidth( toInt( value ) );
+            }
+        }
+        skip();
+        return agent;
+    }
+
+    private Environment readEnvironment()
+        throws XMLStreamException, KalumetException
+    {
+        Environment environment = new Environment();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                environment.setName( value );
+            }
+            else if ( name.equals( "group" ) )
+            {
+                environment.setGroup( value );
+            }
+            else if ( name.equals( "tag" ) )
+            {
+                environment.setTag( value );
+            }
+            else if ( name.equals( "autoupdate" ) )
+            {
+                environment.setAutoupdate( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                environment.setAgent( value );
+            }
+            else if ( name.equals( "lock" ) )
+            {
+                environment.setLock( value );
+            }
+            else if ( name.equals( "releaseLocation" ) )
+            {
+                environment.setReleaseLocation( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "variables" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "variable" ) )
+                    {
+                        environment.addVariable( readVariable() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "freefields" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "freefield" ) )
+                    {
+                        environment.addFreeField( readFreeField() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "accesses" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "access" ) )
+                    {
+                        environment.addAccess( readAccess() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "notes" ) )
+            {
+                environment.setNotes( text() );
+            }
+            else if ( is( "weblinks" ) )
+            {
+                environment.setWeblinks( text() );
+            }
+            else if ( is( "jeeapplicationservers" ) )
+            {
+                environment.setJEEApplicationServers( readJEEApplicationServers() );
+            }
+            else if ( is( "logfiles" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "logfile" ) )
+                    {
+                        environment.addLogFile( readLogFile() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "softwares" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "software" ) )
+                    {
+                        environment.addSoftware( readSoftware() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "notifiers" ) )
+            {
+                environment.setNotifiers( readNotifiers() );
+            }
+            else if ( is( "publishers" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "email" ) )
+                    {
+                        environment.addPublisher( readEmail() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "statistics" ) )
+            {
+                environment.setStatistics( readStatistics() );
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return environment;
+    }
+
+    private Variable readVariable()
+        throws XMLStreamException
+    {
+        Variable variable = new Variable();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                variable.setName( value );
+            }
+            else if ( name.equals( "value" ) )
+            {
+                variable.setValue( value );
+            }
+        }
+        skip();
+        return variable;
+    }
+
+    private FreeField readFreeField()
+        throws XMLStreamException
+    {
+        FreeField freeField = new FreeField();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            if ( reader.getAttributeLocalName( i ).equals( "name" ) )
+            {
+                freeField.setName( reader.getAttributeValue( i ) );
+            }
+        }
+        freeField.setContent( text() );
+        return freeField;
+    }
+
+    private Access readAccess()
+        throws XMLStreamException, KalumetException
+    {
+        Access access = new Access();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            if ( reader.getAttributeLocalName( i ).equals( "group" ) )
+            {
+                access.setGroup( reader.getAttributeValue( i ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "properties" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "property" ) )
+                    {
+                        access.addProperty( readProperty() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return access;
+    }
+
+    private JEEApplicationServers readJEEApplicationServers()
+        throws XMLStreamException, KalumetException
+    {
+        JEEApplicationServers servers = new JEEApplicationServers();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            if ( reader.getAttributeLocalName( i ).equals( "cluster" ) )
+            {
+                servers.setCluster( toBoolean( reader.getAttributeValue( i ) ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "jeeapplicationserver" ) )
+            {
+                servers.addJEEApplicationServer( readJEEApplicationServer() );
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return servers;
+    }
+
+    private JEEApplicationServer readJEEApplicationServer()
+        throws XMLStreamException, KalumetException
+    {
+        JEEApplicationServer server = new JEEApplicationServer();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                server.setName( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                server.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                server.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "classname" ) )
+            {
+                server.setClassname( value );
+            }
+            else if ( name.equals( "jmxurl" ) )
+            {
+                server.setJmxurl( value );
+            }
+            else if ( name.equals( "adminuser" ) )
+            {
+                server.setAdminuser( value );
+            }
+            else if ( name.equals( "adminpassword" ) )
+            {
+                server.setAdminpassword( value );
+            }
+            else if ( name.equals( "updateRequireRestart" ) )
+            {
+                server.setUpdateRequireRestart( toBoolean( value ) );
+            }
+            else if ( name.equals( "updateRequireCacheCleaning" ) )
+            {
+                server.setUpdateRequireCacheCleaning( toBoolean( value ) );
+            }
+            else if ( name.equals( "usejmxstop" ) )
+            {
+                server.setUsejmxstop( toBoolean( value ) );
+            }
+            else if ( name.equals( "deletecomponents" ) )
+            {
+                server.setDeletecomponents( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                server.setAgent( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "startupcommand" ) )
+            {
+                server.setStartupcommand( text() );
+            }
+            else if ( is( "shutdowncommand" ) )
+            {
+                server.setShutdowncommand( text() );
+            }
+            else if ( is( "jdbcconnectionpools" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jdbcconnectionpool" ) )
+                    {
+                        server.addJDBCConnectionPool( readJDBCConnectionPool() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jdbcdatasources" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jdbcdatasource" ) )
+                    {
+                        server.addJDBCDataSource( readJDBCDataSource() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jmsconnectionfactories" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jmsconnectionfactory" ) )
+                    {
+                        server.addJMSConnectionFactory( readJMSConnectionFactory() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jmsservers" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jmsserver" ) )
+                    {
+                        server.addJMSServer( readJMSServer() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jndibindings" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jndibinding" ) )
+                    {
+                        server.addJNDIBinding( readJNDIBinding() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "sharedlibrairies" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "sharedlibrary" ) )
+                    {
+                        server.addSharedLibrary( readSharedLibrary() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jeeapplications" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jeeapplication" ) )
+                    {
+                        server.addJEEApplication( readJEEApplication() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "caches" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "cache" ) )
+                    {
+                        server.addCache( readCache() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return server;
+    }
+
+    private JDBCConnectionPool readJDBCConnectionPool()
+        throws XMLStreamException
+    {
+        JDBCConnectionPool pool = new JDBCConnectionPool();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                pool.setName( value );
+            }
+            else if ( name.equals( "driver" ) )
+            {
+                pool.setDriver( value );
+            }
+            else if ( name.equals( "helperclass" ) )
+            {
+                pool.setHelperclass( value );
+            }
+            else if ( name.equals( "increment" ) )
+            {
+                pool.setIncrement( toInt( value ) );
+            }
+            else if ( name.equals( "initial" ) )
+            {
+                pool.setInitial( toInt( value ) );
+            }
+            else if ( name.equals( "maximal" ) )
+            {
+                pool.setMaximal( toInt( value ) );
+            }
+            else if ( name.equals( "user" ) )
+            {
+                pool.setUser( value );
+            }
+            else if ( name.equals( "password" ) )
+            {
+                pool.setPassword( value );
+            }
+            else if ( name.equals( "url" ) )
+            {
+                pool.setUrl( value );
+            }
+            else if ( name.equals( "classpath" ) )
+            {
+                pool.setClasspath( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                pool.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                pool.setBlocker( toBoolean( value ) );
+            }
+        }
+        skip();
+        return pool;
+    }
+
+    private JDBCDataSource readJDBCDataSource()
+        throws XMLStreamException
+    {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                dataSource.setName( value );
+            }
+            else if ( name.equals( "pool" ) )
+            {
+                dataSource.setPool( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                dataSource.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                dataSource.setBlocker( toBoolean( value ) );
+            }
+        }
+        skip();
+        return dataSource;
+    }
+
+    private JMSConnectionFactory readJMSConnectionFactory()
+        throws XMLStreamException
+    {
+        JMSConnectionFactory connectionFactory = new JMSConnectionFactory();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                connectionFactory.setName( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                connectionFactory.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                connectionFactory.setBlocker( toBoolean( value ) );
+            }
+        }
+        skip();
+        return connectionFactory;
+    }
+
+    private JMSServer readJMSServer()
+        throws XMLStreamException, KalumetException
+    {
+        JMSServer jmsServer = new JMSServer();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                jmsServer.setName( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                jmsServer.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                jmsServer.setBlocker( toBoolean( value ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "jmsqueues" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jmsqueue" ) )
+                    {
+                        JMSQueue jmsQueue = new JMSQueue();
+                        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+                        {
+                            if ( reader.getAttributeLocalName( i ).equals( "name" ) )
+                            {
+                                jmsQueue.setName( reader.getAttributeValue( i ) );
+                            }
+                        }
+                        skip();
+                        jmsServer.addJMSQueue( jmsQueue );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "jmstopics" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "jmstopic" ) )
+                    {
+                        JMSTopic jmsTopic = new JMSTopic();
+                        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+                        {
+                            if ( reader.getAttributeLocalName( i ).equals( "name" ) )
+                            {
+                                jmsTopic.setName( reader.getAttributeValue( i ) );
+                            }
+                        }
+                        skip();
+                        jmsServer.addJMSTopic( jmsTopic );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return jmsServer;
+    }
+
+    private JNDIBinding readJNDIBinding()
+        throws XMLStreamException
+    {
+        JNDIBinding jndiBinding = new JNDIBinding();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                jndiBinding.setName( value );
+            }
+            else if ( name.equals( "jndiname" ) )
+            {
+                jndiBinding.setJndiname( value );
+            }
+            else if ( name.equals( "jndialias" ) )
+            {
+                jndiBinding.setJndialias( value );
+            }
+            else if ( name.equals( "providerurl" ) )
+            {
+                jndiBinding.setProviderurl( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                jndiBinding.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                jndiBinding.setBlocker( toBoolean( value ) );
+            }
+        }
+        skip();
+        return jndiBinding;
+    }
+
+    private SharedLibrary readSharedLibrary()
+        throws XMLStreamException
+    {
+        SharedLibrary sharedLibrary = new SharedLibrary();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                sharedLibrary.setName( value );
+            }
+            else if ( name.equals( "classpath" ) )
+            {
+                sharedLibrary.setClasspath( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                sharedLibrary.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                sharedLibrary.setBlocker( toBoolean( value ) );
+            }
+        }
+        skip();
+        return sharedLibrary;
+    }
+
+    private Cache readCache()
+        throws XMLStreamException
+    {
+        Cache cache = new Cache();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            if ( reader.getAttributeLocalName( i ).equals( "path" ) )
+            {
+                cache.setPath( reader.getAttributeValue( i ) );
+            }
+        }
+        skip();
+        return cache;
+    }
+
+    private JEEApplication readJEEApplication()
+        throws XMLStreamException, KalumetException
+    {
+        JEEApplication application = new JEEApplication();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                application.setName( value );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                application.setUri( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                application.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                application.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                application.setAgent( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "archives" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "archive" ) )
+                    {
+                        application.addArchive( readArchive() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "contentmanagers" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "contentmanager" ) )
+                    {
+                        application.addContentManager( readContentManager() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "configurationfiles" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "configurationfile" ) )
+                    {
+                        application.addConfigurationFile( readConfigurationFile() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else if ( is( "databases" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "database" ) )
+                    {
+                        application.addDatabase( readDatabase() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return application;
+    }
+
+    private Archive readArchive()
+        throws XMLStreamException
+    {
+        Archive archive = new Archive();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                archive.setName( value );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                archive.setUri( value );
+            }
+            else if ( name.equals( "classloaderorder" ) )
+            {
+                archive.setClassloaderorder( value );
+            }
+            else if ( name.equals( "classloaderpolicy" ) )
+            {
+                archive.setClassloaderpolicy( value );
+            }
+            else if ( name.equals( "vhost" ) )
+            {
+                archive.setVhost( value );
+            }
+            else if ( name.equals( "path" ) )
+            {
+                archive.setPath( value );
+            }
+            else if ( name.equals( "context" ) )
+            {
+                archive.setContext( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                archive.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                archive.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                archive.setAgent( value );
+            }
+        }
+        skip();
+        return archive;
+    }
+
+    private ContentManager readContentManager()
+        throws XMLStreamException, KalumetException
+    {
+        ContentManager contentManager = new ContentManager();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                contentManager.setName( value );
+            }
+            else if ( name.equals( "classname" ) )
+            {
+                contentManager.setClassname( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                contentManager.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                contentManager.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                contentManager.setAgent( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "properties" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "property" ) )
+                    {
+                        contentManager.addProperty( readProperty() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return contentManager;
+    }
+
+    private ConfigurationFile readConfigurationFile()
+        throws XMLStreamException, KalumetException
+    {
+        ConfigurationFile configurationFile = new ConfigurationFile();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                configurationFile.setName( value );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                configurationFile.setUri( value );
+            }
+            else if ( name.equals( "path" ) )
+            {
+                configurationFile.setPath( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                configurationFile.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                configurationFile.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                configurationFile.setAgent( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "mappings" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "mapping" ) )
+                    {
+                        configurationFile.addMapping( readMapping() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return configurationFile;
+    }
+
+    private Mapping readMapping()
+        throws XMLStreamException
+    {
+        Mapping mapping = new Mapping();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "key" ) )
+            {
+                mapping.setKey( value );
+            }
+            else if ( name.equals( "value" ) )
+            {
+                mapping.setValue( value );
+            }
+        }
+        skip();
+        return mapping;
+    }
+
+    private Database readDatabase()
+        throws XMLStreamException, KalumetException
+    {
+        Database database = new Database();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                database.setName( value );
+            }
+            else if ( name.equals( "driver" ) )
+            {
+                database.setDriver( value );
+            }
+            else if ( name.equals( "user" ) )
+            {
+                database.setUser( value );
+            }
+            else if ( name.equals( "password" ) )
+            {
+                database.setPassword( value );
+            }
+            else if ( name.equals( "jdbcurl" ) )
+            {
+                database.setJdbcurl( value );
+            }
+            else if ( name.equals( "connectionPool" ) )
+            {
+                database.setConnectionPool( value );
+            }
+            else if ( name.equals( "sqlCommand" ) )
+            {
+                database.setSqlCommand( value );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                database.setAgent( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                database.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                database.setBlocker( toBoolean( value ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "sqlscripts" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "sqlscript" ) )
+                    {
+                        database.addSqlScript( readSqlScript() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return database;
+    }
+
+    private SqlScript readSqlScript()
+        throws XMLStreamException, KalumetException
+    {
+        SqlScript sqlScript = new SqlScript();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                sqlScript.setName( value );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                sqlScript.setUri( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                sqlScript.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                sqlScript.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "force" ) )
+            {
+                sqlScript.setForce( toBoolean( value ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "mappings" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "mapping" ) )
+                    {
+                        sqlScript.addMapping( readMapping() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return sqlScript;
+    }
+
+    private LogFile readLogFile()
+        throws XMLStreamException
+    {
+        LogFile logFile = new LogFile();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                logFile.setName( value );
+            }
+            else if ( name.equals( "path" ) )
+            {
+                logFile.setPath( value );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                logFile.setAgent( value );
+            }
+        }
+        skip();
+        return logFile;
+    }
+
+    private Software readSoftware()
+        throws XMLStreamException, KalumetException
+    {
+        Software software = new Software();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                software.setName( value );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                software.setUri( value );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                software.setAgent( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                software.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                software.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "beforejee" ) )
+            {
+                software.setBeforejee( toBoolean( value ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "updateplan" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "command" ) )
+                    {
+                        software.addCommand( readCommand() );
+                    }
+                    else if ( is( "location" ) )
+                    {
+                        software.addLocation( readLocation() );
+                    }
+                    else if ( is( "configurationfile" ) )
+                    {
+                        software.addConfigurationFile( readConfigurationFile() );
+                    }
+                    else if ( is( "database" ) )
+                    {
+                        software.addDatabase( readDatabase() );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return software;
+    }
+
+    private Command readCommand()
+        throws XMLStreamException
+    {
+        Command command = new Command();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                command.setName( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                command.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                command.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                command.setAgent( value );
+            }
+        }
+        command.setCommand( text() );
+        return command;
+    }
+
+    private Location readLocation()
+        throws XMLStreamException
+    {
+        Location location = new Location();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "name" ) )
+            {
+                location.setName( value );
+            }
+            else if ( name.equals( "active" ) )
+            {
+                location.setActive( toBoolean( value ) );
+            }
+            else if ( name.equals( "blocker" ) )
+            {
+                location.setBlocker( toBoolean( value ) );
+            }
+            else if ( name.equals( "uri" ) )
+            {
+                location.setUri( value );
+            }
+            else if ( name.equals( "path" ) )
+            {
+                location.setPath( value );
+            }
+            else if ( name.equals( "agent" ) )
+            {
+                location.setAgent( value );
+            }
+        }
+        skip();
+        return location;
+    }
+
+    private Notifiers readNotifiers()
+        throws XMLStreamException, KalumetException
+    {
+        Notifiers notifiers = new Notifiers();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            if ( reader.getAttributeLocalName( i ).equals( "countdown" ) )
+            {
+                notifiers.setCountdown( toInt( reader.getAttributeValue( i ) ) );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "email" ) )
+            {
+                notifiers.addNotifier( readEmail() );
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return notifiers;
+    }
+
+    private Email readEmail()
+        throws XMLStreamException, KalumetException
+    {
+        Email email = new Email();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "mailhost" ) )
+            {
+                email.setMailhost( value );
+            }
+            else if ( name.equals( "from" ) )
+            {
+                email.setFrom( value );
+            }
+        }
+        while ( nextChild() )
+        {
+            if ( is( "destinations" ) )
+            {
+                while ( nextChild() )
+                {
+                    if ( is( "destination" ) )
+                    {
+                        Destination destination = new Destination();
+                        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+                        {
+                            if ( reader.getAttributeLocalName( i ).equals( "address" ) )
+                            {
+                                destination.setAddress( reader.getAttributeValue( i ) );
+                            }
+                        }
+                        skip();
+                        email.addDestination( destination );
+                    }
+                    else
+                    {
+                        skip();
+                    }
+                }
+            }
+            else
+            {
+                skip();
+            }
+        }
+        return email;
+    }
+
+    private Statistics readStatistics()
+        throws XMLStreamException
+    {
+        Statistics statistics = new Statistics();
+        for ( int i = 0; i < reader.getAttributeCount(); i++ )
+        {
+            String name = reader.getAttributeLocalName( i );
+            String value = reader.getAttributeValue( i );
+            if ( name.equals( "updatecount" ) )
+            {
+                statistics.setUpdateCount( toInt( value ) );
+            }
+            else if ( name.equals( "lastupdatedate" ) )
+            {
+                statistics.setLastUpdateDate( value );
+            }
+            else if ( name.equals( "lastchangedate" ) )
+            {
+                statistics.setLastChangeDate( value );
+            }
+        }
+        skip();
+        return statistics;
+    }
+
+}
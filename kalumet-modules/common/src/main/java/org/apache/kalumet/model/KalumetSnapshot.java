@@ -0,0 +1,1086 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.kalumet.KalumetException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the Kalumet configuration store.
+ * <p/>
+ * The snapshot is written next to the XML store (<code>.snapshot</code>
+ * suffix) and has the following layout:
+ * <ul>
+ * <li>magic number and format version,</li>
+ * <li>last modification date and length of the XML store it has been created from,</li>
+ * <li>the string table: each distinct string (names, classnames, URIs, ...) is stored once,</li>
+ * <li>the length-prefixed model body, referencing the strings by index (-1 for null).</li>
+ * </ul>
+ * The snapshot is only used when it matches the current XML store, so a
+ * store modified by hand is always read from the XML.
+ */
+class KalumetSnapshot
+{
+
+    final static String SUFFIX = ".snapshot";
+
+    private final static int MAGIC = 0x4B4C4D54;
+
+    private final static int VERSION = 4;
+
+    private final static byte COMMAND = 1;
+
+    private final static byte LOCATION = 2;
+
+    private final static byte CONFIGURATION_FILE = 3;
+
+    private final static byte DATABASE = 4;
+
+    private DataOutputStream out;
+
+    private Map stringIndexes;
+
+    private List stringTable;
+
+    private DataInputStream in;
+
+    private String[] strings;
+
+    /**
+     * Get the snapshot file corresponding to a XML store file.
+     *
+     * @param store the XML store file.
+     * @return the snapshot file.
+     */
+    static File getSnapshotFile( File store )
+    {
+        return new File( store.getPath() + SUFFIX );
+    }
+
+    /**
+     * Write the snapshot of a <code>Kalumet</code> next to the XML store.
+     * The snapshot is first written in a temporary file and then renamed, so
+     * a reader never sees a partial snapshot.
+     *
+     * @param kalumet      the <code>Kalumet</code> to write.
+     * @param store        the XML store file, which must have already been written.
+     * @param lastModified the last modification date of the written XML store.
+     * @param length       the length of the written XML store.
+     * @throws KalumetException in case of write failure.
+     */
+    static void write( Kalumet kalumet, File store, long lastModified, long length )
+        throws KalumetException
+    {
+        File snapshot = KalumetSnapshot.getSnapshotFile( store );
+        File temp = new File( snapshot.getPath() + ".tmp" );
+        FileOutputStream stream = null;
+        try
+        {
+            KalumetSnapshot writer = new KalumetSnapshot();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            writer.out = new DataOutputStream( body );
+            writer.stringIndexes = new HashMap();
+            writer.stringTable = new ArrayList();
+            writer.writeKalumet( kalumet );
+            writer.out.flush();
+
+            stream = new FileOutputStream( temp );
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream( stream ) );
+            out.writeInt( MAGIC );
+            out.writeInt( VERSION );
+            out.writeLong( lastModified );
+            out.writeLong( length );
+            out.writeInt( writer.stringTable.size() );
+            for ( Iterator stringIterator = writer.stringTable.iterator(); stringIterator.hasNext(); )
+            {
+                byte[] bytes = ( (String) stringIterator.next() ).getBytes( "UTF-8" );
+                out.writeInt( bytes.length );
+                out.write( bytes );
+            }
+            out.writeInt( body.size() );
+            body.writeTo( out );
+            out.flush();
+            stream.getFD().sync();
+            stream.close();
+            stream = null;
+            if ( !temp.renameTo( snapshot ) )
+            {
+                // some platforms don't allow to rename over an existing file
+                snapshot.delete();
+                if ( !temp.renameTo( snapshot ) )
+                {
+                    throw new IOException( "Can't rename " + temp.getPath() + " to " + snapshot.getPath() );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            IOUtils.closeQuietly( stream );
+            temp.delete();
+            snapshot.delete();
+            throw new KalumetException( "Can't write Kalumet configuration snapshot.", e );
+        }
+    }
+
+    /**
+     * Read the snapshot of a XML store if it exists and matches the current
+     * XML store.
+     *
+     * @param store the XML store file.
+     * @return the <code>Kalumet</code> read from the snapshot, or null if the snapshot can't be used.
+     */
+    static Kalumet read( File store )
+    {
+        File snapshot = KalumetSnapshot.getSnapshotFile( store );
+        if ( !snapshot.isFile() || !store.isFile() )
+        {
+            return null;
+        }
+        DataInputStream in = null;
+        try
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( snapshot ) ) );
+            if ( in.readInt() != MAGIC || in.readInt() != VERSION )
+            {
+                return null;
+            }
+            if ( in.readLong() != store.lastModified() || in.readLong() != store.length() )
+            {
+                // the XML store has been modified after the snapshot
+                return null;
+            }
+            KalumetSnapshot reader = new KalumetSnapshot();
+            reader.strings = new String[in.readInt()];
+            for ( int i = 0; i < reader.strings.length; i++ )
+            {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully( bytes );
+                reader.strings[i] = new String( bytes, "UTF-8" );
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully( body );
+            reader.in = new DataInputStream( new ByteArrayInputStream( body ) );
+            return reader.readKalumet();
+        }
+        catch ( Exception e )
+        {
+            // corrupted or truncated snapshot, fall back to the XML store
+            return null;
+        }
+        finally
+        {
+            IOUtils.closeQuietly( in );
+        }
+    }
+
+    private void writeString( String value )
+        throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeInt( -1 );
+            return;
+        }
+        Integer index = (Integer) stringIndexes.get( value );
+        if ( index == null )
+        {
+            index = new Integer( stringTable.size() );
+            stringIndexes.put( value, index );
+            stringTable.add( value );
+        }
+        out.writeInt( index.intValue() );
+    }
+
+    private String readString()
+        throws IOException
+    {
+        int index = in.readInt();
+        if ( index < 0 )
+        {
+            return null;
+        }
+        return strings[index];
+    }
+
+    private void writeKalumet( Kalumet kalumet )
+        throws IOException
+    {
+        out.writeInt( kalumet.getProperties().size() );
+        for ( Iterator propertyIterator = kalumet.getProperties().iterator(); propertyIterator.hasNext(); )
+        {
+            writeProperty( (Property) propertyIterator.next() );
+        }
+        Security security = kalumet.getSecurity();
+        out.writeInt( security.getUsers().size() );
+        for ( Iterator userIterator = security.getUsers().iterator(); userIterator.hasNext(); )
+        {
+            writeUser( (User) userIterator.next() );
+        }
+        out.writeInt( security.getGroups().size() );
+        for ( Iterator groupIterator = security.getGroups().iterator(); groupIterator.hasNext(); )
+        {
+            Group group = (Group) groupIterator.next();
+            writeString( group.getId() );
+            writeString( group.getName() );
+            out.writeInt( group.getUsers().size() );
+            for ( Iterator userIterator = group.getUsers().iterator(); userIterator.hasNext(); )
+            {
+                writeUser( (User) userIterator.next() );
+            }
+        }
+        out.writeInt( kalumet.getAgents().size() );
+        for ( Iterator agentIterator = kalumet.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            writeString( agent.getId() );
+            writeString( agent.getHostname() );
+            out.writeInt( agent.getPort() );
+            writeString( agent.getCron() );
+            out.writeInt( agent.getMaxmanagedenvironments() );
+            out.writeInt( agent.getMaxjeeapplicationserversstarted() );
+            out.writeInt( agent.getMaxparallelupdates() );
+            out.writeInt( agent.getMinwsthreads() );
+            out.writeInt( agent.getMaxwsthreads() );
+            out.writeInt( agent.getDownloadthreads() );
+            out.writeInt( agent.getDownloadbandwidth() );
+        }
+        out.writeInt( kalumet.getEnvironments().size() );
+        for ( Iterator environmentIterator = kalumet.getEnvironments().iterator(); environmentIterator.hasNext(); )
+        {
+            writeEnvironment( (Environment) environmentIterator.next() );
+        }
+    }
+
+    private Kalumet readKalumet()
+        throws IOException, KalumetException
+    {
+        Kalumet kalumet = new Kalumet();
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            kalumet.addProperty( readProperty() );
+        }
+        Security security = new Security();
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            security.addUser( readUser() );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Group group = new Group();
+            group.setId( readString() );
+            group.setName( readString() );
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                group.addUser( readUser() );
+            }
+            security.addGroup( group );
+        }
+        kalumet.setSecurity( security );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Agent agent = new Agent();
+            agent.setId( readString() );
+            agent.setHostname( readString() );
+            agent.setPort( in.readInt() );
+            agent.setCron( readString() );
+            agent.setMaxmanagedenvironments( in.readInt() );
+            agent.setMaxjeeapplicationserversstarted( in.readInt() );
+            agent.setMaxparallelupdates( in.readInt() );
+            agent.setMinwsthreads( in.readInt() );
+            agent.setMaxwsthreads( in.readInt() );
+            agent.setDownloadthreads( in.readInt() );
+            agent.setDownloadbandwidth( in.readInt() );
+            kalumet.addAgent( agent );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            kalumet.addEnvironment( readEnvironment() );
+        }
+        return kalumet;
+    }
+
+    private void writeProperty( Property property )
+        throws IOException
+    {
+        writeString( property.getName() );
+        writeString( property.getValue() );
+    }
+
+    private Property readProperty()
+        throws IOException
+    {
+        Property property = new Property();
+        property.setName( readString() );
+        property.setValue( readString() );
+        return property;
+    }
+
+    private void writeUser( User user )
+        throws IOException
+    {
+        writeString( user.getId() );
+        writeString( user.getName() );
+        writeString( user.getEmail() );
+        writeString( user.getPassword() );
+    }
+
+    private User readUser()
+        throws IOException
+    {
+        User user = new User();
+        user.setId( readString() );
+        user.setName( readString() );
+        user.setEmail( readString() );
+        user.setPassword( readString() );
+        return user;
+    }
+
+    private void writeEnvironment( Environment environment )
+        throws IOException
+    {
+        writeString( environment.getName() );
+        writeString( environment.getGroup() );
+        writeString( environment.getTag() );
+        out.writeBoolean( environment.isAutoupdate() );
+        writeString( environment.getAgent() );
+        writeString( environment.getLock() );
+        writeString( environment.getReleaseLocation() );
+        writeString( environment.getNotes() );
+        writeString( environment.getWeblinks() );
+        out.writeInt( environment.getVariables().size() );
+        for ( Iterator variableIterator = environment.getVariables().iterator(); variableIterator.hasNext(); )
+        {
+            Variable variable = (Variable) variableIterator.next();
+            writeString( variable.getName() );
+            writeString( variable.getValue() );
+        }
+        out.writeInt( environment.getFreeFields().size() );
+        for ( Iterator freeFieldIterator = environment.getFreeFields().iterator(); freeFieldIterator.hasNext(); )
+        {
+            FreeField freeField = (FreeField) freeFieldIterator.next();
+            writeString( freeField.getName() );
+            writeString( freeField.getContent() );
+        }
+        out.writeInt( environment.getAccesses().size() );
+        for ( Iterator accessIterator = environment.getAccesses().iterator(); accessIterator.hasNext(); )
+        {
+            Access access = (Access) accessIterator.next();
+            writeString( access.getGroup() );
+            out.writeInt( access.getProperties().size() );
+            for ( Iterator propertyIterator = access.getProperties().iterator(); propertyIterator.hasNext(); )
+            {
+                writeProperty( (Property) propertyIterator.next() );
+            }
+        }
+        out.writeBoolean( environment.getJEEApplicationServers() != null );
+        if ( environment.getJEEApplicationServers() != null )
+        {
+            writeJEEApplicationServers( environment.getJEEApplicationServers() );
+        }
+        out.writeInt( environment.getLogFiles().size() );
+        for ( Iterator logFileIterator = environment.getLogFiles().iterator(); logFileIterator.hasNext(); )
+        {
+            LogFile logFile = (LogFile) logFileIterator.next();
+            writeString( logFile.getName() );
+            writeString( logFile.getPath() );
+            writeString( logFile.getAgent() );
+        }
+        out.writeInt( environment.getSoftwares().size() );
+        for ( Iterator softwareIterator = environment.getSoftwares().iterator(); softwareIterator.hasNext(); )
+        {
+            writeSoftware( (Software) softwareIterator.next() );
+        }
+        out.writeBoolean( environment.getNotifiers() != null );
+        if ( environment.getNotifiers() != null )
+        {
+            out.writeInt( environment.getNotifiers().getCountdown() );
+            out.writeInt( environment.getNotifiers().getNotifiers().size() );
+            for ( Iterator notifierIterator = environment.getNotifiers().getNotifiers().iterator();
+                  notifierIterator.hasNext(); )
+            {
+                writeEmail( (Email) notifierIterator.next() );
+            }
+        }
+        out.writeInt( environment.getPublishers().size() );
+        for ( Iterator publisherIterator = environment.getPublishers().iterator(); publisherIterator.hasNext(); )
+        {
+            writeEmail( (Email) publisherIterator.next() );
+        }
+        out.writeBoolean( environment.getStatistics() != null );
+        if ( environment.getStatistics() != null )
+        {
+            out.writeInt( environment.getStatistics().getUpdateCount() );
+            writeString( environment.getStatistics().getLastUpdateDate() );
+            writeString( environment.getStatistics().getLastChangeDate() );
+        }
+    }
+
+    private Environment readEnvironment()
+        throws IOException, KalumetException
+    {
+        Environment environment = new Environment();
+        environment.setName( readString() );
+        environment.setGroup( readString() );
+        environment.setTag( readString() );
+        environment.setAutoupdate( in.readBoolean() );
+        environment.setAgent( readString() );
+        environment.setLock( readString() );
+        environment.setReleaseLocation( readString() );
+        environment.setNotes( readString() );
+        environment.setWeblinks( readString() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Variable variable = new Variable();
+            variable.setName( readString() );
+            variable.setValue( readString() );
+            environment.addVariable( variable );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            FreeField freeField = new FreeField();
+            freeField.setName( readString() );
+            freeField.setContent( readString() );
+            environment.addFreeField( freeField );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Access access = new Access();
+            access.setGroup( readString() );
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                access.addProperty( readProperty() );
+            }
+            environment.addAccess( access );
+        }
+        if ( in.readBoolean() )
+        {
+            environment.setJEEApplicationServers( readJEEApplicationServers() );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            LogFile logFile = new LogFile();
+            logFile.setName( readString() );
+            logFile.setPath( readString() );
+            logFile.setAgent( readString() );
+            environment.addLogFile( logFile );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            environment.addSoftware( readSoftware() );
+        }
+        if ( in.readBoolean() )
+        {
+            Notifiers notifiers = new Notifiers();
+            notifiers.setCountdown( in.readInt() );
+            for ( int i = in.readInt(); i > 0; i-- )
+            {
+                notifiers.addNotifier( readEmail() );
+            }
+            environment.setNotifiers( notifiers );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            environment.addPublisher( readEmail() );
+        }
+        if ( in.readBoolean() )
+        {
+            Statistics statistics = new Statistics();
+            statistics.setUpdateCount( in.readInt() );
+            statistics.setLastUpdateDate( readString() );
+            statistics.setLastChangeDate( readString() );
+            environment.setStatistics( statistics );
+        }
+        return environment;
+    }
+
+    private void writeEmail( Email email )
+        throws IOException
+    {
+        writeString( email.getMailhost() );
+        writeString( email.getFrom() );
+        out.writeInt( email.getDestinations().size() );
+        for ( Iterator destinationIterator = email.getDestinations().iterator(); destinationIterator.hasNext(); )
+        {
+            writeString( ( (Destination) destinationIterator.next() ).getAddress() );
+        }
+    }
+
+    private Email readEmail()
+        throws IOException, KalumetException
+    {
+        Email email = new Email();
+        email.setMailhost( readString() );
+        email.setFrom( readString() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Destination destination = new Destination();
+            destination.setAddress( readString() );
+            email.addDestination( destination );
+        }
+        return email;
+    }
+
+    private void writeJEEApplicationServers( JEEApplicationServers servers )
+        throws IOException
+    {
+        out.writeBoolean( servers.isCluster() );
+        out.writeInt( servers.getJEEApplicationServers().size() );
+        for ( Iterator serverIterator = servers.getJEEApplicationServers().iterator(); serverIterator.hasNext(); )
+        {
+            JEEApplicationServer server = (JEEApplicationServer) serverIterator.next();
+            writeString( server.getName() );
+            out.writeBoolean( server.isActive() );
+            out.writeBoolean( server.isBlocker() );
+            writeString( server.getClassname() );
+            writeString( server.getJmxurl() );
+            writeString( server.getAdminuser() );
+            writeString( server.getAdminpassword() );
+            out.writeBoolean( server.isUpdateRequireRestart() );
+            out.writeBoolean( server.isUpdateRequireCacheCleaning() );
+            out.writeBoolean( server.isUsejmxstop() );
+            out.writeBoolean( server.isDeletecomponents() );
+            writeString( server.getStartupcommand() );
+            writeString( server.getShutdowncommand() );
+            writeString( server.getAgent() );
+            out.writeInt( server.getJDBCConnectionPools().size() );
+            for ( Iterator poolIterator = server.getJDBCConnectionPools().iterator(); poolIterator.hasNext(); )
+            {
+                JDBCConnectionPool pool = (JDBCConnectionPool) poolIterator.next();
+                writeString( pool.getName() );
+                writeString( pool.getDriver() );
+                writeString( pool.getHelperclass() );
+                out.writeInt( pool.getIncrement() );
+                out.writeInt( pool.getInitial() );
+                out.writeInt( pool.getMaximal() );
+                writeString( pool.getUser() );
+                writeString( pool.getPassword() );
+                writeString( pool.getUrl() );
+                writeString( pool.getClasspath() );
+                out.writeBoolean( pool.isActive() );
+                out.writeBoolean( pool.isBlocker() );
+            }
+            out.writeInt( server.getJDBCDataSources().size() );
+            for ( Iterator dataSourceIterator = server.getJDBCDataSources().iterator();
+                  dataSourceIterator.hasNext(); )
+            {
+                JDBCDataSource dataSource = (JDBCDataSource) dataSourceIterator.next();
+                writeString( dataSource.getName() );
+                writeString( dataSource.getPool() );
+                out.writeBoolean( dataSource.isActive() );
+                out.writeBoolean( dataSource.isBlocker() );
+            }
+            out.writeInt( server.getJMSConnectionFactories().size() );
+            for ( Iterator connectionFactoryIterator = server.getJMSConnectionFactories().iterator();
+                  connectionFactoryIterator.hasNext(); )
+            {
+                JMSConnectionFactory connectionFactory = (JMSConnectionFactory) connectionFactoryIterator.next();
+                writeString( connectionFactory.getName() );
+                out.writeBoolean( connectionFactory.isActive() );
+                out.writeBoolean( connectionFactory.isBlocker() );
+            }
+            out.writeInt( server.getJMSServers().size() );
+            for ( Iterator jmsServerIterator = server.getJMSServers().iterator(); jmsServerIterator.hasNext(); )
+            {
+                JMSServer jmsServer = (JMSServer) jmsServerIterator.next();
+                writeString( jmsServer.getName() );
+                out.writeBoolean( jmsServer.isActive() );
+                out.writeBoolean( jmsServer.isBlocker() );
+                out.writeInt( jmsServer.getJMSQueues().size() );
+                for ( Iterator queueIterator = jmsServer.getJMSQueues().iterator(); queueIterator.hasNext(); )
+                {
+                    writeString( ( (JMSQueue) queueIterator.next() ).getName() );
+                }
+                out.writeInt( jmsServer.getJMSTopics().size() );
+                for ( Iterator topicIterator = jmsServer.getJMSTopics().iterator(); topicIterator.hasNext(); )
+                {
+                    writeString( ( (JMSTopic) topicIterator.next() ).getName() );
+                }
+            }
+            out.writeInt( server.getJNDIBindings().size() );
+            for ( Iterator bindingIterator = server.getJNDIBindings().iterator(); bindingIterator.hasNext(); )
+            {
+                JNDIBinding binding = (JNDIBinding) bindingIterator.next();
+                writeString( binding.getName() );
+                writeString( binding.getJndiname() );
+                writeString( binding.getJndialias() );
+                writeString( binding.getProviderurl() );
+                out.writeBoolean( binding.isActive() );
+                out.writeBoolean( binding.isBlocker() );
+            }
+            out.writeInt( server.getSharedLibraries().size() );
+            for ( Iterator libraryIterator = server.getSharedLibraries().iterator(); libraryIterator.hasNext(); )
+            {
+                SharedLibrary library = (SharedLibrary) libraryIterator.next();
+                writeString( library.getName() );
+                writeString( library.getClasspath() );
+                out.writeBoolean( library.isActive() );
+                out.writeBoolean( library.isBlocker() );
+            }
+            out.writeInt( server.getJEEApplications().size() );
+            for ( Iterator applicationIterator = server.getJEEApplications().iterator();
+                  applicationIterator.hasNext(); )
+            {
+                writeJEEApplication( (JEEApplication) applicationIterator.next() );
+            }
+            out.writeInt( server.getCaches().size() );
+            for ( Iterator cacheIterator = server.getCaches().iterator(); cacheIterator.hasNext(); )
+            {
+                writeString( ( (Cache) cacheIterator.next() ).getPath() );
+            }
+        }
+    }
+
+    private JEEApplicationServers readJEEApplicationServers()
+        throws IOException, KalumetException
+    {
+        JEEApplicationServers servers = new JEEApplicationServers();
+        servers.setCluster( in.readBoolean() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            JEEApplicationServer server = new JEEApplicationServer();
+            server.setName( readString() );
+            server.setActive( in.readBoolean() );
+            server.setBlocker( in.readBoolean() );
+            server.setClassname( readString() );
+            server.setJmxurl( readString() );
+            server.setAdminuser( readString() );
+            server.setAdminpassword( readString() );
+            server.setUpdateRequireRestart( in.readBoolean() );
+            server.setUpdateRequireCacheCleaning( in.readBoolean() );
+            server.setUsejmxstop( in.readBoolean() );
+            server.setDeletecomponents( in.readBoolean() );
+            server.setStartupcommand( readString() );
+            server.setShutdowncommand( readString() );
+            server.setAgent( readString() );
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                JDBCConnectionPool pool = new JDBCConnectionPool();
+                pool.setName( readString() );
+                pool.setDriver( readString() );
+                pool.setHelperclass( readString() );
+                pool.setIncrement( in.readInt() );
+                pool.setInitial( in.readInt() );
+                pool.setMaximal( in.readInt() );
+                pool.setUser( readString() );
+                pool.setPassword( readString() );
+                pool.setUrl( readString() );
+                pool.setClasspath( readString() );
+                pool.setActive( in.readBoolean() );
+                pool.setBlocker( in.readBoolean() );
+                server.addJDBCConnectionPool( pool );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                JDBCDataSource dataSource = new JDBCDataSource();
+                dataSource.setName( readString() );
+                dataSource.setPool( readString() );
+                dataSource.setActive( in.readBoolean() );
+                dataSource.setBlocker( in.readBoolean() );
+                server.addJDBCDataSource( dataSource );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                JMSConnectionFactory connectionFactory = new JMSConnectionFactory();
+                connectionFactory.setName( readString() );
+                connectionFactory.setActive( in.readBoolean() );
+                connectionFactory.setBlocker( in.readBoolean() );
+                server.addJMSConnectionFactory( connectionFactory );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                JMSServer jmsServer = new JMSServer();
+                jmsServer.setName( readString() );
+                jmsServer.setActive( in.readBoolean() );
+                jmsServer.setBlocker( in.readBoolean() );
+                for ( int k = in.readInt(); k > 0; k-- )
+                {
+                    JMSQueue queue = new JMSQueue();
+                    queue.setName( readString() );
+                    jmsServer.addJMSQueue( queue );
+                }
+                for ( int k = in.readInt(); k > 0; k-- )
+                {
+                    JMSTopic topic = new JMSTopic();
+                    topic.setName( readString() );
+                    jmsServer.addJMSTopic( topic );
+                }
+                server.addJMSServer( jmsServer );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                JNDIBinding binding = new JNDIBinding();
+                binding.setName( readString() );
+                binding.setJndiname( readString() );
+                binding.setJndialias( readString() );
+                binding.setProviderurl( readString() );
+                binding.setActive( in.readBoolean() );
+                binding.setBlocker( in.readBoolean() );
+                server.addJNDIBinding( binding );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                SharedLibrary library = new SharedLibrary();
+                library.setName( readString() );
+                library.setClasspath( readString() );
+                library.setActive( in.readBoolean() );
+                library.setBlocker( in.readBoolean() );
+                server.addSharedLibrary( library );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                server.addJEEApplication( readJEEApplication() );
+            }
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                Cache cache = new Cache();
+                cache.setPath( readString() );
+                server.addCache( cache );
+            }
+            servers.addJEEApplicationServer( server );
+        }
+        return servers;
+    }
+
+    private void writeJEEApplication( JEEApplication application )
+        throws IOException
+    {
+        writeString( application.getName() );
+        writeString( application.getUri() );
+        out.writeBoolean( application.isActive() );
+        out.writeBoolean( application.isBlocker() );
+        writeString( application.getAgent() );
+        out.writeInt( application.getArchives().size() );
+        for ( Iterator archiveIterator = application.getArchives().iterator(); archiveIterator.hasNext(); )
+        {
+            Archive archive = (Archive) archiveIterator.next();
+            writeString( archive.getName() );
+            writeString( archive.getUri() );
+            writeString( archive.getClassloaderorder() );
+            writeString( archive.getClassloaderpolicy() );
+            writeString( archive.getVhost() );
+            writeString( archive.getPath() );
+            writeString( archive.getContext() );
+            out.writeBoolean( archive.isActive() );
+            out.writeBoolean( archive.isBlocker() );
+            writeString( archive.getAgent() );
+        }
+        out.writeInt( application.getContentManagers().size() );
+        for ( Iterator contentManagerIterator = application.getContentManagers().iterator();
+              contentManagerIterator.hasNext(); )
+        {
+            ContentManager contentManager = (ContentManager) contentManagerIterator.next();
+            writeString( contentManager.getName() );
+            writeString( contentManager.getClassname() );
+            out.writeBoolean( contentManager.isActive() );
+            out.writeBoolean( contentManager.isBlocker() );
+            writeString( contentManager.getAgent() );
+            out.writeInt( contentManager.getProperties().size() );
+            for ( Iterator propertyIterator = contentManager.getProperties().iterator();
+                  propertyIterator.hasNext(); )
+            {
+                writeProperty( (Property) propertyIterator.next() );
+            }
+        }
+        out.writeInt( application.getConfigurationFiles().size() );
+        for ( Iterator configurationFileIterator = application.getConfigurationFiles().iterator();
+              configurationFileIterator.hasNext(); )
+        {
+            writeConfigurationFile( (ConfigurationFile) configurationFileIterator.next() );
+        }
+        out.writeInt( application.getDatabases().size() );
+        for ( Iterator databaseIterator = application.getDatabases().iterator(); databaseIterator.hasNext(); )
+        {
+            writeDatabase( (Database) databaseIterator.next() );
+        }
+    }
+
+    private JEEApplication readJEEApplication()
+        throws IOException, KalumetException
+    {
+        JEEApplication application = new JEEApplication();
+        application.setName( readString() );
+        application.setUri( readString() );
+        application.setActive( in.readBoolean() );
+        application.setBlocker( in.readBoolean() );
+        application.setAgent( readString() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            Archive archive = new Archive();
+            archive.setName( readString() );
+            archive.setUri( readString() );
+            archive.setClassloaderorder( readString() );
+            archive.setClassloaderpolicy( readString() );
+            archive.setVhost( readString() );
+            archive.setPath( readString() );
+            archive.setContext( readString() );
+            archive.setActive( in.readBoolean() );
+            archive.setBlocker( in.readBoolean() );
+            archive.setAgent( readString() );
+            application.addArchive( archive );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            ContentManager contentManager = new ContentManager();
+            contentManager.setName( readString() );
+            contentManager.setClassname( readString() );
+            contentManager.setActive( in.readBoolean() );
+            contentManager.setBlocker( in.readBoolean() );
+            contentManager.setAgent( readString() );
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                contentManager.addProperty( readProperty() );
+            }
+            application.addContentManager( contentManager );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            application.addConfigurationFile( readConfigurationFile() );
+        }
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            application.addDatabase( readDatabase() );
+        }
+        return application;
+    }
+
+    private void writeConfigurationFile( ConfigurationFile configurationFile )
+        throws IOException
+    {
+        writeString( configurationFile.getName() );
+        writeString( configurationFile.getUri() );
+        writeString( configurationFile.getPath() );
+        out.writeBoolean( configurationFile.isActive() );
+        out.writeBoolean( configurationFile.isBlocker() );
+        writeString( configurationFile.getAgent() );
+        writeMappings( configurationFile.getMappings() );
+    }
+
+    private ConfigurationFile readConfigurationFile()
+        throws IOException, KalumetException
+    {
+        ConfigurationFile configurationFile = new ConfigurationFile();
+        configurationFile.setName( readString() );
+        configurationFile.setUri( readString() );
+        configurationFile.setPath( readString() );
+        configurationFile.setActive( in.readBoolean() );
+        configurationFile.setBlocker( in.readBoolean() );
+        configurationFile.setAgent( readString() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            configurationFile.addMapping( readMapping() );
+        }
+        return configurationFile;
+    }
+
+    private void writeMappings( List mappings )
+        throws IOException
+    {
+        out.writeInt( mappings.size() );
+        for ( Iterator mappingIterator = mappings.iterator(); mappingIterator.hasNext(); )
+        {
+            Mapping mapping = (Mapping) mappingIterator.next();
+            writeString( mapping.getKey() );
+            writeString( mapping.getValue() );
+        }
+    }
+
+    private Mapping readMapping()
+        throws IOException
+    {
+        Mapping mapping = new Mapping();
+        mapping.setKey( readString() );
+        mapping.setValue( readString() );
+        return mapping;
+    }
+
+    private void writeDatabase( Database database )
+        throws IOException
+    {
+        writeString( database.getName() );
+        writeString( database.getDriver() );
+        writeString( database.getUser() );
+        writeString( database.getPassword() );
+        writeString( database.getJdbcurl() );
+        writeString( database.getConnectionPool() );
+        writeString( database.getSqlCommand() );
+        writeString( database.getAgent() );
+        out.writeBoolean( database.isActive() );
+        out.writeBoolean( database.isBlocker() );
+        out.writeInt( database.getSqlScripts().size() );
+        for ( Iterator sqlScriptIterator = database.getSqlScripts().iterator(); sqlScriptIterator.hasNext(); )
+        {
+            SqlScript sqlScript = (SqlScript) sqlScriptIterator.next();
+            writeString( sqlScript.getName() );
+            writeString( sqlScript.getUri() );
+            out.writeBoolean( sqlScript.isActive() );
+            out.writeBoolean( sqlScript.isBlocker() );
+            out.writeBoolean( sqlScript.isForce() );
+            writeMappings( sqlScript.getMappings() );
+        }
+    }
+
+    private Database readDatabase()
+        throws IOException, KalumetException
+    {
+        Database database = new Database();
+        database.setName( readString() );
+        database.setDriver( readString() );
+        database.setUser( readString() );
+        database.setPassword( readString() );
+        database.setJdbcurl( readString() );
+        database.setConnectionPool( readString() );
+        database.setSqlCommand( readString() );
+        database.setAgent( readString() );
+        database.setActive( in.readBoolean() );
+        database.setBlocker( in.readBoolean() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            SqlScript sqlScript = new SqlScript();
+            sqlScript.setName( readString() );
+            sqlScript.setUri( readString() );
+            sqlScript.setActive( in.readBoolean() );
+            sqlScript.setBlocker( in.readBoolean() );
+            sqlScript.setForce( in.readBoolean() );
+            for ( int j = in.readInt(); j > 0; j-- )
+            {
+                sqlScript.addMapping( readMapping() );
+            }
+            database.addSqlScript( sqlScript );
+        }
+        return database;
+    }
+
+    private void writeSoftware( Software software )
+        throws IOException
+    {
+        writeString( software.getName() );
+        writeString( software.getUri() );
+        writeString( software.getAgent() );
+        out.writeBoolean( software.isActive() );
+        out.writeBoolean( software.isBlocker() );
+        out.writeBoolean( software.isBeforejee() );
+        out.writeInt( software.getUpdatePlan().size() );
+        for ( Iterator itemIterator = software.getUpdatePlan().iterator(); itemIterator.hasNext(); )
+        {
+            Object item = itemIterator.next();
+            if ( item instanceof Command )
+            {
+                Command command = (Command) item;
+                out.writeByte( COMMAND );
+                writeString( command.getName() );
+                out.writeBoolean( command.isActive() );
+                out.writeBoolean( command.isBlocker() );
+                writeString( command.getAgent() );
+                writeString( command.getCommand() );
+            }
+            else if ( item instanceof Location )
+            {
+                Location location = (Location) item;
+                out.writeByte( LOCATION );
+                writeString( location.getName() );
+                out.writeBoolean( location.isActive() );
+                out.writeBoolean( location.isBlocker() );
+                writeString( location.getUri() );
+                writeString( location.getPath() );
+                writeString( location.getAgent() );
+            }
+            else if ( item instanceof ConfigurationFile )
+            {
+                out.writeByte( CONFIGURATION_FILE );
+                writeConfigurationFile( (ConfigurationFile) item );
+            }
+            else if ( item instanceof Database )
+            {
+                out.writeByte( DATABASE );
+                writeDatabase( (Database) item );
+            }
+            else
+            {
+                throw new IOException( "Unknown software update plan item " + item.getClass().getName() );
+            }
+        }
+    }
+
+    private Software readSoftware()
+        throws IOException, KalumetException
+    {
+        Software software = new Software();
+        software.setName( readString() );
+        software.setUri( readString() );
+        software.setAgent( readString() );
+        software.setActive( in.readBoolean() );
+        software.setBlocker( in.readBoolean() );
+        software.setBeforejee( in.readBoolean() );
+        for ( int i = in.readInt(); i > 0; i-- )
+        {
+            byte type = in.readByte();
+            if ( type == COMMAND )
+            {
+                Command command = new Command();
+                command.setName( readString() );
+                command.setActive( in.readBoolean() );
+                command.setBlocker( in.readBoolean() );
+                command.setAgent( readString() );
+                command.setCommand( readString() );
+                software.addCommand( command );
+            }
+            else if ( type == LOCATION )
+            {
+                Location location = new Location();
+                location.setName( readString() );
+                location.setActive( in.readBoolean() );
+                location.setBlocker( in.readBoolean() );
+                location.setUri( readString() );
+                location.setPath( readString() );
+                location.setAgent( readString() );
+                software.addLocation( location );
+            }
+            else if ( type == CONFIGURATION_FILE )
+            {
+                software.addConfigurationFile( readConfigurationFile() );
+            }
+            else if ( type == DATABASE )
+            {
+                software.addDatabase( readDatabase() );
+            }
+            else
+            {
+                throw new IOException( "Unknown software update plan item type " + type );
+            }
+        }
+        return software;
+    }
+
+}
@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Define the access to a log file.
  */
 public class LogFile
+    extends ModelObject
     implements Cloneable, Serializable, Comparable
 {
 
@@ -50,6 +51,11 @@ public class LogFile
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent the <code>mapping</code> tag in the Kalumet configuration DOM.
  */
 public class Mapping
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -48,6 +49,11 @@ public class Mapping
 
     public void setKey( String key )
     {
+        if ( this.key != null && !this.key.equals( key ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.key = key;
     }
 
@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+/**
+ * Ordered list of model objects with a hash index on the object key (name,
+ * id, ...), used by the model containers for their lookups.
+ * <p/>
+ * The list keeps the insertion order (used for the XML), the index is
+ * maintained on <code>add()</code> and rebuilt on the next lookup after any
+ * other change of the list, or after the key of one of its objects has been
+ * changed: the objects notify the lists containing them (see
+ * <code>ModelObject.keyChanged()</code>), the renaming of an object doesn't
+ * invalidate the indexes of the other lists.
+ * <p/>
+ * The changes of the list and of its objects are forwarded to the container
+ * of the list, if any, which bumps its model stamp (see
+ * <code>ModelObject.getStamp()</code>).
+ */
+class ModelList
+    extends LinkedList
+{
+
+    private static final long serialVersionUID = 2474631846271735286L;
+
+    private transient Map index;
+
+    private transient int indexModCount;
+
+    private transient int indexChanges;
+
+    private transient int changes;
+
+    // the model object containing this list, notified of its changes
+    private ModelObject container;
+
+    /**
+     * Create a list not contained by a model object.
+     */
+    ModelList()
+    {
+    }
+
+    /**
+     * Create a list notifying its container of the changes.
+     *
+     * @param container the model object containing the list.
+     */
+    ModelList( ModelObject container )
+    {
+        this.container = container;
+    }
+
+    /**
+     * Set the model object containing a list, when the list is set in a
+     * container. The changes of a list not created by the model are not
+     * notified.
+     *
+     * @param list      the list set in the container.
+     * @param container the model object containing the list.
+     */
+    static void setContainer( List list, ModelObject container )
+    {
+        if ( list instanceof ModelList )
+        {
+            ( (ModelList) list ).container = container;
+        }
+    }
+
+    /**
+     * Notify the list that the key of one of its objects is going to change.
+     */
+    void keyChanged()
+    {
+        synchronized ( this )
+        {
+            this.changes++;
+        }
+        this.changed();
+    }
+
+    /**
+     * Notify the list that the list or one of its objects has been changed.
+     */
+    void changed()
+    {
+        ModelObject notified = this.container;
+        if ( notified != null )
+        {
+            notified.changed();
+        }
+    }
+
+    /**
+     * Get the object identified by a given key.
+     *
+     * @param key the object key.
+     * @return the first object with this key, or null if not found.
+     */
+    synchronized Object get( String key )
+    {
+        if ( !this.isIndexUpToDate() )
+        {
+            Map rebuilt = new HashMap();
+            for ( Iterator iterator = super.listIterator( 0 ); iterator.hasNext(); )
+            {
+                Object object = iterator.next();
+                String objectKey = ModelList.getKey( object );
+                if ( !rebuilt.containsKey( objectKey ) )
+                {
+                    rebuilt.put( objectKey, object );
+                }
+            }
+            this.index = rebuilt;
+            this.indexModCount = this.modCount;
+            this.indexChanges = this.changes;
+        }
+        return this.index.get( key );
+    }
+
+    private boolean isIndexUpToDate()
+    {
+        return this.index != null && this.indexModCount == this.modCount && this.indexChanges == this.changes;
+    }
+
+    /**
+     * Register this list in a model object added to it.
+     *
+     * @param object the added object.
+     */
+    private void added( Object object )
+    {
+        if ( object instanceof ModelObject )
+        {
+            ( (ModelObject) object ).addedTo( this );
+        }
+        this.changed();
+    }
+
+    public synchronized boolean add( Object object )
+    {
+        boolean upToDate = this.isIndexUpToDate();
+        super.add( object );
+        this.added( object );
+        if ( upToDate )
+        {
+            String key = ModelList.getKey( object );
+            if ( !this.index.containsKey( key ) )
+            {
+                this.index.put( key, object );
+            }
+            this.indexModCount = this.modCount;
+        }
+        return true;
+    }
+
+    public void add( int position, Object object )
+    {
+        super.add( position, object );
+        this.added( object );
+    }
+
+    public void addFirst( Object object )
+    {
+        super.addFirst( object );
+        this.added( object );
+    }
+
+    public void addLast( Object object )
+    {
+        super.addLast( object );
+        this.added( object );
+    }
+
+    public boolean addAll( Collection objects )
+    {
+        return this.addAll( this.size(), objects );
+    }
+
+    public boolean addAll( int position, Collection objects )
+    {
+        boolean modified = super.addAll( position, objects );
+        for ( Iterator iterator = objects.iterator(); iterator.hasNext(); )
+        {
+            this.added( iterator.next() );
+        }
+        return modified;
+    }
+
+    public Object remove( int position )
+    {
+        Object removed = super.remove( position );
+        this.changed();
+        return removed;
+    }
+
+    public boolean remove( Object object )
+    {
+        boolean removed = super.remove( object );
+        this.changed();
+        return removed;
+    }
+
+    public Object removeFirst()
+    {
+        Object removed = super.removeFirst();
+        this.changed();
+        return removed;
+    }
+
+    public Object removeLast()
+    {
+        Object removed = super.removeLast();
+        this.changed();
+        return removed;
+    }
+
+    public void clear()
+    {
+        super.clear();
+        this.changed();
+    }
+
+    public Object set( int position, Object object )
+    {
+        this.changes++;
+        Object previous = super.set( position, object );
+        this.added( object );
+        return previous;
+    }
+
+    public ListIterator listIterator( int position )
+    {
+        final ListIterator iterator = super.listIterator( position );
+        return new ListIterator()
+        {
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            public Object next()
+            {
+                return iterator.next();
+            }
+
+            public boolean hasPrevious()
+            {
+                return iterator.hasPrevious();
+            }
+
+            public Object previous()
+            {
+                return iterator.previous();
+            }
+
+            public int nextIndex()
+            {
+                return iterator.nextIndex();
+            }
+
+            public int previousIndex()
+            {
+                return iterator.previousIndex();
+            }
+
+            public void remove()
+            {
+                iterator.remove();
+                changed();
+            }
+
+            public void set( Object object )
+            {
+                changes++;
+                iterator.set( object );
+                added( object );
+            }
+
+            public void add( Object object )
+            {
+                iterator.add( object );
+                added( object );
+            }
+        };
+    }
+
+    public Object clone()
+    {
+        ModelList clone = (ModelList) super.clone();
+        // the index is not shared with the clone, neither the container
+        clone.index = null;
+        clone.container = null;
+        return clone;
+    }
+
+    private void readObject( ObjectInputStream stream )
+        throws IOException, ClassNotFoundException
+    {
+        stream.defaultReadObject();
+        // the objects don't serialize the lists containing them
+        for ( Iterator iterator = super.listIterator( 0 ); iterator.hasNext(); )
+        {
+            this.added( iterator.next() );
+        }
+    }
+
+    /**
+     * Get the key of a model object.
+     *
+     * @param object the model object.
+     * @return the object key.
+     */
+    private static String getKey( Object object )
+    {
+        if ( object instanceof Environment )
+        {
+            return ( (Environment) object ).getName();
+        }
+        if ( object instanceof Agent )
+        {
+            return ( (Agent) object ).getId();
+        }
+        if ( object instanceof Property )
+        {
+            return ( (Property) object ).getName();
+        }
+        if ( object instanceof User )
+        {
+            return ( (User) object ).getId();
+        }
+        if ( object instanceof Group )
+        {
+            return ( (Group) object ).getId();
+        }
+        if ( object instanceof Variable )
+        {
+            return ( (Variable) object ).getName();
+        }
+        if ( object instanceof FreeField )
+        {
+            return ( (FreeField) object ).getName();
+        }
+        if ( object instanceof Access )
+        {
+            return ( (Access) object ).getGroup();
+        }
+        if ( object instanceof Software )
+        {
+            return ( (Software) object ).getName();
+        }
+        if ( object instanceof LogFile )
+        {
+            return ( (LogFile) object ).getName();
+        }
+        if ( object instanceof Email )
+        {
+            return ( (Email) object ).getMailhost();
+        }
+        if ( object instanceof Destination )
+        {
+            return ( (Destination) object ).getAddress();
+        }
+        if ( object instanceof JEEApplicationServer )
+        {
+            return ( (JEEApplicationServer) object ).getName();
+        }
+        if ( object instanceof JDBCConnectionPool )
+        {
+            return ( (JDBCConnectionPool) object ).getName();
+        }
+        if ( object instanceof JDBCDataSource )
+        {
+            return ( (JDBCDataSource) object ).getName();
+        }
+        if ( object instanceof JMSConnectionFactory )
+        {
+            return ( (JMSConnectionFactory) object ).getName();
+        }
+        if ( object instanceof JMSServer )
+        {
+            return ( (JMSServer) object ).getName();
+        }
+        if ( object instanceof JMSQueue )
+        {
+            return ( (JMSQueue) object ).getName();
+        }
+        if ( object instanceof JMSTopic )
+        {
+            return ( (JMSTopic) object ).getName();
+        }
+        if ( object instanceof JNDIBinding )
+        {
+            return ( (JNDIBinding) object ).getName();
+        }
+        if ( object instanceof SharedLibrary )
+        {
+            return ( (SharedLibrary) object ).getName();
+        }
+        if ( object instanceof JEEApplication )
+        {
+            return ( (JEEApplication) object ).getName();
+        }
+        if ( object instanceof Cache )
+        {
+            return ( (Cache) object ).getPath();
+        }
+        if ( object instanceof Archive )
+        {
+            return ( (Archive) object ).getName();
+        }
+        if ( object instanceof ContentManager )
+        {
+            return ( (ContentManager) object ).getName();
+        }
+        if ( object instanceof ConfigurationFile )
+        {
+            return ( (ConfigurationFile) object ).getName();
+        }
+        if ( object instanceof Database )
+        {
+            return ( (Database) object ).getName();
+        }
+        if ( object instanceof SqlScript )
+        {
+            return ( (SqlScript) object ).getName();
+        }
+        if ( object instanceof Mapping )
+        {
+            return ( (Mapping) object ).getKey();
+        }
+        throw new IllegalArgumentException( "Unsupported model object " + object.getClass().getName() );
+    }
+
+}
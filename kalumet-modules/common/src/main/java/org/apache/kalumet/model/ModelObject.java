@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Model object indexed by the <code>ModelList</code>s containing it.
+ * <p/>
+ * The object knows the lists it has been added to and notifies them when
+ * its key changes, so only these lists rebuild their index. The lists are
+ * weakly referenced: an object shared between configuration copies (see
+ * <code>Kalumet.copy()</code>) doesn't keep the discarded copies alive.
+ * <p/>
+ * The object also has a model stamp, bumped on each change notified by
+ * the object or by its contained lists: a derived data (index, cache, ...)
+ * computed with a given stamp is up to date while the stamp doesn't change,
+ * checked without walking the model.
+ */
+abstract class ModelObject
+{
+
+    // the lists containing this object, guarded by this object
+    private transient WeakReference[] lists;
+
+    // the model stamp, guarded by this object
+    private transient int stamp;
+
+    /**
+     * Get the model stamp of this object.
+     *
+     * @return the current model stamp.
+     */
+    synchronized int getStamp()
+    {
+        return this.stamp;
+    }
+
+    /**
+     * Register a list containing this object.
+     *
+     * @param list the <code>ModelList</code> the object has been added to.
+     */
+    synchronized void addedTo( ModelList list )
+    {
+        if ( this.lists == null )
+        {
+            this.lists = new WeakReference[]{ new WeakReference( list ) };
+            return;
+        }
+        // register each list once, and forget the lists not alive anymore
+        WeakReference[] registered = new WeakReference[this.lists.length + 1];
+        int count = 0;
+        for ( int i = 0; i < this.lists.length; i++ )
+        {
+            Object alive = this.lists[i].get();
+            if ( alive == list )
+            {
+                return;
+            }
+            if ( alive != null )
+            {
+                registered[count++] = this.lists[i];
+            }
+        }
+        registered[count++] = new WeakReference( list );
+        WeakReference[] trimmed = new WeakReference[count];
+        System.arraycopy( registered, 0, trimmed, 0, count );
+        this.lists = trimmed;
+    }
+
+    /**
+     * Notify the lists containing this object that its key is going to
+     * change. Called by the key setters when the key is modified.
+     */
+    void keyChanged()
+    {
+        this.notifyLists( true );
+    }
+
+    /**
+     * Notify the change of a value used by the derived data of the model,
+     * bumping the stamp of this object and of its containers. Called by the
+     * setters of these values and by the lists contained by this object.
+     */
+    void changed()
+    {
+        this.notifyLists( false );
+    }
+
+    private void notifyLists( boolean key )
+    {
+        WeakReference[] registered;
+        synchronized ( this )
+        {
+            this.stamp++;
+            registered = this.lists;
+        }
+        if ( registered == null )
+        {
+            return;
+        }
+        // notify outside of the object lock, a list locks itself before its objects
+        for ( int i = 0; i < registered.length; i++ )
+        {
+            ModelList list = (ModelList) registered[i].get();
+            if ( list != null )
+            {
+                if ( key )
+                {
+                    list.keyChanged();
+                }
+                else
+                {
+                    list.changed();
+                }
+            }
+        }
+    }
+
+}
@@ -42,7 +42,7 @@ public class Notifiers
 
     public Notifiers()
     {
-        this.notifiers = new LinkedList();
+        this.notifiers = new ModelList();
     }
 
     public int getCountdown()
@@ -102,6 +102,10 @@ public class Notifiers
      */
     public Email getNotifier( String mailhost )
     {
+        if ( this.notifiers instanceof ModelList )
+        {
+            return (Email) ( (ModelList) this.notifiers ).get( mailhost );
+        }
         for ( Iterator notifierIterator = this.getNotifiers().iterator(); notifierIterator.hasNext(); )
         {
             Email email = (Email) notifierIterator.next();
@@ -24,14 +24,21 @@ import org.apache.xerces.dom.ElementImpl;
 import org.w3c.dom.Element;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Represent the <code>security</code> tag in the Kalumet configuration DOM.
  */
 public class Security
+    extends ModelObject
     implements Serializable, Cloneable
 {
 
@@ -41,10 +48,12 @@ public class Security
 
     private LinkedList groups;
 
+    private transient volatile UserGroupIds userGroupIds;
+
     public Security()
     {
-        this.users = new LinkedList();
-        this.groups = new LinkedList();
+        this.users = new ModelList();
+        this.groups = new ModelList( this );
     }
 
     /**
@@ -93,6 +102,10 @@ public class Security
      */
     public User getUser( String id )
     {
+        if ( this.users instanceof ModelList )
+        {
+            return (User) ( (ModelList) this.users ).get( id );
+        }
         for ( Iterator userIterator = this.getUsers().iterator(); userIterator.hasNext(); )
         {
             User user = (User) userIterator.next();
@@ -160,7 +173,9 @@ public class Security
      */
     public void setGroups( LinkedList groups )
     {
+        ModelList.setContainer( groups, this );
         this.groups = groups;
+        this.changed();
     }
 
     /**
@@ -172,6 +187,10 @@ public class Security
      */
     public Group getGroup( String id )
     {
+        if ( this.groups instanceof ModelList )
+        {
+            return (Group) ( (ModelList) this.groups ).get( id );
+        }
         for ( Iterator groupIterator = this.getGroups().iterator(); groupIterator.hasNext(); )
         {
             Group group = (Group) groupIterator.next();
@@ -220,15 +239,68 @@ public class Security
         {
             return true;
         }
-        for ( Iterator userGroupIterator = this.getUserGroups( userid ).iterator(); userGroupIterator.hasNext(); )
+        return this.getUserGroupIds( userid ).contains( groupid );
+    }
+
+    /**
+     * Group membership of all users, with the model stamp of the
+     * <code>Security</code> it has been resolved from (bumped by the changes
+     * of the groups and of their users, see <code>ModelObject.changed()</code>).
+     */
+    private static class UserGroupIds
+    {
+
+        private final int stamp;
+
+        // user id -> set of group ids
+        private final Map groupIds;
+
+        private UserGroupIds( int stamp, Map groupIds )
+        {
+            this.stamp = stamp;
+            this.groupIds = groupIds;
+        }
+
+    }
+
+    /**
+     * Get the ids of the groups of a user. The group membership of all users
+     * is resolved once and kept while the model stamp doesn't change.
+     *
+     * @param userid the user id.
+     * @return the set of group ids.
+     */
+    private Set getUserGroupIds( String userid )
+    {
+        UserGroupIds resolved = this.userGroupIds;
+        // a list not created by the model doesn't notify its changes
+        if ( resolved == null || resolved.stamp != this.getStamp() || !( this.groups instanceof ModelList ) )
         {
-            Group group = (Group) userGroupIterator.next();
-            if ( group.getId().equals( groupid ) )
+            // the stamp is taken before the membership is resolved, a concurrent change is seen on the next check
+            resolved = new UserGroupIds( this.getStamp(), new HashMap() );
+            for ( Iterator groupIterator = this.getGroups().iterator(); groupIterator.hasNext(); )
             {
-                return true;
+                Group group = (Group) groupIterator.next();
+                for ( Iterator userIterator = group.getUsers().iterator(); userIterator.hasNext(); )
+                {
+                    User user = (User) userIterator.next();
+                    Set groupIds = (Set) resolved.groupIds.get( user.getId() );
+                    if ( groupIds == null )
+                    {
+                        groupIds = new HashSet();
+                        resolved.groupIds.put( user.getId(), groupIds );
+                    }
+                    groupIds.add( group.getId() );
+                }
             }
+            this.userGroupIds = resolved;
         }
-        return false;
+        Set groupIds = (Set) resolved.groupIds.get( userid );
+        if ( groupIds == null )
+        {
+            return Collections.EMPTY_SET;
+        }
+        return groupIds;
     }
 
     /**
@@ -290,6 +362,128 @@ public class Security
         return clone;
     }
 
+    /**
+     * Create an editable copy of the <code>Security</code> container sharing
+     * its users and groups with this one (see <code>Kalumet.copy()</code>).
+     *
+     * @return the <code>Security</code> copy.
+     */
+    public Security copy()
+    {
+        Security copy = new Security();
+        copy.users.addAll( this.users );
+        copy.groups.addAll( this.groups );
+        // same groups, same membership
+        UserGroupIds resolved = this.userGroupIds;
+        if ( resolved != null && resolved.stamp == this.getStamp() )
+        {
+            copy.userGroupIds = new UserGroupIds( copy.getStamp(), resolved.groupIds );
+        }
+        return copy;
+    }
+
+    /**
+     * Replace a <code>User</code> by its own copy in the
+     * <code>Security</code> container, to modify it without affecting the
+     * configurations sharing it.
+     *
+     * @param id the <code>User</code> id.
+     * @return the <code>User</code> copy to modify, or null if no <code>User</code> found.
+     */
+    public User editUser( String id )
+    {
+        User user = this.getUser( id );
+        if ( user == null )
+        {
+            return null;
+        }
+        try
+        {
+            User copy = (User) user.clone();
+            this.users.set( this.users.indexOf( user ), copy );
+            return copy;
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            throw new IllegalStateException( "Can't copy user " + id );
+        }
+    }
+
+    /**
+     * Replace all the <code>User</code>s by their own copy in the
+     * <code>Security</code> container, to modify them without affecting the
+     * configurations sharing them.
+     *
+     * @return the <code>User</code> list to modify.
+     */
+    public List editUsers()
+    {
+        for ( ListIterator userIterator = this.users.listIterator(); userIterator.hasNext(); )
+        {
+            User user = (User) userIterator.next();
+            try
+            {
+                userIterator.set( user.clone() );
+            }
+            catch ( CloneNotSupportedException e )
+            {
+                throw new IllegalStateException( "Can't copy user " + user.getId() );
+            }
+        }
+        return this.users;
+    }
+
+    /**
+     * Replace a <code>Group</code> by its own copy in the
+     * <code>Security</code> container, to modify it without affecting the
+     * configurations sharing it.
+     *
+     * @param id the <code>Group</code> id.
+     * @return the <code>Group</code> copy to modify, or null if no <code>Group</code> found.
+     */
+    public Group editGroup( String id )
+    {
+        Group group = this.getGroup( id );
+        if ( group == null )
+        {
+            return null;
+        }
+        try
+        {
+            Group copy = (Group) group.clone();
+            this.groups.set( this.groups.indexOf( group ), copy );
+            return copy;
+        }
+        catch ( CloneNotSupportedException e )
+        {
+            throw new IllegalStateException( "Can't copy group " + id );
+        }
+    }
+
+    /**
+     * Replace all the <code>Group</code>s by their own copy in the
+     * <code>Security</code> container, to modify them without affecting the
+     * configurations sharing them.
+     *
+     * @return the <code>Group</code> list to modify.
+     */
+    public List editGroups()
+    {
+        for ( ListIterator groupIterator = this.groups.listIterator(); groupIterator.hasNext(); )
+        {
+            Group group = (Group) groupIterator.next();
+            try
+            {
+                groupIterator.set( group.clone() );
+            }
+            catch ( CloneNotSupportedException e )
+            {
+                throw new IllegalStateException( "Can't copy group " + group.getId() );
+            }
+        }
+        return this.groups;
+    }
+
     /**
      * Transform the <code>Security</code> POJO to a DOM element.
      *
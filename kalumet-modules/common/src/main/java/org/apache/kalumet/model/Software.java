@@ -30,6 +30,7 @@ import java.util.LinkedList;
  * Represent the <code>software</code> tag in the Kalumet DOM.
  */
 public class Software
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -61,6 +62,11 @@ public class Software
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
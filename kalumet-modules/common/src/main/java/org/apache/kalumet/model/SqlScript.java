@@ -31,6 +31,7 @@ import java.util.List;
  * Represent the <code>sqlscript</code> tag in the Kalumet configuration DOM.
  */
 public class SqlScript
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -50,7 +51,7 @@ public class SqlScript
 
     public SqlScript()
     {
-        this.mappings = new LinkedList();
+        this.mappings = new ModelList();
     }
 
     public String getName()
@@ -60,6 +61,11 @@ public class SqlScript
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
@@ -150,6 +156,10 @@ public class SqlScript
      */
     public Mapping getMapping( String key )
     {
+        if ( this.mappings instanceof ModelList )
+        {
+            return (Mapping) ( (ModelList) this.mappings ).get( key );
+        }
         for ( Iterator mappingIterator = this.getMappings().iterator(); mappingIterator.hasNext(); )
         {
             Mapping mapping = (Mapping) mappingIterator.next();
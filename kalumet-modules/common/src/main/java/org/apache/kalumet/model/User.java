@@ -30,6 +30,7 @@ import java.security.MessageDigest;
  * Represent the <code>user</code> tag in the Kalumet configuration DOM.
  */
 public class User
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -54,6 +55,11 @@ public class User
 
     public void setId( String id )
     {
+        if ( this.id != null && !this.id.equals( id ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.id = id;
     }
 
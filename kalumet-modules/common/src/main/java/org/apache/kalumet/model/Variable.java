@@ -28,6 +28,7 @@ import java.io.Serializable;
  * Represent a <code>variable</code> tag in the Kalumet configuration DOM.
  */
 public class Variable
+    extends ModelObject
     implements Serializable, Cloneable, Comparable
 {
 
@@ -43,6 +44,11 @@ public class Variable
 
     public void setName( String name )
     {
+        if ( this.name != null && !this.name.equals( name ) )
+        {
+            // the key changed, the indexes have to be rebuilt
+            this.keyChanged();
+        }
         this.name = name;
     }
 
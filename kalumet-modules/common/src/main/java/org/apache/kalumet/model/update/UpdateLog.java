@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.kalumet.FileManipulator;
 import org.apache.kalumet.KalumetException;
 import org.apache.kalumet.model.Environment;
+import org.apache.kalumet.model.Kalumet;
 import org.apache.xerces.dom.CoreDocumentImpl;
 import org.apache.xerces.dom.ElementImpl;
 import org.apache.xml.serialize.OutputFormat;
@@ -47,7 +48,10 @@ public class UpdateLog
 
     public final static String MAIN_LOG_FILE = "log.xml";
 
-    private String status;
+    // thread -> UpdateLogListener of the update logs created by the thread
+    private final static ThreadLocal LISTENER = new ThreadLocal();
+
+    private volatile String status;
 
     private String time;
 
@@ -55,13 +59,20 @@ public class UpdateLog
 
     private String basedir;
 
-    private boolean updated = false;
+    private volatile boolean updated = false;
 
     private LinkedList updateMessages;
 
+    // the configuration the update runs with
+    private Kalumet kalumet;
+
+    // the listener of this update log, bound to the creating thread
+    private UpdateLogListener listener;
+
     public UpdateLog()
     {
         this.updateMessages = new LinkedList();
+        this.listener = (UpdateLogListener) LISTENER.get();
     }
 
     /**
@@ -82,6 +93,7 @@ public class UpdateLog
         this.title = title;
         this.basedir = FileManipulator.createEnvironmentCacheDir( environment );
         this.updated = updated;
+        this.listener = (UpdateLogListener) LISTENER.get();
     }
 
     /**
@@ -99,6 +111,34 @@ public class UpdateLog
               false );
     }
 
+    /**
+     * Create a <code>UpdateLog</code> of an update running with a given
+     * configuration.
+     *
+     * @param status      the current update log status.
+     * @param title       the current update log title.
+     * @param environment the update log environment linked.
+     * @param kalumet     the Kalumet configuration containing the environment.
+     * @throws KalumetException in case of update log creation failure.
+     */
+    public UpdateLog( String status, String title, Environment environment, Kalumet kalumet )
+        throws KalumetException
+    {
+        this( status, title, environment );
+        this.kalumet = kalumet;
+    }
+
+    /**
+     * Get the configuration the update runs with (the agents and properties
+     * used by the delegations and the journal events).
+     *
+     * @return the Kalumet configuration, null if not defined.
+     */
+    public Kalumet getKalumet()
+    {
+        return this.kalumet;
+    }
+
     public String getStatus()
     {
         return this.status;
@@ -141,13 +181,39 @@ public class UpdateLog
 
     /**
      * Adds a new <code>UpdateMessage</code> in the <code>UpdateLog</code>.
+     * The update tasks running concurrently share the same update log.
      *
      * @param updateMessage the <code>UpdateMessage</code> to add.
      */
-    public void addUpdateMessage( UpdateMessage updateMessage )
+    public synchronized void addUpdateMessage( UpdateMessage updateMessage )
     {
         this.updateMessages.add( updateMessage );
         this.writeXMLFile();
+        if ( this.listener != null )
+        {
+            this.listener.messageAdded( updateMessage );
+        }
+    }
+
+    /**
+     * Bind a listener to the current thread: the <code>UpdateMessage</code>s
+     * added in the update logs created by this thread are notified to the
+     * listener, whatever the thread adding them (the update tasks sharing an
+     * update log run concurrently). The update logs created by the other
+     * threads, even for the same environment, are not listened.
+     *
+     * @param listener the <code>UpdateLogListener</code> to bind, null to unbind the current one.
+     */
+    public static void setListener( UpdateLogListener listener )
+    {
+        if ( listener == null )
+        {
+            LISTENER.remove();
+        }
+        else
+        {
+            LISTENER.set( listener );
+        }
     }
 
     /**
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model.update;
+
+/**
+ * Listener of the <code>UpdateMessage</code>s added in the update logs
+ * created by a thread (see <code>UpdateLog.setListener()</code>).
+ */
+public interface UpdateLogListener
+{
+
+    /**
+     * Called when an <code>UpdateMessage</code> is added in a listened update
+     * log.
+     *
+     * @param updateMessage the added <code>UpdateMessage</code>.
+     */
+    void messageAdded( UpdateMessage updateMessage );
+
+}
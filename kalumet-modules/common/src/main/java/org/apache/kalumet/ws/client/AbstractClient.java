@@ -18,17 +18,50 @@
  */
 package org.apache.kalumet.ws.client;
 
+import org.apache.axis.AxisProperties;
+import org.apache.axis.SimpleTargetedChain;
 import org.apache.axis.client.Call;
 import org.apache.axis.client.Service;
+import org.apache.axis.components.net.DefaultCommonsHTTPClientProperties;
+import org.apache.axis.configuration.SimpleProvider;
+import org.apache.axis.transport.http.CommonsHTTPSender;
+import org.apache.axis.transport.http.HTTPTransport;
 
 import java.net.URL;
+import java.rmi.RemoteException;
 
 /**
  * Abstract WS client.
+ * <p/>
+ * All clients share the same Axis <code>Service</code> (the client engine
+ * and its configuration are created once) and the same HTTP transport: the
+ * connections to the agents are kept alive and pooled, with a bounded number
+ * of connections per agent.
+ * <p/>
+ * The calls time out after <code>TIMEOUT</code> milliseconds, the long
+ * running operations (update, start, stop, command execution) after
+ * <code>UPDATE_TIMEOUT</code> milliseconds. The timeouts and the pool sizes
+ * can be overridden with the <code>kalumet.ws.client.timeout</code>,
+ * <code>kalumet.ws.client.update.timeout</code>,
+ * <code>kalumet.ws.client.max.connections.per.host</code> and
+ * <code>kalumet.ws.client.max.connections</code> system properties.
  */
 public abstract class AbstractClient
 {
 
+    public final static int TIMEOUT = Integer.getInteger( "kalumet.ws.client.timeout", 5 * 60 * 1000 ).intValue();
+
+    public final static int UPDATE_TIMEOUT =
+        Integer.getInteger( "kalumet.ws.client.update.timeout", 4 * 60 * 60 * 1000 ).intValue();
+
+    private final static int MAX_CONNECTIONS_PER_HOST =
+        Integer.getInteger( "kalumet.ws.client.max.connections.per.host", 10 ).intValue();
+
+    private final static int MAX_CONNECTIONS =
+        Integer.getInteger( "kalumet.ws.client.max.connections", 200 ).intValue();
+
+    private final static Service SERVICE = createService();
+
     protected Call call;
 
     public AbstractClient( String url )
@@ -36,9 +69,8 @@ public abstract class AbstractClient
     {
         try
         {
-            Service service = new Service();
-            this.call = (Call) service.createCall();
-            call.setTimeout( new Integer( Integer.MAX_VALUE ) );
+            this.call = (Call) SERVICE.createCall();
+            call.setTimeout( new Integer( TIMEOUT ) );
             call.setTargetEndpointAddress( new URL( url ) );
         }
         catch ( Exception e )
@@ -47,4 +79,55 @@ public abstract class AbstractClient
         }
     }
 
+    /**
+     * Invoke a long running operation (update, start, stop, command
+     * execution), with the <code>UPDATE_TIMEOUT</code>.
+     *
+     * @param operationName the operation name.
+     * @param parameters    the operation parameters.
+     * @return the operation result.
+     * @throws RemoteException in case of invocation failure.
+     */
+    protected Object invokeUpdate( String operationName, Object[] parameters )
+        throws RemoteException
+    {
+        call.setTimeout( new Integer( UPDATE_TIMEOUT ) );
+        try
+        {
+            return call.invoke( operationName, parameters );
+        }
+        finally
+        {
+            call.setTimeout( new Integer( TIMEOUT ) );
+        }
+    }
+
+    /**
+     * Create the Axis service shared by the clients, using the pooled HTTP
+     * transport.
+     *
+     * @return the shared Axis service.
+     */
+    private static Service createService()
+    {
+        setDefaultProperty( DefaultCommonsHTTPClientProperties.MAXIMUM_CONNECTIONS_PER_HOST_PROPERTY_KEY,
+                            MAX_CONNECTIONS_PER_HOST );
+        setDefaultProperty( DefaultCommonsHTTPClientProperties.MAXIMUM_TOTAL_CONNECTIONS_PROPERTY_KEY,
+                            MAX_CONNECTIONS );
+        // wait for a pooled connection no longer than for a response
+        setDefaultProperty( DefaultCommonsHTTPClientProperties.CONNECTION_POOL_TIMEOUT_KEY, TIMEOUT );
+        SimpleProvider provider = new SimpleProvider();
+        provider.deployTransport( HTTPTransport.DEFAULT_TRANSPORT_NAME,
+                                  new SimpleTargetedChain( new CommonsHTTPSender() ) );
+        return new Service( provider );
+    }
+
+    private static void setDefaultProperty( String name, int value )
+    {
+        if ( AxisProperties.getProperty( name ) == null )
+        {
+            AxisProperties.setProperty( name, Integer.toString( value ) );
+        }
+    }
+
 }
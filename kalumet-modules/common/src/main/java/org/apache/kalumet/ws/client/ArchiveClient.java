@@ -18,6 +18,8 @@
  */
 package org.apache.kalumet.ws.client;
 
+import java.util.Date;
+
 /**
  * Archive WS client.
  */
@@ -46,16 +48,17 @@ public class ArchiveClient
      * @param applicationName       the target JEE application name.
      * @param archiveName           the target archive name.
      * @param delegation            true if this call is a delegation from another agent, false else.
+     * @return the update start date (in the future if the update is deferred after the notification count down).
      * @throws ClientException in case of communication failure.
      */
-    public void update( String environmentName, String applicationServerName, String applicationName,
+    public Date update( String environmentName, String applicationServerName, String applicationName,
                         String archiveName, boolean delegation )
         throws ClientException
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, applicationName, archiveName,
-                new Boolean( delegation ) } );
+            return new Date( ( (Long) invokeUpdate( "update", new Object[]{ environmentName, applicationServerName,
+                applicationName, archiveName, new Boolean( delegation ) } ) ).longValue() );
         }
         catch ( Exception e )
         {
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.ws.client;
+
+import org.apache.axis.encoding.ser.BeanDeserializerFactory;
+import org.apache.axis.encoding.ser.BeanSerializerFactory;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Environment checker WS client.
+ */
+public class CheckClient
+    extends AbstractClient
+{
+
+    /**
+     * Default constructor.
+     *
+     * @param host the hostname or IP address of the Kalumet agent WS server.
+     * @param port the port number of the Kalumet agent WS server.
+     * @throws ClientException in case of communication failure.
+     */
+    public CheckClient( String host, int port )
+        throws ClientException
+    {
+        super( "http://" + host + ":" + port + "/axis/services/CheckService" );
+        call.registerTypeMapping( CheckResult.class, new QName( "http://kalumet.apache.org", "CheckResult" ),
+                                  BeanSerializerFactory.class, BeanDeserializerFactory.class );
+    }
+
+    /**
+     * Wrapper method to check all the resources of an environment in one call.
+     *
+     * @param environmentName the target environment name.
+     * @return the status of each resource.
+     * @throws ClientException in case of check failure.
+     */
+    public CheckResult[] check( String environmentName )
+        throws ClientException
+    {
+        try
+        {
+            return (CheckResult[]) call.invoke( "check", new Object[]{ environmentName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Environment " + environmentName + " check failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to check all the resources of a JEE application server in one call.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @return the status of each resource.
+     * @throws ClientException in case of check failure.
+     */
+    public CheckResult[] checkJEEApplicationServer( String environmentName, String serverName )
+        throws ClientException
+    {
+        try
+        {
+            return (CheckResult[]) call.invoke( "checkJEEApplicationServer",
+                                                new Object[]{ environmentName, serverName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "JEE application server " + serverName + " check failed", e );
+        }
+    }
+
+}
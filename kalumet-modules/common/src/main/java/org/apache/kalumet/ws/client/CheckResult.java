@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.ws.client;
+
+import java.io.Serializable;
+
+/**
+ * Status of a resource checked by the environment checker, to be used via WS.
+ */
+public class CheckResult
+    implements Serializable
+{
+
+    public final static String JEE_APPLICATION_SERVER = "jeeapplicationserver";
+
+    public final static String JDBC_CONNECTION_POOL = "jdbcconnectionpool";
+
+    public final static String JDBC_DATA_SOURCE = "jdbcdatasource";
+
+    public final static String JMS_CONNECTION_FACTORY = "jmsconnectionfactory";
+
+    public final static String JMS_SERVER = "jmsserver";
+
+    public final static String JNDI_BINDING = "jndibinding";
+
+    public final static String SHARED_LIBRARY = "sharedlibrary";
+
+    public final static String ARCHIVE = "archive";
+
+    public final static String CONFIGURATION_FILE = "configurationfile";
+
+    private String type;
+
+    private String server;
+
+    private String application;
+
+    private String name;
+
+    private boolean uptodate;
+
+    private String status;
+
+    private String error;
+
+    public CheckResult()
+    {
+    }
+
+    public CheckResult( String type, String server, String application, String name )
+    {
+        this.type = type;
+        this.server = server;
+        this.application = application;
+        this.name = name;
+    }
+
+    public String getType()
+    {
+        return this.type;
+    }
+
+    public void setType( String type )
+    {
+        this.type = type;
+    }
+
+    public String getServer()
+    {
+        return this.server;
+    }
+
+    public void setServer( String server )
+    {
+        this.server = server;
+    }
+
+    public String getApplication()
+    {
+        return this.application;
+    }
+
+    public void setApplication( String application )
+    {
+        this.application = application;
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    public void setName( String name )
+    {
+        this.name = name;
+    }
+
+    public boolean isUptodate()
+    {
+        return this.uptodate;
+    }
+
+    public void setUptodate( boolean uptodate )
+    {
+        this.uptodate = uptodate;
+    }
+
+    public String getStatus()
+    {
+        return this.status;
+    }
+
+    public void setStatus( String status )
+    {
+        this.status = status;
+    }
+
+    public String getError()
+    {
+        return this.error;
+    }
+
+    public void setError( String error )
+    {
+        this.error = error;
+    }
+
+    /**
+     * Get the key identifying a resource in an environment.
+     *
+     * @param type        the resource type.
+     * @param server      the JEE application server name.
+     * @param application the JEE application name, null if the resource is not in a JEE application.
+     * @param name        the resource name.
+     * @return the resource key.
+     */
+    public static String getKey( String type, String server, String application, String name )
+    {
+        return type + "/" + server + "/" + ( ( application == null ) ? "" : application ) + "/" + name;
+    }
+
+}
@@ -51,7 +51,7 @@ public class CommandClient
         String output = null;
         try
         {
-            output = (String) call.invoke( "execute", new Object[]{ command } );
+            output = (String) invokeUpdate( "execute", new Object[]{ command } );
         }
         catch ( Exception e )
         {
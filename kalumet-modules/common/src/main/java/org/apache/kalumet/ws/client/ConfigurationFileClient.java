@@ -54,7 +54,7 @@ public class ConfigurationFileClient
     {
         try
         {
-            call.invoke( "update",
+            invokeUpdate( "update",
                          new Object[]{ environmentName, applicationServerName, applicationName, configurationFileName,
                              new Boolean( delegation ) } );
         }
@@ -54,7 +54,7 @@ public class ContentManagerClient
     {
         try
         {
-            call.invoke( "update",
+            invokeUpdate( "update",
                          new Object[]{ environmentName, applicationServerName, applicationName, contentManagerName,
                              new Boolean( delegation ) } );
         }
@@ -54,7 +54,7 @@ public class DatabaseClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, applicationName, databaseName,
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, applicationName, databaseName,
                 new Boolean( delegation ) } );
         }
         catch ( Exception e )
@@ -18,6 +18,8 @@
  */
 package org.apache.kalumet.ws.client;
 
+import java.util.Date;
+
 /**
  * Environment WS client.
  */
@@ -42,14 +44,15 @@ public class EnvironmentClient
      * Wrapper method to update an environment.
      *
      * @param environmentName the target environment name.
+     * @return the update start date (in the future if the update is deferred after the notification count down).
      * @throws ClientException in case of update failure.
      */
-    public void update( String environmentName )
+    public Date update( String environmentName )
         throws ClientException
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName } );
+            return new Date( ( (Long) invokeUpdate( "update", new Object[]{ environmentName } ) ).longValue() );
         }
         catch ( Exception e )
         {
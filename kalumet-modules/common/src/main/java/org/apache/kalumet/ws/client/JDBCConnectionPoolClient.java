@@ -51,7 +51,7 @@ public class JDBCConnectionPoolClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, connectionPoolName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, connectionPoolName } );
         }
         catch ( Exception e )
         {
@@ -51,7 +51,7 @@ public class JDBCDataSourceClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, dataSourceName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, dataSourceName } );
         }
         catch ( Exception e )
         {
@@ -54,7 +54,7 @@ public class JEEApplicationClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, applicationName,
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, applicationName,
                 new Boolean( delegation ) } );
         }
         catch ( Exception e )
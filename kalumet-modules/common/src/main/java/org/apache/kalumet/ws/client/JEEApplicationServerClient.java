@@ -50,7 +50,7 @@ public class JEEApplicationServerClient
     {
         try
         {
-            call.invoke( "stop", new Object[]{ environmentName, applicationServerName } );
+            invokeUpdate( "stop", new Object[]{ environmentName, applicationServerName } );
         }
         catch ( Exception e )
         {
@@ -70,7 +70,7 @@ public class JEEApplicationServerClient
     {
         try
         {
-            call.invoke( "start", new Object[]{ environmentName, applicationServerName } );
+            invokeUpdate( "start", new Object[]{ environmentName, applicationServerName } );
         }
         catch ( Exception e )
         {
@@ -114,7 +114,7 @@ public class JEEApplicationServerClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, new Boolean( delegation ) } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, new Boolean( delegation ) } );
         }
         catch ( Exception e )
         {
@@ -51,7 +51,7 @@ public class JMSConnectionFactoryClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, connectionFactoryName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, connectionFactoryName } );
         }
         catch ( Exception e )
         {
@@ -51,7 +51,7 @@ public class JMSServerClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, jmsServerName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, jmsServerName } );
         }
         catch ( Exception e )
         {
@@ -51,7 +51,7 @@ public class JNDIBindingClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, jndiBindingName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, jndiBindingName } );
         }
         catch ( Exception e )
         {
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.ws.client;
+
+import org.apache.kalumet.model.update.UpdateMessage;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Update job WS client.
+ * <p/>
+ * The update submission returns immediately a job ID, used to poll the job
+ * status and update messages.
+ */
+public class JobClient
+    extends AbstractClient
+{
+
+    public final static String PENDING = "pending";
+
+    public final static String RUNNING = "running";
+
+    public final static String COMPLETED = "completed";
+
+    public final static String FAILED = "failed";
+
+    /**
+     * Default constructor.
+     *
+     * @param host the hostname or IP address of the Kalumet agent WS server.
+     * @param port the port number of the Kalumet agent WS server.
+     * @throws ClientException in case of communication failure.
+     */
+    public JobClient( String host, int port )
+        throws ClientException
+    {
+        super( "http://" + host + ":" + port + "/axis/services/JobService" );
+    }
+
+    /**
+     * Wrapper method to submit an environment update.
+     *
+     * @param environmentName the target environment name.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    public String submitEnvironmentUpdate( String environmentName )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "submitEnvironmentUpdate", new Object[]{ environmentName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Environment " + environmentName + " update submission failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to submit a JEE application server update.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    public String submitJEEApplicationServerUpdate( String environmentName, String serverName )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "submitJEEApplicationServerUpdate",
+                                         new Object[]{ environmentName, serverName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "JEE application server " + serverName + " update submission failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to submit a JEE application update.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @param applicationName the target JEE application name.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    public String submitJEEApplicationUpdate( String environmentName, String serverName, String applicationName )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "submitJEEApplicationUpdate",
+                                         new Object[]{ environmentName, serverName, applicationName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "JEE application " + applicationName + " update submission failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to submit a JEE application archive update.
+     *
+     * @param environmentName the target environment name.
+     * @param serverName      the target JEE application server name.
+     * @param applicationName the target JEE application name.
+     * @param archiveName     the target archive name.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    public String submitArchiveUpdate( String environmentName, String serverName, String applicationName,
+                                       String archiveName )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "submitArchiveUpdate",
+                                         new Object[]{ environmentName, serverName, applicationName, archiveName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "JEE archive " + archiveName + " update submission failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to submit a software update.
+     *
+     * @param environmentName the target environment name.
+     * @param softwareName    the target software name.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    public String submitSoftwareUpdate( String environmentName, String softwareName )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "submitSoftwareUpdate", new Object[]{ environmentName, softwareName } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Software " + softwareName + " update submission failed", e );
+        }
+    }
+
+    /**
+     * Wrapper method to get the status of a job.
+     *
+     * @param jobId the job ID.
+     * @return the job status (pending, running, completed or failed).
+     * @throws ClientException in case of communication failure or if the job is not found.
+     */
+    public String getStatus( String jobId )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "getStatus", new Object[]{ jobId } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Can't get job " + jobId + " status", e );
+        }
+    }
+
+    /**
+     * Wrapper method to get the error message of a failed job.
+     *
+     * @param jobId the job ID.
+     * @return the job error message.
+     * @throws ClientException in case of communication failure or if the job is not found.
+     */
+    public String getError( String jobId )
+        throws ClientException
+    {
+        try
+        {
+            return (String) call.invoke( "getError", new Object[]{ jobId } );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Can't get job " + jobId + " error", e );
+        }
+    }
+
+    /**
+     * Wrapper method to get the update start date of a completed job.
+     *
+     * @param jobId the job ID.
+     * @return the update start date (in the future if the update is deferred after the notification count down).
+     * @throws ClientException in case of communication failure or if the job is not found.
+     */
+    public Date getStart( String jobId )
+        throws ClientException
+    {
+        try
+        {
+            return new Date( ( (Long) call.invoke( "getStart", new Object[]{ jobId } ) ).longValue() );
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Can't get job " + jobId + " start", e );
+        }
+    }
+
+    /**
+     * Wrapper method to get the update messages of a job.
+     *
+     * @param jobId the job ID.
+     * @param from  the index of the first message to get (the number of messages already read).
+     * @return the list of <code>UpdateMessage</code>s.
+     * @throws ClientException in case of communication failure or if the job is not found.
+     */
+    public List getMessages( String jobId, int from )
+        throws ClientException
+    {
+        Object[] messages;
+        try
+        {
+            Object result = call.invoke( "getMessages", new Object[]{ jobId, new Integer( from ) } );
+            // the array may be deserialized as a list
+            if ( result instanceof List )
+            {
+                messages = ( (List) result ).toArray();
+            }
+            else
+            {
+                messages = (Object[]) result;
+            }
+        }
+        catch ( Exception e )
+        {
+            throw new ClientException( "Can't get job " + jobId + " messages", e );
+        }
+        List updateMessages = new LinkedList();
+        for ( int i = 0; messages != null && i < messages.length; i++ )
+        {
+            String message = (String) messages[i];
+            int separator = message.indexOf( ':' );
+            updateMessages.add(
+                new UpdateMessage( message.substring( 0, separator ), message.substring( separator + 1 ) ) );
+        }
+        return updateMessages;
+    }
+
+}
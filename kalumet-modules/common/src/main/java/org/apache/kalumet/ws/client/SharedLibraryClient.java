@@ -51,7 +51,7 @@ public class SharedLibraryClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, applicationServerName, sharedLibraryName } );
+            invokeUpdate( "update", new Object[]{ environmentName, applicationServerName, sharedLibraryName } );
         }
         catch ( Exception e )
         {
@@ -51,7 +51,7 @@ public class SoftwareClient
     {
         try
         {
-            call.invoke( "update", new Object[]{ environmentName, softwareName, new Boolean( delegation ) } );
+            invokeUpdate( "update", new Object[]{ environmentName, softwareName, new Boolean( delegation ) } );
         }
         catch ( Exception e )
         {
@@ -73,7 +73,7 @@ public class SoftwareClient
     {
         try
         {
-            call.invoke( "executeCommand",
+            invokeUpdate( "executeCommand",
                          new Object[]{ environmentName, softwareName, commandName, new Boolean( delegation ) } );
         }
         catch ( Exception e )
@@ -96,7 +96,7 @@ public class SoftwareClient
     {
         try
         {
-            call.invoke( "updateLocation",
+            invokeUpdate( "updateLocation",
                          new Object[]{ environmentName, softwareName, locationName, new Boolean( delegation ) } );
         }
         catch ( Exception e )
@@ -120,7 +120,7 @@ public class SoftwareClient
     {
         try
         {
-            call.invoke( "updateConfigurationFile", new Object[]{ environmentName, softwareName, configurationFileName,
+            invokeUpdate( "updateConfigurationFile", new Object[]{ environmentName, softwareName, configurationFileName,
                 new Boolean( delegation ) } );
         }
         catch ( Exception e )
@@ -143,7 +143,7 @@ public class SoftwareClient
     {
         try
         {
-            call.invoke( "updateDatabase",
+            invokeUpdate( "updateDatabase",
                          new Object[]{ environmentName, softwareName, databaseName, new Boolean( delegation ) } );
         }
         catch ( Exception e )
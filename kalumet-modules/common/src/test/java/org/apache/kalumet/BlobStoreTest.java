@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests on the <code>BlobStore</code>.
+ */
+public class BlobStoreTest
+{
+
+    private final static byte[] DIGEST = DigestCache.fromHex( "0123456789abcdef0123456789abcdef" );
+
+    private File directory;
+
+    private File cache;
+
+    private File artifact;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        directory = File.createTempFile( "blobs", "" );
+        directory.delete();
+        cache = new File( directory, "cache" );
+        artifact = new File( cache, "artifact.jar" );
+        FileUtils.writeStringToFile( artifact, "artifact" );
+    }
+
+    @After
+    public void tearDown()
+        throws Exception
+    {
+        FileUtils.deleteDirectory( directory );
+    }
+
+    @Test
+    public void testReferenceCounting()
+        throws Exception
+    {
+        BlobStore store = new BlobStore( new File( directory, "store" ) );
+        store.add( artifact, DIGEST );
+        File blob = store.get( DIGEST );
+        assertNotNull( blob );
+        // the cache files linked to the blob share its modification time, expire it before referencing them
+        BlobStoreTest.expire( store );
+        File first = new File( cache, "first.jar" );
+        File second = new File( cache, "second.jar" );
+        FileManipulator.linkLocalFile( blob, first );
+        FileManipulator.linkLocalFile( blob, second );
+        store.reference( first, DIGEST );
+        store.reference( second, DIGEST );
+        // the referenced blob is kept, even beyond the grace period
+        store.collect();
+        assertNotNull( store.get( DIGEST ) );
+        first.delete();
+        store.collect();
+        assertNotNull( store.get( DIGEST ) );
+        // the changed cache file doesn't reference the blob anymore
+        second.delete();
+        FileUtils.writeStringToFile( second, "changed" );
+        store.collect();
+        assertNull( store.get( DIGEST ) );
+    }
+
+    @Test
+    public void testGracePeriod()
+        throws Exception
+    {
+        BlobStore store = new BlobStore( new File( directory, "store" ) );
+        store.add( artifact, DIGEST );
+        // the unreferenced blob is kept during the grace period
+        store.collect();
+        assertNotNull( store.get( DIGEST ) );
+        BlobStoreTest.expire( store );
+        store.collect();
+        assertNull( store.get( DIGEST ) );
+    }
+
+    @Test
+    public void testIndex()
+        throws Exception
+    {
+        File storeDirectory = new File( directory, "store" );
+        BlobStore store = new BlobStore( storeDirectory );
+        store.add( artifact, DIGEST );
+        BlobStoreTest.expire( store );
+        store.reference( artifact, DIGEST );
+        // the references index is stored by batches
+        assertFalse( new File( storeDirectory, "references.properties" ).isFile() );
+        store.flush();
+        assertTrue( new File( storeDirectory, "references.properties" ).isFile() );
+        // the references are reloaded by a new store
+        BlobStore loaded = new BlobStore( storeDirectory );
+        loaded.collect();
+        assertNotNull( loaded.get( DIGEST ) );
+        artifact.delete();
+        loaded = new BlobStore( storeDirectory );
+        loaded.collect();
+        assertNull( loaded.get( DIGEST ) );
+    }
+
+    @Test
+    public void testLinkedFile()
+        throws Exception
+    {
+        BlobStore store = new BlobStore( new File( directory, "store" ) );
+        store.add( artifact, DIGEST );
+        File blob = store.get( DIGEST );
+        File linked = new File( cache, "linked.jar" );
+        FileManipulator.linkLocalFile( blob, linked );
+        assertEquals( "artifact", FileUtils.readFileToString( linked ) );
+        // the linked file is replaced, not written in place, the blob doesn't change
+        File other = new File( cache, "other.jar" );
+        FileUtils.writeStringToFile( other, "other" );
+        FileManipulator.copyLocalFile( other, linked );
+        assertEquals( "other", FileUtils.readFileToString( linked ) );
+        assertEquals( "artifact", FileUtils.readFileToString( blob ) );
+        // the linked file is rewritten in a new file by the search and replace and by the write
+        FileManipulator.linkLocalFile( blob, linked );
+        FileManipulator.searchAndReplace( linked.getPath(), "artifact", "replaced" );
+        assertEquals( "replaced", FileUtils.readFileToString( linked ) );
+        assertEquals( "artifact", FileUtils.readFileToString( blob ) );
+        FileManipulator.linkLocalFile( blob, linked );
+        FileManipulator fileManipulator = new FileManipulator();
+        try
+        {
+            OutputStream outputStream = fileManipulator.write( linked.getPath() );
+            outputStream.write( "written".getBytes() );
+            outputStream.close();
+        }
+        finally
+        {
+            fileManipulator.close();
+        }
+        assertEquals( "written", FileUtils.readFileToString( linked ) );
+        assertEquals( "artifact", FileUtils.readFileToString( blob ) );
+    }
+
+    /**
+     * Move the stored blobs creation time beyond the grace period.
+     *
+     * @param store the blob store.
+     */
+    private static void expire( BlobStore store )
+    {
+        File blob = store.get( DIGEST );
+        if ( blob != null )
+        {
+            blob.setLastModified( System.currentTimeMillis() - 2 * BlobStore.GRACE_PERIOD );
+        }
+    }
+
+}
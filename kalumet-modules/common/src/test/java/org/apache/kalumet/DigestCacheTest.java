@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests on the <code>DigestCache</code>.
+ */
+public class DigestCacheTest
+{
+
+    private final static byte[] DIGEST = DigestCache.fromHex( "0123456789abcdef0123456789abcdef" );
+
+    private File file;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        file = File.createTempFile( "digests", ".properties" );
+        file.delete();
+    }
+
+    @After
+    public void tearDown()
+        throws Exception
+    {
+        file.delete();
+    }
+
+    @Test
+    public void testValidator()
+        throws Exception
+    {
+        DigestCache cache = new DigestCache( file );
+        cache.put( "http://localhost/test", "etag:1", DIGEST );
+        assertEquals( DigestCache.toHex( DIGEST ),
+                      DigestCache.toHex( cache.get( "http://localhost/test", "etag:1" ) ) );
+        // the file has changed
+        assertNull( cache.get( "http://localhost/test", "etag:2" ) );
+        assertNull( cache.get( "http://localhost/other", "etag:1" ) );
+    }
+
+    @Test
+    public void testBatchedStore()
+        throws Exception
+    {
+        DigestCache cache = new DigestCache( file );
+        cache.put( "http://localhost/test", "etag:1", DIGEST );
+        // the index is not stored on each put
+        assertFalse( file.exists() );
+        cache.flush();
+        assertTrue( file.exists() );
+        DigestCache loaded = new DigestCache( file );
+        assertEquals( DigestCache.toHex( DIGEST ),
+                      DigestCache.toHex( loaded.get( "http://localhost/test", "etag:1" ) ) );
+    }
+
+    @Test
+    public void testPrune()
+        throws Exception
+    {
+        File local = File.createTempFile( "digested", ".txt" );
+        String uri = local.toURI().toString();
+        DigestCache cache = new DigestCache( file );
+        cache.put( uri, "1:1", DIGEST );
+        cache.put( "http://localhost/test", "etag:1", DIGEST );
+        cache.prune();
+        assertEquals( DigestCache.toHex( DIGEST ), DigestCache.toHex( cache.get( uri, "1:1" ) ) );
+        // the digest of a removed local file is dropped, the remote one is kept
+        local.delete();
+        cache.prune();
+        assertNull( cache.get( uri, "1:1" ) );
+        assertEquals( DigestCache.toHex( DIGEST ),
+                      DigestCache.toHex( cache.get( "http://localhost/test", "etag:1" ) ) );
+        // the pruned index is stored
+        DigestCache loaded = new DigestCache( file );
+        assertNull( loaded.get( uri, "1:1" ) );
+    }
+
+}
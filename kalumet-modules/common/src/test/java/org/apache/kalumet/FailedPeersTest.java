@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests on the <code>FailedPeers</code>.
+ */
+public class FailedPeersTest
+{
+
+    private final static String FIRST = "http://first:4000";
+
+    private final static String SECOND = "http://second:4000";
+
+    @Test
+    public void testFailed()
+        throws Exception
+    {
+        FailedPeers failedPeers = new FailedPeers( 60000 );
+        assertFalse( failedPeers.isFailed( FIRST ) );
+        failedPeers.failed( FIRST );
+        assertTrue( failedPeers.isFailed( FIRST ) );
+        assertFalse( failedPeers.isFailed( SECOND ) );
+        // the failed peer is skipped
+        assertEquals( Arrays.asList( new String[]{ SECOND } ),
+                      failedPeers.getAvailable( Arrays.asList( new String[]{ FIRST, SECOND } ) ) );
+    }
+
+    @Test
+    public void testRetryDelay()
+        throws Exception
+    {
+        FailedPeers failedPeers = new FailedPeers( 50 );
+        failedPeers.failed( FIRST );
+        assertTrue( failedPeers.isFailed( FIRST ) );
+        Thread.sleep( 100 );
+        // the peer is tried again after the retry delay
+        assertFalse( failedPeers.isFailed( FIRST ) );
+        assertEquals( Arrays.asList( new String[]{ FIRST, SECOND } ),
+                      failedPeers.getAvailable( Arrays.asList( new String[]{ FIRST, SECOND } ) ) );
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs.FileObject;
+import org.apache.commons.vfs.Selectors;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Benchmark of the local copies: the VFS copy, the file channels copy and
+ * the link of the work directory cache files.
+ * <p/>
+ * It's not a unit test (not run by the build): a large archive and a big
+ * tree of small files are created, then copied by each method. The VFS copy
+ * is done in <code>target/copy-benchmark</code>, the file channels copy
+ * too (<code>FileManipulator.copy()</code> between two local paths), the
+ * link in <code>work/copy-benchmark</code> (a copy from a cache to another
+ * one). The destination is deleted before each copy (not measured), each
+ * case is warmed up before the measured iterations, and the mean, min and
+ * max times are reported.
+ * Usage (from the common module directory, with the test classpath):
+ * <code>java org.apache.kalumet.FileCopyBenchmark [archive MB] [tree files] [iterations] [warmups]</code>
+ */
+public class FileCopyBenchmark
+{
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int archiveSize = ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 256;
+        int treeFiles = ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 10000;
+        int iterations = ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 5;
+        int warmups = ( args.length > 3 ) ? Integer.parseInt( args[3] ) : 2;
+
+        File target = new File( "./target/copy-benchmark" );
+        File cache = new File( FileManipulator.getBaseDir(), "work/copy-benchmark" );
+        FileUtils.deleteDirectory( target );
+        FileUtils.deleteDirectory( cache );
+        FileManipulator fileManipulator = new FileManipulator();
+        try
+        {
+            File archive = new File( target, "archive/archive.zip" );
+            FileCopyBenchmark.write( archive, archiveSize * 1024 * 1024, new Random( 0 ) );
+            File tree = new File( target, "tree" );
+            Random random = new Random( 1 );
+            for ( int i = 0; i < treeFiles; i++ )
+            {
+                int size = 1024 + random.nextInt( 16 * 1024 );
+                FileCopyBenchmark.write( new File( tree, "dir" + ( i % 100 ) + "/file" + i + ".class" ), size, random );
+            }
+            System.out.println( "Archive: " + archive.length() + " bytes, tree: " + treeFiles + " files, "
+                                    + FileUtils.sizeOfDirectory( tree ) + " bytes" );
+            FileUtils.copyDirectory( target, cache );
+
+            String[] sources = new String[]{ "archive", "tree" };
+            for ( int i = 0; i < sources.length; i++ )
+            {
+                File src = new File( target, sources[i] );
+                FileCopyBenchmark.run( sources[i] + " vfs", fileManipulator, src, new File( target, "vfs" ), true,
+                                       iterations, warmups );
+                FileCopyBenchmark.run( sources[i] + " channels", fileManipulator, src, new File( target, "channels" ),
+                                       false, iterations, warmups );
+                FileCopyBenchmark.run( sources[i] + " link", fileManipulator, new File( cache, sources[i] ),
+                                       new File( cache, "link" ), false, iterations, warmups );
+            }
+        }
+        finally
+        {
+            fileManipulator.close();
+            FileUtils.deleteDirectory( target );
+            FileUtils.deleteDirectory( cache );
+        }
+    }
+
+    /**
+     * Time the copy of a local directory.
+     *
+     * @param name            the benchmark case name.
+     * @param fileManipulator the file manipulator.
+     * @param src             the source directory.
+     * @param dest            the destination directory, deleted before each copy.
+     * @param vfs             true to copy with VFS, false to copy with <code>FileManipulator.copy()</code>.
+     * @param iterations      the number of measured iterations.
+     * @param warmups         the number of warm-up iterations.
+     */
+    private static void run( String name, FileManipulator fileManipulator, File src, File dest, boolean vfs,
+                             int iterations, int warmups )
+        throws Exception
+    {
+        for ( int i = 0; i < warmups; i++ )
+        {
+            FileUtils.deleteDirectory( dest );
+            FileCopyBenchmark.copy( fileManipulator, src, dest, vfs );
+        }
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for ( int i = 0; i < iterations; i++ )
+        {
+            FileUtils.deleteDirectory( dest );
+            // don't measure the garbage of the previous copy
+            System.gc();
+            long start = System.nanoTime();
+            FileCopyBenchmark.copy( fileManipulator, src, dest, vfs );
+            long time = System.nanoTime() - start;
+            total = total + time;
+            min = Math.min( min, time );
+            max = Math.max( max, time );
+        }
+        FileUtils.deleteDirectory( dest );
+        System.out.println( name + ": " + ( total / iterations / 1000000 ) + " ms per copy (min " + ( min / 1000000 )
+                                + " ms, max " + ( max / 1000000 ) + " ms, " + iterations + " iterations after "
+                                + warmups + " warm-ups)" );
+    }
+
+    private static void copy( FileManipulator fileManipulator, File src, File dest, boolean vfs )
+        throws Exception
+    {
+        if ( vfs )
+        {
+            FileObject srcFile = fileManipulator.resolveFile( src.getPath() );
+            FileObject destFile = fileManipulator.resolveFile( dest.getPath() );
+            try
+            {
+                destFile.createFolder();
+                destFile.copyFrom( srcFile, Selectors.SELECT_ALL );
+            }
+            finally
+            {
+                srcFile.close();
+                destFile.close();
+            }
+        }
+        else
+        {
+            fileManipulator.copy( src.getPath(), dest.getPath() );
+        }
+    }
+
+    /**
+     * Write a file with random content.
+     *
+     * @param file   the file to write.
+     * @param size   the file size.
+     * @param random the random content generator.
+     */
+    private static void write( File file, int size, Random random )
+        throws Exception
+    {
+        file.getParentFile().mkdirs();
+        byte[] buffer = new byte[64 * 1024];
+        OutputStream outputStream = null;
+        try
+        {
+            outputStream = new FileOutputStream( file );
+            for ( int written = 0; written < size; written = written + buffer.length )
+            {
+                random.nextBytes( buffer );
+                outputStream.write( buffer, 0, Math.min( buffer.length, size - written ) );
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly( outputStream );
+        }
+    }
+
+}
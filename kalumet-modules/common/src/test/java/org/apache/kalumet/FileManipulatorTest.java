@@ -18,9 +18,11 @@
  */
 package org.apache.kalumet;
 
+import org.apache.axis.encoding.Base64;
 import org.apache.catalina.Context;
 import org.apache.catalina.startup.Tomcat;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -30,10 +32,15 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests on the <code>FileManipulator</code>.
@@ -52,6 +59,10 @@ public class FileManipulatorTest
         throws Exception
     {
         fileManipulator = new FileManipulator();
+        version = "1";
+        contentMd5 = null;
+        failingRange = -1;
+        RANGES.set( 0 );
         tomcat = new Tomcat();
         tomcat.setBaseDir( System.getProperty( "java.io.tmpdir" ) );
         tomcat.setPort( 0 );
@@ -67,6 +78,22 @@ public class FileManipulatorTest
 
     }
 
+    // version of the served files, part of their ETag
+    private static volatile String version;
+
+    // Content-MD5 of the served files, null to not send it
+    private static volatile String contentMd5;
+
+    // start of the range failing with a server error, -1 for none
+    private static volatile long failingRange;
+
+    // number of range requests served
+    private static final AtomicInteger RANGES = new AtomicInteger();
+
+    /**
+     * Serve the test files, honouring the <code>Range</code> and
+     * <code>If-Range</code> headers like an artifact repository.
+     */
     private static class SimpleGetServlet
         extends HttpServlet
     {
@@ -74,15 +101,68 @@ public class FileManipulatorTest
         protected void doGet( HttpServletRequest req, HttpServletResponse resp )
             throws ServletException, IOException
         {
+            String basedir = System.getProperty( "basedir" );
+            File f = null;
             if ( req.getPathInfo().endsWith( "LICENSE" ) )
             {
-                String basedir = System.getProperty( "basedir" );
-                File f = new File( basedir, "src/test/resources/LICENSE" );
-                IOUtils.copy( new FileInputStream( f ), resp.getOutputStream() );
+                f = new File( basedir, "src/test/resources/LICENSE" );
+            }
+            else if ( req.getPathInfo().startsWith( "/files/" ) )
+            {
+                f = new File( basedir, "target/download-test/" + req.getPathInfo().substring( "/files/".length() ) );
+            }
+            if ( f == null || !f.isFile() )
+            {
+                resp.setStatus( 404 );
                 return;
             }
 
-            resp.setStatus( 404 );
+            String eTag = "\"" + f.getName() + "-" + version + "\"";
+            resp.setHeader( "Accept-Ranges", "bytes" );
+            resp.setHeader( "ETag", eTag );
+            if ( contentMd5 != null )
+            {
+                resp.setHeader( "Content-MD5", contentMd5 );
+            }
+            long start = 0;
+            long end = f.length() - 1;
+            String range = req.getHeader( "Range" );
+            String ifRange = req.getHeader( "If-Range" );
+            // the whole file is sent if it has changed since the If-Range validator
+            if ( range != null && range.startsWith( "bytes=" ) && ( ifRange == null || ifRange.equals( eTag ) ) )
+            {
+                String[] bounds = range.substring( "bytes=".length() ).split( "-" );
+                start = Long.parseLong( bounds[0] );
+                if ( bounds.length > 1 )
+                {
+                    end = Math.min( Long.parseLong( bounds[1] ), end );
+                }
+                RANGES.incrementAndGet();
+                if ( start == failingRange )
+                {
+                    resp.setStatus( 500 );
+                    return;
+                }
+                resp.setStatus( 206 );
+                resp.setHeader( "Content-Range", "bytes " + start + "-" + end + "/" + f.length() );
+            }
+            resp.setContentLength( (int) ( end - start + 1 ) );
+            RandomAccessFile file = new RandomAccessFile( f, "r" );
+            try
+            {
+                file.seek( start );
+                byte[] buffer = new byte[64 * 1024];
+                for ( long remaining = end - start + 1; remaining > 0; )
+                {
+                    int read = file.read( buffer, 0, (int) Math.min( buffer.length, remaining ) );
+                    resp.getOutputStream().write( buffer, 0, read );
+                    remaining = remaining - read;
+                }
+            }
+            finally
+            {
+                file.close();
+            }
         }
     }
 
@@ -95,6 +175,53 @@ public class FileManipulatorTest
 
     }
 
+    /**
+     * Create a served test file with a random content.
+     *
+     * @param name the file name.
+     * @param size the file size.
+     * @return the created file.
+     */
+    private static File createFile( String name, int size )
+        throws IOException
+    {
+        File file = new File( System.getProperty( "basedir" ), "target/download-test/" + name );
+        byte[] content = new byte[size];
+        new Random().nextBytes( content );
+        FileUtils.writeByteArrayToFile( file, content );
+        return file;
+    }
+
+    private String getUrl( File file )
+    {
+        return "http://localhost:" + port + "/repos/files/" + file.getName();
+    }
+
+    /**
+     * Download a file with a failing chunk: the download fails and the
+     * partial file is kept to be resumed.
+     *
+     * @param url  the file URL.
+     * @param dest the local destination file.
+     */
+    private static void interruptedDownload( String url, File dest )
+    {
+        dest.delete();
+        failingRange = Downloader.CHUNK_SIZE;
+        try
+        {
+            new Downloader( 4, 0 ).download( url, dest );
+            fail( "The download with a failing chunk must fail" );
+        }
+        catch ( IOException ioException )
+        {
+            // expected
+        }
+        assertEquals( false, dest.exists() );
+        assertEquals( true, new File( dest.getPath() + ".part" ).exists() );
+        assertEquals( true, new File( dest.getPath() + ".part.properties" ).exists() );
+    }
+
     @Test
     public void testProtocolPrefix()
         throws Exception
@@ -124,6 +251,173 @@ public class FileManipulatorTest
             "http://localhost:" + port + "/repos/asf/incubator/kalumet/trunk/LICENSE" ) );
     }
 
+    @Test
+    public void testChecksumCompare()
+        throws Exception
+    {
+        String basedir = System.getProperty( "basedir" );
+        assertEquals( true, fileManipulator.checksumEquals(
+            "http://localhost:" + port + "/repos/asf/incubator/kalumet/trunk/LICENSE",
+            new File( basedir, "src/test/resources/LICENSE" ).getPath() ) );
+        assertEquals( false, fileManipulator.checksumEquals(
+            "http://localhost:" + port + "/repos/asf/incubator/kalumet/trunk/LICENSE",
+            new File( basedir, "src/test/resources/kalumet.xml" ).getPath() ) );
+    }
+
+    @Test
+    public void testLocalCopy()
+        throws Exception
+    {
+        String basedir = System.getProperty( "basedir" );
+        File license = new File( basedir, "src/test/resources/LICENSE" );
+        File src = new File( basedir, "target/copy/src" );
+        File dest = new File( basedir, "target/copy/dest" );
+        FileUtils.deleteDirectory( src.getParentFile() );
+        src.mkdirs();
+        fileManipulator.copy( license.getPath(), src.getPath() );
+        assertEquals( true, FileUtils.contentEquals( license, new File( src, "LICENSE" ) ) );
+        fileManipulator.copy( src.getPath(), dest.getPath() );
+        assertEquals( true, FileUtils.contentEquals( license, new File( dest, "LICENSE" ) ) );
+        // the files with the same size and last modification time are not copied again
+        File copy = new File( dest, "LICENSE" );
+        long lastModified = copy.lastModified();
+        FileUtils.writeStringToFile( copy, StringUtils.repeat( "-", (int) copy.length() ) );
+        copy.setLastModified( lastModified );
+        fileManipulator.copy( src.getPath(), dest.getPath() );
+        assertEquals( false, FileUtils.contentEquals( license, copy ) );
+    }
+
+    @Test
+    public void testCacheCopy()
+        throws Exception
+    {
+        String basedir = System.getProperty( "basedir" );
+        File license = new File( basedir, "src/test/resources/LICENSE" );
+        File cache = new File( FileManipulator.getBaseDir(), "work/copy-test" );
+        File src = new File( cache, "src" );
+        File dest = new File( cache, "dest" );
+        FileUtils.deleteDirectory( cache );
+        try
+        {
+            src.mkdirs();
+            fileManipulator.copy( license.getPath(), src.getPath() );
+            // the cache files are linked, a linked file changed doesn't change the other one
+            fileManipulator.copy( src.getPath(), dest.getPath() );
+            assertEquals( true, FileUtils.contentEquals( license, new File( dest, "LICENSE" ) ) );
+            FileManipulator.searchAndReplace( new File( dest, "LICENSE" ).getPath(), "Apache", "Kalumet" );
+            assertEquals( false, FileUtils.contentEquals( license, new File( dest, "LICENSE" ) ) );
+            assertEquals( true, FileUtils.contentEquals( license, new File( src, "LICENSE" ) ) );
+        }
+        finally
+        {
+            FileUtils.deleteDirectory( cache );
+        }
+    }
+
+    @Test
+    public void testDownload()
+        throws Exception
+    {
+        String basedir = System.getProperty( "basedir" );
+        File dest = new File( basedir, "target/download" );
+        FileUtils.deleteDirectory( dest );
+        dest.mkdirs();
+        fileManipulator.copy( "http://localhost:" + port + "/repos/asf/incubator/kalumet/trunk/LICENSE",
+                              dest.getPath() );
+        assertEquals( true, FileUtils.contentEquals( new File( basedir, "src/test/resources/LICENSE" ),
+                                                     new File( dest, "LICENSE" ) ) );
+        assertEquals( false, new File( dest, "LICENSE.part" ).exists() );
+    }
+
+    @Test
+    public void testChunkedDownload()
+        throws Exception
+    {
+        File src = FileManipulatorTest.createFile( "chunked.bin", (int) ( 2 * Downloader.CHUNK_SIZE + 1000 ) );
+        File dest = new File( src.getParentFile(), "dest/chunked.bin" );
+        new Downloader( 4, 0 ).download( this.getUrl( src ), dest );
+        assertEquals( true, FileUtils.contentEquals( src, dest ) );
+        // one range request per chunk
+        assertEquals( 3, RANGES.get() );
+        assertEquals( false, new File( dest.getPath() + ".part" ).exists() );
+        assertEquals( false, new File( dest.getPath() + ".part.properties" ).exists() );
+    }
+
+    @Test
+    public void testResumedDownload()
+        throws Exception
+    {
+        File src = FileManipulatorTest.createFile( "resumed.bin", (int) ( 2 * Downloader.CHUNK_SIZE + 1000 ) );
+        File dest = new File( src.getParentFile(), "dest/resumed.bin" );
+        FileManipulatorTest.interruptedDownload( this.getUrl( src ), dest );
+        // only the missing chunk is downloaded
+        failingRange = -1;
+        RANGES.set( 0 );
+        new Downloader( 4, 0 ).download( this.getUrl( src ), dest );
+        assertEquals( 1, RANGES.get() );
+        assertEquals( true, FileUtils.contentEquals( src, dest ) );
+        assertEquals( false, new File( dest.getPath() + ".part" ).exists() );
+        assertEquals( false, new File( dest.getPath() + ".part.properties" ).exists() );
+    }
+
+    @Test
+    public void testChangedRemoteFile()
+        throws Exception
+    {
+        File src = FileManipulatorTest.createFile( "changed.bin", (int) ( 2 * Downloader.CHUNK_SIZE + 1000 ) );
+        File dest = new File( src.getParentFile(), "dest/changed.bin" );
+        FileManipulatorTest.interruptedDownload( this.getUrl( src ), dest );
+        // the remote file has a new validator, the downloaded chunks are dropped
+        src = FileManipulatorTest.createFile( "changed.bin", (int) ( 2 * Downloader.CHUNK_SIZE + 1000 ) );
+        version = "2";
+        failingRange = -1;
+        RANGES.set( 0 );
+        new Downloader( 4, 0 ).download( this.getUrl( src ), dest );
+        assertEquals( 3, RANGES.get() );
+        assertEquals( true, FileUtils.contentEquals( src, dest ) );
+    }
+
+    @Test
+    public void testContentMd5()
+        throws Exception
+    {
+        File src = FileManipulatorTest.createFile( "md5.bin", 100000 );
+        File dest = new File( src.getParentFile(), "dest/md5.bin" );
+        MessageDigest messageDigest = MessageDigest.getInstance( "MD5" );
+        contentMd5 = Base64.encode( messageDigest.digest( FileUtils.readFileToByteArray( src ) ) );
+        new Downloader( 4, 0 ).download( this.getUrl( src ), dest );
+        assertEquals( true, FileUtils.contentEquals( src, dest ) );
+        // the downloaded file doesn't match the Content-MD5, it's dropped
+        dest.delete();
+        contentMd5 = Base64.encode( messageDigest.digest( "other".getBytes() ) );
+        try
+        {
+            new Downloader( 4, 0 ).download( this.getUrl( src ), dest );
+            fail( "The download of a file not matching its Content-MD5 must fail" );
+        }
+        catch ( IOException ioException )
+        {
+            // expected
+        }
+        assertEquals( false, dest.exists() );
+        assertEquals( false, new File( dest.getPath() + ".part" ).exists() );
+        assertEquals( false, new File( dest.getPath() + ".part.properties" ).exists() );
+    }
+
+    @Test
+    public void testThrottledDownload()
+        throws Exception
+    {
+        File src = FileManipulatorTest.createFile( "throttled.bin", 200 * 1024 );
+        File dest = new File( src.getParentFile(), "dest/throttled.bin" );
+        long start = System.currentTimeMillis();
+        // 200 KB at 100 KB/s
+        new Downloader( 4, 100 ).download( this.getUrl( src ), dest );
+        long time = System.currentTimeMillis() - start;
+        assertEquals( true, FileUtils.contentEquals( src, dest ) );
+        assertTrue( "Download in " + time + " ms", time >= 1500 );
+    }
+
     @Test
     public void testExists()
         throws Exception
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Benchmark of the StAX and Digester parsers of the Kalumet XML.
+ * <p/>
+ * It's not a unit test (not run by the build): the test configuration is
+ * inflated with copies of its environments and parsed by both parsers. Each
+ * parser is warmed up (to let the JIT compile the parsing code) before the
+ * measured iterations, and the mean, min and max parse times are reported.
+ * Usage (from the common module directory, with the test classpath):
+ * <code>java org.apache.kalumet.model.KalumetParserBenchmark [environments] [iterations] [warmups]</code>
+ */
+public class KalumetParserBenchmark
+{
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int environments = ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 1000;
+        int iterations = ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 10;
+        int warmups = ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 5;
+
+        // inflate the test configuration
+        Kalumet kalumet = Kalumet.digeste( "file:./src/test/resources/kalumet.xml" );
+        LinkedList templates = new LinkedList( kalumet.getEnvironments() );
+        for ( int i = 0; i < environments; i++ )
+        {
+            for ( Iterator iterator = templates.iterator(); iterator.hasNext(); )
+            {
+                Environment environment = (Environment) ( (Environment) iterator.next() ).clone();
+                environment.setName( environment.getName() + "_" + i );
+                kalumet.addEnvironment( environment );
+            }
+        }
+        File file = new File( "./target/kalumet-benchmark.xml" );
+        kalumet.writeXMLFile( "file:" + file.getPath() );
+        byte[] xml = FileUtils.readFileToByteArray( file );
+        System.out.println( "Kalumet XML: " + kalumet.getEnvironments().size() + " environments, " + xml.length
+                                + " bytes" );
+
+        try
+        {
+            KalumetParserBenchmark.run( "digester", xml, iterations, warmups );
+            KalumetParserBenchmark.run( "stax", xml, iterations, warmups );
+        }
+        finally
+        {
+            System.clearProperty( Kalumet.PARSER_PROPERTY );
+        }
+    }
+
+    private static void run( String parser, byte[] xml, int iterations, int warmups )
+        throws Exception
+    {
+        System.setProperty( Kalumet.PARSER_PROPERTY, parser );
+        for ( int i = 0; i < warmups; i++ )
+        {
+            Kalumet.digeste( new ByteArrayInputStream( xml ) );
+        }
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for ( int i = 0; i < iterations; i++ )
+        {
+            // don't measure the garbage of the previous parse
+            System.gc();
+            long start = System.nanoTime();
+            Kalumet.digeste( new ByteArrayInputStream( xml ) );
+            long time = System.nanoTime() - start;
+            total = total + time;
+            min = Math.min( min, time );
+            max = Math.max( max, time );
+        }
+        System.out.println( parser + ": " + ( total / iterations / 1000000 ) + " ms per parse (min " + ( min / 1000000 )
+                                + " ms, max " + ( max / 1000000 ) + " ms, " + iterations + " iterations after "
+                                + warmups + " warm-ups)" );
+    }
+
+}
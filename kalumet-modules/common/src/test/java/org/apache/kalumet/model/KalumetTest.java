@@ -18,12 +18,20 @@
  */
 package org.apache.kalumet.model;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Unit tests on the Kalumet model.
@@ -79,6 +87,11 @@ public class KalumetTest
         assertEquals( "0 * * * * *", agent.getCron() );
         assertEquals( 5, agent.getMaxmanagedenvironments() );
         assertEquals( 3, agent.getMaxjeeapplicationserversstarted() );
+        assertEquals( 2, agent.getMaxparallelupdates() );
+        assertEquals( 2, agent.getMinwsthreads() );
+        assertEquals( 20, agent.getMaxwsthreads() );
+        assertEquals( 4, agent.getDownloadthreads() );
+        assertEquals( 1024, agent.getDownloadbandwidth() );
     }
 
     @Test
@@ -309,4 +322,219 @@ public class KalumetTest
         assertEquals( "http://www.example.com/test?test=test&other=other", software.getUri() );
     }
 
+    @Test
+    public void testParsersEquality()
+        throws Exception
+    {
+        LOGGER.info( "Compare the StAX and Digester parsers" );
+        try
+        {
+            System.setProperty( Kalumet.PARSER_PROPERTY, "digester" );
+            Kalumet.digeste( "file:./src/test/resources/kalumet.xml" ).writeXMLFile( "file:./target/kalumet-digester.xml" );
+            System.setProperty( Kalumet.PARSER_PROPERTY, "stax" );
+            Kalumet.digeste( "file:./src/test/resources/kalumet.xml" ).writeXMLFile( "file:./target/kalumet-stax.xml" );
+        }
+        finally
+        {
+            System.clearProperty( Kalumet.PARSER_PROPERTY );
+        }
+        assertEquals( FileUtils.readFileToString( new File( "./target/kalumet-digester.xml" ) ),
+                      FileUtils.readFileToString( new File( "./target/kalumet-stax.xml" ) ) );
+    }
+
+    @Test
+    public void testPartialEnvironmentUnmarshalling()
+        throws Exception
+    {
+        String[] parsers = new String[]{ "digester", "stax" };
+        try
+        {
+            for ( int i = 0; i < parsers.length; i++ )
+            {
+                LOGGER.info( "Digeste only the test_auto environment with the {} parser", parsers[i] );
+                System.setProperty( Kalumet.PARSER_PROPERTY, parsers[i] );
+                Kalumet kalumet = Kalumet.digesteEnvironment( "file:./src/test/resources/kalumet.xml", "test_auto" );
+                assertEquals( 1, kalumet.getEnvironments().size() );
+                assertEquals( "TEST", kalumet.getEnvironment( "test_auto" ).getGroup() );
+                assertEquals( "localhost", kalumet.getAgent( "test" ).getHostname() );
+                assertEquals( "test", kalumet.getProperty( "test" ).getValue() );
+                assertEquals( 0, kalumet.getSecurity().getUsers().size() );
+                kalumet = Kalumet.digesteEnvironment( "file:./src/test/resources/kalumet.xml", "other" );
+                assertEquals( 0, kalumet.getEnvironments().size() );
+                assertEquals( "localhost", kalumet.getAgent( "test" ).getHostname() );
+            }
+        }
+        finally
+        {
+            System.clearProperty( Kalumet.PARSER_PROPERTY );
+        }
+    }
+
+    @Test
+    public void testSnapshot()
+        throws Exception
+    {
+        LOGGER.info( "Write and read the binary snapshot" );
+        Kalumet kalumet = Kalumet.digeste( "file:./src/test/resources/kalumet.xml" );
+        kalumet.writeXMLFile( "file:./target/kalumet-snapshot.xml" );
+        kalumet.writeSnapshotFile( "file:./target/kalumet-snapshot.xml" );
+        assertTrue( new File( "./target/kalumet-snapshot.xml.snapshot" ).exists() );
+        Kalumet.digeste( "file:./target/kalumet-snapshot.xml" ).writeXMLFile( "file:./target/kalumet-snapshot-read.xml" );
+        assertEquals( FileUtils.readFileToString( new File( "./target/kalumet-snapshot.xml" ) ),
+                      FileUtils.readFileToString( new File( "./target/kalumet-snapshot-read.xml" ) ) );
+        // the XML file and the snapshot written together
+        new File( "./target/kalumet-snapshot.xml.snapshot" ).delete();
+        kalumet.writeXMLFile( "file:./target/kalumet-snapshot.xml", false, true );
+        assertNotNull( KalumetSnapshot.read( new File( "./target/kalumet-snapshot.xml" ) ) );
+    }
+
+    @Test
+    public void testLookups()
+        throws Exception
+    {
+        LOGGER.info( "Lookup environments in a large store" );
+        Kalumet kalumet = new Kalumet();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            Environment environment = new Environment();
+            environment.setName( "env" + i );
+            kalumet.addEnvironment( environment );
+        }
+        long start = System.currentTimeMillis();
+        for ( int i = 0; i < 10000; i++ )
+        {
+            assertEquals( "env" + i, kalumet.getEnvironment( "env" + i ).getName() );
+        }
+        LOGGER.info( "10000 environment lookups done in {} ms", new Long( System.currentTimeMillis() - start ) );
+        kalumet.getEnvironment( "env42" ).setName( "renamed" );
+        assertEquals( null, kalumet.getEnvironment( "env42" ) );
+        assertEquals( "renamed", kalumet.getEnvironment( "renamed" ).getName() );
+        // the renamings in another list don't affect the environments index
+        Agent agent = new Agent();
+        agent.setId( "agent" );
+        kalumet.addAgent( agent );
+        assertEquals( agent, kalumet.getAgent( "agent" ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            agent.setId( "agent" + i );
+        }
+        assertEquals( null, kalumet.getAgent( "agent" ) );
+        assertEquals( agent, kalumet.getAgent( "agent99" ) );
+        assertEquals( "env44", kalumet.getEnvironment( "env44" ).getName() );
+        kalumet.getEnvironments().remove( kalumet.getEnvironment( "env43" ) );
+        assertEquals( null, kalumet.getEnvironment( "env43" ) );
+        assertEquals( 9999, kalumet.getEnvironments().size() );
+        assertEquals( "env0", ( (Environment) kalumet.getEnvironments().get( 0 ) ).getName() );
+        // a renamed environment shared by a copy is renamed in both indexes
+        Kalumet copy = kalumet.copy();
+        assertEquals( "env45", copy.getEnvironment( "env45" ).getName() );
+        kalumet.getEnvironment( "env45" ).setName( "shared" );
+        assertEquals( null, copy.getEnvironment( "env45" ) );
+        assertEquals( "shared", copy.getEnvironment( "shared" ).getName() );
+        assertEquals( "shared", kalumet.getEnvironment( "shared" ).getName() );
+    }
+
+    @Test
+    public void testEnvironmentsIndexes()
+        throws Exception
+    {
+        LOGGER.info( "Check the environments indexes after modifications" );
+        Kalumet kalumet = Kalumet.digeste( "file:./src/test/resources/kalumet.xml" );
+        assertEquals( 1, kalumet.getEnvironmentsByAgent( "test" ).size() );
+        assertEquals( 1, kalumet.getUserEnvironments( "test" ).size() );
+        assertEquals( 1, ( (List) kalumet.getEnvironmentsByGroups().get( "TEST" ) ).size() );
+        kalumet.getEnvironment( "test_auto" ).setAgent( "other" );
+        assertEquals( 0, kalumet.getEnvironmentsByAgent( "test" ).size() );
+        assertEquals( 1, kalumet.getEnvironmentsByAgent( "other" ).size() );
+        kalumet.getSecurity().getGroup( "test" ).getUsers().clear();
+        assertEquals( 0, kalumet.getUserEnvironments( "test" ).size() );
+        assertEquals( 1, kalumet.getUserEnvironments( "admin" ).size() );
+        // the changes of the nested model objects are seen by the indexes
+        User user = new User();
+        user.setId( "other" );
+        kalumet.getSecurity().getGroup( "test" ).addUser( user );
+        assertEquals( 1, kalumet.getUserEnvironments( "other" ).size() );
+        user.setId( "renamed" );
+        assertEquals( 0, kalumet.getUserEnvironments( "other" ).size() );
+        assertEquals( 1, kalumet.getUserEnvironments( "renamed" ).size() );
+        Access access = (Access) kalumet.getEnvironment( "test_auto" ).getAccesses().get( 0 );
+        access.setGroup( "none" );
+        assertEquals( 0, kalumet.getUserEnvironments( "renamed" ).size() );
+        kalumet.getEnvironment( "test_auto" ).setGroup( "OTHER" );
+        assertEquals( null, kalumet.getEnvironmentsByGroups().get( "TEST" ) );
+    }
+
+    @Test
+    public void testCopy()
+        throws Exception
+    {
+        LOGGER.info( "Edit a copy of the Kalumet configuration" );
+        Kalumet kalumet = Kalumet.digeste( "file:./src/test/resources/kalumet.xml" );
+        Kalumet copy = kalumet.copy();
+        assertTrue( kalumet.getAgent( "test" ) == copy.getAgent( "test" ) );
+        copy.editEnvironment( "test_auto" ).setLock( "other" );
+        copy.getSecurity().editUser( "test" ).setName( "Other" );
+        assertEquals( "test", kalumet.getEnvironment( "test_auto" ).getLock() );
+        assertEquals( "other", copy.getEnvironment( "test_auto" ).getLock() );
+        assertEquals( "Test Test", kalumet.getSecurity().getUser( "test" ).getName() );
+        copy.getEnvironments().clear();
+        assertEquals( 1, kalumet.getEnvironments().size() );
+        // the indexes shared with the copy follow the modifications of each configuration
+        assertEquals( 0, copy.getUserEnvironments( "test" ).size() );
+        assertEquals( 1, kalumet.getUserEnvironments( "test" ).size() );
+        assertEquals( 1, kalumet.copy().getEnvironmentsByAgent( "test" ).size() );
+    }
+
+    @Test
+    public void testConcurrentWrites()
+        throws Exception
+    {
+        LOGGER.info( "Read the Kalumet XML file while writing it" );
+        final Kalumet kalumet = Kalumet.digeste( "file:./src/test/resources/kalumet.xml" );
+        kalumet.writeXMLFile( "file:./target/kalumet-stress.xml" );
+        final List errors = Collections.synchronizedList( new LinkedList() );
+        Thread[] threads = new Thread[8];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            final boolean writer = ( i % 2 == 0 );
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    for ( int j = 0; j < 50; j++ )
+                    {
+                        try
+                        {
+                            if ( writer )
+                            {
+                                kalumet.writeXMLFile( "file:./target/kalumet-stress.xml", true );
+                            }
+                            else
+                            {
+                                Kalumet read = Kalumet.digeste( "file:./target/kalumet-stress.xml" );
+                                if ( read.getEnvironment( "test_auto" ) == null )
+                                {
+                                    errors.add( "Incomplete Kalumet XML file read" );
+                                }
+                            }
+                        }
+                        catch ( Exception e )
+                        {
+                            errors.add( e.getMessage() );
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i].join();
+        }
+        assertEquals( "[]", errors.toString() );
+        assertTrue( new File( "./target/kalumet-stress.xml.backup" ).exists() );
+        assertTrue( new File( "./target/kalumet-stress.xml.backup.2" ).exists() );
+        assertTrue( !new File( "./target/kalumet-stress.xml.backup.3" ).exists() );
+    }
+
 }
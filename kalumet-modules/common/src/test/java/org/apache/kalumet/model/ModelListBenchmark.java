@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.model;
+
+import java.util.LinkedList;
+
+/**
+ * Benchmark of the model containers load and lookups, with the
+ * <code>ModelList</code> index and with a plain list scan.
+ * <p/>
+ * It's not a unit test (not run by the build): a configuration is loaded
+ * with the given number of environments, each environment is looked up by
+ * name, then the same lookups are done on the environments in a plain
+ * <code>LinkedList</code> (scanned by <code>getEnvironment()</code>). Each
+ * case is warmed up before the measured iterations, and the mean, min and
+ * max times are reported.
+ * Usage (from the common module directory, with the test classpath):
+ * <code>java org.apache.kalumet.model.ModelListBenchmark [environments] [iterations] [warmups]</code>
+ */
+public class ModelListBenchmark
+{
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int environments = ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 10000;
+        int iterations = ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 10;
+        int warmups = ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 5;
+
+        System.out.println( "Kalumet model: " + environments + " environments" );
+        ModelListBenchmark.run( "load", environments, iterations, warmups, false );
+        ModelListBenchmark.run( "index lookups", environments, iterations, warmups, true );
+        ModelListBenchmark.run( "scan lookups", environments, Math.max( 1, iterations / 10 ), 1, true );
+    }
+
+    /**
+     * Load a configuration with the given number of environments.
+     *
+     * @param environments the number of environments.
+     * @return the loaded configuration.
+     */
+    private static Kalumet load( int environments )
+        throws Exception
+    {
+        Kalumet kalumet = new Kalumet();
+        for ( int i = 0; i < environments; i++ )
+        {
+            Environment environment = new Environment();
+            environment.setName( "env" + i );
+            environment.setGroup( "group" + ( i % 100 ) );
+            environment.setAgent( "agent" + ( i % 10 ) );
+            kalumet.addEnvironment( environment );
+        }
+        return kalumet;
+    }
+
+    /**
+     * Look up all the environments of a configuration by name.
+     *
+     * @param kalumet      the configuration.
+     * @param environments the number of environments.
+     */
+    private static void lookup( Kalumet kalumet, int environments )
+    {
+        for ( int i = 0; i < environments; i++ )
+        {
+            if ( kalumet.getEnvironment( "env" + i ) == null )
+            {
+                throw new IllegalStateException( "Environment env" + i + " not found" );
+            }
+        }
+    }
+
+    private static void run( String name, int environments, int iterations, int warmups, boolean lookups )
+        throws Exception
+    {
+        Kalumet kalumet = ModelListBenchmark.load( environments );
+        if ( name.startsWith( "scan" ) )
+        {
+            // a plain list is scanned on each lookup
+            kalumet.setEnvironments( new LinkedList( kalumet.getEnvironments() ) );
+        }
+        for ( int i = 0; i < warmups; i++ )
+        {
+            ModelListBenchmark.iterate( kalumet, environments, lookups );
+        }
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for ( int i = 0; i < iterations; i++ )
+        {
+            // don't measure the garbage of the previous iteration
+            System.gc();
+            long start = System.nanoTime();
+            ModelListBenchmark.iterate( kalumet, environments, lookups );
+            long time = System.nanoTime() - start;
+            total = total + time;
+            min = Math.min( min, time );
+            max = Math.max( max, time );
+        }
+        System.out.println( name + ": " + ( total / iterations / 1000 ) + " us per iteration (min " + ( min / 1000 )
+                                + " us, max " + ( max / 1000 ) + " us, " + iterations + " iterations after "
+                                + warmups + " warm-ups)" );
+    }
+
+    private static void iterate( Kalumet kalumet, int environments, boolean lookups )
+        throws Exception
+    {
+        if ( lookups )
+        {
+            ModelListBenchmark.lookup( kalumet, environments );
+        }
+        else
+        {
+            ModelListBenchmark.load( environments );
+        }
+    }
+
+}
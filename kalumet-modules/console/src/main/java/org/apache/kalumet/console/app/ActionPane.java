@@ -25,10 +25,8 @@ import nextapp.echo2.app.Grid;
 import nextapp.echo2.app.Label;
 import nextapp.echo2.app.event.ActionEvent;
 import nextapp.echo2.app.event.ActionListener;
-import org.apache.kalumet.console.configuration.ConfigurationManager;
-import org.apache.kalumet.model.Agent;
-import org.apache.kalumet.model.Kalumet;
-import org.apache.kalumet.ws.client.EnvironmentClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 /**
  * Environment updater pane.
@@ -39,46 +37,6 @@ public class ActionPane
 
     private EnvironmentWindow parent;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the webservice
-                EnvironmentClient webServiceClient = new EnvironmentClient( agent.getHostname(), agent.getPort() );
-                webServiceClient.update( parent.getEnvironmentName() );
-            }
-            catch ( Exception e )
-            {
-                message = "Environment " + parent.getEnvironmentName() + " update failed: " + e.getMessage();
-                failure = true;
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-
-    }
-
     // update
     private ActionListener update = new ActionListener()
     {
@@ -115,36 +73,16 @@ public class ActionPane
                         // put message in the action events column
                         KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                             parent.getEnvironmentName() + " update in progress ...", parent.getEnvironmentName() );
-                        // launch the asynchronous task
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // synchro
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        new UpdateJob( parent.getEnvironment().getAgent(), parent.getEnvironmentName(),
+                                       "Environment " + parent.getEnvironmentName(), null )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentName() );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "Environment " + parent.getEnvironmentName() + " updated.",
-                                            parent.getEnvironmentName() );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitEnvironmentUpdate( parent.getEnvironmentName() );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
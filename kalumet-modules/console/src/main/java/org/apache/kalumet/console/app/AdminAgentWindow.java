@@ -63,6 +63,16 @@ public class AdminAgentWindow
 
     private TextField maxActiveApplicationServersField;
 
+    private TextField maxParallelUpdatesField;
+
+    private TextField minWsThreadsField;
+
+    private TextField maxWsThreadsField;
+
+    private TextField downloadThreadsField;
+
+    private TextField downloadBandwidthField;
+
     // status thread
     class StatusThread
         extends Thread
@@ -144,6 +154,11 @@ public class AdminAgentWindow
             String newCron = cronField.getText().trim();
             String newMaxEnvironments = maxEnvironmentsField.getText().trim();
             String newMaxEnvironmentsActive = maxActiveApplicationServersField.getText().trim();
+            String newMaxParallelUpdates = maxParallelUpdatesField.getText().trim();
+            String newMinWsThreads = minWsThreadsField.getText().trim();
+            String newMaxWsThreads = maxWsThreadsField.getText().trim();
+            String newDownloadThreads = downloadThreadsField.getText().trim();
+            String newDownloadBandwidth = downloadBandwidthField.getText().trim();
 
             // check fields
             if ( newId.length() < 1 )
@@ -180,6 +195,11 @@ public class AdminAgentWindow
             agent.setCron( newCron );
             agent.setMaxmanagedenvironments( new Integer( newMaxEnvironments ).intValue() );
             agent.setMaxjeeapplicationserversstarted( new Integer( newMaxEnvironmentsActive ).intValue() );
+            agent.setMaxparallelupdates( new Integer( newMaxParallelUpdates ).intValue() );
+            agent.setMinwsthreads( new Integer( newMinWsThreads ).intValue() );
+            agent.setMaxwsthreads( new Integer( newMaxWsThreads ).intValue() );
+            agent.setDownloadthreads( new Integer( newDownloadThreads ).intValue() );
+            agent.setDownloadbandwidth( new Integer( newDownloadBandwidth ).intValue() );
             if ( agentId == null || agentId.trim().length() < 1 )
             {
                 // it's a new agent
@@ -211,6 +231,11 @@ public class AdminAgentWindow
             maxEnvironmentsField.setText( new Integer( clone.getMaxmanagedenvironments() ).toString() );
             maxActiveApplicationServersField.setText(
                 new Integer( clone.getMaxjeeapplicationserversstarted() ).toString() );
+            maxParallelUpdatesField.setText( new Integer( clone.getMaxparallelupdates() ).toString() );
+            minWsThreadsField.setText( new Integer( clone.getMinwsthreads() ).toString() );
+            maxWsThreadsField.setText( new Integer( clone.getMaxwsthreads() ).toString() );
+            downloadThreadsField.setText( new Integer( clone.getDownloadthreads() ).toString() );
+            downloadBandwidthField.setText( new Integer( clone.getDownloadbandwidth() ).toString() );
         }
     };
 
@@ -253,7 +278,10 @@ public class AdminAgentWindow
                 "Agent " + agentId + " status check in progress ..." );
             // start the status thread
             final StatusThread statusThread = new StatusThread();
-            statusThread.start();
+            if ( !TaskExecutor.execute( AdminAgentWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -271,7 +299,7 @@ public class AdminAgentWindow
                             KalumetConsoleApplication.getApplication().getLogPane().addConfirm( statusThread.message );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -491,6 +519,51 @@ public class AdminAgentWindow
         maxActiveApplicationServersField.setWidth( new Extent( 15, Extent.EX ) );
         capacityGridLayout.add( maxActiveApplicationServersField );
 
+        // add the max parallel updates field
+        Label agentMaxParallelUpdatesLabel = new Label( Messages.getString( "agent.maxparallelupdates" ) );
+        agentMaxParallelUpdatesLabel.setStyleName( "default" );
+        capacityGridLayout.add( agentMaxParallelUpdatesLabel );
+        maxParallelUpdatesField = new TextField();
+        maxParallelUpdatesField.setStyleName( "default" );
+        maxParallelUpdatesField.setWidth( new Extent( 15, Extent.EX ) );
+        capacityGridLayout.add( maxParallelUpdatesField );
+
+        // add the min WS threads field
+        Label agentMinWsThreadsLabel = new Label( Messages.getString( "agent.minwsthreads" ) );
+        agentMinWsThreadsLabel.setStyleName( "default" );
+        capacityGridLayout.add( agentMinWsThreadsLabel );
+        minWsThreadsField = new TextField();
+        minWsThreadsField.setStyleName( "default" );
+        minWsThreadsField.setWidth( new Extent( 15, Extent.EX ) );
+        capacityGridLayout.add( minWsThreadsField );
+
+        // add the max WS threads field
+        Label agentMaxWsThreadsLabel = new Label( Messages.getString( "agent.maxwsthreads" ) );
+        agentMaxWsThreadsLabel.setStyleName( "default" );
+        capacityGridLayout.add( agentMaxWsThreadsLabel );
+        maxWsThreadsField = new TextField();
+        maxWsThreadsField.setStyleName( "default" );
+        maxWsThreadsField.setWidth( new Extent( 15, Extent.EX ) );
+        capacityGridLayout.add( maxWsThreadsField );
+
+        // add the download threads field
+        Label agentDownloadThreadsLabel = new Label( Messages.getString( "agent.downloadthreads" ) );
+        agentDownloadThreadsLabel.setStyleName( "default" );
+        capacityGridLayout.add( agentDownloadThreadsLabel );
+        downloadThreadsField = new TextField();
+        downloadThreadsField.setStyleName( "default" );
+        downloadThreadsField.setWidth( new Extent( 15, Extent.EX ) );
+        capacityGridLayout.add( downloadThreadsField );
+
+        // add the download bandwidth field
+        Label agentDownloadBandwidthLabel = new Label( Messages.getString( "agent.downloadbandwidth" ) );
+        agentDownloadBandwidthLabel.setStyleName( "default" );
+        capacityGridLayout.add( agentDownloadBandwidthLabel );
+        downloadBandwidthField = new TextField();
+        downloadBandwidthField.setStyleName( "default" );
+        downloadBandwidthField.setWidth( new Extent( 15, Extent.EX ) );
+        capacityGridLayout.add( downloadBandwidthField );
+
         // update the view
         update();
     }
@@ -508,6 +581,11 @@ public class AdminAgentWindow
         maxEnvironmentsField.setText( new Integer( agent.getMaxmanagedenvironments() ).toString() );
         maxActiveApplicationServersField.setText(
             new Integer( agent.getMaxjeeapplicationserversstarted() ).toString() );
+        maxParallelUpdatesField.setText( new Integer( agent.getMaxparallelupdates() ).toString() );
+        minWsThreadsField.setText( new Integer( agent.getMinwsthreads() ).toString() );
+        maxWsThreadsField.setText( new Integer( agent.getMaxwsthreads() ).toString() );
+        downloadThreadsField.setText( new Integer( agent.getDownloadthreads() ).toString() );
+        downloadBandwidthField.setText( new Integer( agent.getDownloadbandwidth() ).toString() );
     }
 
 }
@@ -117,7 +117,7 @@ public class AdminAgentsWindow
                     Messages.getString( "db.read" ) + ": " + e.getMessage() );
                 return;
             }
-            agents = kalumet.getAgents();
+            agents = kalumet.editAgents();
             update();
             KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                 Messages.getString( "agents" ) + " " + Messages.getString( "reloaded" ) );
@@ -251,7 +251,10 @@ public class AdminAgentsWindow
             // start the status thread
             final StatusThread statusThread = new StatusThread();
             statusThread.id = event.getActionCommand();
-            statusThread.start();
+            if ( !TaskExecutor.execute( AdminAgentsWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -269,7 +272,7 @@ public class AdminAgentsWindow
                             KalumetConsoleApplication.getApplication().getLogPane().addConfirm( statusThread.message );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -307,7 +310,7 @@ public class AdminAgentsWindow
                 Messages.getString( "db.read" ) + ": " + e.getMessage() );
             return;
         }
-        this.agents = kalumet.getAgents();
+        this.agents = kalumet.editAgents();
         Collections.sort( this.agents );
 
         setTitle( Messages.getString( "agents" ) );
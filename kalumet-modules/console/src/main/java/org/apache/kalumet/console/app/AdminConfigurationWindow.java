@@ -121,7 +121,7 @@ public class AdminConfigurationWindow
                     // ignore
                 }
             }
-            kalumet.getProperty( "LogEventAppender" ).setValue( logEventAppender );
+            kalumet.editProperty( "LogEventAppender" ).setValue( logEventAppender );
             // ldap authentification
             Property ldapAuthentificationProperty = kalumet.getProperty( "LdapAuthentication" );
             if ( ldapAuthentificationProperty == null )
@@ -139,11 +139,11 @@ public class AdminConfigurationWindow
             }
             if ( ldapAuthentification == 0 )
             {
-                kalumet.getProperty( "LdapAuthentication" ).setValue( "true" );
+                kalumet.editProperty( "LdapAuthentication" ).setValue( "true" );
             }
             else
             {
-                kalumet.getProperty( "LdapAuthentication" ).setValue( "false" );
+                kalumet.editProperty( "LdapAuthentication" ).setValue( "false" );
             }
             // ldap server
             Property ldapServerProperty = kalumet.getProperty( "LdapServer" );
@@ -160,7 +160,7 @@ public class AdminConfigurationWindow
                     // ignore
                 }
             }
-            kalumet.getProperty( "LdapServer" ).setValue( ldapServer );
+            kalumet.editProperty( "LdapServer" ).setValue( ldapServer );
             // ldap base DN
             Property ldapBaseDNProperty = kalumet.getProperty( "LdapBaseDN" );
             if ( ldapBaseDNProperty == null )
@@ -176,7 +176,7 @@ public class AdminConfigurationWindow
                     // ignore
                 }
             }
-            kalumet.getProperty( "LdapBaseDN" ).setValue( ldapBaseDN );
+            kalumet.editProperty( "LdapBaseDN" ).setValue( ldapBaseDN );
             // ldap uid attribute
             Property ldapUidAttributeProperty = kalumet.getProperty( "LdapUidAttribute" );
             if ( ldapUidAttributeProperty == null )
@@ -192,7 +192,7 @@ public class AdminConfigurationWindow
                     // ignore
                 }
             }
-            kalumet.getProperty( "LdapUidAttribute" ).setValue( ldapUidAttribute );
+            kalumet.editProperty( "LdapUidAttribute" ).setValue( ldapUidAttribute );
             // ldap mail attribute
             Property ldapMailAttributeProperty = kalumet.getProperty( "LdapMailAttribute" );
             if ( ldapMailAttributeProperty == null )
@@ -208,7 +208,7 @@ public class AdminConfigurationWindow
                     // ignore
                 }
             }
-            kalumet.getProperty( "LdapMailAttribute" ).setValue( ldapMailAttribute );
+            kalumet.editProperty( "LdapMailAttribute" ).setValue( ldapMailAttribute );
             // ldap cn attribute
             Property ldapCnAttributeProperty = kalumet.getProperty( "LdapCnAttribute" );
             if ( ldapCnAttributeProperty == null )
@@ -76,7 +76,7 @@ public class AdminGroupsWindow
                     Messages.getString( "db.read" ) + ": " + e.getMessage() );
                 return;
             }
-            groups = kalumet.getSecurity().getGroups();
+            groups = kalumet.getSecurity().editGroups();
             update();
             KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                 Messages.getString( "groups" ) + " " + Messages.getString( "reloaded" ) );
@@ -205,7 +205,7 @@ public class AdminGroupsWindow
             this.userClose();
             return;
         }
-        this.groups = kalumet.getSecurity().getGroups();
+        this.groups = kalumet.getSecurity().editGroups();
         Collections.sort( this.groups );
 
         setTitle( Messages.getString( "groups" ) );
@@ -77,7 +77,7 @@ public class AdminUsersWindow
                     Messages.getString( "db.read" ) + ": " + e.getMessage() );
                 return;
             }
-            users = kalumet.getSecurity().getUsers();
+            users = kalumet.getSecurity().editUsers();
             update();
             KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                 Messages.getString( "users" ) + " " + Messages.getString( "reloaded" ) );
@@ -206,7 +206,7 @@ public class AdminUsersWindow
             this.userClose();
             return;
         }
-        this.users = kalumet.getSecurity().getUsers();
+        this.users = kalumet.getSecurity().editUsers();
         Collections.sort( this.users );
 
         setTitle( Messages.getString( "users" ) );
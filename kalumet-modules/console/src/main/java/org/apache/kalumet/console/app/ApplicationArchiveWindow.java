@@ -38,6 +38,8 @@ import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Archive;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.ws.client.ArchiveClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Iterator;
 
@@ -137,49 +139,6 @@ public class ApplicationArchiveWindow
         }
     }
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent(
-                    parent.getParentPane().getParentPane().getEnvironmentWindow().getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the web service
-                ArchiveClient client = new ArchiveClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getParentPane().getParentPane().getEnvironmentWindow().getEnvironmentName(),
-                               parent.getParentPane().getServerName(), parent.getParentPane().getApplicationName(),
-                               archiveName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "JEE application " + parent.getParentPane().getApplicationName() + " archive " + archiveName
-                    + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // refresh
     private ActionListener refresh = new ActionListener()
     {
@@ -453,7 +412,10 @@ public class ApplicationArchiveWindow
                     + " status check requested." );
             // launch the status thread
             final StatusThread statusThread = new StatusThread();
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationArchiveWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -475,7 +437,7 @@ public class ApplicationArchiveWindow
                         parent.getParentPane().getParentPane().getEnvironmentWindow().getChangeEvents().add(
                             statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -530,43 +492,23 @@ public class ApplicationArchiveWindow
                         parent.getParentPane().getParentPane().getEnvironmentWindow().getChangeEvents().add(
                             "JEE application " + parent.getParentPane().getApplicationName() + " archive " + archiveName
                                 + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        final EnvironmentWindow environmentWindow =
+                            parent.getParentPane().getParentPane().getEnvironmentWindow();
+                        final String applicationName = parent.getParentPane().getApplicationName();
+                        new UpdateJob( environmentWindow.getEnvironment().getAgent(),
+                                       environmentWindow.getEnvironmentName(),
+                                       "JEE application " + applicationName + " archive " + archiveName,
+                                       environmentWindow.getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message,
-                                            parent.getParentPane().getParentPane().getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getParentPane().getParentPane().getEnvironmentWindow().getChangeEvents().add(
-                                            updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application " + parent.getParentPane().getApplicationName()
-                                                + " archive " + archiveName + " updated.",
-                                            parent.getParentPane().getParentPane().getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getParentPane().getParentPane().getEnvironmentWindow().getChangeEvents().add(
-                                            "JEE application " + parent.getParentPane().getApplicationName()
-                                                + " archive " + archiveName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitArchiveUpdate( environmentWindow.getEnvironmentName(),
+                                                                   parent.getParentPane().getServerName(),
+                                                                   applicationName, archiveName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
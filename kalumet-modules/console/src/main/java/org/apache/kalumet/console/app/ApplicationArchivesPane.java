@@ -33,6 +33,8 @@ import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Archive;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.ws.client.ArchiveClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Iterator;
 
@@ -103,51 +105,6 @@ public class ApplicationArchivesPane
 
     }
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public String archiveName;
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent =
-                    kalumet.getAgent( parent.getParentPane().getEnvironmentWindow().getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the web service
-                ArchiveClient client = new ArchiveClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getParentPane().getEnvironmentWindow().getEnvironmentName(),
-                               parent.getServerName(), parent.getApplicationName(), archiveName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message =
-                    "JEE application " + parent.getApplicationName() + " archive " + archiveName + " update failed: "
-                        + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // toggle active
     private ActionListener toggleActive = new ActionListener()
     {
@@ -335,7 +292,10 @@ public class ApplicationArchivesPane
             // start the status thread
             final StatusThread statusThread = new StatusThread();
             statusThread.archiveName = archiveName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationArchivesPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -356,7 +316,7 @@ public class ApplicationArchivesPane
                         }
                         parent.getParentPane().getEnvironmentWindow().getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -413,44 +373,21 @@ public class ApplicationArchivesPane
                         parent.getParentPane().getEnvironmentWindow().getChangeEvents().add(
                             "JEE application " + parent.getApplicationName() + " archive " + archiveName
                                 + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.archiveName = archiveName;
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        final EnvironmentWindow environmentWindow = parent.getParentPane().getEnvironmentWindow();
+                        new UpdateJob( environmentWindow.getEnvironment().getAgent(),
+                                       environmentWindow.getEnvironmentName(),
+                                       "JEE application " + parent.getApplicationName() + " archive " + archiveName,
+                                       environmentWindow.getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message,
-                                            parent.getParentPane().getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getParentPane().getEnvironmentWindow().getChangeEvents().add(
-                                            updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application " + parent.getApplicationName() + " archive " + archiveName
-                                                + " updated.",
-                                            parent.getParentPane().getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getParentPane().getEnvironmentWindow().getChangeEvents().add(
-                                            "JEE application " + parent.getApplicationName() + " archive " + archiveName
-                                                + " updated" );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitArchiveUpdate( environmentWindow.getEnvironmentName(),
+                                                                   parent.getServerName(), parent.getApplicationName(),
+                                                                   archiveName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
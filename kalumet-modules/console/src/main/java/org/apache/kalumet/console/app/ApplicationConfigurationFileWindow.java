@@ -372,7 +372,10 @@ public class ApplicationConfigurationFileWindow
                     + configurationFileName + " status check requested." );
             // start the status thread
             final StatusThread statusThread = new StatusThread();
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationConfigurationFileWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -392,7 +395,7 @@ public class ApplicationConfigurationFileWindow
                                                                                              parent.getParentPane().getParentPane().getEnvironmentWindow().getEnvironmentName() );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -449,7 +452,10 @@ public class ApplicationConfigurationFileWindow
                                 + configurationFileName + " update requested." );
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -477,7 +483,7 @@ public class ApplicationConfigurationFileWindow
                                                 + " configuration file " + configurationFileName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -490,7 +490,10 @@ public class ApplicationConfigurationFilesPane
             // start the status thread
             final StatusThread statusThread = new StatusThread();
             statusThread.configurationFileName = configurationFileName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationConfigurationFilesPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -510,7 +513,7 @@ public class ApplicationConfigurationFilesPane
                                                                                              parent.getParentPane().getEnvironmentWindow().getEnvironmentName() );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -570,7 +573,10 @@ public class ApplicationConfigurationFilesPane
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.configurationFileName = configurationFileName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -598,7 +604,7 @@ public class ApplicationConfigurationFilesPane
                                                 + configurationFileName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
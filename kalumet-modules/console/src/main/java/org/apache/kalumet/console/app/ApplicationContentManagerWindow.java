@@ -576,7 +576,10 @@ public class ApplicationContentManagerWindow
                                 + contentManagerName + " update requested." );
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -604,7 +607,7 @@ public class ApplicationContentManagerWindow
                                                 + " content manager " + contentManagerName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
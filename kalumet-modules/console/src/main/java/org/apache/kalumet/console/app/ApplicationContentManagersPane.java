@@ -307,7 +307,10 @@ public class ApplicationContentManagersPane
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.contentManagerName = contentManagerName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -335,7 +338,7 @@ public class ApplicationContentManagersPane
                                                 + contentManagerName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
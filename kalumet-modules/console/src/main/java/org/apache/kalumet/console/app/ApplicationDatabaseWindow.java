@@ -632,7 +632,10 @@ public class ApplicationDatabaseWindow
                                 + databaseName + " update in progress ..." );
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -660,7 +663,7 @@ public class ApplicationDatabaseWindow
                                                 + " database " + databaseName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -350,7 +350,10 @@ public class ApplicationDatabasesPane
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.databaseName = databaseName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -378,7 +381,7 @@ public class ApplicationDatabasesPane
                                                 + databaseName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -32,6 +32,8 @@ import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.ws.client.JEEApplicationServerClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 /**
  * JEE application server window.
@@ -100,46 +102,6 @@ public class ApplicationServerWindow
         }
     }
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironmentWindow().getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the webservice
-                JEEApplicationServerClient client =
-                    new JEEApplicationServerClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentWindow().getEnvironmentName(), serverName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "JEE application server " + serverName + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // stop thread
     class StopThread
         extends Thread
@@ -514,7 +476,10 @@ public class ApplicationServerWindow
                 "JEE application server " + serverName + " status check requested." );
             // start status thread
             final StatusThread statusThread = new StatusThread();
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationServerWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -538,7 +503,7 @@ public class ApplicationServerWindow
                                 "JEE application server " + serverName + " status: " + statusThread.message );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -588,39 +553,18 @@ public class ApplicationServerWindow
                             parent.getEnvironmentWindow().getEnvironmentName() );
                         parent.getEnvironmentWindow().getChangeEvents().add(
                             "JEE application server " + serverName + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        final String environmentName = parent.getEnvironmentWindow().getEnvironmentName();
+                        new UpdateJob( parent.getEnvironmentWindow().getEnvironment().getAgent(), environmentName,
+                                       "JEE application server " + serverName,
+                                       parent.getEnvironmentWindow().getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application server " + serverName + " updated.",
-                                            parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add(
-                                            "JEE application server " + serverName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitJEEApplicationServerUpdate( environmentName, serverName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
@@ -668,7 +612,10 @@ public class ApplicationServerWindow
                             "JEE application server " + serverName + " stop requested." );
                         // start the stop thread
                         final StopThread stopThread = new StopThread();
-                        stopThread.start();
+                        if ( !TaskExecutor.execute( stopThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -692,7 +639,7 @@ public class ApplicationServerWindow
                                             "JEE application server " + serverName + " stopped." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( stopThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -746,7 +693,10 @@ public class ApplicationServerWindow
                             "JEE application server " + serverName + " start requested." );
                         // start the start thread
                         final StartThread startThread = new StartThread();
-                        startThread.start();
+                        if ( !TaskExecutor.execute( startThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -770,7 +720,7 @@ public class ApplicationServerWindow
                                             "JEE application server " + serverName + " started." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( startThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -34,6 +34,8 @@ import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.JEEApplicationServer;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.ws.client.JEEApplicationServerClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Iterator;
 
@@ -50,49 +52,6 @@ public class ApplicationServersPane
 
     private Grid serversGrid;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public String serverName;
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the WebService
-                JEEApplicationServerClient client =
-                    new JEEApplicationServerClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentName(), serverName, false );
-            }
-            catch ( Exception e )
-            {
-                message = "JEE application server " + serverName + " update failed: " + e.getMessage();
-                failure = true;
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-
-    }
-
     // stop thread
     class StopThread
         extends Thread
@@ -260,40 +219,17 @@ public class ApplicationServersPane
                             "JEE application server " + serverName + " update in progress...",
                             parent.getEnvironmentName() );
                         parent.getChangeEvents().add( "JEE application server " + serverName + " update requested." );
-                        // launch async task
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.serverName = serverName;
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        new UpdateJob( parent.getEnvironment().getAgent(), parent.getEnvironmentName(),
+                                       "JEE application server " + serverName, parent.getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application server " + serverName + " updated.",
-                                            parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add(
-                                            "JEE application server " + serverName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitJEEApplicationServerUpdate( parent.getEnvironmentName(),
+                                                                                serverName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
@@ -341,7 +277,10 @@ public class ApplicationServersPane
                         // launch async task
                         final StartThread startThread = new StartThread();
                         startThread.serverName = serverName;
-                        startThread.start();
+                        if ( !TaskExecutor.execute( startThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -365,7 +304,7 @@ public class ApplicationServersPane
                                             "JEE application server " + serverName + " started." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( startThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -419,7 +358,10 @@ public class ApplicationServersPane
                         // launch async task
                         final StopThread stopThread = new StopThread();
                         stopThread.serverName = serverName;
-                        stopThread.start();
+                        if ( !TaskExecutor.execute( stopThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -443,7 +385,7 @@ public class ApplicationServersPane
                                             "JEE application server " + serverName + " stopped." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( stopThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -476,7 +418,10 @@ public class ApplicationServersPane
             // launch async task
             final StatusThread statusThread = new StatusThread();
             statusThread.serverName = serverName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( ApplicationServersPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -500,7 +445,7 @@ public class ApplicationServersPane
                                 "JEE server " + serverName + " status: " + statusThread.message );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
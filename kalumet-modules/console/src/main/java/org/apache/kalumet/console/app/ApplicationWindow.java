@@ -27,11 +27,9 @@ import nextapp.echo2.app.event.ActionEvent;
 import nextapp.echo2.app.event.ActionListener;
 import nextapp.echo2.extras.app.TabPane;
 import nextapp.echo2.extras.app.layout.TabPaneLayoutData;
-import org.apache.kalumet.console.configuration.ConfigurationManager;
-import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.JEEApplication;
-import org.apache.kalumet.model.Kalumet;
-import org.apache.kalumet.ws.client.JEEApplicationClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 /**
  * JEE application window.
@@ -58,45 +56,6 @@ public class ApplicationWindow
 
     private ApplicationDatabasesPane databasesPane;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironmentWindow().getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the webservice
-                JEEApplicationClient client = new JEEApplicationClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentWindow().getEnvironmentName(), serverName, applicationName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "JEE application " + applicationName + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // refresh
     private ActionListener refresh = new ActionListener()
     {
@@ -348,39 +307,19 @@ public class ApplicationWindow
                             parent.getEnvironmentWindow().getEnvironmentName() );
                         parent.getEnvironmentWindow().getChangeEvents().add(
                             "JEE application " + applicationName + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        final String environmentName = parent.getEnvironmentWindow().getEnvironmentName();
+                        new UpdateJob( parent.getEnvironmentWindow().getEnvironment().getAgent(), environmentName,
+                                       "JEE application " + applicationName,
+                                       parent.getEnvironmentWindow().getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application " + applicationName + " updated.",
-                                            parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add(
-                                            "JEE application " + applicationName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitJEEApplicationUpdate( environmentName, serverName,
+                                                                          applicationName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
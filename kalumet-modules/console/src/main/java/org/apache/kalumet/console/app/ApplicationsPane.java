@@ -32,12 +32,10 @@ import nextapp.echo2.app.event.ActionEvent;
 import nextapp.echo2.app.event.ActionListener;
 import nextapp.echo2.app.list.DefaultListModel;
 import org.apache.kalumet.FileManipulator;
-import org.apache.kalumet.console.configuration.ConfigurationManager;
-import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.JEEApplication;
 import org.apache.kalumet.model.JEEApplicationServer;
-import org.apache.kalumet.model.Kalumet;
-import org.apache.kalumet.ws.client.JEEApplicationClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Iterator;
 
@@ -54,49 +52,6 @@ public class ApplicationsPane
 
     private Grid grid;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public String serverName;
-
-        public String applicationName;
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the webservice
-                JEEApplicationClient client = new JEEApplicationClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentName(), serverName, applicationName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "JEE application " + applicationName + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // scope select
     private ActionListener scopeSelect = new ActionListener()
     {
@@ -507,41 +462,17 @@ public class ApplicationsPane
                             "JEE application " + applicationName + " update in progress...",
                             parent.getEnvironmentName() );
                         parent.getChangeEvents().add( "JEE application " + applicationName + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.serverName = serverName;
-                        updateThread.applicationName = applicationName;
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        new UpdateJob( parent.getEnvironment().getAgent(), parent.getEnvironmentName(),
+                                       "JEE application " + applicationName, parent.getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "JEE application " + applicationName + " updated.",
-                                            parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add(
-                                            "JEE application " + applicationName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitJEEApplicationUpdate( parent.getEnvironmentName(), serverName,
+                                                                          applicationName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
@@ -41,17 +41,14 @@ import org.apache.kalumet.model.JNDIBinding;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.model.SharedLibrary;
 import org.apache.kalumet.ws.client.AgentClient;
-import org.apache.kalumet.ws.client.ArchiveClient;
-import org.apache.kalumet.ws.client.ConfigurationFileClient;
-import org.apache.kalumet.ws.client.JDBCConnectionPoolClient;
-import org.apache.kalumet.ws.client.JDBCDataSourceClient;
-import org.apache.kalumet.ws.client.JEEApplicationServerClient;
-import org.apache.kalumet.ws.client.JMSConnectionFactoryClient;
-import org.apache.kalumet.ws.client.JMSServerClient;
-import org.apache.kalumet.ws.client.JNDIBindingClient;
-import org.apache.kalumet.ws.client.SharedLibraryClient;
+import org.apache.kalumet.ws.client.CheckClient;
+import org.apache.kalumet.ws.client.CheckResult;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 // Version Thread
 class VersionThread
@@ -115,8 +112,8 @@ class VersionThread
 
 }
 
-// ApplicationServerStatusThread
-class ApplicationServerStatusThread
+// ServerCheckThread
+class ServerCheckThread
     extends Thread
 {
 
@@ -126,7 +123,7 @@ class ApplicationServerStatusThread
 
     private String environmentName;
 
-    private String applicationServerName;
+    private String serverName;
 
     private boolean completed = false;
 
@@ -134,447 +131,19 @@ class ApplicationServerStatusThread
 
     private String errorMessage;
 
-    private String status;
+    private CheckResult[] results;
 
-    public ApplicationServerStatusThread( String hostname, int port, String environmentName,
-                                          String applicationServerName )
+    public ServerCheckThread( String hostname, int port, String environmentName, String serverName )
     {
         this.hostname = hostname;
         this.port = port;
         this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
+        this.serverName = serverName;
     }
 
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public String getStatus()
-    {
-        return this.status;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JEEApplicationServerClient webServiceClient = new JEEApplicationServerClient( hostname, port );
-            status = webServiceClient.status( environmentName, applicationServerName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// ConnectionPoolCheckThread
-class ConnectionPoolCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String connectionPoolName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public ConnectionPoolCheckThread( String hostname, int port, String environmentName, String applicationServerName,
-                                      String connectionPoolName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.connectionPoolName = connectionPoolName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JDBCConnectionPoolClient webServiceClient = new JDBCConnectionPoolClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, connectionPoolName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// DataSourceCheckThread
-class DataSourceCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String dataSourceName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public DataSourceCheckThread( String hostname, int port, String environmentName, String applicationServerName,
-                                  String dataSourceName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.dataSourceName = dataSourceName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JDBCDataSourceClient webServiceClient = new JDBCDataSourceClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, dataSourceName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// JMSConnectionFactoryCheckThread
-class JMSConnectionFactoryCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String jmsConnectionFactoryName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public JMSConnectionFactoryCheckThread( String hostname, int port, String environmentName,
-                                            String applicationServerName, String jmsConnectionFactoryName )
+    public String getServerName()
     {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.jmsConnectionFactoryName = jmsConnectionFactoryName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JMSConnectionFactoryClient webServiceClient = new JMSConnectionFactoryClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, jmsConnectionFactoryName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// JMSServerCheckThread
-class JMSServerCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String jmsServerName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public JMSServerCheckThread( String hostname, int port, String environmentName, String applicationServerName,
-                                 String jmsServerName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.jmsServerName = jmsServerName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JMSServerClient webServiceClient = new JMSServerClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, jmsServerName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// JNDIBindingCheckThread
-class JNDIBindingCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String nameSpaceBindingName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public JNDIBindingCheckThread( String hostname, int port, String environmentName, String applicationServerName,
-                                   String nameSpaceBindingName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.nameSpaceBindingName = nameSpaceBindingName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
-
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
-
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            JNDIBindingClient webServiceClient = new JNDIBindingClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, nameSpaceBindingName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-
-}
-
-// SharedLibraryCheckThread
-class SharedLibraryCheckThread
-    extends Thread
-{
-
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String sharedLibraryName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public SharedLibraryCheckThread( String hostname, int port, String environmentName, String applicationServerName,
-                                     String sharedLibraryName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.sharedLibraryName = sharedLibraryName;
+        return this.serverName;
     }
 
     public boolean getCompleted()
@@ -592,18 +161,18 @@ class SharedLibraryCheckThread
         return this.errorMessage;
     }
 
-    public boolean getUptodate()
+    public CheckResult[] getResults()
     {
-        return this.uptodate;
+        return this.results;
     }
 
     public void run()
     {
         try
         {
-            // call the webservice
-            SharedLibraryClient webServiceClient = new SharedLibraryClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, sharedLibraryName );
+            // call the webservice, checking the whole JEE application server in one call
+            CheckClient webServiceClient = new CheckClient( hostname, port );
+            results = webServiceClient.checkJEEApplicationServer( environmentName, serverName );
             completed = true;
         }
         catch ( Exception e )
@@ -616,166 +185,32 @@ class SharedLibraryCheckThread
 
 }
 
-// JEEApplicationArchiveCheckThread
-class JEEApplicationArchiveCheckThread
-    extends Thread
+/**
+ * Environment checker pane.
+ */
+public class CheckerPane
+    extends ContentPane
 {
 
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String applicationName;
-
-    private String archiveName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public JEEApplicationArchiveCheckThread( String hostname, int port, String environmentName,
-                                             String applicationServerName, String applicationName, String archiveName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.applicationName = applicationName;
-        this.archiveName = archiveName;
-    }
-
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
-
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
-
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
+    private EnvironmentWindow parent;
 
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
+    private Grid grid;
 
-    public void run()
+    // result row of a checked resource
+    class CheckRow
     {
-        try
-        {
-            // call the webservice
-            ArchiveClient webServiceClient = new ArchiveClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, applicationName, archiveName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
-    }
-}
-
-// JEEApplicationConfigurationFileCheckThread
-class JEEApplicationConfigurationFileCheckThread
-    extends Thread
-{
 
-    private String hostname;
-
-    private int port;
-
-    private String environmentName;
-
-    private String applicationServerName;
-
-    private String applicationName;
-
-    private String configurationFileName;
-
-    private boolean completed = false;
-
-    private boolean failure = false;
-
-    private String errorMessage;
-
-    private boolean uptodate;
-
-    public JEEApplicationConfigurationFileCheckThread( String hostname, int port, String environmentName,
-                                                       String applicationServerName, String applicationName,
-                                                       String configurationFileName )
-    {
-        this.hostname = hostname;
-        this.port = port;
-        this.environmentName = environmentName;
-        this.applicationServerName = applicationServerName;
-        this.applicationName = applicationName;
-        this.configurationFileName = configurationFileName;
-    }
+        Label statusLabel;
 
-    public boolean getCompleted()
-    {
-        return this.completed;
-    }
+        Label button;
 
-    public boolean getFailure()
-    {
-        return this.failure;
-    }
+        String server;
 
-    public String getErrorMessage()
-    {
-        return this.errorMessage;
-    }
+        String errorMessage;
 
-    public boolean getUptodate()
-    {
-        return this.uptodate;
-    }
+        String outdatedMessage;
 
-    public void run()
-    {
-        try
-        {
-            // call the webservice
-            ConfigurationFileClient webServiceClient = new ConfigurationFileClient( hostname, port );
-            uptodate = webServiceClient.check( environmentName, applicationServerName, applicationName,
-                                               configurationFileName );
-            completed = true;
-        }
-        catch ( Exception e )
-        {
-            errorMessage = e.getMessage();
-            completed = true;
-            failure = true;
-        }
     }
-}
-
-/**
- * Environment checker pane.
- */
-public class CheckerPane
-    extends ContentPane
-{
-
-    private EnvironmentWindow parent;
-
-    private Grid grid;
 
     // launch
     private ActionListener launch = new ActionListener()
@@ -825,7 +260,10 @@ public class CheckerPane
             grid.add( agentButton );
             // launch the version thread
             final VersionThread versionThread = new VersionThread( agent.getHostname(), agent.getPort() );
-            versionThread.start();
+            if ( !TaskExecutor.execute( CheckerPane.this, versionThread ) )
+            {
+                return;
+            }
             // launch the synchronization task for the agent version
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -845,524 +283,161 @@ public class CheckerPane
                             agentButton.setIcon( Styles.ACCEPT );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( versionThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
                     }
                 }
             } );
-            // application servers check
+            // add the result rows of the environment resources
+            final Map rows = new HashMap();
             for ( Iterator applicationServerIterator =
                       parent.getEnvironment().getJEEApplicationServers().getJEEApplicationServers().iterator();
                   applicationServerIterator.hasNext(); )
             {
                 JEEApplicationServer applicationServer = (JEEApplicationServer) applicationServerIterator.next();
-                Label applicationServerLabel = new Label( "JEE server " + applicationServer.getName() + " check" );
-                applicationServerLabel.setStyleName( "default" );
-                grid.add( applicationServerLabel );
-                final Label applicationServerStatusLabel = new Label();
-                applicationServerStatusLabel.setStyleName( "default" );
-                grid.add( applicationServerStatusLabel );
-                final Label applicationServerStatusButton = new Label();
-                applicationServerStatusButton.setStyleName( "default" );
-                grid.add( applicationServerStatusButton );
-                // launch the application server status thread
-                final ApplicationServerStatusThread applicationServerStatusThread =
-                    new ApplicationServerStatusThread( agent.getHostname(), agent.getPort(),
-                                                       parent.getEnvironmentName(), applicationServer.getName() );
-                applicationServerStatusThread.start();
-                // launch the synchronisation status thread
-                KalumetConsoleApplication.getApplication().enqueueTask(
-                    KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                {
-                    public void run()
-                    {
-                        if ( applicationServerStatusThread.getCompleted() )
-                        {
-                            if ( applicationServerStatusThread.getFailure() )
-                            {
-                                applicationServerStatusLabel.setText( "JEE application server error: "
-                                                                          + applicationServerStatusThread.getErrorMessage() );
-                                applicationServerStatusButton.setIcon( Styles.EXCLAMATION );
-                            }
-                            else
-                            {
-                                applicationServerStatusLabel.setText( applicationServerStatusThread.getStatus() );
-                                applicationServerStatusButton.setIcon( Styles.ACCEPT );
-                            }
-                        }
-                        else
-                        {
-                            KalumetConsoleApplication.getApplication().enqueueTask(
-                                KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                        }
-                    }
-                } );
-                // check connection pool
+                String serverName = applicationServer.getName();
+                addRow( rows, serverName, "JEE server " + serverName + " check",
+                        CheckResult.getKey( CheckResult.JEE_APPLICATION_SERVER, serverName, null, serverName ),
+                        "JEE application server error: ", null );
                 for ( Iterator connectionPoolIterator = applicationServer.getJDBCConnectionPools().iterator();
                       connectionPoolIterator.hasNext(); )
                 {
                     JDBCConnectionPool connectionPool = (JDBCConnectionPool) connectionPoolIterator.next();
-                    Label connectionPoolLabel =
-                        new Label( " JDBC connection pool " + connectionPool.getName() + " check" );
-                    connectionPoolLabel.setStyleName( "default" );
-                    grid.add( connectionPoolLabel );
-                    final Label connectionPoolStatusLabel = new Label();
-                    connectionPoolStatusLabel.setStyleName( "default" );
-                    grid.add( connectionPoolStatusLabel );
-                    final Label connectionPoolButton = new Label();
-                    grid.add( connectionPoolButton );
-                    // launch the connection pool check thread
-                    final ConnectionPoolCheckThread connectionPoolCheckThread =
-                        new ConnectionPoolCheckThread( agent.getHostname(), agent.getPort(),
-                                                       parent.getEnvironmentName(), applicationServer.getName(),
-                                                       connectionPool.getName() );
-                    connectionPoolCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( connectionPoolCheckThread.getCompleted() )
-                            {
-                                if ( connectionPoolCheckThread.getFailure() )
-                                {
-                                    connectionPoolStatusLabel.setText( "JDBC connection pool check error: "
-                                                                           + connectionPoolCheckThread.getErrorMessage() );
-                                    connectionPoolButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( connectionPoolCheckThread.getUptodate() )
-                                    {
-                                        connectionPoolStatusLabel.setText( "OK" );
-                                        connectionPoolButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        connectionPoolStatusLabel.setText(
-                                            "JDBC Connection Pool is not deployed or not up to date" );
-                                        connectionPoolButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " JDBC connection pool " + connectionPool.getName() + " check",
+                            CheckResult.getKey( CheckResult.JDBC_CONNECTION_POOL, serverName, null,
+                                                connectionPool.getName() ), "JDBC connection pool check error: ",
+                            "JDBC Connection Pool is not deployed or not up to date" );
                 }
-                // check datasources
                 for ( Iterator dataSourceIterator = applicationServer.getJDBCDataSources().iterator();
                       dataSourceIterator.hasNext(); )
                 {
                     JDBCDataSource dataSource = (JDBCDataSource) dataSourceIterator.next();
-                    Label dataSourceLabel = new Label( " JDBC data source " + dataSource.getName() + " check" );
-                    dataSourceLabel.setStyleName( "default" );
-                    grid.add( dataSourceLabel );
-                    final Label dataSourceStatusLabel = new Label();
-                    dataSourceStatusLabel.setStyleName( "Default" );
-                    grid.add( dataSourceStatusLabel );
-                    final Label dataSourceButton = new Label();
-                    grid.add( dataSourceButton );
-                    // launch the datasource check thread
-                    final DataSourceCheckThread dataSourceCheckThread =
-                        new DataSourceCheckThread( agent.getHostname(), agent.getPort(), parent.getEnvironmentName(),
-                                                   applicationServer.getName(), dataSource.getName() );
-                    dataSourceCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( dataSourceCheckThread.getCompleted() )
-                            {
-                                if ( dataSourceCheckThread.getFailure() )
-                                {
-                                    dataSourceStatusLabel.setText(
-                                        "JDBC data source check error: " + dataSourceCheckThread.getErrorMessage() );
-                                    dataSourceButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( dataSourceCheckThread.getUptodate() )
-                                    {
-                                        dataSourceStatusLabel.setText( "OK" );
-                                        dataSourceButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        dataSourceStatusLabel.setText(
-                                            "JDBC data source is not deployed or not up to date." );
-                                        dataSourceButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " JDBC data source " + dataSource.getName() + " check",
+                            CheckResult.getKey( CheckResult.JDBC_DATA_SOURCE, serverName, null, dataSource.getName() ),
+                            "JDBC data source check error: ", "JDBC data source is not deployed or not up to date." );
                 }
-                // check JMS connection factories
                 for ( Iterator jmsConnectionFactoryIterator = applicationServer.getJMSConnectionFactories().iterator();
                       jmsConnectionFactoryIterator.hasNext(); )
                 {
                     JMSConnectionFactory jmsConnectionFactory =
                         (JMSConnectionFactory) jmsConnectionFactoryIterator.next();
-                    Label jmsConnectionFactoryLabel =
-                        new Label( " JMS connection factory " + jmsConnectionFactory.getName() + " check" );
-                    jmsConnectionFactoryLabel.setStyleName( "Default" );
-                    grid.add( jmsConnectionFactoryLabel );
-                    final Label jmsConnectionFactoryStatusLabel = new Label();
-                    jmsConnectionFactoryStatusLabel.setStyleName( "Default" );
-                    grid.add( jmsConnectionFactoryStatusLabel );
-                    final Label jmsConnectionFactoryButton = new Label();
-                    grid.add( jmsConnectionFactoryButton );
-                    // launch the jms connection factory check thread
-                    final JMSConnectionFactoryCheckThread jmsConnectionFactoryCheckThread =
-                        new JMSConnectionFactoryCheckThread( agent.getHostname(), agent.getPort(),
-                                                             parent.getEnvironmentName(), applicationServer.getName(),
-                                                             jmsConnectionFactory.getName() );
-                    jmsConnectionFactoryCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( jmsConnectionFactoryCheckThread.getCompleted() )
-                            {
-                                if ( jmsConnectionFactoryCheckThread.getFailure() )
-                                {
-                                    jmsConnectionFactoryStatusLabel.setText( "JMS connection factory check error: "
-                                                                                 + jmsConnectionFactoryCheckThread.getErrorMessage() );
-                                    jmsConnectionFactoryButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( jmsConnectionFactoryCheckThread.getUptodate() )
-                                    {
-                                        jmsConnectionFactoryStatusLabel.setText( "OK" );
-                                        jmsConnectionFactoryButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        jmsConnectionFactoryStatusLabel.setText(
-                                            "JMS connection factory is not deployed or not up to date" );
-                                        jmsConnectionFactoryButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " JMS connection factory " + jmsConnectionFactory.getName() + " check",
+                            CheckResult.getKey( CheckResult.JMS_CONNECTION_FACTORY, serverName, null,
+                                                jmsConnectionFactory.getName() ),
+                            "JMS connection factory check error: ",
+                            "JMS connection factory is not deployed or not up to date" );
                 }
-                // check JMS servers
                 for ( Iterator jmsServerIterator = applicationServer.getJMSServers().iterator();
                       jmsServerIterator.hasNext(); )
                 {
                     JMSServer jmsServer = (JMSServer) jmsServerIterator.next();
-                    Label jmsServerLabel = new Label( " JMS server " + jmsServer.getName() + " check" );
-                    jmsServerLabel.setStyleName( "Default" );
-                    grid.add( jmsServerLabel );
-                    final Label jmsServerStatusLabel = new Label();
-                    jmsServerStatusLabel.setStyleName( "Default" );
-                    grid.add( jmsServerStatusLabel );
-                    final Label jmsServerButton = new Label();
-                    grid.add( jmsServerButton );
-                    // launch the jms server check thread
-                    final JMSServerCheckThread jmsServerCheckThread =
-                        new JMSServerCheckThread( agent.getHostname(), agent.getPort(), parent.getEnvironmentName(),
-                                                  applicationServer.getName(), jmsServer.getName() );
-                    jmsServerCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( jmsServerCheckThread.getCompleted() )
-                            {
-                                if ( jmsServerCheckThread.getFailure() )
-                                {
-                                    jmsServerStatusLabel.setText(
-                                        "JMS server check error: " + jmsServerCheckThread.getErrorMessage() );
-                                    jmsServerButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( jmsServerCheckThread.getUptodate() )
-                                    {
-                                        jmsServerStatusLabel.setText( "OK" );
-                                        jmsServerButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        jmsServerStatusLabel.setText( "JMS server is not deployed or not up to date" );
-                                        jmsServerButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " JMS server " + jmsServer.getName() + " check",
+                            CheckResult.getKey( CheckResult.JMS_SERVER, serverName, null, jmsServer.getName() ),
+                            "JMS server check error: ", "JMS server is not deployed or not up to date" );
                 }
-                // check JNDI bindings
                 for ( Iterator jndiBindingIterator = applicationServer.getJNDIBindings().iterator();
                       jndiBindingIterator.hasNext(); )
                 {
                     JNDIBinding jndiBinding = (JNDIBinding) jndiBindingIterator.next();
-                    Label nameSpaceBindingLabel = new Label( " JNDI binding " + jndiBinding.getName() + " check" );
-                    nameSpaceBindingLabel.setStyleName( "Default" );
-                    grid.add( nameSpaceBindingLabel );
-                    final Label nameSpaceBindingStatusLabel = new Label();
-                    nameSpaceBindingStatusLabel.setStyleName( "Default" );
-                    grid.add( nameSpaceBindingStatusLabel );
-                    final Label nameSpaceBindingButton = new Label();
-                    grid.add( nameSpaceBindingButton );
-                    // launch the name space binding check thread
-                    final JNDIBindingCheckThread JNDIBindingCheckThread =
-                        new JNDIBindingCheckThread( agent.getHostname(), agent.getPort(), parent.getEnvironmentName(),
-                                                    applicationServer.getName(), jndiBinding.getName() );
-                    JNDIBindingCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( JNDIBindingCheckThread.getCompleted() )
-                            {
-                                if ( JNDIBindingCheckThread.getFailure() )
-                                {
-                                    nameSpaceBindingStatusLabel.setText(
-                                        "JNDI binding check error: " + JNDIBindingCheckThread.getErrorMessage() );
-                                    nameSpaceBindingButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( JNDIBindingCheckThread.getUptodate() )
-                                    {
-                                        nameSpaceBindingStatusLabel.setText( "OK" );
-                                        nameSpaceBindingButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        nameSpaceBindingStatusLabel.setText(
-                                            "JNDI binding is not deployed or not up to date" );
-                                        nameSpaceBindingButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " JNDI binding " + jndiBinding.getName() + " check",
+                            CheckResult.getKey( CheckResult.JNDI_BINDING, serverName, null, jndiBinding.getName() ),
+                            "JNDI binding check error: ", "JNDI binding is not deployed or not up to date" );
                 }
-                // check shared libraries
                 for ( Iterator sharedLibraryIterator = applicationServer.getSharedLibraries().iterator();
                       sharedLibraryIterator.hasNext(); )
                 {
                     SharedLibrary sharedLibrary = (SharedLibrary) sharedLibraryIterator.next();
-                    Label sharedLibraryLabel = new Label( " Shared library " + sharedLibrary.getName() + " check" );
-                    sharedLibraryLabel.setStyleName( "Default" );
-                    grid.add( sharedLibraryLabel );
-                    final Label sharedLibraryStatusLabel = new Label();
-                    sharedLibraryStatusLabel.setStyleName( "Default" );
-                    grid.add( sharedLibraryLabel );
-                    final Label sharedLibraryButton = new Label();
-                    grid.add( sharedLibraryButton );
-                    // launch the shared library check thread
-                    final SharedLibraryCheckThread sharedLibraryCheckThread =
-                        new SharedLibraryCheckThread( agent.getHostname(), agent.getPort(), parent.getEnvironmentName(),
-                                                      applicationServer.getName(), sharedLibrary.getName() );
-                    sharedLibraryCheckThread.start();
-                    // launch the synchronisation thread
-                    KalumetConsoleApplication.getApplication().enqueueTask(
-                        KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                    {
-                        public void run()
-                        {
-                            if ( sharedLibraryCheckThread.getCompleted() )
-                            {
-                                if ( sharedLibraryCheckThread.getFailure() )
-                                {
-                                    sharedLibraryStatusLabel.setText(
-                                        "Shared library check error: " + sharedLibraryCheckThread.getErrorMessage() );
-                                    sharedLibraryButton.setIcon( Styles.EXCLAMATION );
-                                }
-                                else
-                                {
-                                    if ( sharedLibraryCheckThread.getUptodate() )
-                                    {
-                                        sharedLibraryStatusLabel.setText( "OK" );
-                                        sharedLibraryButton.setIcon( Styles.ACCEPT );
-                                    }
-                                    else
-                                    {
-                                        sharedLibraryStatusLabel.setText(
-                                            "Shared library is not deployed or not up to date" );
-                                        sharedLibraryButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                }
-                            }
-                            else
-                            {
-                                KalumetConsoleApplication.getApplication().enqueueTask(
-                                    KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                            }
-                        }
-                    } );
+                    addRow( rows, serverName, " Shared library " + sharedLibrary.getName() + " check",
+                            CheckResult.getKey( CheckResult.SHARED_LIBRARY, serverName, null,
+                                                sharedLibrary.getName() ), "Shared library check error: ",
+                            "Shared library is not deployed or not up to date" );
                 }
-                // check JEE applications
                 for ( Iterator applicationIterator = applicationServer.getJEEApplications().iterator();
                       applicationIterator.hasNext(); )
                 {
                     JEEApplication application = (JEEApplication) applicationIterator.next();
                     Label applicationLabel = new Label( " JEE application " + application.getName() + " check" );
-                    applicationLabel.setStyleName( "Default" );
+                    applicationLabel.setStyleName( "default" );
                     grid.add( applicationLabel );
-                    Label blankLabel = new Label( " " );
-                    grid.add( blankLabel );
-                    blankLabel = new Label( " " );
-                    grid.add( blankLabel );
-                    // check JEE application archives
+                    grid.add( new Label( " " ) );
+                    grid.add( new Label( " " ) );
                     for ( Iterator archiveIterator = application.getArchives().iterator(); archiveIterator.hasNext(); )
                     {
                         Archive archive = (Archive) archiveIterator.next();
-                        Label archiveLabel = new Label( " JEE application archive " + archive.getName() + " check" );
-                        archiveLabel.setStyleName( "Default" );
-                        grid.add( archiveLabel );
-                        final Label archiveStatusLabel = new Label();
-                        archiveStatusLabel.setStyleName( "Default" );
-                        grid.add( archiveStatusLabel );
-                        final Label archiveButton = new Label();
-                        grid.add( archiveButton );
-                        // launch the application archive check thread
-                        final JEEApplicationArchiveCheckThread jeeApplicationArchiveCheckThread =
-                            new JEEApplicationArchiveCheckThread( agent.getHostname(), agent.getPort(),
-                                                                  parent.getEnvironmentName(),
-                                                                  applicationServer.getName(), application.getName(),
-                                                                  archive.getName() );
-                        jeeApplicationArchiveCheckThread.start();
-                        // launch the synchronisation thread
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
-                        {
-                            public void run()
-                            {
-                                if ( jeeApplicationArchiveCheckThread.getCompleted() )
-                                {
-                                    if ( jeeApplicationArchiveCheckThread.getFailure() )
-                                    {
-                                        archiveStatusLabel.setText( "JEE application archive check error: "
-                                                                        + jeeApplicationArchiveCheckThread.getErrorMessage() );
-                                        archiveButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                    else
-                                    {
-                                        if ( jeeApplicationArchiveCheckThread.getUptodate() )
-                                        {
-                                            archiveStatusLabel.setText( "OK" );
-                                            archiveButton.setIcon( Styles.ACCEPT );
-                                        }
-                                        else
-                                        {
-                                            archiveStatusLabel.setText(
-                                                "JEE application archive is not deployed or not up to date" );
-                                            archiveButton.setIcon( Styles.EXCLAMATION );
-                                        }
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
-                            }
-                        } );
+                        addRow( rows, serverName, " JEE application archive " + archive.getName() + " check",
+                                CheckResult.getKey( CheckResult.ARCHIVE, serverName, application.getName(),
+                                                    archive.getName() ), "JEE application archive check error: ",
+                                "JEE application archive is not deployed or not up to date" );
                     }
-                    // check JEE application configuration files
                     for ( Iterator configurationFileIterator = application.getConfigurationFiles().iterator();
                           configurationFileIterator.hasNext(); )
                     {
                         ConfigurationFile configurationFile = (ConfigurationFile) configurationFileIterator.next();
-                        Label configurationFileLabel = new Label(
-                            " JEE application configuration file " + configurationFile.getName() + " check" );
-                        configurationFileLabel.setStyleName( "Default" );
-                        grid.add( configurationFileLabel );
-                        final Label configurationFileStatusLabel = new Label();
-                        configurationFileStatusLabel.setStyleName( "Default" );
-                        grid.add( configurationFileStatusLabel );
-                        final Label configurationFileButton = new Label();
-                        grid.add( configurationFileButton );
-                        // launch the application configuration file check thread
-                        final JEEApplicationConfigurationFileCheckThread jeeApplicationConfigurationFileCheckThread =
-                            new JEEApplicationConfigurationFileCheckThread( agent.getHostname(), agent.getPort(),
-                                                                            parent.getEnvironmentName(),
-                                                                            applicationServer.getName(),
-                                                                            application.getName(),
-                                                                            configurationFile.getName() );
-                        jeeApplicationConfigurationFileCheckThread.start();
-                        // launch the synchronisation thread
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        addRow( rows, serverName,
+                                " JEE application configuration file " + configurationFile.getName() + " check",
+                                CheckResult.getKey( CheckResult.CONFIGURATION_FILE, serverName, application.getName(),
+                                                    configurationFile.getName() ),
+                                "JEE application configuration file check error: ",
+                                "JEE application configuration file is not up to date" );
+                    }
+                }
+            }
+            // launch a check thread by JEE application server, the results are displayed as soon as a server
+            // check is completed
+            final List serverCheckThreads = new LinkedList();
+            for ( Iterator applicationServerIterator =
+                      parent.getEnvironment().getJEEApplicationServers().getJEEApplicationServers().iterator();
+                  applicationServerIterator.hasNext(); )
+            {
+                JEEApplicationServer applicationServer = (JEEApplicationServer) applicationServerIterator.next();
+                ServerCheckThread serverCheckThread =
+                    new ServerCheckThread( agent.getHostname(), agent.getPort(), parent.getEnvironmentName(),
+                                           applicationServer.getName() );
+                if ( TaskExecutor.execute( CheckerPane.this, serverCheckThread ) )
+                {
+                    serverCheckThreads.add( serverCheckThread );
+                }
+                else
+                {
+                    failed( rows, applicationServer.getName(), Messages.getString( "tasks.rejected" ) );
+                }
+            }
+            // launch the synchronisation task
+            KalumetConsoleApplication.getApplication().enqueueTask(
+                KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+            {
+                public void run()
+                {
+                    for ( Iterator threadIterator = serverCheckThreads.iterator(); threadIterator.hasNext(); )
+                    {
+                        ServerCheckThread serverCheckThread = (ServerCheckThread) threadIterator.next();
+                        if ( serverCheckThread.getCompleted() )
                         {
-                            public void run()
+                            threadIterator.remove();
+                            if ( serverCheckThread.getFailure() )
                             {
-                                if ( jeeApplicationConfigurationFileCheckThread.getCompleted() )
-                                {
-                                    if ( jeeApplicationConfigurationFileCheckThread.getFailure() )
-                                    {
-                                        configurationFileStatusLabel.setText(
-                                            "JEE application configuration file check error: "
-                                                + jeeApplicationConfigurationFileCheckThread.getErrorMessage() );
-                                        configurationFileButton.setIcon( Styles.EXCLAMATION );
-                                    }
-                                    else
-                                    {
-                                        if ( jeeApplicationConfigurationFileCheckThread.getUptodate() )
-                                        {
-                                            configurationFileStatusLabel.setText( "OK" );
-                                            configurationFileButton.setIcon( Styles.ACCEPT );
-                                        }
-                                        else
-                                        {
-                                            configurationFileStatusLabel.setText(
-                                                "JEE application configuration file is not up to date" );
-                                            configurationFileButton.setIcon( Styles.EXCLAMATION );
-                                        }
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                failed( rows, serverCheckThread.getServerName(),
+                                        serverCheckThread.getErrorMessage() );
                             }
-                        } );
+                            else
+                            {
+                                display( rows, serverCheckThread.getResults() );
+                            }
+                        }
+                        else if ( TaskExecutor.isCancelled( serverCheckThread ) )
+                        {
+                            threadIterator.remove();
+                        }
+                    }
+                    if ( !serverCheckThreads.isEmpty() )
+                    {
+                        KalumetConsoleApplication.getApplication().enqueueTask(
+                            KalumetConsoleApplication.getApplication().getTaskQueue(), this );
                     }
                 }
-            }
+            } );
         }
     };
 
@@ -1407,4 +482,88 @@ public class CheckerPane
         // nothing to do
     }
 
-}
\ No newline at end of file
+    /**
+     * Add the result row of a checked resource in the results grid.
+     *
+     * @param rows            the result rows, by resource key.
+     * @param server          the JEE application server of the resource.
+     * @param label           the resource label.
+     * @param key             the resource key.
+     * @param errorMessage    the message prefix displayed if the resource check fails.
+     * @param outdatedMessage the message displayed if the resource is not up to date, null to display the status.
+     */
+    private void addRow( Map rows, String server, String label, String key, String errorMessage,
+                         String outdatedMessage )
+    {
+        Label resourceLabel = new Label( label );
+        resourceLabel.setStyleName( "default" );
+        grid.add( resourceLabel );
+        CheckRow row = new CheckRow();
+        row.statusLabel = new Label();
+        row.statusLabel.setStyleName( "default" );
+        grid.add( row.statusLabel );
+        row.button = new Label();
+        grid.add( row.button );
+        row.server = server;
+        row.errorMessage = errorMessage;
+        row.outdatedMessage = outdatedMessage;
+        rows.put( key, row );
+    }
+
+    /**
+     * Display the check results of a JEE application server.
+     *
+     * @param rows    the result rows, by resource key.
+     * @param results the check results.
+     */
+    private void display( Map rows, CheckResult[] results )
+    {
+        for ( int i = 0; results != null && i < results.length; i++ )
+        {
+            CheckRow row = (CheckRow) rows.get(
+                CheckResult.getKey( results[i].getType(), results[i].getServer(), results[i].getApplication(),
+                                    results[i].getName() ) );
+            if ( row == null )
+            {
+                // the resource has been added after the check launch
+                continue;
+            }
+            if ( results[i].getError() != null )
+            {
+                row.statusLabel.setText( row.errorMessage + results[i].getError() );
+                row.button.setIcon( Styles.EXCLAMATION );
+            }
+            else if ( results[i].isUptodate() )
+            {
+                row.statusLabel.setText( ( row.outdatedMessage == null ) ? results[i].getStatus() : "OK" );
+                row.button.setIcon( Styles.ACCEPT );
+            }
+            else
+            {
+                row.statusLabel.setText( row.outdatedMessage );
+                row.button.setIcon( Styles.EXCLAMATION );
+            }
+        }
+    }
+
+    /**
+     * Display the check failure of a JEE application server on all its result rows.
+     *
+     * @param rows         the result rows, by resource key.
+     * @param server       the JEE application server name.
+     * @param errorMessage the check error message.
+     */
+    private void failed( Map rows, String server, String errorMessage )
+    {
+        for ( Iterator rowIterator = rows.values().iterator(); rowIterator.hasNext(); )
+        {
+            CheckRow row = (CheckRow) rowIterator.next();
+            if ( row.server.equals( server ) )
+            {
+                row.statusLabel.setText( row.errorMessage + errorMessage );
+                row.button.setIcon( Styles.EXCLAMATION );
+            }
+        }
+    }
+
+}
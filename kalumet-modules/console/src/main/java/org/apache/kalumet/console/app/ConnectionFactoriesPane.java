@@ -551,7 +551,10 @@ public class ConnectionFactoriesPane
             final StatusThread statusThread = new StatusThread();
             statusThread.serverName = serverName;
             statusThread.connectionFactoryName = connectionFactoryName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( ConnectionFactoriesPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -572,7 +575,7 @@ public class ConnectionFactoriesPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -628,7 +631,10 @@ public class ConnectionFactoriesPane
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.serverName = serverName;
                         updateThread.connectionFactoryName = connectionFactoryName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -652,7 +658,7 @@ public class ConnectionFactoriesPane
                                             "JMS connection factory " + connectionFactoryName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
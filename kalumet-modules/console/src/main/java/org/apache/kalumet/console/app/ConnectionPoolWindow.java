@@ -451,7 +451,10 @@ public class ConnectionPoolWindow
                 "JDBC connection pool " + connectionPoolName + " status check requested." );
             // start the status thread
             final StatusThread statusThread = new StatusThread();
-            statusThread.start();
+            if ( !TaskExecutor.execute( ConnectionPoolWindow.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -472,7 +475,7 @@ public class ConnectionPoolWindow
                         }
                         parent.getEnvironmentWindow().getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -523,7 +526,10 @@ public class ConnectionPoolWindow
                             "JDBC connection pool " + connectionPoolName + " update requested." );
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -547,7 +553,7 @@ public class ConnectionPoolWindow
                                             "JDBC connection pool " + connectionPoolName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
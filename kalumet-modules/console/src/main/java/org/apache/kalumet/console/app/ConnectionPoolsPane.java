@@ -228,7 +228,10 @@ public class ConnectionPoolsPane
             // start the status thread
             final StatusThread statusThread = new StatusThread();
             statusThread.connectionPoolName = connectionPoolName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( ConnectionPoolsPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -249,7 +252,7 @@ public class ConnectionPoolsPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -302,7 +305,10 @@ public class ConnectionPoolsPane
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.connectionPoolName = connectionPoolName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -326,7 +332,7 @@ public class ConnectionPoolsPane
                                             "JDBC connection pool " + connectionPoolName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -389,7 +389,10 @@ public class DataSourcesPane
             // start the status thread
             final StatusThread statusThread = new StatusThread();
             statusThread.datasourceName = datasourceName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( DataSourcesPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -410,7 +413,7 @@ public class DataSourcesPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -463,7 +466,10 @@ public class DataSourcesPane
                         // start the update thread
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.datasourceName = datasourceName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -487,7 +493,7 @@ public class DataSourcesPane
                                             "JDBC data source " + datasourceName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -30,12 +30,12 @@ import nextapp.echo2.extras.app.layout.TabPaneLayoutData;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.commons.lang.time.FastDateFormat;
 import org.apache.kalumet.console.configuration.ConfigurationManager;
-import org.apache.kalumet.model.Agent;
 import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.model.log.Event;
 import org.apache.kalumet.model.log.Journal;
-import org.apache.kalumet.ws.client.EnvironmentClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Date;
 import java.util.Iterator;
@@ -129,45 +129,6 @@ public class EnvironmentWindow
 
     private StatisticsPane statisticsPane;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( environment.getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the webservice
-                EnvironmentClient client = new EnvironmentClient( agent.getHostname(), agent.getPort() );
-                client.update( environmentName );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "Environment " + environmentName + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // close
     private ActionListener close = new ActionListener()
     {
@@ -205,7 +166,7 @@ public class EnvironmentWindow
                 return;
             }
             // looking for the environment object (updated)
-            Environment current = kalumet.getEnvironment( environmentName );
+            Environment current = kalumet.editEnvironment( environmentName );
             // raise an error if the environment is not found
             if ( current == null )
             {
@@ -258,7 +219,7 @@ public class EnvironmentWindow
                 return;
             }
             // get the environment object (updated)
-            Environment current = kalumet.getEnvironment( environmentName );
+            Environment current = kalumet.editEnvironment( environmentName );
             // raise an error if the environment is not found
             if ( current == null )
             {
@@ -289,6 +250,8 @@ public class EnvironmentWindow
                         Messages.getString( "db.write" ) + ": " + e.getMessage(), environmentName );
                     return;
                 }
+                // keep editing an own copy of the stored environment
+                environment = kalumet.editEnvironment( environmentName );
                 // update the view
                 update();
                 return;
@@ -310,6 +273,8 @@ public class EnvironmentWindow
                         Messages.getString( "db.write" ) + ": " + e.getMessage(), environmentName );
                     return;
                 }
+                // keep editing an own copy of the stored environment
+                environment = kalumet.editEnvironment( environmentName );
                 // update the view
                 update();
                 return;
@@ -335,7 +300,7 @@ public class EnvironmentWindow
                 return;
             }
             // looking for the environment in Kalumet
-            environment = kalumet.getEnvironment( environmentName );
+            environment = kalumet.editEnvironment( environmentName );
             if ( environment == null )
             {
                 environment = new Environment();
@@ -489,6 +454,8 @@ public class EnvironmentWindow
                     Messages.getString( "db.write" ) + ": " + e.getMessage(), environmentName );
                 return;
             }
+            // keep editing an own copy of the stored environment
+            environment = kalumet.editEnvironment( environment.getName() );
             // update the window definition
             if ( environment.getLock() == null || environment.getLock().trim().length() < 1 )
             {
@@ -654,37 +621,16 @@ public class EnvironmentWindow
                         KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                             "Environment " + environmentName + " update in progress...", environmentName );
                         getChangeEvents().add( "Update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        new UpdateJob( environment.getAgent(), environmentName,
+                                       "Environment " + environmentName, getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, environmentName );
-                                        getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "Environment " + environmentName + " updated.", environmentName );
-                                        getChangeEvents().add( "Update completed successfully." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitEnvironmentUpdate( environmentName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
@@ -721,7 +667,7 @@ public class EnvironmentWindow
         }
 
         // update the environment object from Kalumet
-        this.environment = kalumet.getEnvironment( environmentName );
+        this.environment = kalumet.editEnvironment( environmentName );
         if ( this.environment == null )
         {
             this.environment = new Environment();
@@ -817,6 +763,8 @@ public class EnvironmentWindow
                         Messages.getString( "db.write" ) + ": " + e.getMessage() );
                     return;
                 }
+                // keep editing an own copy of the stored environment
+                this.environment = kalumet.editEnvironment( environmentName );
             }
         }
 
@@ -1033,7 +1033,10 @@ public class GeneralPane
                                                                              parent.getEnvironmentName() );
             // start the agent status thread
             final AgentStatusThread agentStatusThread = new AgentStatusThread();
-            agentStatusThread.start();
+            if ( !TaskExecutor.execute( GeneralPane.this, agentStatusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -1053,7 +1056,7 @@ public class GeneralPane
                                 agentStatusThread.message, parent.getEnvironmentName() );
                         }
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( agentStatusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -385,7 +385,10 @@ public class JmsServersPane
             final StatusThread statusThread = new StatusThread();
             statusThread.serverName = serverName;
             statusThread.jmsServerName = jmsServerName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( JmsServersPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -406,7 +409,7 @@ public class JmsServersPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -460,7 +463,10 @@ public class JmsServersPane
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.serverName = serverName;
                         updateThread.jmsServerName = jmsServerName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -482,7 +488,7 @@ public class JmsServersPane
                                         parent.getChangeEvents().add( "JMS server " + jmsServerName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
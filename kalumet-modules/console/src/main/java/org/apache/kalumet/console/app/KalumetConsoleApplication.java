@@ -205,11 +205,22 @@ public class KalumetConsoleApplication
     {
         this.userid = null;
         this.copyComponent = null;
+        // cancel the session tasks
+        TaskExecutor.cancel( this );
         // delete the application task queue
         this.removeTaskQueue( this.taskQueue );
         getDefaultWindow().setContent( new LoginScreen() );
     }
 
+    /**
+     * Cancel the session tasks when the session ends.
+     */
+    public void dispose()
+    {
+        TaskExecutor.cancel( this );
+        super.dispose();
+    }
+
     /**
      * Initializes the Kalumet Console window.
      *
@@ -573,7 +573,10 @@ public class NameSpaceBindingsPane
             final StatusThread statusThread = new StatusThread();
             statusThread.serverName = serverName;
             statusThread.nameSpaceBindingName = nameSpaceBindingName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( NameSpaceBindingsPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -594,7 +597,7 @@ public class NameSpaceBindingsPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -650,7 +653,10 @@ public class NameSpaceBindingsPane
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.serverName = serverName;
                         updateThread.nameSpaceBindingName = nameSpaceBindingName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -674,7 +680,7 @@ public class NameSpaceBindingsPane
                                             "JNDI binding " + nameSpaceBindingName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -124,7 +124,7 @@ public class PreferencesWindow
                     Messages.getString( "db.read" ) + ": " + e.getMessage() );
                 return;
             }
-            User user = kalumet.getSecurity().getUser( KalumetConsoleApplication.getApplication().getUserid() );
+            User user = kalumet.getSecurity().editUser( KalumetConsoleApplication.getApplication().getUserid() );
             if ( user == null )
             {
                 KalumetConsoleApplication.getApplication().getLogPane().addError(
@@ -171,7 +171,8 @@ public class PreferencesWindow
                 for ( Iterator userGroupIterator = kalumet.getSecurity().getUserGroups( user.getId() ).iterator();
                       userGroupIterator.hasNext(); )
                 {
-                    Group group = (Group) userGroupIterator.next();
+                    Group group =
+                        kalumet.getSecurity().editGroup( ( (Group) userGroupIterator.next() ).getId() );
                     for ( Iterator userIterator = group.getUsers().iterator(); userIterator.hasNext(); )
                     {
                         User current = (User) userIterator.next();
@@ -552,7 +552,10 @@ public class SharedLibrariesPane
             final StatusThread statusThread = new StatusThread();
             statusThread.serverName = serverName;
             statusThread.sharedLibraryName = sharedLibraryName;
-            statusThread.start();
+            if ( !TaskExecutor.execute( SharedLibrariesPane.this, statusThread ) )
+            {
+                return;
+            }
             // sync with the client
             KalumetConsoleApplication.getApplication().enqueueTask(
                 KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -573,7 +576,7 @@ public class SharedLibrariesPane
                         }
                         parent.getChangeEvents().add( statusThread.message );
                     }
-                    else
+                    else if ( !TaskExecutor.isCancelled( statusThread ) )
                     {
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -628,7 +631,10 @@ public class SharedLibrariesPane
                         final UpdateThread updateThread = new UpdateThread();
                         updateThread.serverName = serverName;
                         updateThread.sharedLibraryName = sharedLibraryName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -652,7 +658,7 @@ public class SharedLibrariesPane
                                             "Shared library " + sharedLibraryName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -323,7 +323,10 @@ public class SoftwareCommandWindow
                             "Software " + parent.getName() + " command " + name + " execution requested." );
                         // start the execute thread
                         final ExecuteThread executeThread = new ExecuteThread();
-                        executeThread.start();
+                        if ( !TaskExecutor.execute( executeThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -349,7 +352,7 @@ public class SoftwareCommandWindow
                                             "Software " + parent.getName() + " command " + name + " executed." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( executeThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
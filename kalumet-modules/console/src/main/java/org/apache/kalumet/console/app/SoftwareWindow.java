@@ -43,6 +43,8 @@ import org.apache.kalumet.model.Database;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.model.Location;
 import org.apache.kalumet.model.Software;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 import org.apache.kalumet.ws.client.SoftwareClient;
 
 import java.util.Iterator;
@@ -78,45 +80,6 @@ public class SoftwareWindow
         new String[]{ Messages.getString( "location" ), Messages.getString( "command" ),
             Messages.getString( "configurationfile" ), Messages.getString( "database" ) };
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironmentWindow().getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the WebService
-                SoftwareClient client = new SoftwareClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentWindow().getEnvironmentName(), name, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "Software " + name + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // execute command thread
     class ExecuteCommandThread
         extends Thread
@@ -1628,39 +1591,17 @@ public class SoftwareWindow
                             parent.getEnvironmentWindow().getEnvironmentName() );
                         parent.getEnvironmentWindow().getChangeEvents().add(
                             "Software " + name + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        final String environmentName = parent.getEnvironmentWindow().getEnvironmentName();
+                        new UpdateJob( parent.getEnvironmentWindow().getEnvironment().getAgent(), environmentName,
+                                       "Software " + name, parent.getEnvironmentWindow().getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "Software " + name + " updated.",
-                                            parent.getEnvironmentWindow().getEnvironmentName() );
-                                        parent.getEnvironmentWindow().getChangeEvents().add(
-                                            "Software " + name + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitSoftwareUpdate( environmentName, name );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
@@ -1709,7 +1650,10 @@ public class SoftwareWindow
                         // start the execute command thread
                         final ExecuteCommandThread executeCommandThread = new ExecuteCommandThread();
                         executeCommandThread.commandName = commandName;
-                        executeCommandThread.start();
+                        if ( !TaskExecutor.execute( executeCommandThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -1735,7 +1679,7 @@ public class SoftwareWindow
                                             "Software " + name + " command " + commandName + " executed." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( executeCommandThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -1791,7 +1735,10 @@ public class SoftwareWindow
                         // start the update thread
                         final UpdateConfigurationFileThread updateThread = new UpdateConfigurationFileThread();
                         updateThread.configurationFileName = configurationFileName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -1816,7 +1763,7 @@ public class SoftwareWindow
                                                 + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -1872,7 +1819,10 @@ public class SoftwareWindow
                         // start the update thread
                         final UpdateDatabaseThread updateThread = new UpdateDatabaseThread();
                         updateThread.databaseName = databaseName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -1896,7 +1846,7 @@ public class SoftwareWindow
                                             "Software " + name + " database " + databaseName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -1952,7 +1902,10 @@ public class SoftwareWindow
                         // start the update thread
                         final UpdateLocationThread updateThread = new UpdateLocationThread();
                         updateThread.locationName = locationName;
-                        updateThread.start();
+                        if ( !TaskExecutor.execute( updateThread ) )
+                        {
+                            return;
+                        }
                         // sync with the client
                         KalumetConsoleApplication.getApplication().enqueueTask(
                             KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
@@ -1976,7 +1929,7 @@ public class SoftwareWindow
                                             "Software " + name + " location " + locationName + " updated." );
                                     }
                                 }
-                                else
+                                else if ( !TaskExecutor.isCancelled( updateThread ) )
                                 {
                                     KalumetConsoleApplication.getApplication().enqueueTask(
                                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -30,11 +30,9 @@ import nextapp.echo2.app.TextField;
 import nextapp.echo2.app.event.ActionEvent;
 import nextapp.echo2.app.event.ActionListener;
 import org.apache.kalumet.FileManipulator;
-import org.apache.kalumet.console.configuration.ConfigurationManager;
-import org.apache.kalumet.model.Agent;
-import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.model.Software;
-import org.apache.kalumet.ws.client.SoftwareClient;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
 
 import java.util.Iterator;
 
@@ -49,47 +47,6 @@ public class SoftwaresPane
 
     private Grid grid;
 
-    // update thread
-    class UpdateThread
-        extends Thread
-    {
-
-        public String softwareName;
-
-        public boolean ended = false;
-
-        public boolean failure = false;
-
-        public String message;
-
-        public void run()
-        {
-            try
-            {
-                // load Kalumet configuration
-                Kalumet kalumet = ConfigurationManager.loadStore();
-                // looking for the agent
-                Agent agent = kalumet.getAgent( parent.getEnvironment().getAgent() );
-                if ( agent == null )
-                {
-                    throw new IllegalArgumentException( "agent not found." );
-                }
-                // call the WebService
-                SoftwareClient client = new SoftwareClient( agent.getHostname(), agent.getPort() );
-                client.update( parent.getEnvironmentName(), softwareName, false );
-            }
-            catch ( Exception e )
-            {
-                failure = true;
-                message = "Software " + softwareName + " update failed: " + e.getMessage();
-            }
-            finally
-            {
-                ended = true;
-            }
-        }
-    }
-
     // toggle blocker
     private ActionListener toggleBlocker = new ActionListener()
     {
@@ -508,38 +465,16 @@ public class SoftwaresPane
                         KalumetConsoleApplication.getApplication().getLogPane().addInfo(
                             "Software " + softwareName + " update in progress ...", parent.getEnvironmentName() );
                         parent.getChangeEvents().add( "Software " + softwareName + " update requested." );
-                        // start the update thread
-                        final UpdateThread updateThread = new UpdateThread();
-                        updateThread.softwareName = softwareName;
-                        updateThread.start();
-                        // sync with the client
-                        KalumetConsoleApplication.getApplication().enqueueTask(
-                            KalumetConsoleApplication.getApplication().getTaskQueue(), new Runnable()
+                        // submit the update and follow it
+                        new UpdateJob( parent.getEnvironment().getAgent(), parent.getEnvironmentName(),
+                                       "Software " + softwareName, parent.getChangeEvents() )
                         {
-                            public void run()
+                            protected String submit( JobClient client )
+                                throws ClientException
                             {
-                                if ( updateThread.ended )
-                                {
-                                    if ( updateThread.failure )
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addError(
-                                            updateThread.message, parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add( updateThread.message );
-                                    }
-                                    else
-                                    {
-                                        KalumetConsoleApplication.getApplication().getLogPane().addConfirm(
-                                            "Software " + softwareName + " updated.", parent.getEnvironmentName() );
-                                        parent.getChangeEvents().add( "Software " + softwareName + " updated." );
-                                    }
-                                }
-                                else
-                                {
-                                    KalumetConsoleApplication.getApplication().enqueueTask(
-                                        KalumetConsoleApplication.getApplication().getTaskQueue(), this );
-                                }
+                                return client.submitSoftwareUpdate( parent.getEnvironmentName(), softwareName );
                             }
-                        } );
+                        }.start();
                     }
                 } ) );
         }
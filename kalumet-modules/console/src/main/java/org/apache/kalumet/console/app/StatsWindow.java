@@ -45,6 +45,16 @@ public class StatsWindow
 
     private Label usersCount;
 
+    private Label tasksQueued;
+
+    private Label tasksActive;
+
+    private Label tasksRejected;
+
+    private Label tasksWait;
+
+    private Label tasksRun;
+
     /**
      * Create a new <code>StatsWindow</code>.
      */
@@ -134,6 +144,56 @@ public class StatsWindow
         usersCount.setStyleName( "default" );
         usersCountRow.add( usersCount );
 
+        // the console tasks queue depth
+        Row tasksQueuedRow = new Row();
+        content.add( tasksQueuedRow );
+        Label tasksQueuedLabel = new Label( Messages.getString( "tasks.queued" ) + ": " );
+        tasksQueuedLabel.setStyleName( "default" );
+        tasksQueuedRow.add( tasksQueuedLabel );
+        tasksQueued = new Label( " " );
+        tasksQueued.setStyleName( "default" );
+        tasksQueuedRow.add( tasksQueued );
+
+        // the running console tasks
+        Row tasksActiveRow = new Row();
+        content.add( tasksActiveRow );
+        Label tasksActiveLabel = new Label( Messages.getString( "tasks.active" ) + ": " );
+        tasksActiveLabel.setStyleName( "default" );
+        tasksActiveRow.add( tasksActiveLabel );
+        tasksActive = new Label( " " );
+        tasksActive.setStyleName( "default" );
+        tasksActiveRow.add( tasksActive );
+
+        // the rejected console tasks
+        Row tasksRejectedRow = new Row();
+        content.add( tasksRejectedRow );
+        Label tasksRejectedLabel = new Label( Messages.getString( "tasks.rejections" ) + ": " );
+        tasksRejectedLabel.setStyleName( "default" );
+        tasksRejectedRow.add( tasksRejectedLabel );
+        tasksRejected = new Label( " " );
+        tasksRejected.setStyleName( "default" );
+        tasksRejectedRow.add( tasksRejected );
+
+        // the console tasks wait latency
+        Row tasksWaitRow = new Row();
+        content.add( tasksWaitRow );
+        Label tasksWaitLabel = new Label( Messages.getString( "tasks.wait" ) + ": " );
+        tasksWaitLabel.setStyleName( "default" );
+        tasksWaitRow.add( tasksWaitLabel );
+        tasksWait = new Label( " " );
+        tasksWait.setStyleName( "default" );
+        tasksWaitRow.add( tasksWait );
+
+        // the console tasks run latency
+        Row tasksRunRow = new Row();
+        content.add( tasksRunRow );
+        Label tasksRunLabel = new Label( Messages.getString( "tasks.run" ) + ": " );
+        tasksRunLabel.setStyleName( "default" );
+        tasksRunRow.add( tasksRunLabel );
+        tasksRun = new Label( " " );
+        tasksRun.setStyleName( "default" );
+        tasksRunRow.add( tasksRun );
+
         // the reporting buttons
         Row agentMapRow = new Row();
         content.add( agentMapRow );
@@ -174,6 +234,11 @@ public class StatsWindow
         environmentsCount.setText( new Integer( kalumet.getEnvironments().size() ).toString() );
         groupsCount.setText( new Integer( kalumet.getSecurity().getGroups().size() ).toString() );
         usersCount.setText( new Integer( kalumet.getSecurity().getUsers().size() ).toString() );
+        tasksQueued.setText( new Integer( TaskExecutor.getQueueDepth() ).toString() );
+        tasksActive.setText( new Integer( TaskExecutor.getActiveCount() ).toString() );
+        tasksRejected.setText( new Long( TaskExecutor.getRejectedCount() ).toString() );
+        tasksWait.setText( TaskExecutor.getAverageWaitTime() + " ms (max " + TaskExecutor.getMaxWaitTime() + " ms)" );
+        tasksRun.setText( TaskExecutor.getAverageRunTime() + " ms" );
     }
 
 }
@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.console.app;
+
+import nextapp.echo2.app.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded executor of the Kalumet Console asynchronous tasks (the WS calls
+ * to the agents), shared by all sessions.
+ * <p/>
+ * The tasks are executed by a fixed number of threads, with a bounded queue,
+ * and each session can't have more than a given number of queued and running
+ * tasks. The limits are defined by the system properties:
+ * <ul>
+ * <li><code>kalumet.console.executor.threads</code> (default 50)</li>
+ * <li><code>kalumet.console.executor.queue</code> (default 1000)</li>
+ * <li><code>kalumet.console.executor.session.quota</code> (default 50)</li>
+ * </ul>
+ * A task may be owned by a component (the window or pane displaying the
+ * result): the task is cancelled when the owner is not displayed anymore
+ * (the window is closed). All the tasks of a session are cancelled when the
+ * session ends.
+ */
+public class TaskExecutor
+{
+
+    private final static transient Logger LOGGER = LoggerFactory.getLogger( TaskExecutor.class );
+
+    public final static int THREADS = Integer.getInteger( "kalumet.console.executor.threads", 50 ).intValue();
+
+    public final static int QUEUE = Integer.getInteger( "kalumet.console.executor.queue", 1000 ).intValue();
+
+    public final static int SESSION_QUOTA =
+        Integer.getInteger( "kalumet.console.executor.session.quota", 50 ).intValue();
+
+    private final static ThreadPoolExecutor EXECUTOR =
+        new ThreadPoolExecutor( THREADS, THREADS, 60, TimeUnit.SECONDS, new ArrayBlockingQueue( QUEUE ),
+                                new TaskThreadFactory() );
+
+    // session -> list of the session queued and running tasks
+    private final static Map SESSIONS = new HashMap();
+
+    // runnable -> task
+    private final static Map TASKS = new HashMap();
+
+    // the cancelled runnables, to stop the polling of their result
+    private final static Map CANCELLED_TASKS = new WeakHashMap();
+
+    private final static AtomicLong SUBMITTED = new AtomicLong();
+
+    private final static AtomicLong STARTED = new AtomicLong();
+
+    private final static AtomicLong COMPLETED = new AtomicLong();
+
+    private final static AtomicLong REJECTED = new AtomicLong();
+
+    private final static AtomicLong CANCELLED = new AtomicLong();
+
+    private final static AtomicLong WAIT_TIME = new AtomicLong();
+
+    private final static AtomicLong MAX_WAIT_TIME = new AtomicLong();
+
+    private final static AtomicLong RUN_TIME = new AtomicLong();
+
+    /**
+     * Console task, wrapping the submitted runnable.
+     */
+    private static class Task
+        extends FutureTask
+    {
+
+        private final Runnable runnable;
+
+        private final KalumetConsoleApplication session;
+
+        private final Component owner;
+
+        private final long submitted = System.currentTimeMillis();
+
+        private long started;
+
+        Task( Runnable runnable, KalumetConsoleApplication session, Component owner )
+        {
+            super( runnable, null );
+            this.runnable = runnable;
+            this.session = session;
+            this.owner = owner;
+        }
+
+        public void run()
+        {
+            this.started = System.currentTimeMillis();
+            STARTED.incrementAndGet();
+            long wait = this.started - this.submitted;
+            WAIT_TIME.addAndGet( wait );
+            for ( long max = MAX_WAIT_TIME.get(); wait > max && !MAX_WAIT_TIME.compareAndSet( max, wait ); )
+            {
+                max = MAX_WAIT_TIME.get();
+            }
+            super.run();
+        }
+
+        protected void done()
+        {
+            if ( this.isCancelled() )
+            {
+                CANCELLED.incrementAndGet();
+                synchronized ( SESSIONS )
+                {
+                    CANCELLED_TASKS.put( this.runnable, Boolean.TRUE );
+                }
+            }
+            else
+            {
+                COMPLETED.incrementAndGet();
+                RUN_TIME.addAndGet( System.currentTimeMillis() - this.started );
+            }
+            TaskExecutor.release( this );
+        }
+
+    }
+
+    /**
+     * Submit a task of the current session, not owned by a component (the
+     * task is cancelled only when the session ends).
+     *
+     * @param runnable the task to execute.
+     * @return true if the task is submitted, false if it's rejected (the session quota or the queue is full).
+     */
+    public static boolean execute( Runnable runnable )
+    {
+        return TaskExecutor.execute( null, runnable );
+    }
+
+    /**
+     * Submit a task of the current session, owned by a component. This method
+     * has to be called by the session UI thread. If the task is rejected, a
+     * warning is added in the session log pane.
+     *
+     * @param owner    the component displaying the task result, null if the task is not owned by a component.
+     * @param runnable the task to execute.
+     * @return true if the task is submitted, false if it's rejected (the session quota or the queue is full).
+     */
+    public static boolean execute( Component owner, Runnable runnable )
+    {
+        KalumetConsoleApplication session = KalumetConsoleApplication.getApplication();
+        Task task = new Task( runnable, session, owner );
+        boolean accepted = false;
+        synchronized ( SESSIONS )
+        {
+            List tasks = (List) SESSIONS.get( session );
+            if ( tasks == null )
+            {
+                tasks = new LinkedList();
+                SESSIONS.put( session, tasks );
+            }
+            if ( tasks.size() < SESSION_QUOTA )
+            {
+                tasks.add( task );
+                TASKS.put( runnable, task );
+                accepted = true;
+            }
+        }
+        if ( !accepted )
+        {
+            // the session quota is reached
+            return TaskExecutor.rejected( session );
+        }
+        try
+        {
+            EXECUTOR.execute( task );
+        }
+        catch ( RejectedExecutionException rejectedExecutionException )
+        {
+            TaskExecutor.release( task );
+            return TaskExecutor.rejected( session );
+        }
+        SUBMITTED.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Check if a task has been cancelled, to stop the polling of its result.
+     * If the task owner is not displayed anymore, the task is cancelled. This
+     * method has to be called by the session UI thread.
+     *
+     * @param runnable the submitted task.
+     * @return true if the task has been cancelled, false else.
+     */
+    public static boolean isCancelled( Runnable runnable )
+    {
+        Task task;
+        synchronized ( SESSIONS )
+        {
+            task = (Task) TASKS.get( runnable );
+            if ( task == null )
+            {
+                // the task is done or cancelled
+                return CANCELLED_TASKS.containsKey( runnable );
+            }
+        }
+        if ( task.owner != null && !task.owner.isRegistered() )
+        {
+            LOGGER.debug( "Owner of task {} is closed, cancelling the task", runnable );
+            TaskExecutor.cancel( task );
+            return true;
+        }
+        return task.isCancelled();
+    }
+
+    /**
+     * Cancel all the queued and running tasks of a session.
+     *
+     * @param session the session.
+     */
+    public static void cancel( KalumetConsoleApplication session )
+    {
+        List tasks;
+        synchronized ( SESSIONS )
+        {
+            tasks = (List) SESSIONS.get( session );
+            if ( tasks == null )
+            {
+                return;
+            }
+            tasks = new LinkedList( tasks );
+        }
+        for ( Iterator iterator = tasks.iterator(); iterator.hasNext(); )
+        {
+            TaskExecutor.cancel( (Task) iterator.next() );
+        }
+    }
+
+    /**
+     * Get the number of queued tasks.
+     *
+     * @return the queue depth.
+     */
+    public static int getQueueDepth()
+    {
+        return EXECUTOR.getQueue().size();
+    }
+
+    /**
+     * Get the number of running tasks.
+     *
+     * @return the active tasks count.
+     */
+    public static int getActiveCount()
+    {
+        return EXECUTOR.getActiveCount();
+    }
+
+    public static long getSubmittedCount()
+    {
+        return SUBMITTED.get();
+    }
+
+    public static long getCompletedCount()
+    {
+        return COMPLETED.get();
+    }
+
+    public static long getRejectedCount()
+    {
+        return REJECTED.get();
+    }
+
+    public static long getCancelledCount()
+    {
+        return CANCELLED.get();
+    }
+
+    /**
+     * Get the average time spent by the tasks in the queue.
+     *
+     * @return the average wait time (in milliseconds).
+     */
+    public static long getAverageWaitTime()
+    {
+        long started = STARTED.get();
+        return ( started == 0 ) ? 0 : WAIT_TIME.get() / started;
+    }
+
+    /**
+     * Get the max time spent by a task in the queue.
+     *
+     * @return the max wait time (in milliseconds).
+     */
+    public static long getMaxWaitTime()
+    {
+        return MAX_WAIT_TIME.get();
+    }
+
+    /**
+     * Get the average execution time of the completed tasks.
+     *
+     * @return the average run time (in milliseconds).
+     */
+    public static long getAverageRunTime()
+    {
+        long completed = COMPLETED.get();
+        return ( completed == 0 ) ? 0 : RUN_TIME.get() / completed;
+    }
+
+    private static void cancel( Task task )
+    {
+        // interrupt the task if it's running, remove it from the queue else
+        task.cancel( true );
+        EXECUTOR.remove( task );
+    }
+
+    private static void release( Task task )
+    {
+        synchronized ( SESSIONS )
+        {
+            TASKS.remove( task.runnable );
+            List tasks = (List) SESSIONS.get( task.session );
+            if ( tasks != null )
+            {
+                tasks.remove( task );
+                if ( tasks.isEmpty() )
+                {
+                    SESSIONS.remove( task.session );
+                }
+            }
+        }
+    }
+
+    private static boolean rejected( KalumetConsoleApplication session )
+    {
+        REJECTED.incrementAndGet();
+        LOGGER.warn( "Console task rejected (queue depth {}, {} active tasks)", new Integer( getQueueDepth() ),
+                     new Integer( getActiveCount() ) );
+        if ( session != null && session.getLogPane() != null )
+        {
+            session.getLogPane().addWarning( Messages.getString( "tasks.rejected" ) );
+        }
+        return false;
+    }
+
+    /**
+     * Thread factory of the console task threads.
+     */
+    private static class TaskThreadFactory
+        implements ThreadFactory
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, "Apache Kalumet console task " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.console.app;
+
+import org.apache.kalumet.console.configuration.ConfigurationManager;
+import org.apache.kalumet.model.Agent;
+import org.apache.kalumet.model.Kalumet;
+import org.apache.kalumet.model.update.UpdateMessage;
+import org.apache.kalumet.ws.client.ClientException;
+import org.apache.kalumet.ws.client.JobClient;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Update job submitted to an agent, followed from the session task queue.
+ * <p/>
+ * No console task waits for the end of the update: the job is submitted by a
+ * task, then each poll of the job status and messages is a new short task,
+ * launched from the session task queue every poll interval. The update
+ * messages are added in the log pane as they arrive, and the job result is
+ * added in the log pane and in the environment journal.
+ */
+public abstract class UpdateJob
+    implements Runnable
+{
+
+    private final static long POLL_INTERVAL = 2000;
+
+    private final String agentName;
+
+    private final String environmentName;
+
+    private final String label;
+
+    private final List changeEvents;
+
+    private JobClient client;
+
+    private String jobId;
+
+    // number of update messages already read
+    private int from = 0;
+
+    // running submission or poll, null between two polls
+    private Step step;
+
+    private long nextPoll = 0;
+
+    /**
+     * Submission or poll of the job, executed by a console task.
+     */
+    private class Step
+        implements Runnable
+    {
+
+        private volatile boolean ended = false;
+
+        private String status;
+
+        private List messages = new LinkedList();
+
+        private Date start;
+
+        private String error;
+
+        public void run()
+        {
+            try
+            {
+                if ( client == null )
+                {
+                    // load Kalumet configuration
+                    Kalumet kalumet = ConfigurationManager.loadStore();
+                    // looking for the agent
+                    Agent agent = kalumet.getAgent( agentName );
+                    if ( agent == null )
+                    {
+                        throw new IllegalArgumentException( "agent not found." );
+                    }
+                    // call the web service
+                    client = new JobClient( agent.getHostname(), agent.getPort() );
+                    jobId = submit( client );
+                }
+                status = client.getStatus( jobId );
+                messages = client.getMessages( jobId, from );
+                if ( JobClient.COMPLETED.equals( status ) )
+                {
+                    start = client.getStart( jobId );
+                }
+                else if ( JobClient.FAILED.equals( status ) )
+                {
+                    error = client.getError( jobId );
+                }
+            }
+            catch ( Exception e )
+            {
+                status = JobClient.FAILED;
+                error = e.getMessage();
+            }
+            finally
+            {
+                ended = true;
+            }
+        }
+
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param agentName       the name of the agent managing the environment.
+     * @param environmentName the environment name (the log pane scope).
+     * @param label           the updated object label, prefix of the log messages (for instance "Environment test").
+     * @param changeEvents    the environment journal events, null to not journal the job result.
+     */
+    public UpdateJob( String agentName, String environmentName, String label, List changeEvents )
+    {
+        this.agentName = agentName;
+        this.environmentName = environmentName;
+        this.label = label;
+        this.changeEvents = changeEvents;
+    }
+
+    /**
+     * Submit the update to the agent.
+     *
+     * @param client the agent job WS client.
+     * @return the job ID.
+     * @throws ClientException in case of submission failure.
+     */
+    protected abstract String submit( JobClient client )
+        throws ClientException;
+
+    /**
+     * Submit the update job and follow it. This method has to be called by
+     * the session UI thread.
+     *
+     * @return true if the job submission is launched, false if it's rejected (the console tasks are full).
+     */
+    public boolean start()
+    {
+        this.step = new Step();
+        if ( !TaskExecutor.execute( this.step ) )
+        {
+            return false;
+        }
+        this.enqueue();
+        return true;
+    }
+
+    /**
+     * Follow the job from the session task queue.
+     */
+    public void run()
+    {
+        if ( this.step != null )
+        {
+            if ( !this.step.ended )
+            {
+                if ( !TaskExecutor.isCancelled( this.step ) )
+                {
+                    this.enqueue();
+                }
+                return;
+            }
+            Step ended = this.step;
+            this.step = null;
+            this.from = this.from + ended.messages.size();
+            this.log( ended.messages );
+            if ( JobClient.FAILED.equals( ended.status ) )
+            {
+                this.result( this.label + " update failed: " + ended.error, true );
+                return;
+            }
+            if ( JobClient.COMPLETED.equals( ended.status ) )
+            {
+                if ( ended.start.after( new Date() ) )
+                {
+                    // the update is deferred after the notification count down
+                    this.result( this.label + " update scheduled at " + ended.start + ".", false );
+                }
+                else
+                {
+                    KalumetConsoleApplication.getApplication().getLogPane().addConfirm( this.label + " updated.",
+                                                                                        this.environmentName );
+                    if ( this.changeEvents != null )
+                    {
+                        this.changeEvents.add( this.label + " updated." );
+                    }
+                }
+                return;
+            }
+            this.nextPoll = System.currentTimeMillis() + POLL_INTERVAL;
+        }
+        if ( System.currentTimeMillis() >= this.nextPoll )
+        {
+            Step poll = new Step();
+            if ( TaskExecutor.execute( poll ) )
+            {
+                this.step = poll;
+            }
+            else
+            {
+                // the console tasks are full, retry at the next poll
+                this.nextPoll = System.currentTimeMillis() + POLL_INTERVAL;
+            }
+        }
+        this.enqueue();
+    }
+
+    private void enqueue()
+    {
+        KalumetConsoleApplication.getApplication().enqueueTask(
+            KalumetConsoleApplication.getApplication().getTaskQueue(), this );
+    }
+
+    /**
+     * Add the update messages read from the agent in the log pane.
+     *
+     * @param messages the <code>UpdateMessage</code>s.
+     */
+    private void log( List messages )
+    {
+        for ( Iterator iterator = messages.iterator(); iterator.hasNext(); )
+        {
+            UpdateMessage message = (UpdateMessage) iterator.next();
+            if ( "error".equals( message.getPriority() ) )
+            {
+                KalumetConsoleApplication.getApplication().getLogPane().addError( message.getMessage(),
+                                                                                  this.environmentName );
+            }
+            else if ( "warn".equals( message.getPriority() ) )
+            {
+                KalumetConsoleApplication.getApplication().getLogPane().addWarning( message.getMessage(),
+                                                                                    this.environmentName );
+            }
+            else
+            {
+                KalumetConsoleApplication.getApplication().getLogPane().addInfo( message.getMessage(),
+                                                                                 this.environmentName );
+            }
+        }
+    }
+
+    private void result( String message, boolean failure )
+    {
+        if ( failure )
+        {
+            KalumetConsoleApplication.getApplication().getLogPane().addError( message, this.environmentName );
+        }
+        else
+        {
+            KalumetConsoleApplication.getApplication().getLogPane().addInfo( message, this.environmentName );
+        }
+        if ( this.changeEvents != null )
+        {
+            this.changeEvents.add( message );
+        }
+    }
+
+}
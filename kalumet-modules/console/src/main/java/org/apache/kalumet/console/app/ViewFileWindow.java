@@ -182,7 +182,10 @@ public class ViewFileWindow
         final ViewThread viewThread = new ViewThread();
         viewThread.agentId = agentId;
         viewThread.path = path;
-        viewThread.start();
+        if ( !TaskExecutor.execute( this, viewThread ) )
+        {
+            return;
+        }
 
         // sync with the client
         KalumetConsoleApplication.getApplication().enqueueTask(
@@ -204,7 +207,7 @@ public class ViewFileWindow
                         contentArea.setText( viewThread.message );
                     }
                 }
-                else
+                else if ( !TaskExecutor.isCancelled( viewThread ) )
                 {
                     KalumetConsoleApplication.getApplication().enqueueTask(
                         KalumetConsoleApplication.getApplication().getTaskQueue(), this );
@@ -19,16 +19,27 @@
 package org.apache.kalumet.console.configuration;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.kalumet.DigestCache;
 import org.apache.kalumet.console.configuration.model.KalumetConsole;
 import org.apache.kalumet.console.configuration.model.Property;
+import org.apache.kalumet.model.Agent;
+import org.apache.kalumet.model.Environment;
 import org.apache.kalumet.model.Kalumet;
 import org.apache.kalumet.model.log.Journal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.Calendar;
-import java.util.Date;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Load and manipulate the Kalumet configuration store.
@@ -44,11 +55,36 @@ public class ConfigurationManager
 
     private static KalumetConsole KALUMET_CONSOLE_CACHE = null;
 
-    private static Kalumet KALUMET_CACHE = null;
+    private static volatile StoreCache KALUMET_CACHE = null;
 
-    private static int KALUMET_CACHE_TIMEOUT_MINUTES = 5;
+    // the cached configuration is reloaded at least each timeout, even if the store file seems unchanged
+    static int KALUMET_CACHE_TIMEOUT_MINUTES = 5;
 
-    private static Date KALUMET_CACHE_DEPRECATION_DATE = null;
+    private final static Object KALUMET_CACHE_LOCK = new Object();
+
+    private final static AtomicLong KALUMET_CACHE_HITS = new AtomicLong();
+
+    private final static AtomicLong KALUMET_CACHE_MISSES = new AtomicLong();
+
+    private final static AtomicLong KALUMET_CACHE_RELOADS = new AtomicLong();
+
+    private final static int STORE_REVISIONS_HISTORY = 16;
+
+    private static Map STORE_REVISIONS = new LinkedHashMap()
+    {
+        protected boolean removeEldestEntry( Map.Entry eldest )
+        {
+            return size() > STORE_REVISIONS_HISTORY;
+        }
+    };
+
+    private static String STORE_CURRENT_REVISION = null;
+
+    private static long STORE_CURRENT_LAST_MODIFIED = -1;
+
+    private static long STORE_CURRENT_LENGTH = -1;
+
+    private static Kalumet STORE_CURRENT = null;
 
     /**
      * Load the Kalumet Console configuration.
@@ -100,31 +136,125 @@ public class ConfigurationManager
         return kalumetConsoleProperty.getValue();
     }
 
+    /**
+     * Cached Kalumet configuration, with the state of the store file when
+     * it has been loaded.
+     */
+    private static class StoreCache
+    {
+
+        private Kalumet kalumet;
+
+        private long lastModified;
+
+        private long length;
+
+        private long deprecationDate;
+
+        private StoreCache( Kalumet kalumet, long lastModified, long length )
+        {
+            this.kalumet = kalumet;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.deprecationDate = System.currentTimeMillis() + KALUMET_CACHE_TIMEOUT_MINUTES * 60L * 1000L;
+        }
+
+        /**
+         * Check if the cached configuration is still valid: not deprecated
+         * and the store file not modified since the load.
+         *
+         * @param store the store file.
+         * @return true if the cached configuration can be used, false else.
+         */
+        private boolean isValid( File store )
+        {
+            return System.currentTimeMillis() < this.deprecationDate && store.lastModified() == this.lastModified
+                && store.length() == this.length;
+        }
+
+    }
+
     /**
      * Load the Kalumet configuration.
+     * <p/>
+     * The configuration is parsed once and cached while the store file is
+     * not modified, for <code>KALUMET_CACHE_TIMEOUT_MINUTES</code> at most.
+     * When the store has to be reloaded, only one caller parses it, the
+     * concurrent ones wait for the result.
+     * <p/>
+     * The returned configuration is an editable copy of the cached one: the
+     * containers are copied but the model objects are shared, so they have to
+     * be replaced by their own copy (<code>editEnvironment()</code>,
+     * <code>editAgent()</code>, ...) before being modified.
      *
      * @return the Kalumet configuration.
      */
     public final static Kalumet loadStore()
         throws Exception
     {
-        if ( KALUMET_CACHE == null || KALUMET_CACHE_DEPRECATION_DATE.after( Calendar.getInstance().getTime() ) )
+        String kalumetConfigurationPath = ConfigurationManager.getStoreFile();
+        File kalumetConfigurationFile = new File( kalumetConfigurationPath );
+        StoreCache cache = KALUMET_CACHE;
+        if ( cache != null && cache.isValid( kalumetConfigurationFile ) )
+        {
+            KALUMET_CACHE_HITS.incrementAndGet();
+            return cache.kalumet.copy();
+        }
+        KALUMET_CACHE_MISSES.incrementAndGet();
+        synchronized ( KALUMET_CACHE_LOCK )
         {
-            String kalumetConfigurationPath = ConfigurationManager.getStoreFile();
-            File kalumetConfigurationFile = new File( kalumetConfigurationPath );
-            if ( !kalumetConfigurationFile.exists() )
+            // the store may have been reloaded by a concurrent caller
+            cache = KALUMET_CACHE;
+            if ( cache == null || !cache.isValid( kalumetConfigurationFile ) )
             {
-                kalumetConfigurationFile.createNewFile();
-                // init with a default file
-                Kalumet.writeDefault( kalumetConfigurationPath );
+                if ( !kalumetConfigurationFile.exists() )
+                {
+                    kalumetConfigurationFile.createNewFile();
+                    // init with a default file
+                    Kalumet.writeDefault( kalumetConfigurationPath );
+                }
+                LOGGER.debug( "Loading Kalumet configuration store {}", kalumetConfigurationPath );
+                KALUMET_CACHE_RELOADS.incrementAndGet();
+                // the store state before the parsing, a concurrent change makes the cache out of date
+                long lastModified = kalumetConfigurationFile.lastModified();
+                long length = kalumetConfigurationFile.length();
+                cache = new StoreCache( Kalumet.digeste( kalumetConfigurationPath ), lastModified, length );
+                KALUMET_CACHE = cache;
             }
-            KALUMET_CACHE = Kalumet.digeste( kalumetConfigurationPath );
-            // update the deprecation date
-            Calendar timeout = Calendar.getInstance();
-            timeout.set( Calendar.MINUTE, timeout.get( Calendar.MINUTE ) + KALUMET_CACHE_TIMEOUT_MINUTES );
-            KALUMET_CACHE_DEPRECATION_DATE = timeout.getTime();
         }
-        return KALUMET_CACHE;
+        return cache.kalumet.copy();
+    }
+
+    /**
+     * Get the number of <code>loadStore()</code> calls served by the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public final static long getStoreCacheHits()
+    {
+        return KALUMET_CACHE_HITS.get();
+    }
+
+    /**
+     * Get the number of <code>loadStore()</code> calls which found the cache
+     * deprecated or out of date.
+     *
+     * @return the number of cache misses.
+     */
+    public final static long getStoreCacheMisses()
+    {
+        return KALUMET_CACHE_MISSES.get();
+    }
+
+    /**
+     * Get the number of times the store has been parsed by
+     * <code>loadStore()</code>.
+     *
+     * @return the number of store reloads.
+     */
+    public final static long getStoreCacheReloads()
+    {
+        return KALUMET_CACHE_RELOADS.get();
     }
 
     /**
@@ -139,6 +269,144 @@ public class ConfigurationManager
         return FileUtils.readFileToString( new File( ConfigurationManager.getStoreFile() ), "ISO-8859-1" );
     }
 
+    /**
+     * Get the revision of the Kalumet configuration store. The revision is
+     * the MD5 digest (hexadecimal) of the store content: it doesn't depend on
+     * the file dates (clock changes, second precision, file touched but not
+     * changed) and stays the same for a given content across console
+     * restarts. The digest is only computed again when the store file
+     * last modification date or length changed. The digests of the store
+     * elements are recorded for each new revision, to be able to compute the
+     * deltas between revisions.
+     *
+     * @return the Kalumet configuration store revision.
+     */
+    public final static synchronized String getStoreRevision()
+        throws Exception
+    {
+        File store = new File( ConfigurationManager.getStoreFile() );
+        long lastModified = store.lastModified();
+        long length = store.length();
+        if ( STORE_CURRENT_REVISION != null && lastModified == STORE_CURRENT_LAST_MODIFIED
+            && length == STORE_CURRENT_LENGTH )
+        {
+            return STORE_CURRENT_REVISION;
+        }
+        // use the store cache, up to date with the store file
+        Kalumet kalumet = ConfigurationManager.loadStore();
+        String revision = ConfigurationManager.digest( store );
+        if ( !revision.equals( STORE_CURRENT_REVISION ) )
+        {
+            STORE_REVISIONS.put( revision, kalumet.getDigests() );
+            STORE_CURRENT_REVISION = revision;
+            STORE_CURRENT = kalumet;
+        }
+        STORE_CURRENT_LAST_MODIFIED = lastModified;
+        STORE_CURRENT_LENGTH = length;
+        return revision;
+    }
+
+    /**
+     * Compute the MD5 digest of a file.
+     *
+     * @param file the file.
+     * @return the hexadecimal digest.
+     */
+    private static String digest( File file )
+        throws Exception
+    {
+        MessageDigest messageDigest = MessageDigest.getInstance( "MD5" );
+        InputStream inputStream = null;
+        try
+        {
+            inputStream = new FileInputStream( file );
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = inputStream.read( buffer ) ) != -1 )
+            {
+                messageDigest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            IOUtils.closeQuietly( inputStream );
+        }
+        return DigestCache.toHex( messageDigest.digest() );
+    }
+
+    /**
+     * Copy the Kalumet XML raw content to a given stream.
+     *
+     * @param stream the stream where to copy the Kalumet XML raw content.
+     */
+    public final static void copyStore( OutputStream stream )
+        throws Exception
+    {
+        FileUtils.copyFile( new File( ConfigurationManager.getStoreFile() ), stream );
+    }
+
+    /**
+     * Get the changes of the Kalumet configuration store since a given
+     * revision. The returned <code>Kalumet</code> contains the properties,
+     * agents and environments added or modified since the revision, the keys
+     * (<code>property:name</code>, <code>agent:id</code> or
+     * <code>environment:name</code>) of the removed ones are added to the
+     * given list.
+     *
+     * @param revision the store revision known by the caller.
+     * @param removed  the list where to add the keys of the removed elements.
+     * @return the Kalumet configuration delta, or null if the revision is unknown (the complete store has to be used).
+     */
+    public final static synchronized Kalumet getStoreDelta( String revision, List removed )
+        throws Exception
+    {
+        String currentRevision = ConfigurationManager.getStoreRevision();
+        Map baseDigests = (Map) STORE_REVISIONS.get( revision );
+        if ( baseDigests == null )
+        {
+            return null;
+        }
+        Map currentDigests = (Map) STORE_REVISIONS.get( currentRevision );
+        Kalumet delta = new Kalumet();
+        for ( Iterator propertyIterator = STORE_CURRENT.getProperties().iterator(); propertyIterator.hasNext(); )
+        {
+            org.apache.kalumet.model.Property property = (org.apache.kalumet.model.Property) propertyIterator.next();
+            String key = "property:" + property.getName();
+            if ( !currentDigests.get( key ).equals( baseDigests.get( key ) ) )
+            {
+                delta.addProperty( property );
+            }
+        }
+        for ( Iterator agentIterator = STORE_CURRENT.getAgents().iterator(); agentIterator.hasNext(); )
+        {
+            Agent agent = (Agent) agentIterator.next();
+            String key = "agent:" + agent.getId();
+            if ( !currentDigests.get( key ).equals( baseDigests.get( key ) ) )
+            {
+                delta.addAgent( agent );
+            }
+        }
+        for ( Iterator environmentIterator = STORE_CURRENT.getEnvironments().iterator();
+              environmentIterator.hasNext(); )
+        {
+            Environment environment = (Environment) environmentIterator.next();
+            String key = "environment:" + environment.getName();
+            if ( !currentDigests.get( key ).equals( baseDigests.get( key ) ) )
+            {
+                delta.addEnvironment( environment );
+            }
+        }
+        for ( Iterator keyIterator = baseDigests.keySet().iterator(); keyIterator.hasNext(); )
+        {
+            String key = (String) keyIterator.next();
+            if ( !currentDigests.containsKey( key ) )
+            {
+                removed.add( key );
+            }
+        }
+        return delta;
+    }
+
     /**
      * Write the Kalumet configuration.
      *
@@ -149,14 +417,16 @@ public class ConfigurationManager
     {
         // get the kalumet configuration store location
         String kalumetConfigurationLocation = ConfigurationManager.getStoreFile();
-        // write the file
-        kalumet.writeXMLFile( kalumetConfigurationLocation );
-        // update the cache
-        KALUMET_CACHE = kalumet;
-        // update the deprecation date
-        Calendar timeout = Calendar.getInstance();
-        timeout.set( Calendar.MINUTE, timeout.get( Calendar.MINUTE ) + KALUMET_CACHE_TIMEOUT_MINUTES );
-        KALUMET_CACHE_DEPRECATION_DATE = timeout.getTime();
+        // the cache is updated with the write, from the state of the written file: a concurrent reload or write
+        // can't cache another content for this file state
+        synchronized ( KALUMET_CACHE_LOCK )
+        {
+            // write the file, keeping the previous versions as backups, and the binary snapshot used by the local
+            // readers
+            long[] stamp = kalumet.writeXMLFile( kalumetConfigurationLocation, true, true );
+            // the caller keeps its own copy
+            KALUMET_CACHE = new StoreCache( kalumet.copy(), stamp[0], stamp[1] );
+        }
     }
 
     /**
@@ -19,38 +19,124 @@
 package org.apache.kalumet.console.services;
 
 import org.apache.kalumet.console.configuration.ConfigurationManager;
+import org.apache.kalumet.model.Kalumet;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This servlet reads the Kalumet configuration store and push it to the
  * servlet response stream.
+ * <p/>
+ * The response contains the store revision (<code>X-Kalumet-Revision</code>
+ * header, the digest of the store content, also used as ETag) and supports
+ * conditional GET. A client providing its last known revision in the
+ * <code>revision</code> parameter gets only the properties, agents and
+ * environments changed since this revision (<code>X-Kalumet-Delta</code>
+ * header), the keys of the removed elements being listed in the
+ * <code>X-Kalumet-Removed</code> header. The response is gzipped if the
+ * client accepts it.
  */
 public class KalumetConfigurationWrapperServlet
     extends HttpServlet
 {
 
+    public final static String REVISION_HEADER = "X-Kalumet-Revision";
+
+    public final static String DELTA_HEADER = "X-Kalumet-Delta";
+
+    public final static String REMOVED_HEADER = "X-Kalumet-Removed";
+
+    public final static String REVISION_PARAMETER = "revision";
+
     public void doGet( HttpServletRequest req, HttpServletResponse resp )
         throws ServletException, IOException
     {
-        PrintWriter writer = resp.getWriter();
-        String content;
+        String revision;
+        try
+        {
+            revision = ConfigurationManager.getStoreRevision();
+        }
+        catch ( Exception e )
+        {
+            throw new ServletException( "Can't read the Apache Kalumet configuration store", e );
+        }
+        String etag = "\"" + revision + "\"";
+        resp.setHeader( REVISION_HEADER, revision );
+        resp.setHeader( "ETag", etag );
+        resp.setHeader( "Vary", "Accept-Encoding" );
+
+        // conditional GET
+        String clientRevision = req.getParameter( REVISION_PARAMETER );
+        if ( etag.equals( req.getHeader( "If-None-Match" ) ) || revision.equals( clientRevision ) )
+        {
+            resp.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
+            return;
+        }
+
+        // delta since the client revision
+        Kalumet delta = null;
+        List removed = new LinkedList();
+        if ( clientRevision != null )
+        {
+            try
+            {
+                delta = ConfigurationManager.getStoreDelta( clientRevision, removed );
+            }
+            catch ( Exception e )
+            {
+                throw new ServletException( "Can't read the Apache Kalumet configuration store", e );
+            }
+        }
+
+        resp.setContentType( "text/xml" );
+        if ( delta != null )
+        {
+            resp.setHeader( DELTA_HEADER, "true" );
+            StringBuffer buffer = new StringBuffer();
+            for ( Iterator removedIterator = removed.iterator(); removedIterator.hasNext(); )
+            {
+                if ( buffer.length() > 0 )
+                {
+                    buffer.append( ',' );
+                }
+                buffer.append( URLEncoder.encode( (String) removedIterator.next(), "UTF-8" ) );
+            }
+            resp.setHeader( REMOVED_HEADER, buffer.toString() );
+        }
+        OutputStream stream = resp.getOutputStream();
+        String acceptEncoding = req.getHeader( "Accept-Encoding" );
+        if ( acceptEncoding != null && acceptEncoding.indexOf( "gzip" ) != -1 )
+        {
+            resp.setHeader( "Content-Encoding", "gzip" );
+            stream = new GZIPOutputStream( stream );
+        }
         try
         {
-            content = ConfigurationManager.readStore();
+            if ( delta != null )
+            {
+                delta.writeXML( stream );
+            }
+            else
+            {
+                ConfigurationManager.copyStore( stream );
+            }
         }
         catch ( Exception e )
         {
             throw new ServletException( "Can't read the Apache Kalumet configuration store", e );
         }
-        writer.print( content );
-        writer.flush();
-        writer.close();
+        stream.flush();
+        stream.close();
     }
 
 }
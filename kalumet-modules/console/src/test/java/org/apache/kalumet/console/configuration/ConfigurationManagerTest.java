@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.console.configuration;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.kalumet.model.Environment;
+import org.apache.kalumet.model.Kalumet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests on the <code>ConfigurationManager</code> store cache.
+ */
+public class ConfigurationManagerTest
+{
+
+    private File directory;
+
+    private File store;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        directory = File.createTempFile( "kalumet", "" );
+        directory.delete();
+        directory.mkdirs();
+        System.setProperty( "kalumet.home", directory.getPath() );
+        store = new File( directory, "kalumet.xml" );
+        // load the default store of this test in the cache: the cache of a previous store expires immediately,
+        // and the store is loaded again with the default timeout
+        ConfigurationManager.KALUMET_CACHE_TIMEOUT_MINUTES = 0;
+        ConfigurationManager.loadStore();
+        ConfigurationManager.KALUMET_CACHE_TIMEOUT_MINUTES = 5;
+        ConfigurationManager.loadStore();
+        assertTrue( store.isFile() );
+    }
+
+    @After
+    public void tearDown()
+        throws Exception
+    {
+        ConfigurationManager.KALUMET_CACHE_TIMEOUT_MINUTES = 5;
+        System.clearProperty( "kalumet.home" );
+        FileUtils.deleteDirectory( directory );
+    }
+
+    @Test
+    public void testHits()
+        throws Exception
+    {
+        long hits = ConfigurationManager.getStoreCacheHits();
+        long reloads = ConfigurationManager.getStoreCacheReloads();
+        Kalumet first = ConfigurationManager.loadStore();
+        Kalumet second = ConfigurationManager.loadStore();
+        assertEquals( hits + 2, ConfigurationManager.getStoreCacheHits() );
+        assertEquals( reloads, ConfigurationManager.getStoreCacheReloads() );
+        // each caller gets its own copy
+        assertTrue( first != second );
+    }
+
+    @Test
+    public void testTimeout()
+        throws Exception
+    {
+        long misses = ConfigurationManager.getStoreCacheMisses();
+        long reloads = ConfigurationManager.getStoreCacheReloads();
+        ConfigurationManager.KALUMET_CACHE_TIMEOUT_MINUTES = 0;
+        // the modified store is cached with a null timeout
+        store.setLastModified( store.lastModified() + 2000 );
+        ConfigurationManager.loadStore();
+        assertEquals( reloads + 1, ConfigurationManager.getStoreCacheReloads() );
+        // the store is not modified but the cache is deprecated
+        ConfigurationManager.loadStore();
+        assertEquals( misses + 2, ConfigurationManager.getStoreCacheMisses() );
+        assertEquals( reloads + 2, ConfigurationManager.getStoreCacheReloads() );
+        ConfigurationManager.KALUMET_CACHE_TIMEOUT_MINUTES = 5;
+        ConfigurationManager.loadStore();
+        ConfigurationManager.loadStore();
+        assertEquals( reloads + 3, ConfigurationManager.getStoreCacheReloads() );
+    }
+
+    @Test
+    public void testStoreModified()
+        throws Exception
+    {
+        long reloads = ConfigurationManager.getStoreCacheReloads();
+        // the store length changes
+        Kalumet kalumet = new Kalumet();
+        Environment environment = new Environment();
+        environment.setName( "test" );
+        kalumet.addEnvironment( environment );
+        kalumet.writeXMLFile( "file:" + store.getPath() );
+        assertNotNull( ConfigurationManager.loadStore().getEnvironment( "test" ) );
+        assertEquals( reloads + 1, ConfigurationManager.getStoreCacheReloads() );
+        ConfigurationManager.loadStore();
+        assertEquals( reloads + 1, ConfigurationManager.getStoreCacheReloads() );
+        // the store modification date changes
+        store.setLastModified( store.lastModified() + 2000 );
+        ConfigurationManager.loadStore();
+        assertEquals( reloads + 2, ConfigurationManager.getStoreCacheReloads() );
+    }
+
+    @Test
+    public void testWrite()
+        throws Exception
+    {
+        long reloads = ConfigurationManager.getStoreCacheReloads();
+        Kalumet kalumet = ConfigurationManager.loadStore();
+        Environment environment = new Environment();
+        environment.setName( "written" );
+        kalumet.addEnvironment( environment );
+        ConfigurationManager.writeStore( kalumet );
+        // the cache is updated by the write, the written store is not parsed again
+        assertNotNull( ConfigurationManager.loadStore().getEnvironment( "written" ) );
+        assertEquals( reloads, ConfigurationManager.getStoreCacheReloads() );
+    }
+
+    @Test
+    public void testSingleReload()
+        throws Exception
+    {
+        long hits = ConfigurationManager.getStoreCacheHits();
+        long misses = ConfigurationManager.getStoreCacheMisses();
+        long reloads = ConfigurationManager.getStoreCacheReloads();
+        store.setLastModified( store.lastModified() + 2000 );
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[8];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        ConfigurationManager.loadStore();
+                    }
+                    catch ( Throwable e )
+                    {
+                        failure[0] = e;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i].join();
+        }
+        assertEquals( null, failure[0] );
+        // only one of the concurrent callers parses the modified store
+        assertEquals( reloads + 1, ConfigurationManager.getStoreCacheReloads() );
+        assertEquals( hits + misses + threads.length,
+                      ConfigurationManager.getStoreCacheHits() + ConfigurationManager.getStoreCacheMisses() );
+        assertTrue( ConfigurationManager.getStoreCacheMisses() > misses );
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.console.configuration;
+
+import org.apache.kalumet.model.Environment;
+import org.apache.kalumet.model.Kalumet;
+
+import java.io.File;
+
+/**
+ * Benchmark of the console store cache: a full parse of the store against a
+ * <code>loadStore()</code> served by the cache, followed by an environment
+ * lookup.
+ * <p/>
+ * It's not a unit test (not run by the build): a store with the given number
+ * of environments is written in <code>target/store-benchmark</code> (used as
+ * <code>kalumet.home</code>), each case is warmed up before the measured
+ * iterations, and the mean, min and max times are reported.
+ * Usage (from the console module directory, with the test classpath):
+ * <code>java org.apache.kalumet.console.configuration.StoreCacheBenchmark [environments] [iterations] [warmups]</code>
+ */
+public class StoreCacheBenchmark
+{
+
+    public static void main( String[] args )
+        throws Exception
+    {
+        int environments = ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 1000;
+        int iterations = ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 10;
+        int warmups = ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 5;
+
+        File home = new File( "./target/store-benchmark" );
+        home.mkdirs();
+        System.setProperty( "kalumet.home", home.getPath() );
+        File store = new File( home, "kalumet.xml" );
+        Kalumet kalumet = new Kalumet();
+        for ( int i = 0; i < environments; i++ )
+        {
+            Environment environment = new Environment();
+            environment.setName( "env" + i );
+            environment.setGroup( "group" + ( i % 100 ) );
+            environment.setAgent( "agent" + ( i % 10 ) );
+            kalumet.addEnvironment( environment );
+        }
+        kalumet.writeXMLFile( "file:" + store.getPath() );
+        System.out.println( "Kalumet store: " + environments + " environments, " + store.length() + " bytes" );
+
+        String lookup = "env" + ( environments / 2 );
+        StoreCacheBenchmark.run( "parse", "file:" + store.getPath(), lookup, iterations, warmups );
+        StoreCacheBenchmark.run( "cache", null, lookup, iterations, warmups );
+        System.out.println( "loadStore(): " + ConfigurationManager.getStoreCacheHits() + " hits, "
+                                + ConfigurationManager.getStoreCacheMisses() + " misses, "
+                                + ConfigurationManager.getStoreCacheReloads() + " reloads" );
+    }
+
+    /**
+     * Time the load of the store and an environment lookup.
+     *
+     * @param name       the benchmark case name.
+     * @param path       the store to parse, or null to load it with <code>ConfigurationManager.loadStore()</code>.
+     * @param lookup     the looked up environment name.
+     * @param iterations the number of measured iterations.
+     * @param warmups    the number of warm-up iterations.
+     */
+    private static void run( String name, String path, String lookup, int iterations, int warmups )
+        throws Exception
+    {
+        for ( int i = 0; i < warmups; i++ )
+        {
+            StoreCacheBenchmark.load( path, lookup );
+        }
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for ( int i = 0; i < iterations; i++ )
+        {
+            // don't measure the garbage of the previous iteration
+            System.gc();
+            long start = System.nanoTime();
+            StoreCacheBenchmark.load( path, lookup );
+            long time = System.nanoTime() - start;
+            total = total + time;
+            min = Math.min( min, time );
+            max = Math.max( max, time );
+        }
+        System.out.println( name + ": " + ( total / iterations / 1000 ) + " us per load (min " + ( min / 1000 )
+                                + " us, max " + ( max / 1000 ) + " us, " + iterations + " iterations after "
+                                + warmups + " warm-ups)" );
+    }
+
+    private static void load( String path, String lookup )
+        throws Exception
+    {
+        Kalumet kalumet = ( path != null ) ? Kalumet.digeste( path ) : ConfigurationManager.loadStore();
+        if ( kalumet.getEnvironment( lookup ) == null )
+        {
+            throw new IllegalStateException( "Environment " + lookup + " not found" );
+        }
+    }
+
+}
@@ -117,6 +117,29 @@ public abstract class AbstractJEEApplicationServerController
         this.cluster = cluster;
     }
 
+    public boolean isAlive()
+    {
+        return true;
+    }
+
+    public void close()
+    {
+        // nothing to do by default
+    }
+
+    /**
+     * Default inventory, covering no resource type: the deployment checks are
+     * performed by the controller, one resource at a time.
+     *
+     * @return an empty JEE application server inventory.
+     * @throws ControllerException in case of inventory fetch failure.
+     */
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException
+    {
+        return new JEEApplicationServerInventory( this );
+    }
+
     public abstract void shutdown()
         throws ControllerException;
 
@@ -26,6 +26,30 @@ import java.util.List;
 public interface JEEApplicationServerController
 {
 
+    /**
+     * Check if the controller connection to the JEE application server is
+     * still usable (the controllers are cached and reused).
+     *
+     * @return true if the connection is alive, false else.
+     */
+    public boolean isAlive();
+
+    /**
+     * Close the controller connection to the JEE application server.
+     */
+    public void close();
+
+    /**
+     * Get a snapshot of the resources deployed in the JEE application server,
+     * fetched in as few round trips as possible, to check the deployment of
+     * several resources locally.
+     *
+     * @return the JEE application server inventory.
+     * @throws ControllerException in case of inventory fetch failure.
+     */
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException;
+
     /**
      * Shutdown a JEE application server.
      *
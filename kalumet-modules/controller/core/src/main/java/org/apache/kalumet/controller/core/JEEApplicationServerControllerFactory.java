@@ -25,9 +25,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Factory to get a <code>JEEApplicationServerController</code>.
+ * <p/>
+ * The controllers are cached by JEE application server (controller class,
+ * JMX URL, admin user, server name and cluster flag), so an update or a check
+ * uses the same controller connection for all the server resources. A cached
+ * controller idle for more than <code>kalumet.controller.validation.interval</code>
+ * milliseconds (default 5 seconds) is checked before being reused, and closed
+ * after <code>kalumet.controller.idle.timeout</code> milliseconds (default 15
+ * minutes) without use: the idle controllers are closed when a controller
+ * is requested, and periodically by a daemon thread (started with the first
+ * cached controller) when no controller is requested anymore.
+ * <p/>
+ * A controller got by <code>getController</code> is leased: it has to be
+ * given back with <code>returnController</code> once used. A controller
+ * removed from the cache (not usable anymore, replaced or released) is closed
+ * only when all its leases are returned.
  */
 public class JEEApplicationServerControllerFactory
 {
@@ -35,13 +60,95 @@ public class JEEApplicationServerControllerFactory
     private final static transient Logger LOGGER =
         LoggerFactory.getLogger( JEEApplicationServerControllerFactory.class );
 
+    public final static long VALIDATION_INTERVAL =
+        Long.getLong( "kalumet.controller.validation.interval", 5000 ).longValue();
+
+    public final static long IDLE_TIMEOUT = Long.getLong( "kalumet.controller.idle.timeout", 900000 ).longValue();
+
+    // key -> cached controller
+    private final static Map CONTROLLERS = new HashMap();
+
+    // leased controller -> cached controller
+    private final static Map LEASES = new IdentityHashMap();
+
+    // periodic eviction of the idle controllers, guarded by CONTROLLERS
+    private static ScheduledExecutorService EVICTOR = null;
+
+    /**
+     * Controller cache entry.
+     */
+    private static class CachedController
+    {
+
+        private final JEEApplicationServerController controller;
+
+        private final String password;
+
+        private long lastUsed = System.currentTimeMillis();
+
+        // number of leases not returned
+        private int leases = 0;
+
+        // removed from the cache, closed when the last lease is returned
+        private boolean removed = false;
+
+        CachedController( JEEApplicationServerController controller, String password )
+        {
+            this.controller = controller;
+            this.password = password;
+        }
+
+    }
+
+    /**
+     * Lease the controller of a JEE application server. The controller has
+     * to be given back with <code>returnController</code>.
+     *
+     * @param environment the <code>Environment</code>.
+     * @param server      the <code>JEEApplicationServer</code>.
+     * @return the JEE application server controller.
+     * @throws ControllerException if the controller can't be initialized.
+     */
     public static JEEApplicationServerController getController( Environment environment, JEEApplicationServer server )
         throws ControllerException
     {
-        LOGGER.debug( "Connecting to {}", VariableUtils.replace( server.getJmxurl(), environment.getVariables() ) );
         String jmxUrl = VariableUtils.replace( server.getJmxurl(), environment.getVariables() );
         String adminUser = VariableUtils.replace( server.getAdminuser(), environment.getVariables() );
         String adminPassword = VariableUtils.replace( server.getAdminpassword(), environment.getVariables() );
+        boolean cluster = environment.getJEEApplicationServers().isCluster();
+        String key = getKey( server.getClassname(), jmxUrl, adminUser, server.getName(), cluster );
+
+        List closed = new LinkedList();
+        CachedController cached;
+        long idle = 0;
+        synchronized ( CONTROLLERS )
+        {
+            JEEApplicationServerControllerFactory.evictIdle( closed );
+            cached = (CachedController) CONTROLLERS.get( key );
+            if ( cached != null )
+            {
+                idle = System.currentTimeMillis() - cached.lastUsed;
+                JEEApplicationServerControllerFactory.lease( cached );
+            }
+        }
+        JEEApplicationServerControllerFactory.close( closed );
+        if ( cached != null )
+        {
+            if ( same( cached.password, adminPassword ) && ( idle < VALIDATION_INTERVAL
+                || cached.controller.isAlive() ) )
+            {
+                LOGGER.debug( "Reusing controller connected to {}", jmxUrl );
+                return cached.controller;
+            }
+            LOGGER.debug( "Controller connected to {} is not usable anymore", jmxUrl );
+            synchronized ( CONTROLLERS )
+            {
+                JEEApplicationServerControllerFactory.remove( key, cached );
+            }
+            JEEApplicationServerControllerFactory.returnController( cached.controller );
+        }
+
+        LOGGER.debug( "Connecting to {}", jmxUrl );
         JEEApplicationServerController controller = null;
         try
         {
@@ -49,8 +156,7 @@ public class JEEApplicationServerControllerFactory
             Constructor controllerConstructor = controllerClass.getConstructor(
                 new Class[]{ String.class, String.class, String.class, String.class, Boolean.class } );
             controller = (JEEApplicationServerController) controllerConstructor.newInstance(
-                new Object[]{ jmxUrl, adminUser, adminPassword, server.getName(),
-                    new Boolean( environment.getJEEApplicationServers().isCluster() ) } );
+                new Object[]{ jmxUrl, adminUser, adminPassword, server.getName(), new Boolean( cluster ) } );
         }
         catch ( Exception e )
         {
@@ -65,8 +171,259 @@ public class JEEApplicationServerControllerFactory
                     "Can't initialize controller. Check if the JEE application server libraries are present in the agent classpath and check the agent log" );
             }
         }
+        CachedController created = new CachedController( controller, adminPassword );
+        CachedController concurrent;
+        boolean reuse = false;
+        boolean close = false;
+        synchronized ( CONTROLLERS )
+        {
+            concurrent = (CachedController) CONTROLLERS.get( key );
+            if ( concurrent != null && same( concurrent.password, adminPassword ) )
+            {
+                JEEApplicationServerControllerFactory.lease( concurrent );
+                reuse = true;
+            }
+            else
+            {
+                if ( concurrent != null )
+                {
+                    close = JEEApplicationServerControllerFactory.remove( key, concurrent );
+                }
+                CONTROLLERS.put( key, created );
+                JEEApplicationServerControllerFactory.lease( created );
+                JEEApplicationServerControllerFactory.scheduleEviction();
+            }
+        }
+        if ( reuse )
+        {
+            // concurrent creation, the cached controller is used
+            controller.close();
+            return concurrent.controller;
+        }
+        if ( close )
+        {
+            concurrent.controller.close();
+        }
         return controller;
+    }
+
+    /**
+     * Give back a controller leased by <code>getController</code>. The
+     * controller is closed if it has been removed from the cache meanwhile
+     * and it's its last lease.
+     *
+     * @param controller the leased controller (may be null).
+     */
+    public static void returnController( JEEApplicationServerController controller )
+    {
+        if ( controller == null )
+        {
+            return;
+        }
+        CachedController cached;
+        synchronized ( CONTROLLERS )
+        {
+            cached = (CachedController) LEASES.get( controller );
+            if ( cached == null )
+            {
+                LOGGER.warn( "Controller {} is not leased", controller );
+                return;
+            }
+            cached.leases--;
+            cached.lastUsed = System.currentTimeMillis();
+            if ( cached.leases > 0 )
+            {
+                return;
+            }
+            LEASES.remove( controller );
+            if ( !cached.removed )
+            {
+                return;
+            }
+        }
+        cached.controller.close();
+    }
+
+    /**
+     * Remove the cached controller of a JEE application server, for instance
+     * after the server shutdown or restart. The next call to
+     * <code>getController</code> connects a new controller, the released
+     * controller is closed when all its leases are returned.
+     *
+     * @param environment the <code>Environment</code>.
+     * @param server      the <code>JEEApplicationServer</code>.
+     */
+    public static void release( Environment environment, JEEApplicationServer server )
+    {
+        String key = getKey( server.getClassname(), VariableUtils.replace( server.getJmxurl(),
+                                                                           environment.getVariables() ),
+                             VariableUtils.replace( server.getAdminuser(), environment.getVariables() ),
+                             server.getName(), environment.getJEEApplicationServers().isCluster() );
+        boolean close = false;
+        CachedController cached;
+        synchronized ( CONTROLLERS )
+        {
+            cached = (CachedController) CONTROLLERS.get( key );
+            if ( cached != null )
+            {
+                close = JEEApplicationServerControllerFactory.remove( key, cached );
+            }
+        }
+        if ( cached != null )
+        {
+            LOGGER.debug( "Releasing controller of JEE application server {}", server.getName() );
+        }
+        if ( close )
+        {
+            cached.controller.close();
+        }
+    }
+
+    /**
+     * Remove all the cached controllers, closing the ones not leased.
+     */
+    public static void releaseAll()
+    {
+        List closed = new LinkedList();
+        synchronized ( CONTROLLERS )
+        {
+            for ( Iterator iterator = CONTROLLERS.values().iterator(); iterator.hasNext(); )
+            {
+                CachedController cached = (CachedController) iterator.next();
+                iterator.remove();
+                cached.removed = true;
+                if ( cached.leases == 0 )
+                {
+                    closed.add( cached );
+                }
+            }
+        }
+        JEEApplicationServerControllerFactory.close( closed );
+    }
+
+    /**
+     * Close the cached controllers idle for more than <code>IDLE_TIMEOUT</code>
+     * and not leased. Called periodically, so the connections of the servers
+     * not updated anymore are released.
+     */
+    public static void closeIdle()
+    {
+        List closed = new LinkedList();
+        synchronized ( CONTROLLERS )
+        {
+            JEEApplicationServerControllerFactory.evictIdle( closed );
+        }
+        JEEApplicationServerControllerFactory.close( closed );
+    }
+
+    private static String getKey( String className, String jmxUrl, String adminUser, String serverName,
+                                  boolean cluster )
+    {
+        return className + "|" + jmxUrl + "|" + adminUser + "|" + serverName + "|" + cluster;
+    }
+
+    private static boolean same( String s1, String s2 )
+    {
+        return ( s1 == null ) ? s2 == null : s1.equals( s2 );
+    }
+
+    /**
+     * Lease a cached controller. The caller has to hold the cache lock.
+     *
+     * @param cached the cached controller.
+     */
+    private static void lease( CachedController cached )
+    {
+        cached.leases++;
+        cached.lastUsed = System.currentTimeMillis();
+        LEASES.put( cached.controller, cached );
+    }
+
+    /**
+     * Remove a controller from the cache. The caller has to hold the cache
+     * lock, and has to close the controller (outside of the lock) if it's
+     * not leased.
+     *
+     * @param key    the cache key.
+     * @param cached the cached controller.
+     * @return true if the controller is not leased and has to be closed, false else.
+     */
+    private static boolean remove( String key, CachedController cached )
+    {
+        if ( CONTROLLERS.get( key ) == cached )
+        {
+            CONTROLLERS.remove( key );
+        }
+        cached.removed = true;
+        return cached.leases == 0;
+    }
+
+    /**
+     * Start the periodic eviction of the idle controllers, checked every
+     * quarter of <code>IDLE_TIMEOUT</code>. The caller has to hold the cache
+     * lock.
+     */
+    private static void scheduleEviction()
+    {
+        if ( EVICTOR != null )
+        {
+            return;
+        }
+        EVICTOR = Executors.newSingleThreadScheduledExecutor( new ThreadFactory()
+        {
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "Apache Kalumet controllers eviction" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        long interval = Math.max( IDLE_TIMEOUT / 4, 1000 );
+        EVICTOR.scheduleWithFixedDelay( new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    JEEApplicationServerControllerFactory.closeIdle();
+                }
+                catch ( Exception e )
+                {
+                    LOGGER.warn( "Can't close the idle controllers", e );
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Remove the controllers idle for more than <code>IDLE_TIMEOUT</code>
+     * and not leased. The caller has to hold the cache lock, and has to close
+     * the removed controllers (outside of the lock).
+     *
+     * @param closed the list where to add the removed controllers.
+     */
+    private static void evictIdle( List closed )
+    {
+        long now = System.currentTimeMillis();
+        for ( Iterator iterator = CONTROLLERS.values().iterator(); iterator.hasNext(); )
+        {
+            CachedController cached = (CachedController) iterator.next();
+            if ( cached.leases == 0 && now - cached.lastUsed > IDLE_TIMEOUT )
+            {
+                LOGGER.debug( "Closing idle controller {}", cached.controller );
+                iterator.remove();
+                cached.removed = true;
+                closed.add( cached );
+            }
+        }
+    }
 
+    private static void close( List closed )
+    {
+        for ( Iterator iterator = closed.iterator(); iterator.hasNext(); )
+        {
+            ( (CachedController) iterator.next() ).controller.close();
+        }
     }
 
 }
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.kalumet.controller.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the resources deployed in a JEE application server.
+ * <p/>
+ * The snapshot is fetched by the controller in a few round trips and the
+ * deployment checks are then performed locally. A resource type not covered
+ * by the snapshot (not supported by the controller, or which can't be
+ * listed) is checked by the controller, one resource at a time.
+ * <p/>
+ * The snapshot is not updated by the deployments: a resource has to be
+ * checked once, before its update.
+ */
+public class JEEApplicationServerInventory
+{
+
+    public final static String JEE_APPLICATION = "application";
+
+    public final static String JDBC_CONNECTION_POOL = "connectionpool";
+
+    public final static String JDBC_DATA_SOURCE = "datasource";
+
+    public final static String JMS_CONNECTION_FACTORY = "jmsconnectionfactory";
+
+    public final static String JMS_SERVER = "jmsserver";
+
+    public final static String JNDI_BINDING = "jndibinding";
+
+    public final static String SHARED_LIBRARY = "sharedlibrary";
+
+    private final JEEApplicationServerController controller;
+
+    // type -> set of the deployed resource names
+    private final Map resources = new HashMap();
+
+    /**
+     * Default constructor, creating a snapshot covering no resource type.
+     *
+     * @param controller the controller used to check the resource types not covered by the snapshot.
+     */
+    public JEEApplicationServerInventory( JEEApplicationServerController controller )
+    {
+        this.controller = controller;
+    }
+
+    /**
+     * Get the controller of the JEE application server.
+     *
+     * @return the JEE application server controller.
+     */
+    public JEEApplicationServerController getController()
+    {
+        return this.controller;
+    }
+
+    /**
+     * Define a resource type as covered by the snapshot, even if no resource
+     * of this type is deployed.
+     *
+     * @param type the resource type.
+     */
+    public void addType( String type )
+    {
+        if ( !this.resources.containsKey( type ) )
+        {
+            this.resources.put( type, new HashSet() );
+        }
+    }
+
+    /**
+     * Add a deployed resource in the snapshot.
+     *
+     * @param type the resource type.
+     * @param name the resource name.
+     */
+    public void add( String type, String name )
+    {
+        this.addType( type );
+        ( (Set) this.resources.get( type ) ).add( name );
+    }
+
+    /**
+     * Check if a resource type is covered by the snapshot.
+     *
+     * @param type the resource type.
+     * @return true if the resource type is covered by the snapshot, false else.
+     */
+    public boolean isCovered( String type )
+    {
+        return this.resources.containsKey( type );
+    }
+
+    /**
+     * Check if a resource of a covered type is in the snapshot. The
+     * controllers may override this method to match the resource names the
+     * way the application server does.
+     *
+     * @param type the resource type.
+     * @param name the resource name.
+     * @return true if the resource is in the snapshot, false else.
+     */
+    protected boolean contains( String type, String name )
+    {
+        Set names = (Set) this.resources.get( type );
+        return names != null && names.contains( name );
+    }
+
+    public boolean isJEEApplicationDeployed( String path, String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JEE_APPLICATION ) )
+        {
+            return this.contains( JEE_APPLICATION, name );
+        }
+        return this.controller.isJEEApplicationDeployed( path, name );
+    }
+
+    public boolean isJDBCConnectionPoolDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JDBC_CONNECTION_POOL ) )
+        {
+            return this.contains( JDBC_CONNECTION_POOL, name );
+        }
+        return this.controller.isJDBCConnectionPoolDeployed( name );
+    }
+
+    public boolean isJDBCDataSourceDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JDBC_DATA_SOURCE ) )
+        {
+            return this.contains( JDBC_DATA_SOURCE, name );
+        }
+        return this.controller.isJDBCDataSourceDeployed( name );
+    }
+
+    public boolean isJMSConnectionFactoryDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JMS_CONNECTION_FACTORY ) )
+        {
+            return this.contains( JMS_CONNECTION_FACTORY, name );
+        }
+        return this.controller.isJMSConnectionFactoryDeployed( name );
+    }
+
+    public boolean isJMSServerDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JMS_SERVER ) )
+        {
+            return this.contains( JMS_SERVER, name );
+        }
+        return this.controller.isJMSServerDeployed( name );
+    }
+
+    public boolean isJNDIBindingDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( JNDI_BINDING ) )
+        {
+            return this.contains( JNDI_BINDING, name );
+        }
+        return this.controller.isJNDIBindingDeployed( name );
+    }
+
+    public boolean isSharedLibraryDeployed( String name )
+        throws ControllerException
+    {
+        if ( this.isCovered( SHARED_LIBRARY ) )
+        {
+            return this.contains( SHARED_LIBRARY, name );
+        }
+        return this.controller.isSharedLibraryDeployed( name );
+    }
+
+}
@@ -24,6 +24,7 @@ import org.apache.kalumet.FileManipulator;
 import org.apache.kalumet.FileManipulatorException;
 import org.apache.kalumet.controller.core.AbstractJEEApplicationServerController;
 import org.apache.kalumet.controller.core.ControllerException;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.jboss.jmx.adaptor.rmi.RMIAdaptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -124,6 +125,20 @@ public class JBoss4Controller
         }
     }
 
+    public boolean isAlive()
+    {
+        try
+        {
+            server.getMBeanCount();
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "The JBoss JMX RMI adaptor connection is broken", e );
+            return false;
+        }
+    }
+
     public void shutdown()
         throws ControllerException
     {
@@ -188,6 +203,39 @@ public class JBoss4Controller
         }
     }
 
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException
+    {
+        LOGGER.info( "Getting the JBoss application server inventory" );
+        // the JEE applications, JDBC connection pools and JMS connection factories are checked one by one with the
+        // main deployer, the other resources are embedded in JBoss
+        final String listing;
+        try
+        {
+            ObjectName mbean = new ObjectName( "jboss:service=JNDIView" );
+            listing = (String) server.invoke( mbean, "list", new Object[]{ new Boolean( "false" ) },
+                                              new String[]{ "java.lang.Boolean" } );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't get the JNDI view, the JNDI bindings will be checked one by one", e );
+            return new JEEApplicationServerInventory( this );
+        }
+        JEEApplicationServerInventory inventory = new JEEApplicationServerInventory( this )
+        {
+            protected boolean contains( String type, String name )
+            {
+                if ( JNDI_BINDING.equals( type ) )
+                {
+                    return StringUtils.containsIgnoreCase( listing, name );
+                }
+                return super.contains( type, name );
+            }
+        };
+        inventory.addType( JEEApplicationServerInventory.JNDI_BINDING );
+        return inventory;
+    }
+
     /**
      * Format an application path in a JBoss compatible URL.
      *
@@ -23,6 +23,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.kalumet.FileManipulator;
 import org.apache.kalumet.controller.core.AbstractJEEApplicationServerController;
 import org.apache.kalumet.controller.core.ControllerException;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +59,9 @@ public class JBoss6Controller
 
     private URL deployURL;
 
+    // the MBean server connection, shared by the controller calls
+    private JMXConnector connector;
+
     /**
      * Default constructor.
      * NB: the JBoss application server should accept remote JMX connection. To do so,in the run.conf/run.bat of the JBoss application server,
@@ -110,11 +114,9 @@ public class JBoss6Controller
             throw new ControllerException( "Can't connect to the JBoss application server", e );
         }
         // disable the deployment scanner and get the deploy folder
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName deploymentScannerMBean = new ObjectName( "jboss.deployment:flavor=URL,type=DeploymentScanner" );
             server.invoke( deploymentScannerMBean, "stop", null, null );
             ObjectName serverConfigMBean = new ObjectName( "jboss.system:type=ServerConfig" );
@@ -125,21 +127,61 @@ public class JBoss6Controller
         catch ( Exception e )
         {
             LOGGER.error( "Can't stop the JBoss deployment scanner or get the deploy folder", e );
+            this.close();
             throw new ControllerException( "Can't stop the JBoss deployment scanner or get the deploy folder", e );
         }
-        finally
+    }
+
+    /**
+     * Get the connection to the JBoss MBean server, opened at the first call
+     * and shared by the controller calls.
+     *
+     * @return the JBoss MBean server connection.
+     * @throws IOException in case of connection failure.
+     */
+    private synchronized MBeanServerConnection getConnection()
+        throws IOException
+    {
+        if ( this.connector == null )
+        {
+            LOGGER.debug( "Connecting to the JBoss MBean server {}", this.jmxServiceURL );
+            this.connector = JMXConnectorFactory.connect( this.jmxServiceURL, null );
+        }
+        return this.connector.getMBeanServerConnection();
+    }
+
+    public synchronized boolean isAlive()
+    {
+        if ( this.connector == null )
+        {
+            return false;
+        }
+        try
         {
-            if ( connector != null )
+            this.connector.getConnectionId();
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "The JBoss MBean server connection is broken", e );
+            this.close();
+            return false;
+        }
+    }
+
+    public synchronized void close()
+    {
+        if ( this.connector != null )
+        {
+            try
             {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
+                this.connector.close();
             }
+            catch ( Exception e )
+            {
+                // nothing to do
+            }
+            this.connector = null;
         }
     }
 
@@ -147,12 +189,10 @@ public class JBoss6Controller
         throws ControllerException
     {
         LOGGER.info( "Shutting down JBoss application server" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
             ObjectName serverMBean = new ObjectName( "jboss.system:type=Server" );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             server.invoke( serverMBean, "shutdown", null, null );
         }
         catch ( Exception e )
@@ -160,20 +200,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't shutdown JBoss application server", e );
             throw new ControllerException( "Can't shutdown JBoss application server", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public String status()
@@ -181,12 +207,10 @@ public class JBoss6Controller
     {
         LOGGER.info( "Checking status of JBoss application server" );
         boolean stopped = isStopped();
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
             ObjectName serverMBean = new ObjectName( "jboss.system:type=Server" );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             if ( !stopped )
             {
                 LOGGER.debug( "JBoss application server started" );
@@ -204,41 +228,61 @@ public class JBoss6Controller
             LOGGER.warn( "Can't check status of the JBoss application server", e );
             return "N/A";
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isStopped()
         throws ControllerException
     {
         LOGGER.info( "Checking if JBoss application server is stopped" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
             ObjectName serverMBean = new ObjectName( "jboss.system:type=Server" );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             return !( ( (Boolean) server.getAttribute( serverMBean, "Started" ) ).booleanValue() );
         }
         catch ( Exception e )
         {
             LOGGER.warn( "Can't check if JBoss application server is stopped. The server is probably down.", e );
+            // the connection is reopened at the next call
+            this.close();
             return true;
         }
     }
 
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException
+    {
+        LOGGER.info( "Getting the JBoss application server inventory" );
+        // the JEE applications, JDBC connection pools and JMS connection factories are checked one by one with the
+        // main deployer, the other resources are embedded in JBoss
+        final String listing;
+        try
+        {
+            MBeanServerConnection server = this.getConnection();
+            ObjectName jndiViewMBean = new ObjectName( "jboss:service=JNDIView" );
+            listing = (String) server.invoke( jndiViewMBean, "list", new Object[]{ new Boolean( false ) },
+                                              new String[]{ "java.lang.Boolean" } );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't get the JNDI view, the JNDI bindings will be checked one by one", e );
+            return new JEEApplicationServerInventory( this );
+        }
+        JEEApplicationServerInventory inventory = new JEEApplicationServerInventory( this )
+        {
+            protected boolean contains( String type, String name )
+            {
+                if ( JNDI_BINDING.equals( type ) )
+                {
+                    return StringUtils.containsIgnoreCase( listing, name );
+                }
+                return super.contains( type, name );
+            }
+        };
+        inventory.addType( JEEApplicationServerInventory.JNDI_BINDING );
+        return inventory;
+    }
+
     /**
      * Format an application path in a JBoss compliant URL.
      *
@@ -266,11 +310,9 @@ public class JBoss6Controller
         LOGGER.info( "Checking if JEE application {} is deployed in the JBoss application server", name );
         String applicationUrl = JBoss6Controller.formatPathToUrl( path );
         boolean deployed = false;
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             deployed = ( (Boolean) server.invoke( mainDeployerMBean, "isDeployed", new Object[]{ applicationUrl },
                                                   new String[]{ "java.lang.String" } ) ).booleanValue();
@@ -280,20 +322,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't check if JEE application {} is deployed", name, e );
             throw new ControllerException( "Can't check if JEE application " + name + " is deployed", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return deployed;
     }
 
@@ -303,11 +331,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Deploying JEE application {} located {}", name, path );
         String applicationUrl = JBoss6Controller.formatPathToUrl( path );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "deploy", new Object[]{ applicationUrl },
                            new String[]{ "java.lang.String" } );
@@ -317,20 +343,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't deploy JEE application {}", name, e );
             throw new ControllerException( "Can't deploy JEE application " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public void undeployJEEApplication( String path, String name )
@@ -338,11 +350,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Undeploying JEE application {} located {}", name, path );
         String applicationUrl = JBoss6Controller.formatPathToUrl( path );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "undeploy", new Object[]{ applicationUrl },
                            new String[]{ "java.lang.String" } );
@@ -352,20 +362,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't undeploy JEE application {}", name, e );
             throw new ControllerException( "Can't undeploy JEE application " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public void redeployJEEApplication( String path, String name )
@@ -373,11 +369,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Redeploying JEE application {} located {}", name, path );
         String applicationUrl = JBoss6Controller.formatPathToUrl( path );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "redeploy", new Object[]{ applicationUrl },
                            new String[]{ "java.lang.String" } );
@@ -387,20 +381,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't redeploy JEE application {}", name, e );
             throw new ControllerException( "Can't redeploy JEE application " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isJDBCConnectionPoolDeployed( String name )
@@ -409,11 +389,9 @@ public class JBoss6Controller
         LOGGER.info( "Checking if JDBC connection pool {} is deployed", name );
         boolean deployed = false;
         File file = new File( deployURL.getPath() + "/" + name + "-ds.xml" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             deployed = ( (Boolean) server.invoke( mainDeployerMBean, "isDeployed", new Object[]{ file.toURL() },
                                                   new String[]{ "java.net.URL" } ) ).booleanValue();
@@ -423,20 +401,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't check if JDBC connection pool {} is deployed", name, e );
             throw new ControllerException( "Can't check if JDBC connection pool " + name + " is deployed", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return deployed;
     }
 
@@ -509,11 +473,9 @@ public class JBoss6Controller
         LOGGER.debug( "Creating the JBoss datasource XML file" );
         File file = new File( deployURL.getPath() + "/" + name + "-ds.xml" );
         this.jdbcConnectionPoolWriteFile( file, name, driver, increment, initial, maximal, user, password, url );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "deploy", new Object[]{ file.toURL() }, new String[]{ "java.net.URL" } );
         }
@@ -522,20 +484,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't deploy JDBC connection pool {}", name, e );
             throw new ControllerException( "Can't deploy JDBC connection pool " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public void undeployJDBCConnectionPool( String name )
@@ -543,11 +491,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Undeploying JDBC connection pool {}", name );
         File file = new File( deployURL.getPath() + "/" + name + "-ds.xml" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "undeploy", new Object[]{ file.toURL() },
                            new String[]{ "java.net.URL" } );
@@ -557,20 +503,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't undeploy JDBC connection pool {}", name, e );
             throw new ControllerException( "Can't undeploy JDBC connection pool " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isJDBCDataSourceDeployed( String name )
@@ -614,11 +546,9 @@ public class JBoss6Controller
         LOGGER.info( "Checking if the JMS connection factory {} is already deployed" );
         boolean deployed = false;
         File file = new File( deployURL.getPath() + "/jms/" + name + "-ds.xml" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             deployed = ( (Boolean) server.invoke( mainDeployerMBean, "isDeployed", new Object[]{ file.toURL() },
                                                   new String[]{ "java.net.URL" } ) ).booleanValue();
@@ -628,20 +558,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't check if the JMS connection {} is deployed", name, e );
             throw new ControllerException( "Can't check if the JMS connection " + name + " is deployed", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return deployed;
     }
 
@@ -651,11 +567,9 @@ public class JBoss6Controller
         LOGGER.info( "Deploying JMS connection factory {}", name );
         File file = new File( deployURL.getPath() + "/jms/" + name + "-ds.xml" );
         jmsConnectionFactoryWriteFile( file, name );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "deploy", new Object[]{ file.toURL() }, new String[]{ "java.net.URL" } );
         }
@@ -664,20 +578,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't deploy JMS connection factory {}", name, e );
             throw new ControllerException( "Can't deploy JMS connection factory " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public void undeployJMSConnectionFactory( String name )
@@ -685,11 +585,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Undeploying JMS connection factory {}", name );
         File file = new File( deployURL.getPath() + "/jms/" + name + "-ds.xml" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "undeploy", new Object[]{ file.toURL() },
                            new String[]{ "java.net.URL" } );
@@ -699,20 +597,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't undeploy JMS connection factory {}", name, e );
             throw new ControllerException( "Can't undeploy JMS connection factory " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isJMSServerDeployed( String name )
@@ -728,11 +612,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Deploying JMS server {}", name );
         LOGGER.warn( "JMS server is embedded in the JBoss application server" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             LOGGER.info( "Deploying JMS queues" );
             for ( Iterator queueIterator = queues.iterator(); queueIterator.hasNext(); )
@@ -760,31 +642,15 @@ public class JBoss6Controller
             LOGGER.error( "Can't deploy JMS server {}", name, e );
             throw new ControllerException( "Can't deploy JMS server " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isJMSServerUpToDate( String name, List queues, List topics )
         throws ControllerException
     {
         LOGGER.info( "Checking if the JMS server {} is up to date", name );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             for ( Iterator queueIterator = queues.iterator(); queueIterator.hasNext(); )
             {
                 String queue = (String) queueIterator.next();
@@ -811,20 +677,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't check if JMS server {} is up to date", name, e );
             throw new ControllerException( "Can't check if JMS server " + name + " is up to date", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return true;
     }
 
@@ -833,11 +685,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Updating JMS server {}", name );
         boolean updated = false;
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             LOGGER.info( "Checking JMS queues" );
             for ( Iterator queueIterator = queues.iterator(); queueIterator.hasNext(); )
             {
@@ -932,20 +782,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't connect to the JBoss application server", e );
             throw new ControllerException( "Can't connect to the JBoss application server", e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return updated;
     }
 
@@ -959,11 +795,9 @@ public class JBoss6Controller
     public boolean isJNDIBindingDeployed( String name )
     {
         LOGGER.info( "Checking if JNDI binding {} is deployed", name );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName jndiViewMBean = new ObjectName( "jboss:service=JNDIView" );
             String output = (String) server.invoke( jndiViewMBean, "list", new Object[]{ new Boolean( false ) },
                                                     new String[]{ "java.lang.Boolean" } );
@@ -978,20 +812,6 @@ public class JBoss6Controller
             LOGGER.warn( "Can't check if JNDI binding {} is deployed", name, e );
             return false;
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
         return false;
     }
 
@@ -1001,11 +821,9 @@ public class JBoss6Controller
         LOGGER.info( "Deploying JNDI binding {}", name );
         File file = new File( deployURL.getPath() + "/" + name + "-service.xml" );
         this.jndiAliasWriteFile( file, name, jndiName, jndiAlias );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName mainDeployerMBean = new ObjectName( "jboss.system:service=MainDeployer" );
             server.invoke( mainDeployerMBean, "deploy", new Object[]{ file.toURL() }, new String[]{ "java.net.URL" } );
         }
@@ -1014,20 +832,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't deploy JNDI binding {}", name, e );
             throw new ControllerException( "Can't deploy JNDI binding " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public void undeployJNDIBinding( String name )
@@ -1035,11 +839,9 @@ public class JBoss6Controller
     {
         LOGGER.info( "Undeploying JNDI binding {}", name );
         File file = new File( deployURL.getPath() + "/" + name + "-service.xml" );
-        JMXConnector connector = null;
         try
         {
-            connector = JMXConnectorFactory.connect( jmxServiceURL, null );
-            MBeanServerConnection server = connector.getMBeanServerConnection();
+            MBeanServerConnection server = this.getConnection();
             ObjectName namingMBean = new ObjectName( "jboss:service=Naming" );
             server.invoke( namingMBean, "removeAlias", new Object[]{ name }, new String[]{ "java.lang.String" } );
             file.delete();
@@ -1049,20 +851,6 @@ public class JBoss6Controller
             LOGGER.error( "Can't undeploy JNDI binding {}", name, e );
             throw new ControllerException( "Can't undeploy JNDI binding " + name, e );
         }
-        finally
-        {
-            if ( connector != null )
-            {
-                try
-                {
-                    connector.close();
-                }
-                catch ( Exception e )
-                {
-                    // nothing to do
-                }
-            }
-        }
     }
 
     public boolean isJNDIBindingUpToDate( String name, String jndiName, String jndiAlias, String providerUrl )
@@ -20,10 +20,12 @@ package org.apache.kalumet.controller.weblogic;
 
 import org.apache.kalumet.controller.core.AbstractJEEApplicationServerController;
 import org.apache.kalumet.controller.core.ControllerException;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import weblogic.jndi.Environment;
 import weblogic.management.MBeanHome;
+import weblogic.management.WebLogicMBean;
 import weblogic.management.configuration.ClusterMBean;
 import weblogic.management.configuration.JDBCConnectionPoolMBean;
 import weblogic.management.configuration.JDBCTxDataSourceMBean;
@@ -45,6 +47,7 @@ import javax.naming.Context;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * WeblogicController is a controller  to manage a Oracle/BEA WebLogic server.
@@ -55,7 +58,8 @@ public class WeblogicController
 
     private final static transient Logger LOGGER = LoggerFactory.getLogger( WeblogicController.class );
 
-    private static MBeanHome home = null;
+    // the controller instances are cached and used concurrently, each one has its own MBean home
+    private MBeanHome home = null;
 
     /**
      * Default constructor.
@@ -96,6 +100,20 @@ public class WeblogicController
         }
     }
 
+    public boolean isAlive()
+    {
+        try
+        {
+            home.getDomainName();
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "The WebLogic JMX connection is broken", e );
+            return false;
+        }
+    }
+
     public void shutdown()
         throws ControllerException
     {
@@ -215,6 +233,45 @@ public class WeblogicController
         }
     }
 
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException
+    {
+        LOGGER.info( "Getting the WebLogic server/cluster {} inventory", this.getServerName() );
+        // the JNDI bindings and shared libraries are not supported on WebLogic
+        JEEApplicationServerInventory inventory = new JEEApplicationServerInventory( this );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JEE_APPLICATION, "Application" );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JDBC_CONNECTION_POOL, "JDBCConnectionPool" );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JDBC_DATA_SOURCE, "JDBCTxDataSource" );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JMS_CONNECTION_FACTORY, "JMSConnectionFactory" );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JMS_SERVER, "JMSServer" );
+        return inventory;
+    }
+
+    /**
+     * Add all the MBeans of a given type in an inventory. If the MBeans can't
+     * be listed, the type is not covered by the inventory.
+     *
+     * @param inventory the JEE application server inventory.
+     * @param type      the inventory resource type.
+     * @param mbeanType the WebLogic MBean type.
+     */
+    private void addToInventory( JEEApplicationServerInventory inventory, String type, String mbeanType )
+    {
+        try
+        {
+            Set mbeans = home.getMBeansByType( mbeanType );
+            inventory.addType( type );
+            for ( Iterator iterator = mbeans.iterator(); iterator.hasNext(); )
+            {
+                inventory.add( type, ( (WebLogicMBean) iterator.next() ).getName() );
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't list the WebLogic {} MBeans, they will be checked one by one", mbeanType, e );
+        }
+    }
+
     public boolean isJEEApplicationDeployed( String path, String name )
         throws ControllerException
     {
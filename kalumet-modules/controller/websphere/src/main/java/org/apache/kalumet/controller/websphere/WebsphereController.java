@@ -31,6 +31,7 @@ import com.ibm.websphere.management.configservice.ConfigServiceProxy;
 import com.ibm.websphere.management.configservice.SystemAttributes;
 import org.apache.kalumet.controller.core.AbstractJEEApplicationServerController;
 import org.apache.kalumet.controller.core.ControllerException;
+import org.apache.kalumet.controller.core.JEEApplicationServerInventory;
 import org.apache.oro.text.regex.MalformedPatternException;
 import org.apache.oro.text.regex.MatchResult;
 import org.apache.oro.text.regex.Pattern;
@@ -71,6 +72,9 @@ public class WebsphereController
 
     private String port;
 
+    // the config service proxy (and its admin client), shared by the controller calls
+    private ConfigServiceProxy configService;
+
     /**
      * Default constructor.
      *
@@ -155,16 +159,20 @@ public class WebsphereController
     }
 
     /**
-     * Get the WebSphere Config Service proxy.
+     * Get the WebSphere Config Service proxy, created at the first call and
+     * shared by the controller calls.
      *
      * @return the WebSphere config service proxy.
      * @throws ControllerException in case of communication failure.
      */
-    protected ConfigServiceProxy getConfigServiceProxy()
+    protected synchronized ConfigServiceProxy getConfigServiceProxy()
         throws ControllerException
     {
+        if ( this.configService != null )
+        {
+            return this.configService;
+        }
         AdminClient admin = null;
-        ConfigServiceProxy configService = null;
         try
         {
             Properties properties = new Properties();
@@ -198,14 +206,39 @@ public class WebsphereController
         // we have the admin client, we init the config service proxy
         try
         {
-            configService = new ConfigServiceProxy( admin );
+            this.configService = new ConfigServiceProxy( admin );
         }
         catch ( Exception e )
         {
             LOGGER.error( "Can't get IBM WebSphere server config service proxy", e );
             throw new ControllerException( "Can't get IBM WebSphere server config service proxy", e );
         }
-        return configService;
+        return this.configService;
+    }
+
+    public synchronized boolean isAlive()
+    {
+        if ( this.configService == null )
+        {
+            // the admin client is created at the next call
+            return true;
+        }
+        try
+        {
+            this.configService.getAdminClient().isAlive();
+            return true;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.debug( "The IBM WebSphere admin client connection is broken", e );
+            this.close();
+            return false;
+        }
+    }
+
+    public synchronized void close()
+    {
+        this.configService = null;
     }
 
     public void shutdown()
@@ -338,6 +371,82 @@ public class WebsphereController
         return stopped;
     }
 
+    public JEEApplicationServerInventory getInventory()
+        throws ControllerException
+    {
+        LOGGER.info( "Getting IBM WebSphere server inventory" );
+        JEEApplicationServerInventory inventory = new JEEApplicationServerInventory( this );
+        ConfigServiceProxy configService = this.getConfigServiceProxy();
+        try
+        {
+            AppManagement appManagement = AppManagementProxy.getJMXProxyForClient( configService.getAdminClient() );
+            List applications = appManagement.listApplications( new Hashtable(), null );
+            inventory.addType( JEEApplicationServerInventory.JEE_APPLICATION );
+            for ( Iterator iterator = applications.iterator(); iterator.hasNext(); )
+            {
+                inventory.add( JEEApplicationServerInventory.JEE_APPLICATION, (String) iterator.next() );
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't list the JEE applications, they will be checked one by one", e );
+        }
+        Session session = new Session();
+        this.addToInventory( inventory, JEEApplicationServerInventory.JDBC_CONNECTION_POOL, configService, session,
+                             new String[]{ "JDBCProvider" } );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JDBC_DATA_SOURCE, configService, session,
+                             new String[]{ "DataSource" } );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JMS_CONNECTION_FACTORY, configService, session,
+                             new String[]{ "JMSConnectionFactory" } );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JMS_SERVER, configService, session,
+                             new String[]{ "Server" } );
+        this.addToInventory( inventory, JEEApplicationServerInventory.JNDI_BINDING, configService, session,
+                             new String[]{ "StringNameSpaceBinding", "IndirectLookupNameSpaceBinding" } );
+        this.addToInventory( inventory, JEEApplicationServerInventory.SHARED_LIBRARY, configService, session,
+                             new String[]{ "Library" } );
+        return inventory;
+    }
+
+    /**
+     * Add all the configuration objects of given types in an inventory. If
+     * the configuration objects can't be listed, the type is not covered by
+     * the inventory.
+     *
+     * @param inventory     the JEE application server inventory.
+     * @param type          the inventory resource type.
+     * @param configService the configuration service proxy.
+     * @param session       the configuration session.
+     * @param configTypes   the IBM WebSphere configuration object types.
+     */
+    private void addToInventory( JEEApplicationServerInventory inventory, String type,
+                                 ConfigServiceProxy configService, Session session, String[] configTypes )
+    {
+        List names = new LinkedList();
+        try
+        {
+            for ( int i = 0; i < configTypes.length; i++ )
+            {
+                ObjectName query = ConfigServiceHelper.createObjectName( null, configTypes[i], null );
+                ObjectName[] configObjects = configService.queryConfigObjects( session, null, query, null );
+                for ( int j = 0; j < configObjects.length; j++ )
+                {
+                    names.add(
+                        configObjects[j].getKeyProperty( SystemAttributes._WEBSPHERE_CONFIG_DATA_DISPLAY_NAME ) );
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            LOGGER.warn( "Can't list the {} configuration objects, they will be checked one by one", type, e );
+            return;
+        }
+        inventory.addType( type );
+        for ( Iterator iterator = names.iterator(); iterator.hasNext(); )
+        {
+            inventory.add( type, (String) iterator.next() );
+        }
+    }
+
     public boolean isJEEApplicationDeployed( String path, String name )
         throws ControllerException
     {
@@ -1749,7 +1858,7 @@ public class WebsphereController
         {
             ObjectName sharedLibrary = ConfigServiceHelper.createObjectName( null, "Library", name );
             ObjectName[] sharedLibraries = configService.queryConfigObjects( session, null, sharedLibrary, null );
-            if ( sharedLibraries.length > 1 )
+            if ( sharedLibraries.length > 0 )
             {
                 return true;
             }
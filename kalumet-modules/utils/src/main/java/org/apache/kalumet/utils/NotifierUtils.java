@@ -26,28 +26,198 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStreamReader;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Util class to notify that an update will start.
+ * <p/>
+ * The notification e-mails are sent asynchronously. An update can either
+ * wait the count down in the calling thread (<code>waitAndNotify()</code>),
+ * or be deferred (<code>defer()</code>): the update is then started by a
+ * timer when the count down expires, without holding the calling thread. A
+ * deferred update is pending once: the same update requested again during
+ * the count down is not scheduled twice. The expired deferred updates are
+ * run by a bounded pool (see <code>DEFERRED_UPDATES_PROPERTY</code>).
  */
 public class NotifierUtils
 {
 
     private final static transient Logger LOGGER = LoggerFactory.getLogger( NotifierUtils.class );
 
+    private final static ExecutorService NOTIFIER =
+        Executors.newSingleThreadExecutor( new NotifierThreadFactory( "Apache Kalumet notifier" ) );
+
+    private final static ScheduledExecutorService TIMER =
+        Executors.newSingleThreadScheduledExecutor( new NotifierThreadFactory( "Apache Kalumet count down" ) );
+
+    /**
+     * System property defining the max number of deferred updates started
+     * concurrently (default 4), the other expired ones wait in a queue.
+     */
+    public final static String DEFERRED_UPDATES_PROPERTY = "kalumet.deferredupdates";
+
+    private final static int DEFERRED_UPDATES_THREADS =
+        Math.max( Integer.getInteger( DEFERRED_UPDATES_PROPERTY, 4 ).intValue(), 1 );
+
+    private final static ExecutorService DEFERRED_UPDATES =
+        new ThreadPoolExecutor( DEFERRED_UPDATES_THREADS, DEFERRED_UPDATES_THREADS, 60L, TimeUnit.SECONDS,
+                                new LinkedBlockingQueue(),
+                                new NotifierThreadFactory( "Apache Kalumet deferred update" ) );
+
+    // environment name and update name -> start date of the pending deferred update
+    private final static Map PENDING = new HashMap();
+
     /**
      * Wait the count down and send e-mail to notifiers.
      *
      * @param environment the target environment.
      */
     public static void waitAndNotify( Environment environment )
+    {
+        NotifierUtils.waitAndNotify( environment, false );
+    }
+
+    /**
+     * Wait the count down and send e-mail to notifiers.
+     * <p/>
+     * Nothing is done for a deferred update (the notification has been sent
+     * and the count down is elapsed).
+     *
+     * @param environment the target environment.
+     * @param deferred    true if the update is a deferred update started at the end of the count down, false else.
+     */
+    public static void waitAndNotify( Environment environment, boolean deferred )
+    {
+        if ( deferred )
+        {
+            LOGGER.debug( "Deferred update of the environment {}, the count down is elapsed", environment.getName() );
+            return;
+        }
+        Notifiers notifiers = environment.getNotifiers();
+        NotifierUtils.notifyNotifiers( environment );
+        LOGGER.debug( "Waiting for the countdown (" + notifiers.getCountdown() + " minute(s)) ..." );
+        try
+        {
+            Thread.sleep( notifiers.getCountdown() * 60 * 1000 );
+        }
+        catch ( InterruptedException interruptedException )
+        {
+            LOGGER.warn( "Can't process notification count down.", interruptedException );
+        }
+    }
+
+    /**
+     * Check if the update of an environment has to be deferred, i.e. if the
+     * environment defines a count down. A deferred update (started at the
+     * end of the count down) must not be deferred again.
+     *
+     * @param environment the target environment.
+     * @return true if the update has to be deferred, false else.
+     */
+    public static boolean isDeferrable( Environment environment )
+    {
+        return environment.getNotifiers() != null && environment.getNotifiers().getCountdown() > 0;
+    }
+
+    /**
+     * Send e-mail to notifiers and schedule an update at the end of the count
+     * down. The update is started by a timer, the calling thread doesn't wait.
+     * <p/>
+     * The pending updates are keyed by environment name and update name: if
+     * the same update is already pending, it's reused (no new notification,
+     * no second update) and its start date is returned.
+     *
+     * @param environment the target environment.
+     * @param name        the update name (for example the updated element), unique in the environment.
+     * @param update      the update to start when the count down expires, it has to run as a deferred update.
+     * @return the scheduled update start date.
+     */
+    public static Date defer( Environment environment, String name, final Runnable update )
+    {
+        final String key = environment.getName() + "/" + name;
+        long countdown = environment.getNotifiers().getCountdown() * 60L * 1000L;
+        Date start;
+        synchronized ( PENDING )
+        {
+            Date pending = (Date) PENDING.get( key );
+            if ( pending != null )
+            {
+                LOGGER.info( "{} of the environment {} is already scheduled at {}",
+                             new Object[]{ name, environment.getName(), pending } );
+                return pending;
+            }
+            start = new Date( System.currentTimeMillis() + countdown );
+            PENDING.put( key, start );
+        }
+        NotifierUtils.notifyNotifiers( environment );
+        LOGGER.info( "{} of the environment {} scheduled at {}", new Object[]{ name, environment.getName(), start } );
+        TIMER.schedule( new Runnable()
+        {
+            public void run()
+            {
+                // a request from now is a new update
+                synchronized ( PENDING )
+                {
+                    PENDING.remove( key );
+                }
+                // the timer thread only starts the update
+                DEFERRED_UPDATES.execute( new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            update.run();
+                        }
+                        catch ( Exception e )
+                        {
+                            LOGGER.warn( "Deferred update failed", e );
+                        }
+                    }
+                } );
+            }
+        }, countdown, TimeUnit.MILLISECONDS );
+        return start;
+    }
+
+    /**
+     * Send e-mail to notifiers, asynchronously.
+     *
+     * @param environment the target environment.
+     */
+    private static void notifyNotifiers( final Environment environment )
+    {
+        NOTIFIER.execute( new Runnable()
+        {
+            public void run()
+            {
+                NotifierUtils.sendNotification( environment );
+            }
+        } );
+    }
+
+    /**
+     * Send e-mail to notifiers.
+     *
+     * @param environment the target environment.
+     */
+    private static void sendNotification( Environment environment )
     {
         Notifiers notifiers = environment.getNotifiers();
-        LOGGER.debug(
-            "Send e-mail to notify people for the update of the environment {} and wait the count down ({} minute(s)).",
-            environment.getName(), notifiers.getCountdown() );
+        LOGGER.debug( "Send e-mail to notify people for the update of the environment {} ({} minute(s) count down).",
+                      environment.getName(), new Integer( notifiers.getCountdown() ) );
         LOGGER.debug( "Construct the e-mail content." );
         LOGGER.debug( "Load the e-mail template." );
         InputStreamReader notifyTemplate =
@@ -83,15 +253,31 @@ public class NotifierUtils
         {
             LOGGER.warn( "Can't send notification.", e );
         }
-        LOGGER.debug( "Waiting for the countdown (" + notifiers.getCountdown() + " minute(s)) ..." );
-        try
+    }
+
+    /**
+     * Thread factory of the notifier daemon threads.
+     */
+    private static class NotifierThreadFactory
+        implements ThreadFactory
+    {
+
+        private final String name;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public NotifierThreadFactory( String name )
         {
-            Thread.sleep( notifiers.getCountdown() * 60 * 1000 );
+            this.name = name;
         }
-        catch ( InterruptedException interruptedException )
+
+        public Thread newThread( Runnable runnable )
         {
-            LOGGER.warn( "Can't process notification count down.", interruptedException );
+            Thread thread = new Thread( runnable, name + " " + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
         }
+
     }
 
 }